@@ -10,6 +10,8 @@ repositories {
 }
 
 dependencies {
+    implementation(project(":core"))
+
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.2")
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
     testImplementation("org.mockito:mockito-junit-jupiter:4.6.1")
@@ -0,0 +1,28 @@
+plugins {
+    `java-library`
+}
+
+group = "pl.mjedynak"
+version = "1.3.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.8.2")
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.8.2")
+    testImplementation("org.assertj:assertj-core:3.23.1")
+    testImplementation("com.fasterxml.jackson.core:jackson-core:2.13.3")
+}
+
+tasks {
+    withType<JavaCompile> {
+        sourceCompatibility = "11"
+        targetCompatibility = "11"
+    }
+
+    test {
+        useJUnitPlatform()
+    }
+}
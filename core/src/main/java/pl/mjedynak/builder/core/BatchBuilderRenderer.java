@@ -0,0 +1,160 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders a batch builder that accumulates every field in its own column array and materializes all rows in one pass
+ * with the constructor chosen for the builder, so bulk loads allocate one object per row instead of two.
+ */
+public class BatchBuilderRenderer {
+
+    public static final String CLASS_NAME_SUFFIX = "BatchBuilder";
+
+    private static final String COLUMN_SUFFIX = "Column";
+    private static final Pattern TYPE_NAME = Pattern.compile("[\\w$.]+");
+
+    public List<FieldModel> getColumnFields(BuilderModel model) {
+        if (model.isInner()) {
+            return model.getAllSelectedFields();
+        }
+        List<FieldModel> columnFields = new ArrayList<>(model.getFieldsForSetters());
+        for (FieldModel field : model.getFieldsForConstructor()) {
+            if (!columnFields.contains(field)) {
+                columnFields.add(field);
+            }
+        }
+        return columnFields;
+    }
+
+    /**
+     * @return the batch builder class text, meant to be nested in the builder class
+     */
+    public String renderClass(BuilderModel model) {
+        return renderClass(model, Set.of());
+    }
+
+    /**
+     * @param typeVariables names of the type variables the fields of the source class may refer to
+     * @return the batch builder class text, meant to be nested in the builder class
+     * @throws IllegalArgumentException when a field refers to a type variable, which the static batch builder cannot
+     *                                  declare a column of
+     */
+    public String renderClass(BuilderModel model, Collection<String> typeVariables) {
+        String sourceClassName = model.getSourceClassName();
+        String className = sourceClassName + CLASS_NAME_SUFFIX;
+        List<FieldModel> columnFields = getColumnFields(model);
+        checkNoTypeVariables(columnFields, typeVariables);
+        StringBuilder text = new StringBuilder();
+        text.append("public static final class ").append(className).append(" { ");
+        text.append("private int size; private int capacity; ");
+        for (FieldModel field : columnFields) {
+            text.append("private ").append(erasure(field.getType())).append("[] ").append(columnName(model, field)).append("; ");
+        }
+        text.append("public ").append(className).append("(int expectedSize) { capacity = Math.max(expectedSize, 1); ");
+        for (FieldModel field : columnFields) {
+            text.append(columnName(model, field)).append(" = new ").append(arrayCreation(field.getType(), "capacity")).append("; ");
+        }
+        text.append("} ");
+        text.append("public ").append(className).append(" addRow() { if (size == capacity) { capacity = capacity * 2; ");
+        for (FieldModel field : columnFields) {
+            String columnName = columnName(model, field);
+            text.append(columnName).append(" = java.util.Arrays.copyOf(").append(columnName).append(", capacity); ");
+        }
+        text.append("} size++; return this; } ");
+        text.append("private int lastRow() { if (size == 0) { throw new IllegalStateException(\"addRow() has to be called before setting a value\"); } ")
+                .append("return size - 1; } ");
+        for (FieldModel field : columnFields) {
+            String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix());
+            String parameterName = model.getOptions().getParameterNamePrefix() + fieldNameWithoutPrefix;
+            text.append("public ").append(className).append(" ")
+                    .append(Names.methodName(model.getOptions().getMethodPrefix(), fieldNameWithoutPrefix))
+                    .append("(").append(field.getType()).append(" ").append(parameterName).append(") { ")
+                    .append(columnName(model, field)).append("[lastRow()] = ").append(parameterName).append("; return this; } ");
+        }
+        text.append("public int size() { return size; } ");
+        text.append(renderBuildMethod(model, columnFields));
+        text.append("public java.util.List<").append(sourceClassName).append("> buildList() { return java.util.Arrays.asList(build()); } }");
+        return text.toString();
+    }
+
+    private String renderBuildMethod(BuilderModel model, List<FieldModel> columnFields) {
+        String sourceClassName = model.getSourceClassName();
+        String variableName = Names.variableName(sourceClassName);
+        StringBuilder text = new StringBuilder();
+        if (hasGenericColumn(columnFields)) {
+            text.append("@SuppressWarnings(\"unchecked\") ");
+        }
+        text.append("public ").append(sourceClassName).append("[] build() { ")
+                .append(sourceClassName).append("[] result = new ").append(sourceClassName).append("[size]; ")
+                .append("for (int i = 0; i < size; i++) { ")
+                .append(sourceClassName).append(" ").append(variableName).append(" = new ").append(sourceClassName).append("(")
+                .append(String.join(", ", BuilderSourceRenderer.renderConstructorArguments(model, field -> columnName(model, field) + "[i]")))
+                .append("); ");
+        for (FieldModel field : columnFields) {
+            if (model.getFieldsForSetters().contains(field)) {
+                String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix());
+                text.append(variableName).append(".").append(Names.methodName("set", fieldNameWithoutPrefix))
+                        .append("(").append(columnName(model, field)).append("[i]); ");
+            } else if (!model.getFieldsForConstructor().contains(field)) {
+                text.append(variableName).append(".").append(field.getName()).append(" = ")
+                        .append(columnName(model, field)).append("[i]; ");
+            }
+        }
+        text.append("result[i] = ").append(variableName).append("; } return result; } ");
+        return text.toString();
+    }
+
+    private String columnName(BuilderModel model, FieldModel field) {
+        return Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix()) + COLUMN_SUFFIX;
+    }
+
+    private void checkNoTypeVariables(List<FieldModel> columnFields, Collection<String> typeVariables) {
+        for (FieldModel field : columnFields) {
+            Matcher typeNames = TYPE_NAME.matcher(field.getType());
+            while (typeNames.find()) {
+                if (typeVariables.contains(typeNames.group())) {
+                    throw new IllegalArgumentException("Batch builder cannot keep a column of " + field.getType() + " for " + field.getName()
+                            + ", as it refers to the type variable " + typeNames.group());
+                }
+            }
+        }
+    }
+
+    private boolean hasGenericColumn(List<FieldModel> columnFields) {
+        for (FieldModel field : columnFields) {
+            if (isGeneric(field.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isGeneric(String type) {
+        return type.contains("<");
+    }
+
+    private String erasure(String type) {
+        int typeArgumentsStart = type.indexOf('<');
+        if (typeArgumentsStart < 0) {
+            return type;
+        }
+        return type.substring(0, typeArgumentsStart) + type.substring(type.lastIndexOf('>') + 1);
+    }
+
+    private String arrayCreation(String type, String length) {
+        String erasure = erasure(type);
+        int dimensionsStart = erasure.indexOf('[');
+        if (dimensionsStart < 0) {
+            return erasure + "[" + length + "]";
+        }
+        return erasure.substring(0, dimensionsStart) + "[" + length + "]" + erasure.substring(dimensionsStart);
+    }
+}
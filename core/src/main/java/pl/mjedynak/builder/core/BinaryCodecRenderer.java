@@ -0,0 +1,163 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a compact binary codec for the builder fields: integral values as zigzag varints, floating point values with
+ * fixed width, strings as length prefixed UTF-8 and boxed values behind a presence byte. Fields are encoded in the
+ * order of the builder set methods and decoded straight into the builder.
+ */
+public class BinaryCodecRenderer {
+
+    public static final String WRITE_METHOD_NAME = "write";
+    public static final String READ_METHOD_NAME = "read";
+
+    private static final String BYTE_BUFFER = "java.nio.ByteBuffer";
+    private static final String UTF_8 = "java.nio.charset.StandardCharsets.UTF_8";
+
+    private static final Map<String, String> BOXED_TYPES = Map.of(
+            "java.lang.Boolean", "boolean",
+            "java.lang.Byte", "byte",
+            "java.lang.Short", "short",
+            "java.lang.Integer", "int",
+            "java.lang.Long", "long",
+            "java.lang.Character", "char",
+            "java.lang.Float", "float",
+            "java.lang.Double", "double");
+
+    private static final List<String> PRIMITIVE_TYPES = List.of("boolean", "byte", "short", "int", "long", "char", "float", "double");
+    private static final String STRING_TYPE = "java.lang.String";
+
+    public boolean isSupported(FieldModel field) {
+        return PRIMITIVE_TYPES.contains(field.getType()) || BOXED_TYPES.containsKey(field.getType()) || STRING_TYPE.equals(field.getType());
+    }
+
+    public List<FieldModel> getEncodableFields(BuilderModel model) {
+        List<FieldModel> encodableFields = new ArrayList<>();
+        for (FieldModel field : model.getFieldsWithSetMethods()) {
+            if (isSupported(field)) {
+                encodableFields.add(field);
+            }
+        }
+        return encodableFields;
+    }
+
+    /**
+     * @param fields        fields to encode, in encoding order
+     * @param accessorNames names of the methods reading each field from the source class, by field name; external
+     *                      builders need one for every field, inner builders read the fields directly
+     */
+    public List<String> renderMembers(BuilderModel model, List<FieldModel> fields, Map<String, String> accessorNames) {
+        List<String> members = new ArrayList<>();
+        members.add(renderWriteMethod(model, fields, accessorNames));
+        members.add(renderReadMethod(model, fields));
+        members.add("private static void writeVarLong(" + BYTE_BUFFER + " buffer, long value) { "
+                + "long zigzag = (value << 1) ^ (value >> 63); "
+                + "while ((zigzag & ~0x7FL) != 0) { buffer.put((byte) ((zigzag & 0x7F) | 0x80)); zigzag >>>= 7; } "
+                + "buffer.put((byte) zigzag); }");
+        members.add("private static long readVarLong(" + BYTE_BUFFER + " buffer) { "
+                + "long zigzag = 0; int shift = 0; byte b; "
+                + "do { b = buffer.get(); zigzag |= (long) (b & 0x7F) << shift; shift += 7; } while ((b & 0x80) != 0); "
+                + "return (zigzag >>> 1) ^ -(zigzag & 1); }");
+        members.add("private static void writeString(" + BYTE_BUFFER + " buffer, String value) { "
+                + "if (value == null) { writeVarLong(buffer, -1); return; } "
+                + "byte[] bytes = value.getBytes(" + UTF_8 + "); writeVarLong(buffer, bytes.length); buffer.put(bytes); }");
+        members.add("private static String readString(" + BYTE_BUFFER + " buffer) { "
+                + "int length = (int) readVarLong(buffer); if (length < 0) { return null; } "
+                + "byte[] bytes = new byte[length]; buffer.get(bytes); return new String(bytes, " + UTF_8 + "); }");
+        return members;
+    }
+
+    private String renderWriteMethod(BuilderModel model, List<FieldModel> fields, Map<String, String> accessorNames) {
+        StringBuilder text = new StringBuilder();
+        text.append("public static void ").append(WRITE_METHOD_NAME).append("(").append(model.getSourceClassName())
+                .append(" source, ").append(BYTE_BUFFER).append(" buffer) { ");
+        for (FieldModel field : fields) {
+            String value = accessorOf(model, field, accessorNames);
+            String primitiveType = BOXED_TYPES.get(field.getType());
+            if (primitiveType != null) {
+                text.append("if (").append(value).append(" == null) { buffer.put((byte) 0); } else { buffer.put((byte) 1); ")
+                        .append(renderWrite(primitiveType, value)).append(" } ");
+            } else {
+                text.append(renderWrite(field.getType(), value)).append(" ");
+            }
+        }
+        text.append("}");
+        return text.toString();
+    }
+
+    private String renderReadMethod(BuilderModel model, List<FieldModel> fields) {
+        StringBuilder text = new StringBuilder();
+        text.append("public static ").append(model.getSourceClassName()).append(" ").append(READ_METHOD_NAME)
+                .append("(").append(BYTE_BUFFER).append(" buffer) { ");
+        text.append("return ").append(Names.initializingMethodName(model.getSourceClassName())).append("()");
+        for (FieldModel field : fields) {
+            String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix());
+            String primitiveType = BOXED_TYPES.get(field.getType());
+            String value = primitiveType == null
+                    ? renderRead(field.getType())
+                    : "buffer.get() == 0 ? null : " + field.getType() + ".valueOf(" + renderRead(primitiveType) + ")";
+            text.append(".").append(Names.methodName(model.getOptions().getMethodPrefix(), fieldNameWithoutPrefix))
+                    .append("(").append(value).append(")");
+        }
+        text.append(".build(); }");
+        return text.toString();
+    }
+
+    private String accessorOf(BuilderModel model, FieldModel field, Map<String, String> accessorNames) {
+        if (model.isInner()) {
+            return "source." + field.getName();
+        }
+        String accessorName = accessorNames.get(field.getName());
+        if (accessorName == null) {
+            throw new IllegalArgumentException(model.getSourceClassName() + " has no accessor for " + field.getName()
+                    + ", which the binary codec would leave out of the encoding");
+        }
+        return "source." + accessorName + "()";
+    }
+
+    private String renderWrite(String type, String value) {
+        switch (type) {
+            case "boolean":
+                return "buffer.put((byte) (" + value + " ? 1 : 0));";
+            case "byte":
+                return "buffer.put(" + value + ");";
+            case "float":
+                return "buffer.putFloat(" + value + ");";
+            case "double":
+                return "buffer.putDouble(" + value + ");";
+            case STRING_TYPE:
+                return "writeString(buffer, " + value + ");";
+            default:
+                return "writeVarLong(buffer, " + value + ");";
+        }
+    }
+
+    private String renderRead(String type) {
+        switch (type) {
+            case "boolean":
+                return "buffer.get() != 0";
+            case "byte":
+                return "buffer.get()";
+            case "short":
+                return "(short) readVarLong(buffer)";
+            case "int":
+                return "(int) readVarLong(buffer)";
+            case "char":
+                return "(char) readVarLong(buffer)";
+            case "float":
+                return "buffer.getFloat()";
+            case "double":
+                return "buffer.getDouble()";
+            case STRING_TYPE:
+                return "readString(buffer)";
+            default:
+                return "readVarLong(buffer)";
+        }
+    }
+}
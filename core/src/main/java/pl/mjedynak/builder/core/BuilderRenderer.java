@@ -0,0 +1,225 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class BuilderRenderer {
+
+    private static final String A_PREFIX = " a";
+    private static final String AN_PREFIX = " an";
+    private static final String SET_PREFIX = "set";
+    private static final String GET_PREFIX = "get";
+    private static final String SEPARATOR = ",";
+    /**
+     * Name of the field caching the last built instance, which is not a property of the built class.
+     */
+    public static final String MEMOIZED_FIELD_NAME = "lastBuilt";
+    public static final String POOL_FIELD_NAME = "POOL";
+    public static final String BUT_METHOD_NAME = "but";
+    private static final String RESET_METHOD_NAME = "reset";
+    private static final String FRESH_METHOD_NAME = "fresh";
+
+    private final String builderClassName;
+    private final BuilderOptions options;
+
+    public BuilderRenderer(String builderClassName, BuilderOptions options) {
+        this.builderClassName = builderClassName;
+        this.options = options;
+    }
+
+    public String renderField(String fieldType, String fieldName) {
+        return "private " + fieldType + " " + fieldName + ";";
+    }
+
+    public String renderSingleField(String sourceClassName) {
+        return renderField(sourceClassName, Names.variableName(sourceClassName));
+    }
+
+    public String renderSingleFieldConstructor(String sourceClassName) {
+        return builderClassName + "(){ " + Names.variableName(sourceClassName) + " = new " + sourceClassName + "(); }";
+    }
+
+    public String renderInitializingMethod(String sourceClassName) {
+        String prefix = Names.initializingMethodName(sourceClassName).startsWith("an") ? AN_PREFIX : A_PREFIX;
+        return "public static " + builderClassName + prefix + Names.simpleName(sourceClassName) + "() { return new " + builderClassName + "(); }";
+    }
+
+    /**
+     * Renders the initializing method handing out the builder kept for the calling thread, reset to a blank state.
+     * Builders nested on one thread have to use {@link #renderFreshMethod()} instead.
+     */
+    public String renderPooledInitializingMethod(String sourceClassName) {
+        String prefix = Names.initializingMethodName(sourceClassName).startsWith("an") ? AN_PREFIX : A_PREFIX;
+        return "public static " + builderClassName + prefix + Names.simpleName(sourceClassName) + "() { return " + POOL_FIELD_NAME + ".get()." + RESET_METHOD_NAME + "(); }";
+    }
+
+    public String renderPoolField() {
+        return "private static final ThreadLocal<" + builderClassName + "> " + POOL_FIELD_NAME + " = ThreadLocal.withInitial(" + builderClassName + "::new);";
+    }
+
+    public String renderFreshMethod() {
+        return "public static " + builderClassName + " " + FRESH_METHOD_NAME + "() { return new " + builderClassName + "(); }";
+    }
+
+    /**
+     * @param fieldTypes canonical types of the builder fields, keyed by field name
+     */
+    public String renderResetMethod(Map<String, String> fieldTypes) {
+        StringBuilder text = new StringBuilder("private " + builderClassName + " " + RESET_METHOD_NAME + "() { ");
+        for (Map.Entry<String, String> fieldType : fieldTypes.entrySet()) {
+            text.append("this.").append(fieldType.getKey()).append(" = ").append(DefaultValues.of(fieldType.getValue())).append("; ");
+        }
+        text.append("return this; }");
+        return text.toString();
+    }
+
+    public String renderSetMethod(String fieldName, String fieldType, String sourceClassFieldName) {
+        return renderSetMethod(fieldName, fieldType, fieldType, sourceClassFieldName, DefensiveCopyStrategy.NONE);
+    }
+
+    /**
+     * @param canonicalFieldType fully qualified field type, deciding how the value is copied
+     */
+    public String renderSetMethod(String fieldName, String fieldType, String canonicalFieldType, String sourceClassFieldName,
+                                  DefensiveCopyStrategy copyStrategy) {
+        String fieldNameWithoutPrefix = Names.withoutPrefix(fieldName, options.getFieldNamePrefix());
+        String parameterName = options.getParameterNamePrefix() + fieldNameWithoutPrefix;
+        String methodName = Names.methodName(options.getMethodPrefix(), fieldNameWithoutPrefix);
+        if (options.useSingleField()) {
+            String setterName = Names.methodName(SET_PREFIX, fieldNameWithoutPrefix);
+            return "public " + builderClassName + " " + methodName + "(" + fieldType + " " + parameterName + ") { "
+                    + sourceClassFieldName + "." + setterName + "(" + copyOnSet(canonicalFieldType, fieldName, copyStrategy) + "); return this; }";
+        }
+        return "public " + builderClassName + " " + methodName + "(" + fieldType + " " + parameterName + ") { this."
+                + fieldName + " = " + copyOnSet(canonicalFieldType, parameterName, copyStrategy) + "; return this; }";
+    }
+
+    private String copyOnSet(String canonicalFieldType, String value, DefensiveCopyStrategy copyStrategy) {
+        return copyStrategy.copiesOnSet() ? copyStrategy.copyOf(canonicalFieldType, value) : value;
+    }
+
+    public String renderButMethod(String sourceClassName, List<String> fieldNames) {
+        return renderButMethod(renderButCall(Names.initializingMethodName(sourceClassName), null), sourceClassName, fieldNames);
+    }
+
+    /**
+     * Renders but() of a builder using the thread-local pool. It starts from {@link #renderFreshMethod()}, because the
+     * pooled initializing method would hand out the builder but() is called on, reset before its fields are copied.
+     */
+    public String renderPooledButMethod(String sourceClassName, List<String> fieldNames) {
+        return renderButMethod(renderFreshCall(), sourceClassName, fieldNames);
+    }
+
+    public String renderFreshCall() {
+        return renderButCall(FRESH_METHOD_NAME, null);
+    }
+
+    private String renderButMethod(String firstCall, String sourceClassName, List<String> fieldNames) {
+        List<String> calls = new ArrayList<>();
+        calls.add(firstCall);
+        String sourceClassFieldName = Names.variableName(sourceClassName);
+        for (String fieldName : fieldNames) {
+            String fieldNameWithoutPrefix = Names.withoutPrefix(fieldName, options.getFieldNamePrefix());
+            String argument = options.useSingleField()
+                    ? sourceClassFieldName + "." + Names.methodName(GET_PREFIX, fieldNameWithoutPrefix) + "()"
+                    : fieldName;
+            calls.add(renderButCall(Names.methodName(options.getMethodPrefix(), fieldNameWithoutPrefix), argument));
+        }
+        return renderButMethod(calls);
+    }
+
+    /**
+     * @param calls chained calls on a new builder, as rendered by {@link #renderButCall(String, String)}
+     */
+    public String renderButMethod(List<String> calls) {
+        return "public " + builderClassName + " " + BUT_METHOD_NAME + "() { return " + String.join(".", calls) + "; }";
+    }
+
+    public String renderButCall(String methodName, String argument) {
+        return methodName + "(" + (argument == null ? "" : argument) + ")";
+    }
+
+    public String renderSingleFieldBuildMethod(String sourceClassName) {
+        return "public " + sourceClassName + " build() { "
+                + "return " + Names.variableName(sourceClassName) + ";"
+                + " }";
+    }
+
+    /**
+     * Tells whether build() is {@link #renderInlineBuildMethod}, which is the case when the constructor takes every
+     * selected field, or {@link #renderBuildMethod} setting the remaining ones after the constructor call.
+     */
+    public static boolean isInlineBuild(Collection<?> allSelectedFields, Collection<?> fieldsForConstructor) {
+        return allSelectedFields.size() == fieldsForConstructor.size();
+    }
+
+    /**
+     * Fields an inner builder assigns directly in build(), because neither a setter nor the constructor takes them,
+     * in the order they were selected.
+     */
+    public static <T> List<T> fieldsSetViaAssignment(List<T> allSelectedFields, Collection<T> fieldsForSetters, Collection<T> fieldsForConstructor) {
+        List<T> fields = new ArrayList<>();
+        for (T field : allSelectedFields) {
+            if (!fieldsForSetters.contains(field) && !fieldsForConstructor.contains(field)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    public String renderInlineBuildMethod(String sourceClassName, List<String> constructorArguments) {
+        return "public " + sourceClassName + " build() { "
+                + "return " + renderConstructorCall(sourceClassName, constructorArguments)
+                + " }";
+    }
+
+    /**
+     * Renders the field caching the last built instance, which every set method has to clear with
+     * {@link #renderMemoizedInvalidation()}.
+     */
+    public String renderMemoizedField(String sourceClassName) {
+        return "private " + sourceClassName + " " + MEMOIZED_FIELD_NAME + ";";
+    }
+
+    public String renderMemoizedInvalidation() {
+        return MEMOIZED_FIELD_NAME + " = null;";
+    }
+
+    public String renderMemoizedInlineBuildMethod(String sourceClassName, List<String> constructorArguments) {
+        return "public " + sourceClassName + " build() { "
+                + "if (" + MEMOIZED_FIELD_NAME + " == null) { " + MEMOIZED_FIELD_NAME + " = " + renderConstructorCall(sourceClassName, constructorArguments)
+                + " } return " + MEMOIZED_FIELD_NAME + "; }";
+    }
+
+    /**
+     * @param setterValues  values passed to setters, keyed by builder field name
+     * @param assignments   values assigned directly to fields of the built object, keyed by field name
+     */
+    public String renderBuildMethod(String sourceClassName, List<String> constructorArguments,
+                                    Map<String, String> setterValues, Map<String, String> assignments) {
+        String sourceClassFieldName = Names.variableName(sourceClassName);
+        StringBuilder text = new StringBuilder();
+        text.append("public ").append(sourceClassName).append(" build() { ");
+        text.append(sourceClassName).append(" ").append(sourceClassFieldName).append(" = ");
+        text.append(renderConstructorCall(sourceClassName, constructorArguments));
+        for (Map.Entry<String, String> setterValue : setterValues.entrySet()) {
+            String fieldNameWithoutPrefix = Names.withoutPrefix(setterValue.getKey(), options.getFieldNamePrefix());
+            text.append(sourceClassFieldName).append(".set").append(Names.capitalize(fieldNameWithoutPrefix))
+                    .append("(").append(setterValue.getValue()).append(");");
+        }
+        for (Map.Entry<String, String> assignment : assignments.entrySet()) {
+            text.append(sourceClassFieldName).append(".").append(assignment.getKey()).append("=").append(assignment.getValue()).append(";");
+        }
+        text.append("return ").append(sourceClassFieldName).append(";");
+        text.append(" }");
+        return text.toString();
+    }
+
+    private String renderConstructorCall(String sourceClassName, List<String> constructorArguments) {
+        return "new " + sourceClassName + "(" + String.join(SEPARATOR, constructorArguments) + ");";
+    }
+}
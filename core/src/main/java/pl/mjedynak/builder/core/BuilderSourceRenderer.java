@@ -0,0 +1,141 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Renders the compilation unit of an external builder from a {@link BuilderModel}, for callers without the IDE such as
+ * the annotation processor. The plugin assembles its builders on PSI and shares only the member texts of
+ * {@link BuilderRenderer} with this class, not the assembly.
+ */
+public class BuilderSourceRenderer {
+
+    private final SourceFormatter sourceFormatter = new SourceFormatter();
+
+    public String render(BuilderModel model) {
+        return render(model, null);
+    }
+
+    /**
+     * Renders a compilation unit with an external builder.
+     */
+    public String render(BuilderModel model, String generatedAnnotation) {
+        return render(model, generatedAnnotation, List.of());
+    }
+
+    /**
+     * @param additionalMembers single line member texts appended after the generated ones, e.g. from companion renderers
+     */
+    public String render(BuilderModel model, String generatedAnnotation, List<String> additionalMembers) {
+        StringBuilder source = new StringBuilder();
+        if (model.getPackageName() != null && !model.getPackageName().isEmpty()) {
+            source.append("package ").append(model.getPackageName()).append(";\n\n");
+        }
+        if (generatedAnnotation != null) {
+            source.append(generatedAnnotation).append("\n");
+        }
+        appendBuilderClass(source, model, additionalMembers);
+        return source.toString();
+    }
+
+    private void appendBuilderClass(StringBuilder source, BuilderModel model, List<String> additionalMembers) {
+        source.append("public final class ").append(model.getBuilderClassName()).append(" {\n");
+        List<String> members = new ArrayList<>(renderMembers(model));
+        members.addAll(additionalMembers);
+        for (String member : members) {
+            if (member.isEmpty()) {
+                continue;
+            }
+            source.append("\n");
+            for (String line : sourceFormatter.format(member, 1)) {
+                source.append(line).append("\n");
+            }
+        }
+        source.append("}\n");
+    }
+
+    /**
+     * @throws IllegalArgumentException when the model describes an inner builder, which only the plugin generates
+     */
+    public List<String> renderMembers(BuilderModel model) {
+        if (model.isInner()) {
+            throw new IllegalArgumentException("Inner builder " + model.getBuilderClassName() + " of " + model.getSourceClassName()
+                    + " is assembled by the plugin, not rendered as a compilation unit");
+        }
+        BuilderRenderer renderer = new BuilderRenderer(model.getBuilderClassName(), model.getOptions());
+        String sourceClassName = model.getSourceClassName();
+        boolean useSingleField = model.getOptions().useSingleField();
+        List<FieldModel> fieldsWithSetMethods = model.getFieldsWithSetMethods();
+
+        List<String> members = new ArrayList<>();
+        if (useSingleField) {
+            members.add(renderer.renderSingleField(sourceClassName));
+            members.add("private " + renderer.renderSingleFieldConstructor(sourceClassName));
+        } else {
+            StringBuilder fields = new StringBuilder();
+            for (FieldModel field : fieldsWithSetMethods) {
+                fields.append(renderer.renderField(field.getType(), field.getName()));
+            }
+            members.add(fields.toString());
+            members.add("private " + model.getBuilderClassName() + "() { }");
+        }
+        members.add(renderer.renderInitializingMethod(sourceClassName));
+        List<String> fieldNames = new ArrayList<>();
+        for (FieldModel field : fieldsWithSetMethods) {
+            members.add(renderer.renderSetMethod(field.getName(), field.getType(), Names.variableName(sourceClassName)));
+            fieldNames.add(field.getName());
+        }
+        if (model.getOptions().hasButMethod()) {
+            members.add(renderer.renderButMethod(sourceClassName, fieldNames));
+        }
+        members.add(renderBuildMethod(renderer, model));
+        return members;
+    }
+
+    private String renderBuildMethod(BuilderRenderer renderer, BuilderModel model) {
+        String sourceClassName = model.getSourceClassName();
+        if (model.getOptions().useSingleField()) {
+            return renderer.renderSingleFieldBuildMethod(sourceClassName);
+        }
+        List<String> constructorArguments = renderConstructorArguments(model, FieldModel::getName);
+        if (BuilderRenderer.isInlineBuild(model.getAllSelectedFields(), model.getFieldsForConstructor())) {
+            return renderer.renderInlineBuildMethod(sourceClassName, constructorArguments);
+        }
+        Map<String, String> setterValues = new LinkedHashMap<>();
+        for (FieldModel field : model.getFieldsForSetters()) {
+            setterValues.put(field.getName(), field.getName());
+        }
+        return renderer.renderBuildMethod(sourceClassName, constructorArguments, setterValues, Map.of());
+    }
+
+    /**
+     * @param fieldReference renders the value passed for a constructor field, parameters without a field get a default
+     */
+    static List<String> renderConstructorArguments(BuilderModel model, Function<FieldModel, String> fieldReference) {
+        List<String> arguments = new ArrayList<>();
+        ConstructorModel constructor = model.getConstructor();
+        if (constructor == null) {
+            return arguments;
+        }
+        ConstructorSelector constructorSelector = new ConstructorSelector(
+                model.getOptions().getFieldNamePrefix(), model.getOptions().getParameterNamePrefix());
+        for (FieldModel parameter : constructor.getParameters()) {
+            String argument = DefaultValues.of(parameter.getType());
+            for (FieldModel field : model.getFieldsForConstructor()) {
+                if (constructorSelector.areNameAndTypeEqual(field, parameter)) {
+                    argument = fieldReference.apply(field);
+                    break;
+                }
+            }
+            arguments.add(argument);
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,105 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Model counterpart of the plugin's best constructor selection: prefers a constructor taking exactly the fields
+ * to find, then the smallest one taking all of them, then the one matching most of them with fewest parameters.
+ */
+public class ConstructorSelector {
+
+    private final String fieldNamePrefix;
+    private final String parameterNamePrefix;
+
+    public ConstructorSelector(String fieldNamePrefix, String parameterNamePrefix) {
+        this.fieldNamePrefix = fieldNamePrefix;
+        this.parameterNamePrefix = parameterNamePrefix;
+    }
+
+    public ConstructorModel getBestConstructor(Collection<FieldModel> fieldsToFindInConstructor, List<ConstructorModel> constructors) {
+        int fieldsToFindCount = fieldsToFindInConstructor.size();
+        List<ConstructorModel> equalParameterCount = new ArrayList<>();
+        List<ConstructorModel> higherParameterCount = new ArrayList<>();
+        List<ConstructorModel> lowerParameterCount = new ArrayList<>();
+        for (ConstructorModel constructor : constructors) {
+            int parameterCount = constructor.getParameters().size();
+            if (parameterCount > fieldsToFindCount) {
+                higherParameterCount.add(constructor);
+            } else if (parameterCount == fieldsToFindCount) {
+                equalParameterCount.add(constructor);
+            } else {
+                lowerParameterCount.add(constructor);
+            }
+        }
+        higherParameterCount.sort(Comparator.comparingInt(constructor -> constructor.getParameters().size()));
+
+        ConstructorModel bestConstructor = findConstructorWithAllFieldsToFind(equalParameterCount, fieldsToFindInConstructor);
+        if (bestConstructor != null) {
+            return bestConstructor;
+        }
+        bestConstructor = findConstructorWithAllFieldsToFind(higherParameterCount, fieldsToFindInConstructor);
+        if (bestConstructor != null) {
+            return bestConstructor;
+        }
+        List<ConstructorModel> allConstructors = new ArrayList<>(equalParameterCount);
+        allConstructors.addAll(higherParameterCount);
+        allConstructors.addAll(lowerParameterCount);
+        return findConstructorWithMaximumOfFieldsToFind(allConstructors, fieldsToFindInConstructor);
+    }
+
+    public boolean isSetInConstructor(FieldModel field, ConstructorModel constructor) {
+        for (FieldModel parameter : constructor.getParameters()) {
+            if (areNameAndTypeEqual(field, parameter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean areNameAndTypeEqual(FieldModel field, FieldModel parameter) {
+        String parameterNameWithoutPrefix = parameter.getName().replace(parameterNamePrefix, "");
+        String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), fieldNamePrefix);
+        return parameterNameWithoutPrefix.equals(fieldNameWithoutPrefix) && parameter.getType().equals(field.getType());
+    }
+
+    private ConstructorModel findConstructorWithAllFieldsToFind(List<ConstructorModel> constructors, Collection<FieldModel> fieldsToFind) {
+        for (ConstructorModel constructor : constructors) {
+            if (countMatchingFields(constructor, fieldsToFind) == fieldsToFind.size()) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private ConstructorModel findConstructorWithMaximumOfFieldsToFind(List<ConstructorModel> constructors, Collection<FieldModel> fieldsToFind) {
+        int matchingFieldCount = -1;
+        int parameterCount = 0;
+        ConstructorModel bestConstructor = null;
+        for (ConstructorModel constructor : constructors) {
+            int matchingFields = countMatchingFields(constructor, fieldsToFind);
+            int parameters = constructor.getParameters().size();
+            if (matchingFields > matchingFieldCount || matchingFields == matchingFieldCount && parameters < parameterCount) {
+                bestConstructor = constructor;
+                matchingFieldCount = matchingFields;
+                parameterCount = parameters;
+            }
+        }
+        return bestConstructor;
+    }
+
+    private int countMatchingFields(ConstructorModel constructor, Collection<FieldModel> fieldsToFind) {
+        int matchingFieldsCount = 0;
+        for (FieldModel field : fieldsToFind) {
+            if (isSetInConstructor(field, constructor)) {
+                matchingFieldsCount++;
+            }
+        }
+        return matchingFieldsCount;
+    }
+}
@@ -0,0 +1,31 @@
+package pl.mjedynak.builder.core;
+
+public final class DefaultValues {
+
+    private DefaultValues() {
+    }
+
+    public static String of(String type) {
+        if (type == null) {
+            return "null";
+        }
+        switch (type) {
+            case "boolean":
+                return "false";
+            case "byte":
+            case "short":
+            case "int":
+                return "0";
+            case "long":
+                return "0L";
+            case "float":
+                return "0.0f";
+            case "double":
+                return "0.0d";
+            case "char":
+                return "'\\u0000'";
+            default:
+                return "null";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pl.mjedynak.builder.core;
+
+/**
+ * Decides where collection and array fields are copied on their way through the builder, so that each value is copied
+ * at most once: either when handed to a set method or when passed to the built object.
+ */
+public enum DefensiveCopyStrategy {
+
+    NONE("No copy"),
+    COPY_ON_SET("Copy in set methods"),
+    COPY_ON_BUILD("Copy in build()"),
+    IMMUTABLE_COPY_ON_BUILD("Immutable copy in build()");
+
+    private final String label;
+
+    DefensiveCopyStrategy(String label) {
+        this.label = label;
+    }
+
+    public boolean copiesOnSet() {
+        return this == COPY_ON_SET;
+    }
+
+    public boolean copiesOnBuild() {
+        return this == COPY_ON_BUILD || this == IMMUTABLE_COPY_ON_BUILD;
+    }
+
+    /**
+     * @param type canonical type of the copied value
+     * @return null safe copy of the value, or the value itself for types that are not copied
+     */
+    public String copyOf(String type, String value) {
+        String copy = this == NONE ? null : renderCopy(type, value);
+        return copy == null ? value : value + " == null ? null : " + copy;
+    }
+
+    private String renderCopy(String type, String value) {
+        if (type.endsWith("[]")) {
+            return value + ".clone()";
+        }
+        int typeArgumentsStart = type.indexOf('<');
+        String rawType = typeArgumentsStart < 0 ? type : type.substring(0, typeArgumentsStart);
+        boolean immutable = this == IMMUTABLE_COPY_ON_BUILD;
+        switch (rawType) {
+            case "java.util.Collection":
+            case "java.util.List":
+                return immutable ? "java.util.List.copyOf(" + value + ")" : "new java.util.ArrayList<>(" + value + ")";
+            case "java.util.ArrayList":
+                return "new java.util.ArrayList<>(" + value + ")";
+            case "java.util.Set":
+                return immutable ? "java.util.Set.copyOf(" + value + ")" : "new java.util.HashSet<>(" + value + ")";
+            case "java.util.HashSet":
+                return "new java.util.HashSet<>(" + value + ")";
+            case "java.util.Map":
+                return immutable ? "java.util.Map.copyOf(" + value + ")" : "new java.util.HashMap<>(" + value + ")";
+            case "java.util.HashMap":
+                return "new java.util.HashMap<>(" + value + ")";
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,172 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a flyweight that writes the builder fields straight into a caller supplied {@link java.nio.ByteBuffer}
+ * instead of allocating the source class, together with a read-only view over the same layout. Fixed width fields
+ * live at constant offsets; length prefixed strings follow them and have to be written in declaration order.
+ */
+public class FlyweightRenderer {
+
+    public static final String FLYWEIGHT_SUFFIX = "Flyweight";
+    public static final String VIEW_SUFFIX = "View";
+
+    private static final String BYTE_BUFFER = "java.nio.ByteBuffer";
+    private static final String UTF_8 = "java.nio.charset.StandardCharsets.UTF_8";
+    private static final String STRING_TYPE = "java.lang.String";
+    private static final String FIXED_LENGTH = "FIXED_LENGTH";
+
+    private static final Map<String, Integer> FIXED_WIDTHS = Map.of(
+            "boolean", 1,
+            "byte", 1,
+            "short", 2,
+            "char", 2,
+            "int", 4,
+            "float", 4,
+            "long", 8,
+            "double", 8);
+
+    public boolean isSupported(FieldModel field) {
+        return FIXED_WIDTHS.containsKey(field.getType()) || STRING_TYPE.equals(field.getType());
+    }
+
+    public List<FieldModel> getLayoutFields(BuilderModel model) {
+        List<FieldModel> layoutFields = new ArrayList<>();
+        for (FieldModel field : model.getFieldsWithSetMethods()) {
+            if (isSupported(field)) {
+                layoutFields.add(field);
+            }
+        }
+        return layoutFields;
+    }
+
+    /**
+     * @return the flyweight and view class texts, meant to be nested in the builder class
+     */
+    public List<String> renderClasses(BuilderModel model, List<FieldModel> fields) {
+        List<FieldModel> fixedFields = new ArrayList<>();
+        List<FieldModel> variableFields = new ArrayList<>();
+        for (FieldModel field : fields) {
+            (FIXED_WIDTHS.containsKey(field.getType()) ? fixedFields : variableFields).add(field);
+        }
+        return List.of(renderFlyweight(model, fixedFields, variableFields), renderView(model, fixedFields, variableFields));
+    }
+
+    private String renderFlyweight(BuilderModel model, List<FieldModel> fixedFields, List<FieldModel> variableFields) {
+        String className = model.getSourceClassName() + FLYWEIGHT_SUFFIX;
+        StringBuilder text = new StringBuilder();
+        text.append("public static final class ").append(className).append(" { ");
+        int offset = 0;
+        for (FieldModel field : fixedFields) {
+            text.append("public static final int ").append(offsetConstant(model, field)).append(" = ").append(offset).append("; ");
+            offset += FIXED_WIDTHS.get(field.getType());
+        }
+        text.append("public static final int ").append(FIXED_LENGTH).append(" = ").append(offset).append("; ");
+        text.append("private ").append(BYTE_BUFFER).append(" buffer; private int offset; private int limit; ");
+        if (!variableFields.isEmpty()) {
+            text.append("private int variableFieldsWritten; ");
+        }
+        text.append("public ").append(className).append(" wrap(").append(BYTE_BUFFER).append(" buffer, int offset) { ")
+                .append("this.buffer = buffer; this.offset = offset; this.limit = offset + ").append(FIXED_LENGTH).append("; ");
+        if (!variableFields.isEmpty()) {
+            text.append("this.variableFieldsWritten = 0; ");
+        }
+        text.append("return this; } ");
+        for (FieldModel field : fixedFields) {
+            String name = fieldNameWithoutPrefix(model, field);
+            String parameterName = parameterName(model, name);
+            text.append("public ").append(className).append(" ").append(setMethodName(model, name)).append("(")
+                    .append(field.getType()).append(" ").append(parameterName).append(") { ")
+                    .append(renderPut(field.getType(), "offset + " + offsetConstant(model, field), parameterName))
+                    .append(" return this; } ");
+        }
+        for (int i = 0; i < variableFields.size(); i++) {
+            String name = fieldNameWithoutPrefix(model, variableFields.get(i));
+            String parameterName = parameterName(model, name);
+            text.append("public ").append(className).append(" ").append(setMethodName(model, name)).append("(String ")
+                    .append(parameterName).append(") { ")
+                    .append("if (variableFieldsWritten != ").append(i).append(") { throw new IllegalStateException(\"")
+                    .append(name).append(" has to be written as length prefixed field ").append(i).append("\"); } ")
+                    .append("if (").append(parameterName).append(" == null) { buffer.putInt(limit, -1); limit += 4; } else { ")
+                    .append("byte[] bytes = ").append(parameterName).append(".getBytes(").append(UTF_8).append("); ")
+                    .append("buffer.putInt(limit, bytes.length); ").append(BYTE_BUFFER).append(" target = buffer.duplicate(); ")
+                    .append("target.position(limit + 4); target.put(bytes); ")
+                    .append("limit += 4 + bytes.length; } variableFieldsWritten++; return this; } ");
+        }
+        text.append("public int length() { return limit - offset; } }");
+        return text.toString();
+    }
+
+    private String renderView(BuilderModel model, List<FieldModel> fixedFields, List<FieldModel> variableFields) {
+        String className = model.getSourceClassName() + VIEW_SUFFIX;
+        String flyweightClassName = model.getSourceClassName() + FLYWEIGHT_SUFFIX;
+        StringBuilder text = new StringBuilder();
+        text.append("public static final class ").append(className).append(" { ");
+        text.append("private ").append(BYTE_BUFFER).append(" buffer; private int offset; ");
+        text.append("public ").append(className).append(" wrap(").append(BYTE_BUFFER).append(" buffer, int offset) { ")
+                .append("this.buffer = buffer; this.offset = offset; return this; } ");
+        for (FieldModel field : fixedFields) {
+            String name = fieldNameWithoutPrefix(model, field);
+            text.append("public ").append(field.getType()).append(" ").append(Names.methodName("get", name)).append("() { return ")
+                    .append(renderGet(field.getType(), "offset + " + flyweightClassName + "." + offsetConstant(model, field)))
+                    .append("; } ");
+        }
+        for (int i = 0; i < variableFields.size(); i++) {
+            String name = fieldNameWithoutPrefix(model, variableFields.get(i));
+            text.append("public String ").append(Names.methodName("get", name)).append("() { ")
+                    .append("int position = variableFieldPosition(").append(i).append("); int length = buffer.getInt(position); ")
+                    .append("if (length < 0) { return null; } byte[] bytes = new byte[length]; ")
+                    .append(BYTE_BUFFER).append(" source = buffer.duplicate(); source.position(position + 4); source.get(bytes); ")
+                    .append("return new String(bytes, ").append(UTF_8).append("); } ");
+        }
+        text.append("public int length() { return variableFieldPosition(").append(variableFields.size()).append(") - offset; } ");
+        text.append("private int variableFieldPosition(int index) { int position = offset + ").append(flyweightClassName).append(".")
+                .append(FIXED_LENGTH).append("; ")
+                .append("for (int i = 0; i < index; i++) { position += 4 + Math.max(buffer.getInt(position), 0); } return position; } }");
+        return text.toString();
+    }
+
+    private String offsetConstant(BuilderModel model, FieldModel field) {
+        return Names.constantName(fieldNameWithoutPrefix(model, field)) + "_OFFSET";
+    }
+
+    private String fieldNameWithoutPrefix(BuilderModel model, FieldModel field) {
+        return Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix());
+    }
+
+    private String parameterName(BuilderModel model, String fieldNameWithoutPrefix) {
+        return model.getOptions().getParameterNamePrefix() + fieldNameWithoutPrefix;
+    }
+
+    private String setMethodName(BuilderModel model, String fieldNameWithoutPrefix) {
+        return Names.methodName(model.getOptions().getMethodPrefix(), fieldNameWithoutPrefix);
+    }
+
+    private String renderPut(String type, String index, String value) {
+        switch (type) {
+            case "boolean":
+                return "buffer.put(" + index + ", (byte) (" + value + " ? 1 : 0));";
+            case "byte":
+                return "buffer.put(" + index + ", " + value + ");";
+            default:
+                return "buffer.put" + Names.capitalize(type) + "(" + index + ", " + value + ");";
+        }
+    }
+
+    private String renderGet(String type, String index) {
+        switch (type) {
+            case "boolean":
+                return "buffer.get(" + index + ") != 0";
+            case "byte":
+                return "buffer.get(" + index + ")";
+            default:
+                return "buffer.get" + Names.capitalize(type) + "(" + index + ")";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package pl.mjedynak.builder.core;
+
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.Map;
+
+/**
+ * Renders a reflection free Jackson streaming reader feeding the set methods of the builder. Fields are dispatched
+ * with a string switch, which javac compiles to a switch on the name hash. Fields of types the reader cannot map
+ * from a scalar token are skipped together with their value, while an object or array given for a field it reads
+ * fails the read instead of leaving the parser inside that value.
+ */
+public class JsonReaderRenderer {
+
+    public static final String READ_METHOD_NAME = "readJson";
+
+    private static final String JSON_PARSER = "com.fasterxml.jackson.core.JsonParser";
+    private static final String JSON_TOKEN = "com.fasterxml.jackson.core.JsonToken";
+    private static final String IO_EXCEPTION = "java.io.IOException";
+    private static final String NULL_TOKEN_CHECK = "parser.currentToken() == " + JSON_TOKEN + ".VALUE_NULL ? null : ";
+
+    private static final Map<String, String> VALUE_READERS = Map.ofEntries(
+            Map.entry("java.lang.String", "parser.getValueAsString()"),
+            Map.entry("boolean", "parser.getValueAsBoolean()"),
+            Map.entry("byte", "(byte) parser.getValueAsInt()"),
+            Map.entry("short", "(short) parser.getValueAsInt()"),
+            Map.entry("int", "parser.getValueAsInt()"),
+            Map.entry("long", "parser.getValueAsLong()"),
+            Map.entry("float", "(float) parser.getValueAsDouble()"),
+            Map.entry("double", "parser.getValueAsDouble()"),
+            Map.entry("java.lang.Boolean", NULL_TOKEN_CHECK + "Boolean.valueOf(parser.getValueAsBoolean())"),
+            Map.entry("java.lang.Integer", NULL_TOKEN_CHECK + "Integer.valueOf(parser.getValueAsInt())"),
+            Map.entry("java.lang.Long", NULL_TOKEN_CHECK + "Long.valueOf(parser.getValueAsLong())"),
+            Map.entry("java.lang.Double", NULL_TOKEN_CHECK + "Double.valueOf(parser.getValueAsDouble())"));
+
+    public boolean isSupported(FieldModel field) {
+        return VALUE_READERS.containsKey(field.getType());
+    }
+
+    public String renderReadMethod(BuilderModel model) {
+        String sourceClassName = model.getSourceClassName();
+        String builderClassName = model.getBuilderClassName();
+        StringBuilder text = new StringBuilder();
+        text.append("public static ").append(sourceClassName).append(" ").append(READ_METHOD_NAME)
+                .append("(").append(JSON_PARSER).append(" parser) throws ").append(IO_EXCEPTION).append(" { ");
+        text.append("if (parser.currentToken() == null) { parser.nextToken(); } ");
+        text.append("if (parser.currentToken() != ").append(JSON_TOKEN).append(".START_OBJECT) { ")
+                .append("throw new ").append(IO_EXCEPTION).append("(\"Expected start of ").append(sourceClassName).append(" object\"); } ");
+        text.append(builderClassName).append(" builder = ").append(Names.initializingMethodName(sourceClassName)).append("(); ");
+        text.append("while (parser.nextToken() == ").append(JSON_TOKEN).append(".FIELD_NAME) { ");
+        text.append("String fieldName = parser.getCurrentName(); parser.nextToken(); switch (fieldName) { ");
+        for (FieldModel field : model.getFieldsWithSetMethods()) {
+            if (!isSupported(field)) {
+                continue;
+            }
+            String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), model.getOptions().getFieldNamePrefix());
+            text.append("case \"").append(fieldNameWithoutPrefix).append("\": ")
+                    .append("if (parser.currentToken().isStructStart()) { throw new ").append(IO_EXCEPTION)
+                    .append("(\"Expected a scalar value for ").append(sourceClassName).append(".").append(fieldNameWithoutPrefix).append("\"); } ")
+                    .append("builder.")
+                    .append(Names.methodName(model.getOptions().getMethodPrefix(), fieldNameWithoutPrefix))
+                    .append("(").append(VALUE_READERS.get(field.getType())).append("); break; ");
+        }
+        text.append("default: parser.skipChildren(); } } ");
+        text.append("return builder.build(); }");
+        return text.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package pl.mjedynak.builder.core;
+
+import java.util.Locale;
+
+public final class Names {
+
+    private static final String VOWELS = "aeiouy";
+
+    private Names() {
+    }
+
+    public static String capitalize(String name) {
+        if (name == null || name.isEmpty()) {
+            return name;
+        }
+        return Character.toTitleCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public static String uncapitalize(String name) {
+        if (name == null || name.isEmpty()) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public static String methodName(String methodPrefix, String fieldName) {
+        if (methodPrefix == null || methodPrefix.isEmpty()) {
+            return fieldName;
+        }
+        return methodPrefix + capitalize(fieldName);
+    }
+
+    /**
+     * Strips the prefix taken literally from the start of the name, e.g. a "m_" code style prefix.
+     */
+    public static String withoutPrefix(String name, String prefix) {
+        if (prefix == null || !name.startsWith(prefix)) {
+            return name;
+        }
+        return name.substring(prefix.length());
+    }
+
+    public static String constantName(String fieldName) {
+        return fieldName.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * @param className simple name, or name qualified by enclosing classes, e.g. Outer.Inner
+     */
+    public static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public static String variableName(String className) {
+        return uncapitalize(simpleName(className));
+    }
+
+    public static String initializingMethodName(String sourceClassName) {
+        String simpleName = simpleName(sourceClassName);
+        boolean startsWithVowel = VOWELS.indexOf(simpleName.toLowerCase(Locale.ENGLISH).charAt(0)) >= 0;
+        return (startsWithVowel ? "an" : "a") + simpleName;
+    }
+}
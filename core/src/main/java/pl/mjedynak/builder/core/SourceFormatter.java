@@ -0,0 +1,91 @@
+package pl.mjedynak.builder.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Breaks the single line member texts produced by {@link BuilderRenderer} into indented lines. The plugin leaves
+ * this to the IDE code style, headless callers have nothing else to format the output with.
+ */
+public class SourceFormatter {
+
+    private static final String INDENT = "    ";
+    private static final List<String> CONTINUING_KEYWORDS = List.of("else", "catch", "finally");
+
+    public List<String> format(String memberText, int indentLevel) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        int level = indentLevel;
+        int parenthesisDepth = 0;
+        Deque<Boolean> doBlocks = new ArrayDeque<>();
+        char quote = 0;
+        for (int i = 0; i < memberText.length(); i++) {
+            char c = memberText.charAt(i);
+            if (quote != 0) {
+                line.append(c);
+                if (c == '\\' && i + 1 < memberText.length()) {
+                    line.append(memberText.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                line.append(c);
+            } else if (c == '(') {
+                parenthesisDepth++;
+                line.append(c);
+            } else if (c == ')') {
+                parenthesisDepth--;
+                line.append(c);
+            } else if (c == '{' && parenthesisDepth == 0) {
+                String opening = line.toString().trim();
+                doBlocks.push(opening.equals("do") || opening.endsWith(" do"));
+                if (line.length() > 0 && line.charAt(line.length() - 1) != ' ') {
+                    line.append(' ');
+                }
+                line.append(c);
+                emit(lines, line, level++);
+            } else if (c == '}' && parenthesisDepth == 0) {
+                emit(lines, line, level);
+                line.append(c);
+                level--;
+                boolean doBlock = !doBlocks.isEmpty() && doBlocks.pop();
+                if (continuesStatement(memberText, i + 1, doBlock)) {
+                    line.append(' ');
+                } else {
+                    emit(lines, line, level);
+                }
+            } else if (c == ';' && parenthesisDepth == 0) {
+                line.append(c);
+                emit(lines, line, level);
+            } else if (c != ' ' || line.length() > 0 && line.charAt(line.length() - 1) != ' ') {
+                line.append(c);
+            }
+        }
+        emit(lines, line, level);
+        return lines;
+    }
+
+    private boolean continuesStatement(String memberText, int index, boolean doBlock) {
+        String rest = memberText.substring(index).stripLeading();
+        if (doBlock) {
+            return true;
+        }
+        for (String keyword : CONTINUING_KEYWORDS) {
+            if (rest.startsWith(keyword) && (rest.length() == keyword.length() || !Character.isJavaIdentifierPart(rest.charAt(keyword.length())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void emit(List<String> lines, StringBuilder line, int level) {
+        String text = line.toString().trim();
+        line.setLength(0);
+        if (!text.isEmpty()) {
+            lines.add(INDENT.repeat(Math.max(level, 0)) + text);
+        }
+    }
+}
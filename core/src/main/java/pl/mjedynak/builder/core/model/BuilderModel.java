@@ -0,0 +1,82 @@
+package pl.mjedynak.builder.core.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BuilderModel {
+
+    private final String packageName;
+    private final String sourceClassName;
+    private final String builderClassName;
+    private final List<FieldModel> fieldsForSetters;
+    private final List<FieldModel> fieldsForConstructor;
+    private final List<FieldModel> allSelectedFields;
+    private final ConstructorModel constructor;
+    private final BuilderOptions options;
+    private final boolean inner;
+
+    public BuilderModel(String packageName, String sourceClassName, String builderClassName,
+                        List<FieldModel> fieldsForSetters, List<FieldModel> fieldsForConstructor, List<FieldModel> allSelectedFields,
+                        ConstructorModel constructor, BuilderOptions options, boolean inner) {
+        this.packageName = packageName;
+        this.sourceClassName = sourceClassName;
+        this.builderClassName = builderClassName;
+        this.fieldsForSetters = List.copyOf(fieldsForSetters);
+        this.fieldsForConstructor = List.copyOf(fieldsForConstructor);
+        this.allSelectedFields = List.copyOf(allSelectedFields);
+        this.constructor = constructor;
+        this.options = options;
+        this.inner = inner;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getSourceClassName() {
+        return sourceClassName;
+    }
+
+    public String getBuilderClassName() {
+        return builderClassName;
+    }
+
+    public List<FieldModel> getFieldsForSetters() {
+        return fieldsForSetters;
+    }
+
+    public List<FieldModel> getFieldsForConstructor() {
+        return fieldsForConstructor;
+    }
+
+    public List<FieldModel> getAllSelectedFields() {
+        return allSelectedFields;
+    }
+
+    /**
+     * Fields the builder has a set method for, in the order the methods are generated.
+     */
+    public List<FieldModel> getFieldsWithSetMethods() {
+        if (inner) {
+            return allSelectedFields;
+        }
+        List<FieldModel> fieldsWithSetMethods = new ArrayList<>(fieldsForSetters);
+        if (!options.useSingleField()) {
+            // a single source instance can only be filled through setters
+            fieldsWithSetMethods.addAll(fieldsForConstructor);
+        }
+        return fieldsWithSetMethods;
+    }
+
+    public ConstructorModel getConstructor() {
+        return constructor;
+    }
+
+    public BuilderOptions getOptions() {
+        return options;
+    }
+
+    public boolean isInner() {
+        return inner;
+    }
+}
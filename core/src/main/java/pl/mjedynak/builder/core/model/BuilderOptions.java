@@ -0,0 +1,39 @@
+package pl.mjedynak.builder.core.model;
+
+public class BuilderOptions {
+
+    private final String methodPrefix;
+    private final String fieldNamePrefix;
+    private final String parameterNamePrefix;
+    private final boolean useSingleField;
+    private final boolean hasButMethod;
+
+    public BuilderOptions(String methodPrefix, String fieldNamePrefix, String parameterNamePrefix,
+                          boolean useSingleField, boolean hasButMethod) {
+        this.methodPrefix = methodPrefix;
+        this.fieldNamePrefix = fieldNamePrefix;
+        this.parameterNamePrefix = parameterNamePrefix;
+        this.useSingleField = useSingleField;
+        this.hasButMethod = hasButMethod;
+    }
+
+    public String getMethodPrefix() {
+        return methodPrefix;
+    }
+
+    public String getFieldNamePrefix() {
+        return fieldNamePrefix;
+    }
+
+    public String getParameterNamePrefix() {
+        return parameterNamePrefix;
+    }
+
+    public boolean useSingleField() {
+        return useSingleField;
+    }
+
+    public boolean hasButMethod() {
+        return hasButMethod;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.mjedynak.builder.core.model;
+
+import java.util.List;
+
+public class ConstructorModel {
+
+    private final List<FieldModel> parameters;
+
+    public ConstructorModel(List<FieldModel> parameters) {
+        this.parameters = List.copyOf(parameters);
+    }
+
+    public List<FieldModel> getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,44 @@
+package pl.mjedynak.builder.core.model;
+
+import java.util.Objects;
+
+public class FieldModel {
+
+    private final String name;
+    private final String type;
+
+    public FieldModel(String name, String type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FieldModel that = (FieldModel) o;
+        return name.equals(that.name) && type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + name;
+    }
+}
@@ -0,0 +1,132 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchBuilderRendererTest {
+
+    private static final String ROW_SOURCE = "public class Row {\n"
+            + "    private final long id; private final String name; private int count; private java.util.List<String> tags;\n"
+            + "    public Row(long id, String name) { this.id = id; this.name = name; }\n"
+            + "    public void setCount(int count) { this.count = count; }\n"
+            + "    public void setTags(java.util.List<String> tags) { this.tags = tags; }\n"
+            + "    public String toString() { return id + \"|\" + name + \"|\" + count + \"|\" + tags; }\n"
+            + "}\n";
+
+    private static final String DRIVER_SOURCE = "public class Driver implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        RowBuilder.RowBatchBuilder batch = new RowBuilder.RowBatchBuilder(1);\n"
+            + "        for (int i = 0; i < 5; i++) {\n"
+            + "            batch.addRow().withId(i).withName(\"r\" + i).withCount(i * 10);\n"
+            + "        }\n"
+            + "        batch.withTags(java.util.List.of(\"last\"));\n"
+            + "        return batch.size() + \" \" + batch.buildList();\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String EARLY_SETTER_DRIVER_SOURCE = "public class Driver implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        try {\n"
+            + "            new RowBuilder.RowBatchBuilder(1).withId(1);\n"
+            + "            return \"set\";\n"
+            + "        } catch (IllegalStateException e) {\n"
+            + "            return e.getMessage();\n"
+            + "        }\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final BatchBuilderRenderer batchBuilderRenderer = new BatchBuilderRenderer();
+
+    private static BuilderModel rowModel() {
+        FieldModel id = new FieldModel("id", "long");
+        FieldModel name = new FieldModel("name", "java.lang.String");
+        FieldModel count = new FieldModel("count", "int");
+        FieldModel tags = new FieldModel("tags", "java.util.List<java.lang.String>");
+        return new BuilderModel("", "Row", "RowBuilder", List.of(count, tags), List.of(id, name), List.of(id, name, count, tags),
+                new ConstructorModel(List.of(id, name)), new BuilderOptions("with", "", "", false, false), false);
+    }
+
+    @Test
+    void shouldKeepOneColumnPerSetterAndConstructorField() {
+        // when
+        List<FieldModel> result = batchBuilderRenderer.getColumnFields(rowModel());
+
+        // then
+        assertThat(result).extracting(FieldModel::getName).containsExactly("count", "tags", "id", "name");
+    }
+
+    @Test
+    void shouldMaterializeRowsWithChosenConstructorAndSetters() {
+        // when
+        String result = batchBuilderRenderer.renderClass(rowModel());
+
+        // then
+        assertThat(result).startsWith("public static final class RowBatchBuilder { private int size; private int capacity; "
+                + "private int[] countColumn; private java.util.List[] tagsColumn; private long[] idColumn; private java.lang.String[] nameColumn; ");
+        assertThat(result).contains("@SuppressWarnings(\"unchecked\") public Row[] build() { Row[] result = new Row[size]; "
+                + "for (int i = 0; i < size; i++) { Row row = new Row(idColumn[i], nameColumn[i]); "
+                + "row.setCount(countColumn[i]); row.setTags(tagsColumn[i]); result[i] = row; } return result; }");
+    }
+
+    @Test
+    void shouldBuildAllRowsFromGeneratedBatchBuilder() throws Exception {
+        // given
+        BuilderModel model = rowModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null, List.of(batchBuilderRenderer.renderClass(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Row", ROW_SOURCE, "RowBuilder", builderSource, "Driver", DRIVER_SOURCE));
+
+        // when
+        @SuppressWarnings("unchecked")
+        String result = ((Callable<String>) classLoader.loadClass("Driver").getDeclaredConstructor().newInstance()).call();
+
+        // then
+        assertThat(result).isEqualTo("5 [0|r0|0|null, 1|r1|10|null, 2|r2|20|null, 3|r3|30|null, 4|r4|40|[last]]");
+    }
+
+    @Test
+    void shouldRejectSettingValueBeforeFirstRow() throws Exception {
+        // given
+        BuilderModel model = rowModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null, List.of(batchBuilderRenderer.renderClass(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Row", ROW_SOURCE, "RowBuilder", builderSource, "Driver", EARLY_SETTER_DRIVER_SOURCE));
+
+        // when
+        @SuppressWarnings("unchecked")
+        String result = ((Callable<String>) classLoader.loadClass("Driver").getDeclaredConstructor().newInstance()).call();
+
+        // then
+        assertThat(result).isEqualTo("addRow() has to be called before setting a value");
+    }
+
+    @Test
+    void shouldRejectFieldReferringToTypeVariable() {
+        // given
+        FieldModel id = new FieldModel("id", "long");
+        FieldModel values = new FieldModel("values", "java.util.List<T>");
+        BuilderModel model = new BuilderModel("", "Row", "RowBuilder", List.of(values), List.of(id), List.of(id, values),
+                new ConstructorModel(List.of(id)), new BuilderOptions("with", "", "", false, false), false);
+
+        // when / then
+        assertThatThrownBy(() -> batchBuilderRenderer.renderClass(model, Set.of("T")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Batch builder cannot keep a column of java.util.List<T> for values, as it refers to the type variable T");
+    }
+}
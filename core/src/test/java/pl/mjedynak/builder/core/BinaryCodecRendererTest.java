@@ -0,0 +1,191 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryCodecRendererTest {
+
+    private static final String PERSON_SOURCE = "public class Person {\n"
+            + "    private String name; private int age; private long id; private double score; private boolean active;\n"
+            + "    private Integer rank; private char initial; private Object other;\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public void setId(long id) { this.id = id; }\n"
+            + "    public void setScore(double score) { this.score = score; }\n"
+            + "    public void setActive(boolean active) { this.active = active; }\n"
+            + "    public void setRank(Integer rank) { this.rank = rank; }\n"
+            + "    public void setInitial(char initial) { this.initial = initial; }\n"
+            + "    public void setOther(Object other) { this.other = other; }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "    public long getId() { return id; }\n"
+            + "    public double getScore() { return score; }\n"
+            + "    public boolean isActive() { return active; }\n"
+            + "    public Integer getRank() { return rank; }\n"
+            + "    public char getInitial() { return initial; }\n"
+            + "    public String toString() { return name + '|' + age + '|' + id + '|' + score + '|' + active + '|' + rank + '|' + initial; }\n"
+            + "}\n";
+
+    private static final String ROUND_TRIP_SOURCE = "public class RoundTrip implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        Person[] people = {\n"
+            + "            PersonBuilder.aPerson().withName(\"Zo\\u00eb\").withAge(-5).withId(Long.MIN_VALUE).withScore(1.5).withActive(true)\n"
+            + "                .withRank(null).withInitial('x').build(),\n"
+            + "            PersonBuilder.aPerson().withName(null).withAge(300).withId(Long.MAX_VALUE).withRank(-1).build() };\n"
+            + "        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(256);\n"
+            + "        for (Person person : people) { PersonBuilder.write(person, buffer); }\n"
+            + "        buffer.flip();\n"
+            + "        StringBuilder result = new StringBuilder();\n"
+            + "        for (Person person : people) { result.append(PersonBuilder.read(buffer)).append('\\n'); }\n"
+            + "        return result.append(buffer.remaining()).toString();\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String THROUGHPUT_SOURCE = "public class Throughput implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        int count = 100000;\n"
+            + "        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(count * 64);\n"
+            + "        for (int i = 0; i < count; i++) {\n"
+            + "            PersonBuilder.write(PersonBuilder.aPerson().withName(\"n\" + (i % 10)).withAge(i % 100).withId(i).withRank(i).build(), buffer);\n"
+            + "        }\n"
+            + "        int written = buffer.position();\n"
+            + "        buffer.flip();\n"
+            + "        long idSum = 0;\n"
+            + "        for (int i = 0; i < count; i++) { idSum += PersonBuilder.read(buffer).getId(); }\n"
+            + "        return idSum + \" \" + (written / count);\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final Map<String, String> ACCESSOR_NAMES = Map.of("name", "getName", "age", "getAge", "id", "getId",
+            "score", "getScore", "active", "isActive", "rank", "getRank", "initial", "getInitial");
+
+    @TempDir
+    Path tempDir;
+
+    private final BinaryCodecRenderer binaryCodecRenderer = new BinaryCodecRenderer();
+
+    private static BuilderModel personModel() {
+        List<FieldModel> fields = List.of(new FieldModel("name", "java.lang.String"), new FieldModel("age", "int"),
+                new FieldModel("id", "long"), new FieldModel("score", "double"), new FieldModel("active", "boolean"),
+                new FieldModel("rank", "java.lang.Integer"), new FieldModel("initial", "char"), new FieldModel("other", "java.lang.Object"));
+        return new BuilderModel("", "Person", "PersonBuilder", fields, List.of(), fields, null,
+                new BuilderOptions("with", "", "", false, false), false);
+    }
+
+    @Test
+    void shouldSkipUnsupportedFields() {
+        // when
+        List<FieldModel> result = binaryCodecRenderer.getEncodableFields(personModel());
+
+        // then
+        assertThat(result).extracting(FieldModel::getName).containsExactly("name", "age", "id", "score", "active", "rank", "initial");
+    }
+
+    @Test
+    void shouldRenderWriteAndReadInFieldOrder() {
+        // given
+        FieldModel name = new FieldModel("m_name", "java.lang.String");
+        FieldModel rank = new FieldModel("m_rank", "java.lang.Integer");
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", List.of(name, rank), List.of(), List.of(name, rank), null,
+                new BuilderOptions("with", "m_", "", false, false), false);
+
+        // when
+        List<String> result = binaryCodecRenderer.renderMembers(model, List.of(name, rank), Map.of("m_name", "getName", "m_rank", "getRank"));
+
+        // then
+        assertThat(result).hasSize(6);
+        assertThat(result.get(0)).isEqualTo("public static void write(Person source, java.nio.ByteBuffer buffer) { "
+                + "writeString(buffer, source.getName()); "
+                + "if (source.getRank() == null) { buffer.put((byte) 0); } else { buffer.put((byte) 1); writeVarLong(buffer, source.getRank()); } }");
+        assertThat(result.get(1)).isEqualTo("public static Person read(java.nio.ByteBuffer buffer) { return aPerson()"
+                + ".withName(readString(buffer))"
+                + ".withRank(buffer.get() == 0 ? null : java.lang.Integer.valueOf((int) readVarLong(buffer))).build(); }");
+    }
+
+    @Test
+    void shouldAccessFieldsDirectlyFromInnerBuilder() {
+        // given
+        FieldModel age = new FieldModel("age", "int");
+        BuilderModel model = new BuilderModel("", "Person", "Builder", List.of(), List.of(), List.of(age), null,
+                new BuilderOptions("with", "", "", false, false), true);
+
+        // when
+        List<String> result = binaryCodecRenderer.renderMembers(model, List.of(age), Map.of());
+
+        // then
+        assertThat(result.get(0)).isEqualTo("public static void write(Person source, java.nio.ByteBuffer buffer) { writeVarLong(buffer, source.age); }");
+    }
+
+    @Test
+    void shouldReadFieldsThroughRecordAndBooleanAccessors() {
+        // given
+        FieldModel name = new FieldModel("name", "java.lang.String");
+        FieldModel active = new FieldModel("active", "boolean");
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", List.of(name, active), List.of(), List.of(name, active), null,
+                new BuilderOptions("with", "", "", false, false), false);
+
+        // when
+        List<String> result = binaryCodecRenderer.renderMembers(model, List.of(name, active), Map.of("name", "name", "active", "isActive"));
+
+        // then
+        assertThat(result.get(0)).isEqualTo("public static void write(Person source, java.nio.ByteBuffer buffer) { "
+                + "writeString(buffer, source.name()); buffer.put((byte) (source.isActive() ? 1 : 0)); }");
+    }
+
+    @Test
+    void shouldRejectFieldWithoutAccessorInExternalBuilder() {
+        // given
+        FieldModel age = new FieldModel("age", "int");
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", List.of(age), List.of(), List.of(age), null,
+                new BuilderOptions("with", "", "", false, false), false);
+
+        // when / then
+        assertThatThrownBy(() -> binaryCodecRenderer.renderMembers(model, List.of(age), Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Person has no accessor for age, which the binary codec would leave out of the encoding");
+    }
+
+    @Test
+    void shouldRoundTripThroughGeneratedCodec() throws Exception {
+        // when
+        String result = call("RoundTrip", ROUND_TRIP_SOURCE);
+
+        // then
+        assertThat(result).isEqualTo("Zo\u00eb|-5|-9223372036854775808|1.5|true|null|x\n"
+                + "null|300|9223372036854775807|0.0|false|-1|\u0000\n"
+                + "0");
+    }
+
+    @Test
+    void shouldEncodeManyInstancesCompactly() throws Exception {
+        // when
+        String result = call("Throughput", THROUGHPUT_SOURCE);
+
+        // then
+        String[] idSumAndBytesPerInstance = result.split(" ");
+        assertThat(Long.parseLong(idSumAndBytesPerInstance[0])).isEqualTo(99999L * 100000L / 2);
+        assertThat(Integer.parseInt(idSumAndBytesPerInstance[1])).isLessThan(24);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String call(String driverClassName, String driverSource) throws Exception {
+        BuilderModel model = personModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null,
+                binaryCodecRenderer.renderMembers(model, binaryCodecRenderer.getEncodableFields(model), ACCESSOR_NAMES));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Person", PERSON_SOURCE, "PersonBuilder", builderSource, driverClassName, driverSource));
+        Callable<String> driver = (Callable<String>) classLoader.loadClass(driverClassName).getDeclaredConstructor().newInstance();
+        return driver.call();
+    }
+}
@@ -0,0 +1,205 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuilderRendererTest {
+
+    private final BuilderRenderer builderRenderer = new BuilderRenderer("BuilderClassName", options(false));
+
+    private static BuilderOptions options(boolean useSingleField) {
+        return new BuilderOptions("with", "", "", useSingleField, false);
+    }
+
+    @Test
+    void shouldRenderSetMethod() {
+        // when
+        String result = builderRenderer.renderSetMethod("name", "String", "className");
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName withName(String name) { this.name = name; return this; }");
+    }
+
+    @Test
+    void shouldRenderSetMethodForSingleField() {
+        // given
+        BuilderRenderer singleFieldRenderer = new BuilderRenderer("BuilderClassName", options(true));
+
+        // when
+        String result = singleFieldRenderer.renderSetMethod("name", "String", "className");
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName withName(String name) { className.setName(name); return this; }");
+    }
+
+    @Test
+    void shouldRenderSetMethodWithPrefixes() {
+        // given
+        BuilderRenderer prefixedRenderer = new BuilderRenderer("BuilderClassName", new BuilderOptions("", "m_", "p_", false, false));
+
+        // when
+        String result = prefixedRenderer.renderSetMethod("m_name", "String", "className");
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName name(String p_name) { this.m_name = p_name; return this; }");
+    }
+
+    @Test
+    void shouldRenderInitializingMethodWithAnBeforeVowel() {
+        // when
+        String result = builderRenderer.renderInitializingMethod("Item");
+
+        // then
+        assertThat(result).isEqualTo("public static BuilderClassName anItem() { return new BuilderClassName(); }");
+    }
+
+    @Test
+    void shouldRenderInitializingMethodWithA() {
+        // when
+        String result = builderRenderer.renderInitializingMethod("Person");
+
+        // then
+        assertThat(result).isEqualTo("public static BuilderClassName aPerson() { return new BuilderClassName(); }");
+    }
+
+    @Test
+    void shouldRenderSingleFieldAndConstructor() {
+        // when
+        String field = builderRenderer.renderSingleField("Person");
+        String constructor = builderRenderer.renderSingleFieldConstructor("Person");
+
+        // then
+        assertThat(field).isEqualTo("private Person person;");
+        assertThat(constructor).isEqualTo("BuilderClassName(){ person = new Person(); }");
+    }
+
+    @Test
+    void shouldRenderButMethod() {
+        // when
+        String result = builderRenderer.renderButMethod("Person", List.of("name", "age"));
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName but() { return aPerson().withName(name).withAge(age); }");
+    }
+
+    @Test
+    void shouldRenderPooledButMethodStartingFromFreshBuilder() {
+        // when
+        String result = builderRenderer.renderPooledButMethod("Person", List.of("name", "age"));
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName but() { return fresh().withName(name).withAge(age); }");
+    }
+
+    @Test
+    void shouldRenderButMethodForSingleField() {
+        // given
+        BuilderRenderer singleFieldRenderer = new BuilderRenderer("BuilderClassName", options(true));
+
+        // when
+        String result = singleFieldRenderer.renderButMethod("Person", List.of("name"));
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName but() { return aPerson().withName(person.getName()); }");
+    }
+
+    @Test
+    void shouldRenderButMethodFromCalls() {
+        // when
+        String result = builderRenderer.renderButMethod(List.of(
+                builderRenderer.renderButCall("aPerson", null), builderRenderer.renderButCall("withTags", "tags == null ? null : copy(tags)")));
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName but() { return aPerson().withTags(tags == null ? null : copy(tags)); }");
+    }
+
+    @Test
+    void shouldRenderSingleFieldBuildMethod() {
+        // when
+        String result = builderRenderer.renderSingleFieldBuildMethod("Person");
+
+        // then
+        assertThat(result).isEqualTo("public Person build() { return person; }");
+    }
+
+    @Test
+    void shouldCopyValueInSetMethodWhenStrategyCopiesOnSet() {
+        // when
+        String result = builderRenderer.renderSetMethod("names", "List<String>", "java.util.List<java.lang.String>", "className",
+                DefensiveCopyStrategy.COPY_ON_SET);
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName withNames(List<String> names) { "
+                + "this.names = names == null ? null : new java.util.ArrayList<>(names); return this; }");
+    }
+
+    @Test
+    void shouldNotCopyValueInSetMethodWhenStrategyCopiesOnBuild() {
+        // when
+        String result = builderRenderer.renderSetMethod("names", "List<String>", "java.util.List<java.lang.String>", "className",
+                DefensiveCopyStrategy.COPY_ON_BUILD);
+
+        // then
+        assertThat(result).isEqualTo("public BuilderClassName withNames(List<String> names) { this.names = names; return this; }");
+    }
+
+    @Test
+    void shouldRenderThreadLocalPoolMembers() {
+        // given
+        Map<String, String> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("name", "java.lang.String");
+        fieldTypes.put("age", "int");
+
+        // when
+        String initializingMethod = builderRenderer.renderPooledInitializingMethod("Person");
+        String resetMethod = builderRenderer.renderResetMethod(fieldTypes);
+
+        // then
+        assertThat(builderRenderer.renderPoolField())
+                .isEqualTo("private static final ThreadLocal<BuilderClassName> POOL = ThreadLocal.withInitial(BuilderClassName::new);");
+        assertThat(initializingMethod).isEqualTo("public static BuilderClassName aPerson() { return POOL.get().reset(); }");
+        assertThat(builderRenderer.renderFreshMethod()).isEqualTo("public static BuilderClassName fresh() { return new BuilderClassName(); }");
+        assertThat(resetMethod).isEqualTo("private BuilderClassName reset() { this.name = null; this.age = 0; return this; }");
+    }
+
+    @Test
+    void shouldRenderInlineBuildMethod() {
+        // when
+        String result = builderRenderer.renderInlineBuildMethod("Person", List.of("name", "0"));
+
+        // then
+        assertThat(result).isEqualTo("public Person build() { return new Person(name,0); }");
+    }
+
+    @Test
+    void shouldRenderMemoizedInlineBuildMethod() {
+        // when
+        String result = builderRenderer.renderMemoizedInlineBuildMethod("Person", List.of("name", "0"));
+
+        // then
+        assertThat(result).isEqualTo("public Person build() { if (lastBuilt == null) { lastBuilt = new Person(name,0); } return lastBuilt; }");
+        assertThat(builderRenderer.renderMemoizedField("Person")).isEqualTo("private Person lastBuilt;");
+        assertThat(builderRenderer.renderMemoizedInvalidation()).isEqualTo("lastBuilt = null;");
+    }
+
+    @Test
+    void shouldRenderBuildMethodWithSettersAndAssignments() {
+        // given
+        Map<String, String> setterValues = new LinkedHashMap<>();
+        setterValues.put("age", "age");
+        Map<String, String> assignments = new LinkedHashMap<>();
+        assignments.put("nick", "this.nick");
+
+        // when
+        String result = builderRenderer.renderBuildMethod("Person", List.of("name"), setterValues, assignments);
+
+        // then
+        assertThat(result).isEqualTo("public Person build() { Person person = new Person(name);person.setAge(age);person.nick=this.nick;return person; }");
+    }
+}
@@ -0,0 +1,114 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BuilderSourceRendererTest {
+
+    private final BuilderSourceRenderer builderSourceRenderer = new BuilderSourceRenderer();
+
+    private final FieldModel name = new FieldModel("name", "String");
+    private final FieldModel age = new FieldModel("age", "int");
+
+    @Test
+    void shouldRenderBuilderUsingConstructorAndSetters() {
+        // given
+        ConstructorModel constructor = new ConstructorModel(List.of(name, new FieldModel("active", "boolean")));
+        BuilderModel model = new BuilderModel("com.example", "Person", "PersonBuilder", List.of(age), List.of(name), List.of(age, name),
+                constructor, new BuilderOptions("with", "", "", false, true), false);
+
+        // when
+        String result = builderSourceRenderer.render(model);
+
+        // then
+        assertThat(result).isEqualTo("package com.example;\n"
+                + "\n"
+                + "public final class PersonBuilder {\n"
+                + "\n"
+                + "    private int age;\n"
+                + "    private String name;\n"
+                + "\n"
+                + "    private PersonBuilder() {\n"
+                + "    }\n"
+                + "\n"
+                + "    public static PersonBuilder aPerson() {\n"
+                + "        return new PersonBuilder();\n"
+                + "    }\n"
+                + "\n"
+                + "    public PersonBuilder withAge(int age) {\n"
+                + "        this.age = age;\n"
+                + "        return this;\n"
+                + "    }\n"
+                + "\n"
+                + "    public PersonBuilder withName(String name) {\n"
+                + "        this.name = name;\n"
+                + "        return this;\n"
+                + "    }\n"
+                + "\n"
+                + "    public PersonBuilder but() {\n"
+                + "        return aPerson().withAge(age).withName(name);\n"
+                + "    }\n"
+                + "\n"
+                + "    public Person build() {\n"
+                + "        Person person = new Person(name,false);\n"
+                + "        person.setAge(age);\n"
+                + "        return person;\n"
+                + "    }\n"
+                + "}\n");
+    }
+
+    @Test
+    void shouldRenderSingleFieldBuilderWithGeneratedAnnotation() {
+        // given
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", List.of(age), List.of(), List.of(age),
+                null, new BuilderOptions("with", "", "", true, false), false);
+
+        // when
+        String result = builderSourceRenderer.render(model, "@Generated(\"test\")");
+
+        // then
+        assertThat(result).isEqualTo("@Generated(\"test\")\n"
+                + "public final class PersonBuilder {\n"
+                + "\n"
+                + "    private Person person;\n"
+                + "\n"
+                + "    private PersonBuilder() {\n"
+                + "        person = new Person();\n"
+                + "    }\n"
+                + "\n"
+                + "    public static PersonBuilder aPerson() {\n"
+                + "        return new PersonBuilder();\n"
+                + "    }\n"
+                + "\n"
+                + "    public PersonBuilder withAge(int age) {\n"
+                + "        person.setAge(age);\n"
+                + "        return this;\n"
+                + "    }\n"
+                + "\n"
+                + "    public Person build() {\n"
+                + "        return person;\n"
+                + "    }\n"
+                + "}\n");
+    }
+
+    @Test
+    void shouldRejectInnerBuilder() {
+        // given
+        FieldModel nick = new FieldModel("nick", "String");
+        BuilderModel model = new BuilderModel("com.example", "Person", "Builder", List.of(age), List.of(), List.of(age, nick),
+                null, new BuilderOptions("with", "", "", false, false), true);
+
+        // when / then
+        assertThatThrownBy(() -> builderSourceRenderer.render(model))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Inner builder Builder of Person is assembled by the plugin, not rendered as a compilation unit");
+    }
+}
@@ -0,0 +1,81 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConstructorSelectorTest {
+
+    private final ConstructorSelector constructorSelector = new ConstructorSelector("", "");
+
+    private final FieldModel name = new FieldModel("name", "String");
+    private final FieldModel age = new FieldModel("age", "int");
+    private final FieldModel nick = new FieldModel("nick", "String");
+
+    @Test
+    void shouldPreferConstructorWithExactlyTheFieldsToFind() {
+        // given
+        ConstructorModel allFields = new ConstructorModel(List.of(name, age, nick));
+        ConstructorModel exactFields = new ConstructorModel(List.of(age, name));
+
+        // when
+        ConstructorModel result = constructorSelector.getBestConstructor(List.of(name, age), List.of(allFields, exactFields));
+
+        // then
+        assertThat(result).isSameAs(exactFields);
+    }
+
+    @Test
+    void shouldPreferSmallestConstructorContainingAllFieldsToFind() {
+        // given
+        ConstructorModel biggest = new ConstructorModel(List.of(name, age, nick, new FieldModel("other", "long")));
+        ConstructorModel smaller = new ConstructorModel(List.of(name, age, nick));
+
+        // when
+        ConstructorModel result = constructorSelector.getBestConstructor(List.of(name, age), List.of(biggest, smaller));
+
+        // then
+        assertThat(result).isSameAs(smaller);
+    }
+
+    @Test
+    void shouldChooseConstructorMatchingMostFieldsWhenNoneMatchesAll() {
+        // given
+        ConstructorModel noArgs = new ConstructorModel(List.of());
+        ConstructorModel withName = new ConstructorModel(List.of(name));
+
+        // when
+        ConstructorModel result = constructorSelector.getBestConstructor(List.of(name, age), List.of(noArgs, withName));
+
+        // then
+        assertThat(result).isSameAs(withName);
+    }
+
+    @Test
+    void shouldNotMatchParameterWithDifferentType() {
+        // given
+        ConstructorModel constructor = new ConstructorModel(List.of(new FieldModel("age", "long")));
+
+        // when
+        boolean result = constructorSelector.isSetInConstructor(age, constructor);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldMatchParameterIgnoringPrefixes() {
+        // given
+        ConstructorSelector prefixedSelector = new ConstructorSelector("m_", "p_");
+
+        // when
+        boolean result = prefixedSelector.areNameAndTypeEqual(new FieldModel("m_age", "int"), new FieldModel("p_age", "int"));
+
+        // then
+        assertThat(result).isTrue();
+    }
+}
@@ -0,0 +1,62 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DefensiveCopyStrategyTest {
+
+    @Test
+    void shouldPassValuesThroughWithoutCopy() {
+        // when
+        String result = DefensiveCopyStrategy.NONE.copyOf("java.util.List<java.lang.String>", "names");
+
+        // then
+        assertThat(result).isEqualTo("names");
+    }
+
+    @Test
+    void shouldCopyCollectionsIntoMutableImplementations() {
+        // when
+        String result = DefensiveCopyStrategy.COPY_ON_BUILD.copyOf("java.util.Set<java.lang.String>", "names");
+
+        // then
+        assertThat(result).isEqualTo("names == null ? null : new java.util.HashSet<>(names)");
+    }
+
+    @Test
+    void shouldCopyInterfaceTypedCollectionsImmutably() {
+        // when
+        String result = DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD.copyOf("java.util.Map<java.lang.String,java.lang.Integer>", "this.ages");
+
+        // then
+        assertThat(result).isEqualTo("this.ages == null ? null : java.util.Map.copyOf(this.ages)");
+    }
+
+    @Test
+    void shouldKeepConcreteCollectionTypesWhenCopyingImmutably() {
+        // when
+        String result = DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD.copyOf("java.util.ArrayList<java.lang.String>", "names");
+
+        // then
+        assertThat(result).isEqualTo("names == null ? null : new java.util.ArrayList<>(names)");
+    }
+
+    @Test
+    void shouldCloneArrays() {
+        // when
+        String result = DefensiveCopyStrategy.COPY_ON_SET.copyOf("int[]", "scores");
+
+        // then
+        assertThat(result).isEqualTo("scores == null ? null : scores.clone()");
+    }
+
+    @Test
+    void shouldNotCopyOtherTypes() {
+        // when
+        String result = DefensiveCopyStrategy.COPY_ON_BUILD.copyOf("java.lang.String", "name");
+
+        // then
+        assertThat(result).isEqualTo("name");
+    }
+}
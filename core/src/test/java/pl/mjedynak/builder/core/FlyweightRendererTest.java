@@ -0,0 +1,116 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlyweightRendererTest {
+
+    private static final String QUOTE_SOURCE = "public class Quote {\n"
+            + "    private long instrumentId; private String venue; private double price; private int quantity; private boolean bid;\n"
+            + "    private String trader; private Object other;\n"
+            + "    public void setInstrumentId(long instrumentId) { this.instrumentId = instrumentId; }\n"
+            + "    public void setVenue(String venue) { this.venue = venue; }\n"
+            + "    public void setPrice(double price) { this.price = price; }\n"
+            + "    public void setQuantity(int quantity) { this.quantity = quantity; }\n"
+            + "    public void setBid(boolean bid) { this.bid = bid; }\n"
+            + "    public void setTrader(String trader) { this.trader = trader; }\n"
+            + "    public void setOther(Object other) { this.other = other; }\n"
+            + "}\n";
+
+    private static final String DRIVER_SOURCE = "public class Driver implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocateDirect(256);\n"
+            + "        QuoteBuilder.QuoteFlyweight flyweight = new QuoteBuilder.QuoteFlyweight().wrap(buffer, 16)\n"
+            + "            .withPrice(101.25).withInstrumentId(42L).withBid(true).withQuantity(-7).withVenue(\"XL\\u00f6N\").withTrader(null);\n"
+            + "        QuoteBuilder.QuoteView view = new QuoteBuilder.QuoteView().wrap(buffer, 16);\n"
+            + "        String outOfOrder;\n"
+            + "        try { new QuoteBuilder.QuoteFlyweight().wrap(buffer, 128).withTrader(\"t\"); outOfOrder = \"accepted\"; }\n"
+            + "        catch (IllegalStateException e) { outOfOrder = \"rejected\"; }\n"
+            + "        return view.getInstrumentId() + \"|\" + view.getVenue() + \"|\" + view.getPrice() + \"|\" + view.getQuantity() + \"|\"\n"
+            + "            + view.getBid() + \"|\" + view.getTrader() + \"|\" + flyweight.length() + \"|\" + view.length() + \"|\" + outOfOrder;\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final FlyweightRenderer flyweightRenderer = new FlyweightRenderer();
+
+    private static BuilderModel quoteModel() {
+        List<FieldModel> fields = List.of(new FieldModel("instrumentId", "long"), new FieldModel("venue", "java.lang.String"),
+                new FieldModel("price", "double"), new FieldModel("quantity", "int"), new FieldModel("bid", "boolean"),
+                new FieldModel("trader", "java.lang.String"), new FieldModel("other", "java.lang.Object"));
+        return new BuilderModel("", "Quote", "QuoteBuilder", fields, List.of(), fields, null,
+                new BuilderOptions("with", "", "", false, false), false);
+    }
+
+    @Test
+    void shouldLayOutOnlyFixedWidthAndLengthPrefixedFields() {
+        // when
+        List<FieldModel> result = flyweightRenderer.getLayoutFields(quoteModel());
+
+        // then
+        assertThat(result).extracting(FieldModel::getName).containsExactly("instrumentId", "venue", "price", "quantity", "bid", "trader");
+    }
+
+    @Test
+    void shouldRenderOffsetConstantsForFixedWidthFields() {
+        // given
+        BuilderModel model = quoteModel();
+
+        // when
+        List<String> result = flyweightRenderer.renderClasses(model, flyweightRenderer.getLayoutFields(model));
+
+        // then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).startsWith("public static final class QuoteFlyweight { "
+                + "public static final int INSTRUMENT_ID_OFFSET = 0; "
+                + "public static final int PRICE_OFFSET = 8; "
+                + "public static final int QUANTITY_OFFSET = 16; "
+                + "public static final int BID_OFFSET = 20; "
+                + "public static final int FIXED_LENGTH = 21; ");
+        assertThat(result.get(0)).contains("public QuoteFlyweight withPrice(double price) { buffer.putDouble(offset + PRICE_OFFSET, price); return this; }");
+        assertThat(result.get(1)).startsWith("public static final class QuoteView { ");
+        assertThat(result.get(1)).contains("public double getPrice() { return buffer.getDouble(offset + QuoteFlyweight.PRICE_OFFSET); }");
+    }
+
+    @Test
+    void shouldReadBackThroughViewWhatFlyweightWrote() throws Exception {
+        // given
+        BuilderModel model = quoteModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null,
+                flyweightRenderer.renderClasses(model, flyweightRenderer.getLayoutFields(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Quote", QUOTE_SOURCE, "QuoteBuilder", builderSource, "Driver", DRIVER_SOURCE));
+
+        // when
+        @SuppressWarnings("unchecked")
+        String result = ((Callable<String>) classLoader.loadClass("Driver").getDeclaredConstructor().newInstance()).call();
+
+        // then
+        assertThat(result).isEqualTo("42|XL\u00f6N|101.25|-7|true|null|34|34|rejected");
+    }
+
+    @Test
+    void shouldRenderClassesCompilingForJava8() throws Exception {
+        // given
+        BuilderModel model = quoteModel();
+
+        // when
+        String builderSource = new BuilderSourceRenderer().render(model, null,
+                flyweightRenderer.renderClasses(model, flyweightRenderer.getLayoutFields(model)));
+
+        // then
+        new GeneratedSourceCompiler(tempDir).compile(Map.of("Quote", QUOTE_SOURCE, "QuoteBuilder", builderSource), List.of("--release", "8"));
+    }
+}
@@ -0,0 +1,50 @@
+package pl.mjedynak.builder.core;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compiles generated sources together with hand written source classes, so tests can exercise the generated code.
+ */
+class GeneratedSourceCompiler {
+
+    private final Path directory;
+
+    GeneratedSourceCompiler(Path directory) {
+        this.directory = directory;
+    }
+
+    ClassLoader compile(Map<String, String> sourcesByClassName) throws IOException {
+        return compile(sourcesByClassName, List.of());
+    }
+
+    ClassLoader compile(Map<String, String> sourcesByClassName, List<String> compilerOptions) throws IOException {
+        Path sources = Files.createDirectories(directory.resolve("sources"));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sourcesByClassName.entrySet()) {
+            Path file = sources.resolve(source.getKey() + ".java");
+            Files.writeString(file, source.getValue());
+            files.add(file);
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            List<String> options = new ArrayList<>(List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString(), "-proc:none"));
+            options.addAll(compilerOptions);
+            boolean result = compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromPaths(files)).call();
+            assertThat(result).as("generated sources compile").isTrue();
+        }
+        return new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+}
@@ -0,0 +1,201 @@
+package pl.mjedynak.builder.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads the JSON corpus through the generated reader and through a reader that looks up and invokes the set methods
+ * of the source class by reflection, the way reflection based mappers do. Both have to read the same values, and the
+ * generated reader has to allocate less per read, counted for the calling thread after warming up.
+ */
+public class JsonReaderReflectionComparisonTest {
+
+    private static final String PERSON_SOURCE = "public class Person {\n"
+            + "    private String name; private int age; private Double score; private boolean active; private long id; private Object other;\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public void setScore(Double score) { this.score = score; }\n"
+            + "    public void setActive(boolean active) { this.active = active; }\n"
+            + "    public void setId(long id) { this.id = id; }\n"
+            + "    public void setOther(Object other) { this.other = other; }\n"
+            + "}\n";
+
+    private static final List<String> CORPUS = List.of("person-full.json", "person-unknown-fields.json", "person-nulls.json");
+    private static final int READS = 10000;
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @TempDir
+    Path tempDir;
+
+    private JsonRead generatedReader;
+    private JsonRead reflectionReader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        List<FieldModel> fields = List.of(new FieldModel("name", "java.lang.String"), new FieldModel("age", "int"),
+                new FieldModel("score", "java.lang.Double"), new FieldModel("active", "boolean"), new FieldModel("id", "long"),
+                new FieldModel("other", "java.lang.Object"));
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", fields, List.of(), fields, null,
+                new BuilderOptions("with", "", "", false, false), false);
+        String builderSource = new BuilderSourceRenderer().render(model, null, List.of(new JsonReaderRenderer().renderReadMethod(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(Map.of("Person", PERSON_SOURCE, "PersonBuilder", builderSource));
+        Class<?> personClass = classLoader.loadClass("Person");
+        MethodHandle readJson = MethodHandles.publicLookup()
+                .findStatic(classLoader.loadClass("PersonBuilder"), "readJson", MethodType.methodType(personClass, JsonParser.class))
+                .asType(MethodType.methodType(Object.class, JsonParser.class));
+        generatedReader = parser -> {
+            try {
+                return (Object) readJson.invokeExact(parser);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        reflectionReader = new ReflectionReader(personClass);
+    }
+
+    @Test
+    void shouldReadSameValuesAsReflectionPath() throws Exception {
+        // when
+        List<Object> generatedResult = readCorpus(generatedReader);
+        List<Object> reflectionResult = readCorpus(reflectionReader);
+
+        // then
+        assertThat(generatedResult).usingRecursiveComparison().isEqualTo(reflectionResult);
+    }
+
+    @Test
+    void shouldAllocateLessPerReadThanReflectionPath() throws Exception {
+        // given
+        byte[] json = corpus("person-full.json");
+
+        // when
+        long generatedBytes = allocatedBytes(generatedReader, json);
+        long reflectionBytes = allocatedBytes(reflectionReader, json);
+
+        // then
+        assertThat(generatedBytes).isLessThan(reflectionBytes);
+    }
+
+    private List<Object> readCorpus(JsonRead reader) throws IOException {
+        List<Object> result = new ArrayList<>();
+        for (String corpusFile : CORPUS) {
+            result.add(read(reader, corpus(corpusFile)));
+        }
+        return result;
+    }
+
+    private long allocatedBytes(JsonRead reader, byte[] json) throws IOException {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            readRepeatedly(reader, json);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(thread);
+        readRepeatedly(reader, json);
+        return threads.getThreadAllocatedBytes(thread) - start;
+    }
+
+    private void readRepeatedly(JsonRead reader, byte[] json) throws IOException {
+        for (int i = 0; i < READS; i++) {
+            read(reader, json);
+        }
+    }
+
+    private Object read(JsonRead reader, byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return reader.read(parser);
+        }
+    }
+
+    private byte[] corpus(String corpusFile) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/json-corpus/" + corpusFile)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private interface JsonRead {
+        Object read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Sets every field with a set method taking a scalar type, looked up once per class, and skips the other values.
+     */
+    private static final class ReflectionReader implements JsonRead {
+
+        private final Class<?> sourceClass;
+        private final Map<String, Method> setters = new HashMap<>();
+
+        private ReflectionReader(Class<?> sourceClass) {
+            this.sourceClass = sourceClass;
+            for (Method method : sourceClass.getMethods()) {
+                if (method.getName().startsWith("set") && method.getParameterCount() == 1 && method.getParameterTypes()[0] != Object.class) {
+                    String propertyName = method.getName().substring(3);
+                    setters.put(Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1), method);
+                }
+            }
+        }
+
+        @Override
+        public Object read(JsonParser parser) throws IOException {
+            try {
+                Object instance = sourceClass.getDeclaredConstructor().newInstance();
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    Method setter = setters.get(parser.getCurrentName());
+                    parser.nextToken();
+                    if (setter == null || parser.currentToken().isStructStart()) {
+                        parser.skipChildren();
+                    } else {
+                        setter.invoke(instance, value(setter.getParameterTypes()[0], parser));
+                    }
+                }
+                return instance;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Object value(Class<?> type, JsonParser parser) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NULL && !type.isPrimitive()) {
+                return null;
+            }
+            if (type == int.class) {
+                return parser.getValueAsInt();
+            }
+            if (type == long.class) {
+                return parser.getValueAsLong();
+            }
+            if (type == boolean.class) {
+                return parser.getValueAsBoolean();
+            }
+            if (type == Double.class) {
+                return parser.getValueAsDouble();
+            }
+            return parser.getValueAsString();
+        }
+    }
+}
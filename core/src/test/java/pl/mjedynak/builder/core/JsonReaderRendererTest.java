@@ -0,0 +1,119 @@
+package pl.mjedynak.builder.core;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonReaderRendererTest {
+
+    private static final String PERSON_SOURCE = "public class Person {\n"
+            + "    private String name; private int age; private Double score; private boolean active; private long id; private Object other;\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public void setScore(Double score) { this.score = score; }\n"
+            + "    public void setActive(boolean active) { this.active = active; }\n"
+            + "    public void setId(long id) { this.id = id; }\n"
+            + "    public void setOther(Object other) { this.other = other; }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "    public Double getScore() { return score; }\n"
+            + "    public boolean isActive() { return active; }\n"
+            + "    public long getId() { return id; }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    private final JsonReaderRenderer jsonReaderRenderer = new JsonReaderRenderer();
+
+    private static BuilderModel personModel() {
+        List<FieldModel> fields = List.of(new FieldModel("name", "java.lang.String"), new FieldModel("age", "int"),
+                new FieldModel("score", "java.lang.Double"), new FieldModel("active", "boolean"), new FieldModel("id", "long"),
+                new FieldModel("other", "java.lang.Object"));
+        return new BuilderModel("", "Person", "PersonBuilder", fields, List.of(), fields, null,
+                new BuilderOptions("with", "", "", false, false), false);
+    }
+
+    @Test
+    void shouldRenderSwitchOverSupportedFields() {
+        // given
+        FieldModel name = new FieldModel("m_name", "java.lang.String");
+        FieldModel other = new FieldModel("m_other", "java.lang.Object");
+        BuilderModel model = new BuilderModel("", "Person", "PersonBuilder", List.of(name, other), List.of(), List.of(name, other), null,
+                new BuilderOptions("with", "m_", "", false, false), false);
+
+        // when
+        String result = jsonReaderRenderer.renderReadMethod(model);
+
+        // then
+        assertThat(result).isEqualTo("public static Person readJson(com.fasterxml.jackson.core.JsonParser parser) throws java.io.IOException { "
+                + "if (parser.currentToken() == null) { parser.nextToken(); } "
+                + "if (parser.currentToken() != com.fasterxml.jackson.core.JsonToken.START_OBJECT) { "
+                + "throw new java.io.IOException(\"Expected start of Person object\"); } "
+                + "PersonBuilder builder = aPerson(); "
+                + "while (parser.nextToken() == com.fasterxml.jackson.core.JsonToken.FIELD_NAME) { "
+                + "String fieldName = parser.getCurrentName(); parser.nextToken(); switch (fieldName) { "
+                + "case \"name\": if (parser.currentToken().isStructStart()) { "
+                + "throw new java.io.IOException(\"Expected a scalar value for Person.name\"); } "
+                + "builder.withName(parser.getValueAsString()); break; "
+                + "default: parser.skipChildren(); } } "
+                + "return builder.build(); }");
+    }
+
+    @Test
+    void shouldReadCorpusThroughGeneratedReader() throws Exception {
+        // given
+        BuilderModel model = personModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null, List.of(jsonReaderRenderer.renderReadMethod(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(Map.of("Person", PERSON_SOURCE, "PersonBuilder", builderSource));
+        Method readJson = classLoader.loadClass("PersonBuilder").getMethod("readJson", JsonParser.class);
+
+        // when
+        Object full = read(readJson, "person-full.json");
+        Object withUnknownFields = read(readJson, "person-unknown-fields.json");
+        Object withNulls = read(readJson, "person-nulls.json");
+
+        // then
+        assertThat(full).extracting("name", "age", "score", "active", "id").containsExactly("John", 42, 1.5, true, 9000000000L);
+        assertThat(withUnknownFields).extracting("name", "age", "score", "active", "id").containsExactly("Anna", 7, null, false, 1L);
+        assertThat(withNulls).extracting("name", "age", "score", "active", "id").containsExactly(null, 0, null, false, 0L);
+    }
+
+    @Test
+    void shouldFailWhenReadFieldIsGivenObjectOrArray() throws Exception {
+        // given
+        BuilderModel model = personModel();
+        String builderSource = new BuilderSourceRenderer().render(model, null, List.of(jsonReaderRenderer.renderReadMethod(model)));
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(Map.of("Person", PERSON_SOURCE, "PersonBuilder", builderSource));
+        Method readJson = classLoader.loadClass("PersonBuilder").getMethod("readJson", JsonParser.class);
+
+        // when / then
+        assertThatThrownBy(() -> read(readJson, "person-object-for-scalar.json"))
+                .hasRootCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("Expected a scalar value for Person.name");
+        assertThatThrownBy(() -> read(readJson, "person-array-for-scalar.json"))
+                .hasRootCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("Expected a scalar value for Person.age");
+    }
+
+    private Object read(Method readJson, String corpusFile) throws Exception {
+        try (InputStream inputStream = getClass().getResourceAsStream("/json-corpus/" + corpusFile);
+             JsonParser parser = new JsonFactory().createParser(inputStream)) {
+            return readJson.invoke(null, parser);
+        }
+    }
+}
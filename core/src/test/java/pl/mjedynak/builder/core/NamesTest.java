@@ -0,0 +1,35 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NamesTest {
+
+    @Test
+    void shouldStripPrefixFromStartOfName() {
+        // when
+        String result = Names.withoutPrefix("m_name", "m_");
+
+        // then
+        assertThat(result).isEqualTo("name");
+    }
+
+    @Test
+    void shouldTakePrefixLiterally() {
+        // when
+        String result = Names.withoutPrefix("aname", ".");
+
+        // then
+        assertThat(result).isEqualTo("aname");
+    }
+
+    @Test
+    void shouldKeepPrefixOccurringAfterStartOfName() {
+        // when
+        String result = Names.withoutPrefix("data_m_name", "m_");
+
+        // then
+        assertThat(result).isEqualTo("data_m_name");
+    }
+}
@@ -0,0 +1,120 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the bytes allocated by the calling thread while building through the pooled initializing method and compares
+ * them with populating the same instances by hand.
+ */
+public class PooledBuilderAllocationTest {
+
+    private static final String PERSON_SOURCE = "public class Person {\n"
+            + "    private String name; private int age;\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "}\n";
+
+    private static final String DRIVER_SOURCE = "public class Driver implements java.util.concurrent.Callable<String> {\n"
+            + "    private static final int COUNT = 100000;\n"
+            + "    public String call() {\n"
+            + "        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();\n"
+            + "        long thread = Thread.currentThread().getId();\n"
+            + "        Person[] people = new Person[COUNT];\n"
+            + "        for (int round = 0; round < 5; round++) { pooled(people); direct(people); }\n"
+            + "        long start = threads.getThreadAllocatedBytes(thread);\n"
+            + "        pooled(people);\n"
+            + "        long pooledBytes = threads.getThreadAllocatedBytes(thread) - start;\n"
+            + "        start = threads.getThreadAllocatedBytes(thread);\n"
+            + "        direct(people);\n"
+            + "        long directBytes = threads.getThreadAllocatedBytes(thread) - start;\n"
+            + "        PersonBuilder pooled = PersonBuilder.aPerson().withAge(7);\n"
+            + "        boolean reused = pooled == PersonBuilder.aPerson();\n"
+            + "        boolean freshIsPooled = pooled == PersonBuilder.fresh();\n"
+            + "        return pooledBytes + \" \" + directBytes + \" \" + reused + \" \" + freshIsPooled + \" \" + pooled.build().getAge();\n"
+            + "    }\n"
+            + "    private static void pooled(Person[] people) {\n"
+            + "        for (int i = 0; i < COUNT; i++) { people[i] = PersonBuilder.aPerson().withName(\"n\").withAge(i).build(); }\n"
+            + "    }\n"
+            + "    private static void direct(Person[] people) {\n"
+            + "        for (int i = 0; i < COUNT; i++) { Person person = new Person(); person.setName(\"n\"); person.setAge(i); people[i] = person; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String BUT_DRIVER_SOURCE = "public class ButDriver implements java.util.concurrent.Callable<String> {\n"
+            + "    public String call() {\n"
+            + "        PersonBuilder pooled = PersonBuilder.aPerson().withName(\"n\").withAge(7);\n"
+            + "        PersonBuilder copy = pooled.but();\n"
+            + "        Person person = copy.build();\n"
+            + "        return (copy == pooled) + \" \" + person.getName() + \" \" + person.getAge() + \" \" + pooled.build().getName();\n"
+            + "    }\n"
+            + "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldNotAllocateBuildersWhenUsingPooledInitializingMethod() throws Exception {
+        // given
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Person", PERSON_SOURCE, "PersonBuilder", pooledBuilderSource(), "Driver", DRIVER_SOURCE));
+
+        // when
+        @SuppressWarnings("unchecked")
+        String result = ((Callable<String>) classLoader.loadClass("Driver").getDeclaredConstructor().newInstance()).call();
+
+        // then
+        String[] values = result.split(" ");
+        long pooledBytes = Long.parseLong(values[0]);
+        long directBytes = Long.parseLong(values[1]);
+        assertThat(pooledBytes).isLessThanOrEqualTo(directBytes + directBytes / 10);
+        assertThat(values).endsWith("true", "false", "0");
+    }
+
+    @Test
+    void shouldKeepStateOfPooledBuilderInBut() throws Exception {
+        // given
+        ClassLoader classLoader = new GeneratedSourceCompiler(tempDir).compile(
+                Map.of("Person", PERSON_SOURCE, "PersonBuilder", pooledBuilderSource(), "ButDriver", BUT_DRIVER_SOURCE));
+
+        // when
+        @SuppressWarnings("unchecked")
+        String result = ((Callable<String>) classLoader.loadClass("ButDriver").getDeclaredConstructor().newInstance()).call();
+
+        // then
+        assertThat(result).isEqualTo("false n 7 n");
+    }
+
+    private static String pooledBuilderSource() {
+        BuilderRenderer renderer = new BuilderRenderer("PersonBuilder", new BuilderOptions("with", "", "", false, false));
+        Map<String, String> fieldTypes = new LinkedHashMap<>();
+        fieldTypes.put("name", "java.lang.String");
+        fieldTypes.put("age", "int");
+        Map<String, String> setterValues = new LinkedHashMap<>();
+        setterValues.put("name", "name");
+        setterValues.put("age", "age");
+        List<String> members = List.of(
+                renderer.renderPoolField(),
+                "private String name; private int age;",
+                "private PersonBuilder() { }",
+                renderer.renderPooledInitializingMethod("Person"),
+                renderer.renderFreshMethod(),
+                renderer.renderResetMethod(fieldTypes),
+                renderer.renderSetMethod("name", "String", "person"),
+                renderer.renderSetMethod("age", "int", "person"),
+                renderer.renderPooledButMethod("Person", List.of("name", "age")),
+                renderer.renderBuildMethod("Person", List.of(), setterValues, Map.of()));
+        return "public final class PersonBuilder { " + String.join(" ", members) + " }";
+    }
+}
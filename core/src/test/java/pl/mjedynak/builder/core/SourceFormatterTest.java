@@ -0,0 +1,56 @@
+package pl.mjedynak.builder.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SourceFormatterTest {
+
+    private final SourceFormatter sourceFormatter = new SourceFormatter();
+
+    @Test
+    void shouldBreakMethodIntoIndentedLines() {
+        // when
+        List<String> result = sourceFormatter.format("public B withName(String name) { this.name = name; return this; }", 1);
+
+        // then
+        assertThat(result).containsExactly(
+                "    public B withName(String name) {",
+                "        this.name = name;",
+                "        return this;",
+                "    }");
+    }
+
+    @Test
+    void shouldNotBreakInsideParenthesesAndStringLiterals() {
+        // when
+        List<String> result = sourceFormatter.format("void m(){ call(\"a;{b}\", ';'); }", 0);
+
+        // then
+        assertThat(result).containsExactly(
+                "void m() {",
+                "    call(\"a;{b}\", ';');",
+                "}");
+    }
+
+    @Test
+    void shouldKeepElseAndDoWhileOnClosingBraceLine() {
+        // when
+        List<String> result = sourceFormatter.format("void m(){ if (a) { b(); } else { c(); } do { d(); } while (e()); }", 0);
+
+        // then
+        assertThat(result).containsExactly(
+                "void m() {",
+                "    if (a) {",
+                "        b();",
+                "    } else {",
+                "        c();",
+                "    }",
+                "    do {",
+                "        d();",
+                "    } while (e());",
+                "}");
+    }
+}
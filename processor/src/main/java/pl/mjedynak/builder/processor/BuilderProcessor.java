@@ -0,0 +1,238 @@
+package pl.mjedynak.builder.processor;
+
+import pl.mjedynak.builder.core.BuilderSourceRenderer;
+import pl.mjedynak.builder.core.ConstructorSelector;
+import pl.mjedynak.builder.core.Names;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Isolating processor: every builder is generated from its annotated class and the superclasses of it only.
+ */
+public class BuilderProcessor extends AbstractProcessor {
+
+    private static final String BUILDER_SUFFIX = "Builder";
+    private static final String SERIAL_VERSION_UID = "serialVersionUID";
+    private static final String SET_PREFIX = "set";
+    private static final String GENERATED_ANNOTATION = "javax.annotation.processing.Generated";
+
+    private final BuilderSourceRenderer builderSourceRenderer = new BuilderSourceRenderer();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(GenerateBuilder.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateBuilder.class)) {
+            String unsupportedReason = findUnsupportedReason(element);
+            if (unsupportedReason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, unsupportedReason, element);
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) element;
+            BuilderModel model = createModel(typeElement, typeElement.getAnnotation(GenerateBuilder.class));
+            writeBuilder(typeElement, model);
+        }
+        return true;
+    }
+
+    /**
+     * The builder is generated next to the annotated class, so the class has to be reachable from its package and
+     * constructible without an enclosing instance. Generic classes are not supported, their type parameters would
+     * have to be repeated on the builder.
+     */
+    private String findUnsupportedReason(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return "@GenerateBuilder is only supported on classes";
+        }
+        if (!((TypeElement) element).getTypeParameters().isEmpty()) {
+            return "@GenerateBuilder is not supported on generic classes";
+        }
+        for (Element current = element; current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+            if (!(current instanceof TypeElement) || ((TypeElement) current).getNestingKind() == NestingKind.LOCAL) {
+                return "@GenerateBuilder is not supported on local classes";
+            }
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return "@GenerateBuilder needs a class visible in its package, " + current.getSimpleName() + " is private";
+            }
+            if (((TypeElement) current).getNestingKind() == NestingKind.MEMBER && current.getKind() == ElementKind.CLASS
+                    && !current.getModifiers().contains(Modifier.STATIC)) {
+                return "@GenerateBuilder is not supported on inner classes, make " + current.getSimpleName() + " static";
+            }
+        }
+        return null;
+    }
+
+    BuilderModel createModel(TypeElement typeElement, GenerateBuilder annotation) {
+        BuilderOptions options = new BuilderOptions(annotation.methodPrefix(), annotation.fieldNamePrefix(), annotation.parameterNamePrefix(),
+                annotation.useSingleField(), annotation.butMethod());
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(typeElement);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String qualifiedName = typeElement.getQualifiedName().toString();
+        // nested classes are referred to through their enclosing classes, e.g. Outer.Inner
+        String sourceClassName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        String builderClassName = annotation.builderName().isEmpty() ? sourceClassName.replace(".", "") + BUILDER_SUFFIX : annotation.builderName();
+
+        Set<String> setterNames = findSetterNames(typeElement, packageElement);
+        List<ConstructorModel> constructors = findConstructors(typeElement);
+        ConstructorSelector constructorSelector = new ConstructorSelector(options.getFieldNamePrefix(), options.getParameterNamePrefix());
+        List<FieldModel> allFields = new ArrayList<>();
+        List<FieldModel> fieldsFoundInSetters = new ArrayList<>();
+        for (VariableElement field : findFields(typeElement)) {
+            TypeMirror fieldType = processingEnv.getTypeUtils().asMemberOf((DeclaredType) typeElement.asType(), field);
+            FieldModel fieldModel = new FieldModel(field.getSimpleName().toString(), fieldType.toString());
+            String fieldNameWithoutPrefix = Names.withoutPrefix(fieldModel.getName(), options.getFieldNamePrefix());
+            boolean foundInSetter = setterNames.contains(Names.methodName(SET_PREFIX, fieldNameWithoutPrefix));
+            // like the plugin for external builders, fields neither a setter nor a constructor can take are left out
+            if (foundInSetter) {
+                fieldsFoundInSetters.add(fieldModel);
+            }
+            if (foundInSetter || !options.useSingleField() && isSetInAnyConstructor(constructorSelector, fieldModel, constructors)) {
+                allFields.add(fieldModel);
+            }
+        }
+        List<FieldModel> fieldsToFindInConstructor = new ArrayList<>(allFields);
+        fieldsToFindInConstructor.removeAll(fieldsFoundInSetters);
+
+        ConstructorModel bestConstructor = constructorSelector.getBestConstructor(fieldsToFindInConstructor, constructors);
+        List<FieldModel> fieldsForConstructor = new ArrayList<>();
+        if (bestConstructor != null) {
+            for (FieldModel field : allFields) {
+                if (constructorSelector.isSetInConstructor(field, bestConstructor)) {
+                    fieldsForConstructor.add(field);
+                }
+            }
+        }
+        List<FieldModel> fieldsForSetters = new ArrayList<>(fieldsFoundInSetters);
+        fieldsForSetters.removeAll(fieldsForConstructor);
+        return new BuilderModel(packageName, sourceClassName, builderClassName, fieldsForSetters, fieldsForConstructor, allFields, bestConstructor,
+                options, false);
+    }
+
+    private List<VariableElement> findFields(TypeElement typeElement) {
+        List<VariableElement> fields = new ArrayList<>();
+        TypeElement currentClass = typeElement;
+        while (currentClass != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(currentClass.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC) && !SERIAL_VERSION_UID.equals(field.getSimpleName().toString())) {
+                    fields.add(field);
+                }
+            }
+            currentClass = superclassOf(currentClass);
+        }
+        return fields;
+    }
+
+    private boolean isSetInAnyConstructor(ConstructorSelector constructorSelector, FieldModel field, List<ConstructorModel> constructors) {
+        for (ConstructorModel constructor : constructors) {
+            if (constructorSelector.isSetInConstructor(field, constructor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Names of the setters the builder, generated in the package of the annotated class, can call.
+     */
+    private Set<String> findSetterNames(TypeElement typeElement, PackageElement builderPackage) {
+        Set<String> setterNames = new HashSet<>();
+        TypeElement currentClass = typeElement;
+        while (currentClass != null) {
+            for (ExecutableElement method : ElementFilter.methodsIn(currentClass.getEnclosedElements())) {
+                if (isAccessible(method, builderPackage) && method.getSimpleName().toString().startsWith(SET_PREFIX)) {
+                    setterNames.add(method.getSimpleName().toString());
+                }
+            }
+            currentClass = superclassOf(currentClass);
+        }
+        return setterNames;
+    }
+
+    private boolean isAccessible(Element member, PackageElement builderPackage) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || builderPackage.equals(processingEnv.getElementUtils().getPackageOf(member));
+    }
+
+    private List<ConstructorModel> findConstructors(TypeElement typeElement) {
+        List<ConstructorModel> constructors = new ArrayList<>();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(typeElement.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            List<FieldModel> parameters = new ArrayList<>();
+            for (VariableElement parameter : constructor.getParameters()) {
+                parameters.add(new FieldModel(parameter.getSimpleName().toString(), parameter.asType().toString()));
+            }
+            constructors.add(new ConstructorModel(parameters));
+        }
+        return constructors;
+    }
+
+    private TypeElement superclassOf(TypeElement typeElement) {
+        TypeMirror superclass = typeElement.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement superclassElement = (TypeElement) ((DeclaredType) superclass).asElement();
+        return Object.class.getName().equals(superclassElement.getQualifiedName().toString()) ? null : superclassElement;
+    }
+
+    private void writeBuilder(TypeElement typeElement, BuilderModel model) {
+        String qualifiedName = model.getPackageName().isEmpty()
+                ? model.getBuilderClassName()
+                : model.getPackageName() + "." + model.getBuilderClassName();
+        String source = builderSourceRenderer.render(model, generatedAnnotation());
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, typeElement);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + qualifiedName + ": " + e.getMessage(), typeElement);
+        }
+    }
+
+    private String generatedAnnotation() {
+        if (processingEnv.getElementUtils().getTypeElement(GENERATED_ANNOTATION) == null) {
+            return null;
+        }
+        return "@" + GENERATED_ANNOTATION + "(\"" + getClass().getName() + "\")";
+    }
+}
@@ -0,0 +1,30 @@
+package pl.mjedynak.builder.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates an external builder for the annotated class at compile time. The builder has the same shape as the one
+ * created by the plugin with the corresponding dialog options.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateBuilder {
+
+    /**
+     * Name of the builder class, defaults to the annotated class name followed by {@code Builder}.
+     */
+    String builderName() default "";
+
+    String methodPrefix() default "with";
+
+    String fieldNamePrefix() default "";
+
+    String parameterNamePrefix() default "";
+
+    boolean butMethod() default false;
+
+    boolean useSingleField() default false;
+}
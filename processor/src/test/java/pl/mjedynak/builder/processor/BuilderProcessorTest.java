@@ -0,0 +1,179 @@
+package pl.mjedynak.builder.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuilderProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldGenerateCompilableBuilderForAnnotatedClass() throws IOException {
+        // given
+        Path source = writeSource("Person.java", "package com.example;\n"
+                + "@pl.mjedynak.builder.processor.GenerateBuilder(butMethod = true)\n"
+                + "public class Person {\n"
+                + "    private final String name;\n"
+                + "    private int age;\n"
+                + "    public Person(String name) { this.name = name; }\n"
+                + "    public void setAge(int age) { this.age = age; }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(generated("com/example/PersonBuilder.java"))
+                .contains("public final class PersonBuilder {")
+                .contains("public static PersonBuilder aPerson() {")
+                .contains("public PersonBuilder withAge(int age) {")
+                .contains("public PersonBuilder withName(java.lang.String name) {")
+                .contains("return aPerson().withAge(age).withName(name);")
+                .contains("Person person = new Person(name);")
+                .contains("person.setAge(age);");
+    }
+
+    @Test
+    void shouldUseBuilderNameAndSingleField() throws IOException {
+        // given
+        Path source = writeSource("Point.java", "package com.example;\n"
+                + "@pl.mjedynak.builder.processor.GenerateBuilder(builderName = \"PointMaker\", methodPrefix = \"\", useSingleField = true)\n"
+                + "public class Point {\n"
+                + "    private int x;\n"
+                + "    public void setX(int x) { this.x = x; }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(generated("com/example/PointMaker.java"))
+                .contains("private Point point;")
+                .contains("public PointMaker x(int x) {")
+                .contains("point.setX(x);")
+                .contains("return point;");
+    }
+
+    @Test
+    void shouldGenerateBuilderForNestedClass() throws IOException {
+        // given
+        Path source = writeSource("Outer.java", "package com.example;\n"
+                + "public class Outer {\n"
+                + "    @pl.mjedynak.builder.processor.GenerateBuilder\n"
+                + "    public static class Inner {\n"
+                + "        private int x;\n"
+                + "        public void setX(int x) { this.x = x; }\n"
+                + "    }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(generated("com/example/OuterInnerBuilder.java"))
+                .contains("public final class OuterInnerBuilder {")
+                .contains("public static OuterInnerBuilder anInner() {")
+                .contains("Outer.Inner inner = new Outer.Inner();");
+    }
+
+    @Test
+    void shouldRejectGenericClass() throws IOException {
+        // given
+        Path source = writeSource("Box.java", "package com.example;\n"
+                + "@pl.mjedynak.builder.processor.GenerateBuilder\n"
+                + "public class Box<T> {\n"
+                + "    private T value;\n"
+                + "    public void setValue(T value) { this.value = value; }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        assertThat(result).isFalse();
+        assertThat(tempDir.resolve("generated/com/example/BoxBuilder.java")).doesNotExist();
+    }
+
+    @Test
+    void shouldRejectInnerClass() throws IOException {
+        // given
+        Path source = writeSource("Outer.java", "package com.example;\n"
+                + "public class Outer {\n"
+                + "    @pl.mjedynak.builder.processor.GenerateBuilder\n"
+                + "    public class Inner {\n"
+                + "    }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldSkipInheritedFieldsTheBuilderCannotSet() throws IOException {
+        // given
+        Path base = writeSource("Base.java", "package com.example;\n"
+                + "public class Base<T> {\n"
+                + "    private String id;\n"
+                + "    private T value;\n"
+                + "    public void setValue(T value) { this.value = value; }\n"
+                + "}\n");
+        Path source = writeSource("Named.java", "package com.example;\n"
+                + "@pl.mjedynak.builder.processor.GenerateBuilder\n"
+                + "public class Named extends Base<Long> {\n"
+                + "    private String name;\n"
+                + "    public void setName(String name) { this.name = name; }\n"
+                + "}\n");
+
+        // when
+        boolean result = compile(source, base);
+
+        // then
+        assertThat(result).isTrue();
+        assertThat(generated("com/example/NamedBuilder.java"))
+                .contains("public NamedBuilder withValue(java.lang.Long value) {")
+                .contains("named.setValue(value);")
+                .contains("named.setName(name);")
+                .doesNotContain("withId");
+    }
+
+    private Path writeSource(String fileName, String content) throws IOException {
+        Path source = tempDir.resolve(fileName);
+        Files.writeString(source, content);
+        return source;
+    }
+
+    private String generated(String path) throws IOException {
+        return Files.readString(tempDir.resolve("generated").resolve(path));
+    }
+
+    private boolean compile(Path... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        Path generated = Files.createDirectories(tempDir.resolve("generated"));
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            List<String> options = List.of("-classpath", System.getProperty("java.class.path"),
+                    "-d", classes.toString(), "-s", generated.toString());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null,
+                    fileManager.getJavaFileObjects(sources));
+            task.setProcessors(List.of(new BuilderProcessor()));
+            return task.call();
+        }
+    }
+}
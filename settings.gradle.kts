@@ -0,0 +1,3 @@
+rootProject.name = "builder-generator-idea-plugin"
+
+include("core", "processor")
@@ -5,6 +5,8 @@ import com.intellij.util.pico.DefaultPicoContainer;
 import org.picocontainer.MutablePicoContainer;
 import pl.mjedynak.idea.plugins.builder.action.handler.AbstractBuilderActionHandler;
 import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosers;
+import pl.mjedynak.idea.plugins.builder.action.handler.EditorLookup;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderContextFactory;
 import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
 import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PopupChooserBuilderFactory;
@@ -12,9 +14,15 @@ import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
 import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
 import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderCandidateRanker;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.StaleBuildersDisplayer;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.gui.preview.BuilderPreviewRenderer;
+import pl.mjedynak.idea.plugins.builder.inspection.BuilderFingerprints;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderDetector;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderScanner;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
@@ -34,6 +42,7 @@ public abstract class AbstractBuilderAction extends EditorAction {
         picoContainer.registerComponentImplementation(BuilderVerifier.class);
         picoContainer.registerComponentImplementation(ClassFinder.class);
         picoContainer.registerComponentImplementation(BuilderPsiClassBuilder.class);
+        picoContainer.registerComponentImplementation(BuilderCandidateRanker.class);
         picoContainer.registerComponentImplementation(BuilderFinder.class);
         picoContainer.registerComponentImplementation(PopupChooserBuilderFactory.class);
         picoContainer.registerComponentImplementation(PsiManagerFactory.class);
@@ -46,8 +55,19 @@ public abstract class AbstractBuilderAction extends EditorAction {
         picoContainer.registerComponentImplementation(BuilderWriter.class);
         picoContainer.registerComponentImplementation(PsiFieldSelector.class);
         picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
+        picoContainer.registerComponentImplementation(BuilderPreviewRenderer.class);
         picoContainer.registerComponentImplementation(DisplayChoosers.class);
+        picoContainer.registerComponentImplementation(EditorLookup.class);
         picoContainer.registerComponentImplementation(BestConstructorSelector.class);
+        picoContainer.registerComponentImplementation(BuilderFingerprints.class);
+        picoContainer.registerComponentImplementation(StaleBuilderDetector.class);
+        picoContainer.registerComponentImplementation(StaleBuilderScanner.class);
+        picoContainer.registerComponentImplementation(BuilderContextFactory.class);
+        picoContainer.registerComponentImplementation(StaleBuildersDisplayer.class);
+    }
+
+    public static <T> T getComponentInstance(Class<T> componentType) {
+        return componentType.cast(picoContainer.getComponentInstanceOfType(componentType));
     }
 
     protected AbstractBuilderAction() {
@@ -0,0 +1,27 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.StaleBuildersDisplayer;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderScanner;
+
+public class FindStaleBuildersAction extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project != null) {
+            StaleBuilderScanner scanner = (StaleBuilderScanner) AbstractBuilderAction.picoContainer.getComponentInstanceOfType(StaleBuilderScanner.class);
+            StaleBuildersDisplayer displayer = (StaleBuildersDisplayer) AbstractBuilderAction.picoContainer.getComponentInstanceOfType(StaleBuildersDisplayer.class);
+            ProgressManager.getInstance().run(new StaleBuildersScanTask(project, scanner, displayer));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package pl.mjedynak.idea.plugins.builder.action;
 import pl.mjedynak.idea.plugins.builder.action.handler.AbstractBuilderActionHandler;
 import pl.mjedynak.idea.plugins.builder.action.handler.GoToBuilderActionHandler;
 import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.CandidatesPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
 
 public class GoToBuilderAction extends AbstractBuilderAction {
@@ -11,6 +12,7 @@ public class GoToBuilderAction extends AbstractBuilderAction {
         picoContainer.registerComponentImplementation(GoToBuilderActionHandler.class);
         picoContainer.registerComponentImplementation(GoToBuilderPopupDisplayer.class);
         picoContainer.registerComponentImplementation(GoToBuilderPopupListFactory.class);
+        picoContainer.registerComponentImplementation(CandidatesPopupDisplayer.class);
         builderActionHandler = (AbstractBuilderActionHandler) picoContainer.getComponentInstanceOfType(GoToBuilderActionHandler.class);
     }
 }
@@ -0,0 +1,58 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosers;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+
+public class RegenerateBuilderQuickFix implements LocalQuickFix {
+
+    static final String NAME = "Regenerate builder";
+
+    @NotNull
+    @Override
+    public String getFamilyName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiClass builder = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class, false);
+        if (builder == null) {
+            return;
+        }
+        PsiClass target = findTarget(builder);
+        if (target == null) {
+            return;
+        }
+        OpenFileDescriptor targetLocation = new OpenFileDescriptor(project, target.getContainingFile().getVirtualFile(), target.getTextOffset());
+        Editor editor = FileEditorManager.getInstance(project).openTextEditor(targetLocation, true);
+        if (editor != null) {
+            DisplayChoosers displayChoosers = (DisplayChoosers) AbstractBuilderAction.picoContainer.getComponentInstanceOfType(DisplayChoosers.class);
+            displayChoosers.setEditor(editor);
+            displayChoosers.setProject(project);
+            displayChoosers.setPsiClassFromEditor(target);
+            displayChoosers.run(builder);
+        }
+    }
+
+    private PsiClass findTarget(PsiClass builder) {
+        if (builder.getContainingClass() != null) {
+            return builder.getContainingClass();
+        }
+        BuilderFinder builderFinder = (BuilderFinder) AbstractBuilderAction.picoContainer.getComponentInstanceOfType(BuilderFinder.class);
+        return builderFinder.findClassForBuilder(builder);
+    }
+}
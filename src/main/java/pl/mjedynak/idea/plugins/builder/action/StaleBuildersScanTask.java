@@ -0,0 +1,37 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.StaleBuildersDisplayer;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderScanner;
+
+import java.util.Collections;
+import java.util.List;
+
+public class StaleBuildersScanTask extends Task.Backgroundable {
+
+    static final String TITLE = "Looking for stale builders";
+
+    private StaleBuilderScanner staleBuilderScanner;
+    private StaleBuildersDisplayer staleBuildersDisplayer;
+    private List<StaleBuilder> staleBuilders = Collections.emptyList();
+
+    public StaleBuildersScanTask(Project project, StaleBuilderScanner staleBuilderScanner, StaleBuildersDisplayer staleBuildersDisplayer) {
+        super(project, TITLE, true);
+        this.staleBuilderScanner = staleBuilderScanner;
+        this.staleBuildersDisplayer = staleBuildersDisplayer;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        staleBuilders = staleBuilderScanner.scan(myProject, indicator);
+    }
+
+    @Override
+    public void onSuccess() {
+        staleBuildersDisplayer.display(myProject, staleBuilders);
+    }
+}
@@ -12,23 +12,29 @@ import pl.mjedynak.idea.plugins.builder.gui.displayer.AbstractPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
+import java.util.List;
+
 public abstract class AbstractBuilderActionHandler extends EditorActionHandler {
 
+    static final String LOOKUP_HINT = "Looking for builder...";
+
     protected PsiHelper psiHelper;
     private BuilderVerifier builderVerifier;
     private BuilderFinder builderFinder;
     protected AbstractPopupDisplayer popupDisplayer;
     protected AbstractPopupListFactory popupListFactory;
     protected DisplayChoosers displayChoosers;
+    private EditorLookup editorLookup;
 
     public AbstractBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, AbstractPopupDisplayer popupDisplayer,
-                                        AbstractPopupListFactory popupListFactory, DisplayChoosers displayChoosers) {
+                                        AbstractPopupListFactory popupListFactory, DisplayChoosers displayChoosers, EditorLookup editorLookup) {
         this.psiHelper = psiHelper;
         this.builderVerifier = builderVerifier;
         this.builderFinder = builderFinder;
         this.popupDisplayer = popupDisplayer;
         this.popupListFactory = popupListFactory;
         this.displayChoosers = displayChoosers;
+        this.editorLookup = editorLookup;
     }
 
     @Override
@@ -49,24 +55,46 @@ public abstract class AbstractBuilderActionHandler extends EditorActionHandler {
     }
 
     private void forwardToSpecificAction(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext) {
-        boolean isBuilder = builderVerifier.isBuilder(psiClassFromEditor);
-        PsiClass classToGo = findClassToGo(psiClassFromEditor, isBuilder);
-        if (classToGo != null) {
-            doActionWhenClassToGoIsFound(editor, psiClassFromEditor, dataContext, isBuilder, classToGo);
-        } else {
-            doActionWhenClassToGoIsNotFound(editor, psiClassFromEditor, dataContext, isBuilder);
-        }
+        editorLookup.lookUp(editor, LOOKUP_HINT, () -> findClassesToGo(psiClassFromEditor), classesToGo -> {
+            if (!classesToGo.rankedClasses.isEmpty()) {
+                doActionWhenClassesToGoAreFound(editor, psiClassFromEditor, dataContext, classesToGo.isBuilder, classesToGo.rankedClasses,
+                        classesToGo.firstIsClear);
+            } else {
+                doActionWhenClassToGoIsNotFound(editor, psiClassFromEditor, dataContext, classesToGo.isBuilder);
+            }
+        });
     }
 
-    private PsiClass findClassToGo(PsiClass psiClassFromEditor, boolean isBuilder) {
-        if (isBuilder) {
-            return builderFinder.findClassForBuilder(psiClassFromEditor);
+    private ClassesToGo findClassesToGo(PsiClass psiClassFromEditor) {
+        if (builderVerifier.isBuilder(psiClassFromEditor)) {
+            List<PsiClass> classCandidates = builderFinder.findClassCandidatesForBuilder(psiClassFromEditor);
+            return new ClassesToGo(true, classCandidates, builderFinder.isClassCandidateClearlyFirst(psiClassFromEditor, classCandidates));
         }
-        return builderFinder.findBuilderForClass(psiClassFromEditor);
+        List<PsiClass> builderCandidates = builderFinder.findBuilderCandidatesForClass(psiClassFromEditor);
+        return new ClassesToGo(false, builderCandidates, builderFinder.isBuilderCandidateClearlyFirst(psiClassFromEditor, builderCandidates));
+    }
+
+    /**
+     * @param firstIsClear whether the first of the ranked classes leads the others by the margin of the ranker
+     */
+    protected void doActionWhenClassesToGoAreFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder, List<PsiClass> rankedClassesToGo,
+                                                   boolean firstIsClear) {
+        doActionWhenClassToGoIsFound(editor, psiClassFromEditor, dataContext, isBuilder, rankedClassesToGo.get(0));
     }
 
     protected abstract void doActionWhenClassToGoIsFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder, PsiClass classToGo);
 
     protected abstract void doActionWhenClassToGoIsNotFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder);
 
+    private static final class ClassesToGo {
+        private final boolean isBuilder;
+        private final List<PsiClass> rankedClasses;
+        private final boolean firstIsClear;
+
+        private ClassesToGo(boolean isBuilder, List<PsiClass> rankedClasses, boolean firstIsClear) {
+            this.isBuilder = isBuilder;
+            this.rankedClasses = rankedClasses;
+            this.firstIsClear = firstIsClear;
+        }
+    }
 }
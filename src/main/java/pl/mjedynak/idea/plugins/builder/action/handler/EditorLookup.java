@@ -0,0 +1,57 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.event.CaretEvent;
+import com.intellij.openapi.editor.event.CaretListener;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Runs a lookup started from an editor in a non-blocking background read action. A hint appears when the lookup
+ * takes longer than {@link #HINT_DELAY_MILLIS}, and the lookup is abandoned as soon as the user types or moves the caret,
+ * or when the project of the editor closes.
+ */
+public class EditorLookup {
+
+    static final int HINT_DELAY_MILLIS = 200;
+
+    private PsiHelper psiHelper;
+    private GuiHelper guiHelper;
+
+    public EditorLookup(PsiHelper psiHelper, GuiHelper guiHelper) {
+        this.psiHelper = psiHelper;
+        this.guiHelper = guiHelper;
+    }
+
+    public <T> void lookUp(Editor editor, String hintText, Callable<T> lookup, Consumer<T> uiThreadAction) {
+        Disposable lookupDisposable = Disposer.newDisposable("Builder Generator editor lookup");
+        Project project = editor.getProject();
+        Disposer.register(project != null ? project : psiHelper.getApplication(), lookupDisposable);
+        editor.getCaretModel().addCaretListener(new CaretListener() {
+            @Override
+            public void caretPositionChanged(@NotNull CaretEvent event) {
+                Disposer.dispose(lookupDisposable);
+            }
+        }, lookupDisposable);
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                Disposer.dispose(lookupDisposable);
+            }
+        }, lookupDisposable);
+        guiHelper.showHintAfterDelay(editor, hintText, HINT_DELAY_MILLIS, lookupDisposable);
+        psiHelper.readInBackground(lookup, result -> {
+            Disposer.dispose(lookupDisposable);
+            uiThreadAction.accept(result);
+        }, lookupDisposable);
+    }
+}
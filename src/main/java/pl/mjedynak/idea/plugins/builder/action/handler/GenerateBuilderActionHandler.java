@@ -15,8 +15,9 @@ import javax.swing.JList;
 
 public class GenerateBuilderActionHandler extends AbstractBuilderActionHandler {
 
-    public GenerateBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, GenerateBuilderPopupDisplayer popupDisplayer, GenerateBuilderPopupListFactory popupListFactory, DisplayChoosers displayChoosersRunnable) {
-        super(psiHelper, builderVerifier, builderFinder, popupDisplayer, popupListFactory, displayChoosersRunnable);
+    public GenerateBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, GenerateBuilderPopupDisplayer popupDisplayer, GenerateBuilderPopupListFactory popupListFactory, DisplayChoosers displayChoosersRunnable,
+                                        EditorLookup editorLookup) {
+        super(psiHelper, builderVerifier, builderFinder, popupDisplayer, popupListFactory, displayChoosersRunnable, editorLookup);
     }
 
     @Override
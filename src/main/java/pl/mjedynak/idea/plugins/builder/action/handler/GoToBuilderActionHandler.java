@@ -5,16 +5,36 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.psi.PsiClass;
 import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.CandidatesPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 import javax.swing.JList;
+import java.util.List;
 
 public class GoToBuilderActionHandler extends AbstractBuilderActionHandler {
 
-    public GoToBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, GoToBuilderPopupDisplayer popupDisplayer, GoToBuilderPopupListFactory popupListFactory, DisplayChoosers displayChoosersRunnable) {
-        super(psiHelper, builderVerifier, builderFinder, popupDisplayer, popupListFactory, displayChoosersRunnable);
+    static final String CHOOSE_BUILDER_TITLE = "Choose Builder";
+    static final String CHOOSE_CLASS_TITLE = "Choose Built Class";
+
+    private CandidatesPopupDisplayer candidatesPopupDisplayer;
+
+    public GoToBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, GoToBuilderPopupDisplayer popupDisplayer, GoToBuilderPopupListFactory popupListFactory, DisplayChoosers displayChoosersRunnable,
+                                    EditorLookup editorLookup, CandidatesPopupDisplayer candidatesPopupDisplayer) {
+        super(psiHelper, builderVerifier, builderFinder, popupDisplayer, popupListFactory, displayChoosersRunnable, editorLookup);
+        this.candidatesPopupDisplayer = candidatesPopupDisplayer;
+    }
+
+    @Override
+    protected void doActionWhenClassesToGoAreFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder, List<PsiClass> rankedClassesToGo,
+                                                   boolean firstIsClear) {
+        if (rankedClassesToGo.size() > 1 && !firstIsClear) {
+            String title = isBuilder ? CHOOSE_CLASS_TITLE : CHOOSE_BUILDER_TITLE;
+            candidatesPopupDisplayer.displayCandidates(editor, rankedClassesToGo, title, psiHelper::navigateToClass);
+        } else {
+            super.doActionWhenClassesToGoAreFound(editor, psiClassFromEditor, dataContext, isBuilder, rankedClassesToGo, firstIsClear);
+        }
     }
 
     @Override
@@ -0,0 +1,204 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.MethodNameCreator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.stream;
+import static pl.mjedynak.builder.core.BatchBuilderRenderer.CLASS_NAME_SUFFIX;
+import static pl.mjedynak.builder.core.BinaryCodecRenderer.WRITE_METHOD_NAME;
+import static pl.mjedynak.builder.core.BuilderRenderer.BUT_METHOD_NAME;
+import static pl.mjedynak.builder.core.BuilderRenderer.MEMOIZED_FIELD_NAME;
+import static pl.mjedynak.builder.core.BuilderRenderer.POOL_FIELD_NAME;
+import static pl.mjedynak.builder.core.FlyweightRenderer.FLYWEIGHT_SUFFIX;
+import static pl.mjedynak.builder.core.JsonReaderRenderer.READ_METHOD_NAME;
+import static pl.mjedynak.idea.plugins.builder.psi.CollectionMethodCreator.CAPACITY_SUFFIX;
+import static pl.mjedynak.idea.plugins.builder.psi.CollectionMethodCreator.VALUES_SUFFIX;
+import static pl.mjedynak.idea.plugins.builder.psi.CopyMethodCreator.FROM_METHOD_NAME;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
+
+/**
+ * Creates the context for regenerating a builder without showing any dialog. The builder keeps its name, directory and
+ * kind, receives every field that the dialog would offer, and keeps the options it was generated with, read back from
+ * its own members. Members that generation adds to the source class, withers and toBuilder(), are left as they are.
+ */
+public class BuilderContextFactory {
+
+    private static final String BUILD_METHOD_NAME = "build";
+
+    private MethodNameCreator methodNameCreator = new MethodNameCreator();
+    private PsiFieldSelector psiFieldSelector;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+
+    public BuilderContextFactory(PsiFieldSelector psiFieldSelector, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory) {
+        this.psiFieldSelector = psiFieldSelector;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+    }
+
+    /**
+     * @return the context, or null when the options of the builder cannot be read back: it holds an instance of the
+     * source class, or none of its methods sets a field the builder already has
+     */
+    @SuppressWarnings("rawtypes")
+    public BuilderContext createRegenerationContext(StaleBuilder staleBuilder) {
+        PsiClass builder = staleBuilder.getBuilder();
+        PsiClass target = staleBuilder.getTarget();
+        boolean innerBuilder = staleBuilder.isInnerBuilder();
+        if (holdsTargetInstance(builder, target)) {
+            return null;
+        }
+        List<PsiElementClassMember> members = psiFieldSelector.selectFieldsToIncludeInBuilder(target, innerBuilder, false, false);
+        List<PsiField> keptFields = new ArrayList<>();
+        for (PsiElementClassMember member : members) {
+            PsiField psiField = (PsiField) member.getPsiElement();
+            if (builder.findFieldByName(psiField.getName(), true) != null) {
+                keptFields.add(psiField);
+            }
+        }
+        String methodPrefix = findMethodPrefix(builder, keptFields);
+        if (methodPrefix == null) {
+            return null;
+        }
+        PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, target);
+        PsiDirectory targetDirectory = builder.getContainingFile().getContainingDirectory();
+        return new BuilderContext(target.getProject(), psiFieldsForBuilder, targetDirectory, builder.getName(), target, methodPrefix, innerBuilder,
+                hasMethod(builder, BUT_METHOD_NAME, 0), false, readOptions(builder, target, innerBuilder, keptFields, methodPrefix));
+    }
+
+    /**
+     * Context for the background sync, which only follows changes of the field set: builders with members other than
+     * fields, set methods, collection methods, but() and build() are left for an explicit regeneration.
+     *
+     * @return the context, or null when the builder is not regenerated in the background
+     */
+    public BuilderContext createSyncContext(StaleBuilder staleBuilder) {
+        BuilderContext context = createRegenerationContext(staleBuilder);
+        return context != null && hasOnlyFieldMembers(context.getOptions()) ? context : null;
+    }
+
+    private static boolean hasOnlyFieldMembers(GeneratorOptions options) {
+        return options.equals(aGeneratorOptions()
+                .withCollectionAdders(options.hasCollectionAdders())
+                .withPrimitiveCollections(options.usePrimitiveCollections())
+                .withCopyStrategy(options.getCopyStrategy())
+                .build());
+    }
+
+    private GeneratorOptions readOptions(PsiClass builder, PsiClass target, boolean innerBuilder, List<PsiField> keptFields, String methodPrefix) {
+        String targetName = target.getName();
+        return aGeneratorOptions()
+                .withCollectionAdders(keptFields.stream().anyMatch(psiField ->
+                        hasMethod(builder, methodNameCreator.createMethodName(methodPrefix, psiField.getName() + CAPACITY_SUFFIX), 1)))
+                .withPrimitiveCollections(keptFields.stream().anyMatch(psiField -> builder.findFieldByName(psiField.getName() + VALUES_SUFFIX, false) != null))
+                .withCopyMethod(!innerBuilder && hasMethod(builder, FROM_METHOD_NAME, 1))
+                .withJsonReader(hasMethod(builder, READ_METHOD_NAME, 1))
+                .withBinaryCodec(hasMethod(builder, WRITE_METHOD_NAME, 2))
+                .withFlyweight(builder.findInnerClassByName(targetName + FLYWEIGHT_SUFFIX, false) != null)
+                .withBatchBuilder(builder.findInnerClassByName(targetName + CLASS_NAME_SUFFIX, false) != null)
+                .withMemoizedBuild(builder.findFieldByName(MEMOIZED_FIELD_NAME, false) != null)
+                .withHierarchy(builder.getExtendsListTypes().length > 0)
+                .withThreadLocalPool(builder.findFieldByName(POOL_FIELD_NAME, false) != null)
+                .withCopyStrategy(findCopyStrategy(builder, keptFields, methodPrefix))
+                .build();
+    }
+
+    private String findMethodPrefix(PsiClass builder, List<PsiField> keptFields) {
+        for (PsiField psiField : keptFields) {
+            for (PsiMethod method : builder.getAllMethods()) {
+                String prefix = prefixOf(method, psiField);
+                if (prefix != null) {
+                    return prefix;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String prefixOf(PsiMethod method, PsiField psiField) {
+        String methodName = method.getName();
+        String fieldName = psiField.getName();
+        if (method.getParameterList().getParametersCount() != 1 || methodName.length() < fieldName.length()
+                || !psiField.getType().equals(method.getParameterList().getParameters()[0].getType())) {
+            return null;
+        }
+        String prefix = methodName.substring(0, methodName.length() - fieldName.length());
+        return methodNameCreator.createMethodName(prefix, fieldName).equals(methodName) ? prefix : null;
+    }
+
+    /**
+     * Looks for the copies each strategy renders for the collection and array fields, in the set methods for
+     * {@link DefensiveCopyStrategy#COPY_ON_SET} and in build() for the others.
+     */
+    private DefensiveCopyStrategy findCopyStrategy(PsiClass builder, List<PsiField> keptFields, String methodPrefix) {
+        String buildMethodText = methodText(builder, BUILD_METHOD_NAME);
+        for (PsiField psiField : keptFields) {
+            String type = psiField.getType().getCanonicalText();
+            String fieldName = psiField.getName();
+            if (DefensiveCopyStrategy.COPY_ON_BUILD.copyOf(type, fieldName).equals(fieldName)) {
+                continue;
+            }
+            if (copiesOnBuild(buildMethodText, DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD, type, fieldName)) {
+                return DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD;
+            }
+            if (copiesOnBuild(buildMethodText, DefensiveCopyStrategy.COPY_ON_BUILD, type, fieldName)) {
+                return DefensiveCopyStrategy.COPY_ON_BUILD;
+            }
+            for (PsiMethod method : builder.findMethodsByName(methodNameCreator.createMethodName(methodPrefix, fieldName), true)) {
+                if (method.getParameterList().getParametersCount() == 1) {
+                    String parameterName = method.getParameterList().getParameters()[0].getName();
+                    if (withoutWhitespace(method.getText()).contains(withoutWhitespace(DefensiveCopyStrategy.COPY_ON_SET.copyOf(type, parameterName)))) {
+                        return DefensiveCopyStrategy.COPY_ON_SET;
+                    }
+                }
+            }
+        }
+        return DefensiveCopyStrategy.NONE;
+    }
+
+    /**
+     * Inner builders assign their fields to the built object, referring to them through this.
+     */
+    private static boolean copiesOnBuild(String buildMethodText, DefensiveCopyStrategy copyStrategy, String type, String fieldName) {
+        return buildMethodText.contains(withoutWhitespace(copyStrategy.copyOf(type, fieldName)))
+                || buildMethodText.contains(withoutWhitespace(copyStrategy.copyOf(type, "this." + fieldName)));
+    }
+
+    private String methodText(PsiClass builder, String methodName) {
+        for (PsiMethod method : builder.findMethodsByName(methodName, false)) {
+            if (method.getParameterList().getParametersCount() == 0) {
+                return withoutWhitespace(method.getText());
+            }
+        }
+        return "";
+    }
+
+    private static String withoutWhitespace(String text) {
+        return text.replaceAll("\\s", "");
+    }
+
+    private static boolean hasMethod(PsiClass builder, String methodName, int parametersCount) {
+        return stream(builder.findMethodsByName(methodName, false))
+                .anyMatch(method -> method.getParameterList().getParametersCount() == parametersCount);
+    }
+
+    private static boolean holdsTargetInstance(PsiClass builder, PsiClass target) {
+        String targetName = target.getQualifiedName();
+        return targetName != null && stream(builder.getFields())
+                .filter(psiField -> !psiField.hasModifierProperty(PsiModifier.STATIC))
+                .filter(psiField -> !MEMOIZED_FIELD_NAME.equals(psiField.getName()))
+                .anyMatch(psiField -> targetName.equals(psiField.getType().getCanonicalText()));
+    }
+}
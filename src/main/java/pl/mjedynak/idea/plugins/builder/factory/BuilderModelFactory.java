@@ -0,0 +1,65 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiParameter;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates the PSI selection into the PSI independent model rendered by the generator core.
+ */
+public class BuilderModelFactory {
+
+    private PsiHelper psiHelper = new PsiHelper();
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+
+    public BuilderModel createBuilderModel(BuilderContext context) {
+        PsiFieldsForBuilder psiFieldsForBuilder = context.getPsiFieldsForBuilder();
+        BuilderOptions options = new BuilderOptions(context.getMethodPrefix(), codeStyleSettings.getFieldNamePrefix(),
+                codeStyleSettings.getParameterNamePrefix(), context.useSingleField(), context.hasButMethod());
+        return new BuilderModel(getPackageName(context), context.getPsiClassFromEditor().getName(), context.getClassName(),
+                createFieldModels(psiFieldsForBuilder.getFieldsForSetters()),
+                createFieldModels(psiFieldsForBuilder.getFieldsForConstructor()),
+                createFieldModels(psiFieldsForBuilder.getAllSelectedFields()),
+                createConstructorModel(psiFieldsForBuilder.getBestConstructor()),
+                options, context.isInner());
+    }
+
+    private String getPackageName(BuilderContext context) {
+        if (context.getTargetDirectory() == null) {
+            return "";
+        }
+        PsiPackage psiPackage = psiHelper.getPackage(context.getTargetDirectory());
+        return psiPackage == null ? "" : psiPackage.getQualifiedName();
+    }
+
+    private List<FieldModel> createFieldModels(List<PsiField> psiFields) {
+        List<FieldModel> fieldModels = new ArrayList<FieldModel>();
+        for (PsiField psiField : psiFields) {
+            fieldModels.add(new FieldModel(psiField.getName(), psiField.getType().getCanonicalText()));
+        }
+        return fieldModels;
+    }
+
+    private ConstructorModel createConstructorModel(PsiMethod constructor) {
+        if (constructor == null) {
+            return null;
+        }
+        List<FieldModel> parameters = new ArrayList<FieldModel>();
+        for (PsiParameter psiParameter : constructor.getParameterList().getParameters()) {
+            parameters.add(new FieldModel(psiParameter.getName(), psiParameter.getType().getCanonicalText()));
+        }
+        return new ConstructorModel(parameters);
+    }
+}
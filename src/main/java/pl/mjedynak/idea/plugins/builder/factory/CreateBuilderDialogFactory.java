@@ -5,6 +5,7 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiPackage;
 import pl.mjedynak.idea.plugins.builder.gui.CreateBuilderDialog;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.gui.preview.BuilderPreviewRenderer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
 public class CreateBuilderDialogFactory {
@@ -15,15 +16,18 @@ public class CreateBuilderDialogFactory {
     private final PsiHelper psiHelper;
     private final ReferenceEditorComboWithBrowseButtonFactory referenceEditorComboWithBrowseButtonFactory;
     private final GuiHelper guiHelper;
+    private final BuilderPreviewRenderer builderPreviewRenderer;
 
-    public CreateBuilderDialogFactory(PsiHelper psiHelper, ReferenceEditorComboWithBrowseButtonFactory referenceEditorComboWithBrowseButtonFactory, GuiHelper guiHelper) {
+    public CreateBuilderDialogFactory(PsiHelper psiHelper, ReferenceEditorComboWithBrowseButtonFactory referenceEditorComboWithBrowseButtonFactory, GuiHelper guiHelper,
+                                      BuilderPreviewRenderer builderPreviewRenderer) {
         this.psiHelper = psiHelper;
         this.referenceEditorComboWithBrowseButtonFactory = referenceEditorComboWithBrowseButtonFactory;
         this.guiHelper = guiHelper;
+        this.builderPreviewRenderer = builderPreviewRenderer;
     }
 
     public CreateBuilderDialog createBuilderDialog(PsiClass sourceClass, Project project, PsiPackage srcPackage, PsiClass existingBuilder) {
         return new CreateBuilderDialog(project, DIALOG_NAME, sourceClass, sourceClass.getName() + BUILDER_SUFFIX, srcPackage, psiHelper, guiHelper,
-                referenceEditorComboWithBrowseButtonFactory, existingBuilder);
+                referenceEditorComboWithBrowseButtonFactory, existingBuilder, builderPreviewRenderer);
     }
 }
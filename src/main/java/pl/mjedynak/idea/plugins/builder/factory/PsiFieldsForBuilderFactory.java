@@ -1,21 +1,25 @@
 package pl.mjedynak.idea.plugins.builder.factory;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.intellij.codeInsight.generation.PsiElementClassMember;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.List;
+import java.util.Set;
 
 public class PsiFieldsForBuilderFactory {
 
     private PsiFieldVerifier psiFieldVerifier;
     private BestConstructorSelector bestConstructorSelector;
+    private PsiHelper psiHelper = new PsiHelper();
 
     public PsiFieldsForBuilderFactory(PsiFieldVerifier psiFieldVerifier, BestConstructorSelector bestConstructorSelector) {
         this.psiFieldVerifier = psiFieldVerifier;
@@ -24,6 +28,9 @@ public class PsiFieldsForBuilderFactory {
 
     @SuppressWarnings("rawtypes")
     public PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiElementClassMember> psiElementClassMembers, PsiClass psiClass) {
+        if (psiClass.isRecord()) {
+            return createPsiFieldsForRecord(psiElementClassMembers, psiClass);
+        }
         List<PsiField> allSelectedPsiFields = Lists.newArrayList();
         List<PsiField> psiFieldsFoundInSetters = Lists.newArrayList();
         for (PsiElementClassMember psiElementClassMember : psiElementClassMembers) {
@@ -46,6 +53,19 @@ public class PsiFieldsForBuilderFactory {
         return new PsiFieldsForBuilder(psiFieldsForSetters, psiFieldsForConstructor, allSelectedPsiFields, bestConstructor);
     }
 
+    @SuppressWarnings("rawtypes")
+    private PsiFieldsForBuilder createPsiFieldsForRecord(List<PsiElementClassMember> psiElementClassMembers, PsiClass recordClass) {
+        List<PsiField> selectedComponentFields = Lists.newArrayList();
+        for (PsiElementClassMember psiElementClassMember : psiElementClassMembers) {
+            PsiElement psiElement = psiElementClassMember.getPsiElement();
+            if (psiElement instanceof PsiField) {
+                selectedComponentFields.add((PsiField) psiElement);
+            }
+        }
+        PsiMethod canonicalConstructor = psiHelper.findCanonicalConstructor(recordClass);
+        return new PsiFieldsForBuilder(Lists.newArrayList(), selectedComponentFields, selectedComponentFields, canonicalConstructor);
+    }
+
     private void buildPsiFieldsForConstructor(List<PsiField> psiFieldsForConstructor, List<PsiField> allSelectedPsiFields, PsiMethod bestConstructor) {
         for (PsiField selectedPsiField : allSelectedPsiFields) {
             if (psiFieldVerifier.checkConstructor(selectedPsiField, bestConstructor)) {
@@ -55,15 +75,16 @@ public class PsiFieldsForBuilderFactory {
     }
 
     private List<PsiField> getSubList(List<PsiField> inputList, List<PsiField> listToRemove) {
+        if (listToRemove.isEmpty()) {
+            return Lists.newArrayList(inputList);
+        }
+        Set<String> namesToRemove = Sets.newHashSetWithExpectedSize(listToRemove.size());
+        for (PsiField psiFieldToRemove : listToRemove) {
+            namesToRemove.add(psiFieldToRemove.getName());
+        }
         List<PsiField> newList = Lists.newArrayList();
         for (PsiField inputPsiField : inputList) {
-            boolean setterMustBeAdded = true;
-            for (PsiField psiFieldToRemove : listToRemove) {
-                if (psiFieldToRemove.getName().equals(inputPsiField.getName())) {
-                    setterMustBeAdded = false;
-                }
-            }
-            if (setterMustBeAdded) {
+            if (!namesToRemove.contains(inputPsiField.getName())) {
                 newList.add(inputPsiField);
             }
         }
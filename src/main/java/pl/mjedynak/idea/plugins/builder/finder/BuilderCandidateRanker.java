@@ -0,0 +1,89 @@
+package pl.mjedynak.idea.plugins.builder.finder;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Arrays.stream;
+
+/**
+ * Orders classes with the searched name so that the most likely counterpart comes first. A builder whose
+ * build() returns the class weighs most, then being in the same module, then being in the same kind of
+ * source root (test or production). Candidates with equal scores keep their index order. The first candidate is
+ * only taken without asking when it scores at least {@link #LEAD_MARGIN} more than the second.
+ */
+public class BuilderCandidateRanker {
+
+    static final int BUILDS_SOURCE_CLASS_SCORE = 4;
+    static final int SAME_MODULE_SCORE = 2;
+    static final int SAME_SOURCE_ROOT_KIND_SCORE = 1;
+    static final int LEAD_MARGIN = SAME_SOURCE_ROOT_KIND_SCORE;
+    private static final String BUILD_METHOD_NAME = "build";
+
+    private PsiHelper psiHelper;
+
+    public BuilderCandidateRanker(PsiHelper psiHelper) {
+        this.psiHelper = psiHelper;
+    }
+
+    public List<PsiClass> rankBuilders(PsiClass sourceClass, List<PsiClass> builders) {
+        Map<PsiClass, Integer> scores = new IdentityHashMap<>();
+        builders.forEach(builder -> scores.put(builder, score(builder, sourceClass)));
+        return sortByScore(builders, scores);
+    }
+
+    public List<PsiClass> rankSourceClasses(PsiClass builder, List<PsiClass> sourceClasses) {
+        Map<PsiClass, Integer> scores = new IdentityHashMap<>();
+        sourceClasses.forEach(sourceClass -> scores.put(sourceClass, score(builder, sourceClass)));
+        return sortByScore(sourceClasses, scores);
+    }
+
+    public boolean isBuilderClearlyFirst(PsiClass sourceClass, List<PsiClass> rankedBuilders) {
+        return rankedBuilders.size() < 2
+                || score(rankedBuilders.get(0), sourceClass) - score(rankedBuilders.get(1), sourceClass) >= LEAD_MARGIN;
+    }
+
+    public boolean isSourceClassClearlyFirst(PsiClass builder, List<PsiClass> rankedSourceClasses) {
+        return rankedSourceClasses.size() < 2
+                || score(builder, rankedSourceClasses.get(0)) - score(builder, rankedSourceClasses.get(1)) >= LEAD_MARGIN;
+    }
+
+    int score(PsiClass builder, PsiClass sourceClass) {
+        int score = 0;
+        if (buildsSourceClass(builder, sourceClass)) {
+            score += BUILDS_SOURCE_CLASS_SCORE;
+        }
+        Module builderModule = psiHelper.findModuleForPsiElement(builder);
+        if (builderModule != null && builderModule.equals(psiHelper.findModuleForPsiElement(sourceClass))) {
+            score += SAME_MODULE_SCORE;
+        }
+        if (psiHelper.isInTestSourceContent(builder) == psiHelper.isInTestSourceContent(sourceClass)) {
+            score += SAME_SOURCE_ROOT_KIND_SCORE;
+        }
+        return score;
+    }
+
+    private boolean buildsSourceClass(PsiClass builder, PsiClass sourceClass) {
+        String sourceClassName = sourceClass.getQualifiedName();
+        return sourceClassName != null && stream(builder.findMethodsByName(BUILD_METHOD_NAME, false))
+                .map(PsiMethod::getReturnType)
+                .filter(Objects::nonNull)
+                .map(PsiType::getCanonicalText)
+                .anyMatch(sourceClassName::equals);
+    }
+
+    private List<PsiClass> sortByScore(List<PsiClass> candidates, Map<PsiClass, Integer> scores) {
+        List<PsiClass> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator.comparing(scores::get, Comparator.reverseOrder()));
+        return ranked;
+    }
+}
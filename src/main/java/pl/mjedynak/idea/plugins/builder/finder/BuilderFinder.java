@@ -2,50 +2,89 @@ package pl.mjedynak.idea.plugins.builder.finder;
 
 import com.intellij.psi.PsiClass;
 
+import java.util.Collections;
+import java.util.List;
+
 public class BuilderFinder {
 
     static final String SEARCH_PATTERN = "Builder";
     public static final String EMPTY_STRING = "";
 
     private ClassFinder classFinder;
+    private BuilderCandidateRanker builderCandidateRanker;
 
-    public BuilderFinder(ClassFinder classFinder) {
+    public BuilderFinder(ClassFinder classFinder, BuilderCandidateRanker builderCandidateRanker) {
         this.classFinder = classFinder;
+        this.builderCandidateRanker = builderCandidateRanker;
     }
 
     public PsiClass findBuilderForClass(PsiClass psiClass) {
+        return first(findBuilderCandidatesForClass(psiClass));
+    }
+
+    public List<PsiClass> findBuilderCandidatesForClass(PsiClass psiClass) {
         PsiClass innerBuilderClass = tryFindInnerBuilder(psiClass);
         if (innerBuilderClass != null) {
-            return innerBuilderClass;
+            return Collections.singletonList(innerBuilderClass);
         } else {
             String searchName = psiClass.getName() + SEARCH_PATTERN;
-            return findClass(psiClass, searchName);
+            return builderCandidateRanker.rankBuilders(psiClass, findClasses(psiClass, searchName));
         }
     }
 
+    public boolean isBuilderCandidateClearlyFirst(PsiClass psiClass, List<PsiClass> builderCandidates) {
+        return builderCandidateRanker.isBuilderClearlyFirst(psiClass, builderCandidates);
+    }
+
     private PsiClass tryFindInnerBuilder(PsiClass psiClass) {
         PsiClass innerBuilderClass = null;
         PsiClass[] allInnerClasses = psiClass.getAllInnerClasses();
         for (PsiClass innerClass : allInnerClasses) {
-            if (innerClass.getName().contains(SEARCH_PATTERN)) {
+            if (isPreferredInnerBuilder(innerClass, innerBuilderClass, psiClass)) {
                 innerBuilderClass = innerClass;
-                break;
             }
         }
         return innerBuilderClass;
     }
 
+    private boolean isPreferredInnerBuilder(PsiClass innerClass, PsiClass currentBuilderClass, PsiClass psiClass) {
+        if (innerClass.getName() == null || !innerClass.getName().endsWith(SEARCH_PATTERN)) {
+            return false;
+        }
+        return currentBuilderClass == null || innerBuilderRank(innerClass, psiClass) > innerBuilderRank(currentBuilderClass, psiClass);
+    }
+
+    private int innerBuilderRank(PsiClass innerClass, PsiClass psiClass) {
+        int rank = psiClass.equals(innerClass.getContainingClass()) ? 2 : 0;
+        String name = innerClass.getName();
+        if (SEARCH_PATTERN.equals(name) || (psiClass.getName() + SEARCH_PATTERN).equals(name)) {
+            rank++;
+        }
+        return rank;
+    }
+
     public PsiClass findClassForBuilder(PsiClass psiClass) {
+        return first(findClassCandidatesForBuilder(psiClass));
+    }
+
+    public List<PsiClass> findClassCandidatesForBuilder(PsiClass psiClass) {
         String searchName = psiClass.getName().replaceFirst(SEARCH_PATTERN, EMPTY_STRING);
-        return findClass(psiClass, searchName);
+        return builderCandidateRanker.rankSourceClasses(psiClass, findClasses(psiClass, searchName));
     }
 
-    private PsiClass findClass(PsiClass psiClass, String searchName) {
-        PsiClass result = null;
+    public boolean isClassCandidateClearlyFirst(PsiClass psiClass, List<PsiClass> classCandidates) {
+        return builderCandidateRanker.isSourceClassClearlyFirst(psiClass, classCandidates);
+    }
+
+    private List<PsiClass> findClasses(PsiClass psiClass, String searchName) {
         if (typeIsCorrect(psiClass)) {
-            result = classFinder.findClass(searchName, psiClass.getProject());
+            return classFinder.findClasses(searchName, psiClass.getProject());
         }
-        return result;
+        return Collections.emptyList();
+    }
+
+    private PsiClass first(List<PsiClass> candidates) {
+        return candidates.isEmpty() ? null : candidates.get(0);
     }
 
     private boolean typeIsCorrect(PsiClass psiClass) {
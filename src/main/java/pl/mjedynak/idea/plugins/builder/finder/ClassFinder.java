@@ -6,6 +6,10 @@ import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiShortNamesCache;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class ClassFinder {
 
     private PsiHelper psiHelper;
@@ -23,6 +27,13 @@ public class ClassFinder {
         return result;
     }
 
+    public List<PsiClass> findClasses(String pattern, Project project) {
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        PsiShortNamesCache psiShortNamesCache = psiHelper.getPsiShortNamesCache(project);
+        PsiClass[] classesArray = psiShortNamesCache.getClassesByName(pattern, projectScope);
+        return classesArray != null ? Arrays.asList(classesArray) : Collections.emptyList();
+    }
+
     private PsiClass getPsiClass(PsiClass[] classesArray) {
         return (classesArray != null && classesArray.length != 0) ? classesArray[0] : null;
     }
@@ -21,14 +21,20 @@ import com.intellij.ui.RecentsManager;
 import com.intellij.ui.ReferenceEditorComboWithBrowseButton;
 import com.intellij.util.IncorrectOperationException;
 import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
 import pl.mjedynak.idea.plugins.builder.factory.PackageChooserDialogFactory;
 import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.gui.preview.BuilderPreviewOptions;
+import pl.mjedynak.idea.plugins.builder.gui.preview.BuilderPreviewPanel;
+import pl.mjedynak.idea.plugins.builder.gui.preview.BuilderPreviewRenderer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
 
 import javax.swing.Action;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -46,6 +52,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
+
 public class CreateBuilderDialog extends DialogWrapper {
 
     static final String RECENTS_KEY = "CreateBuilderDialog.RecentsKey";
@@ -63,8 +71,22 @@ public class CreateBuilderDialog extends DialogWrapper {
     private JCheckBox innerBuilder;
     private JCheckBox butMethod;
     private JCheckBox useSingleField;
+    private JCheckBox collectionAdders;
+    private JCheckBox primitiveCollections;
+    private JCheckBox copyMethod;
+    private JCheckBox witherMethods;
+    private JCheckBox jsonReader;
+    private JCheckBox binaryCodec;
+    private JCheckBox flyweight;
+    private JCheckBox batchBuilder;
+    private JCheckBox memoizedBuild;
+    private JCheckBox hierarchy;
+    private JCheckBox threadLocalPool;
+    private JComboBox<DefensiveCopyStrategy> copyStrategy;
     private ReferenceEditorComboWithBrowseButton targetPackageField;
     private PsiClass existingBuilder;
+    private BuilderPreviewRenderer builderPreviewRenderer;
+    private BuilderPreviewPanel previewPanel;
 
 
     public CreateBuilderDialog(Project project,
@@ -75,13 +97,15 @@ public class CreateBuilderDialog extends DialogWrapper {
                                PsiHelper psiHelper,
                                GuiHelper guiHelper,
                                ReferenceEditorComboWithBrowseButtonFactory referenceEditorComboWithBrowseButtonFactory,
-                               PsiClass existingBuilder) {
+                               PsiClass existingBuilder,
+                               BuilderPreviewRenderer builderPreviewRenderer) {
         super(project, true);
         this.psiHelper = psiHelper;
         this.guiHelper = guiHelper;
         this.project = project;
         this.sourceClass = sourceClass;
         this.existingBuilder = existingBuilder;
+        this.builderPreviewRenderer = builderPreviewRenderer;
         targetClassNameField = new JTextField(targetClassName);
         targetMethodPrefix = new JTextField(defaultStates.defaultMethodPrefix);
         setPreferredSize(targetClassNameField);
@@ -139,6 +163,7 @@ public class CreateBuilderDialog extends DialogWrapper {
             @Override
             protected void textChanged(DocumentEvent e) {
                 getOKAction().setEnabled(JavaPsiFacade.getInstance(project).getNameHelper().isIdentifier(getClassName()));
+                requestPreviewUpdate();
             }
         });
         // Class name
@@ -160,6 +185,12 @@ public class CreateBuilderDialog extends DialogWrapper {
         gbConstraints.fill = GridBagConstraints.HORIZONTAL;
         gbConstraints.anchor = GridBagConstraints.WEST;
         panel.add(targetMethodPrefix, gbConstraints);
+        targetMethodPrefix.getDocument().addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(DocumentEvent e) {
+                requestPreviewUpdate();
+            }
+        });
         // Method prefix
 
         // Destination package
@@ -206,6 +237,7 @@ public class CreateBuilderDialog extends DialogWrapper {
             @Override
             public void actionPerformed(ActionEvent e) {
                 targetPackageField.setEnabled(!innerBuilder.isSelected());
+                requestPreviewUpdate();
             }
         });
         panel.add(innerBuilder, gbConstraints);
@@ -229,6 +261,7 @@ public class CreateBuilderDialog extends DialogWrapper {
         gbConstraints.anchor = GridBagConstraints.WEST;
         butMethod = new JCheckBox();
         butMethod.setSelected(defaultStates.isButMethod);
+        butMethod.addActionListener(e -> requestPreviewUpdate());
         panel.add(butMethod, gbConstraints);
         // but method
 
@@ -250,12 +283,291 @@ public class CreateBuilderDialog extends DialogWrapper {
         gbConstraints.anchor = GridBagConstraints.WEST;
         useSingleField = new JCheckBox();
         useSingleField.setSelected(defaultStates.isUseSinglePrefix);
+        useSingleField.addActionListener(e -> {
+            memoizedBuild.setEnabled(!useSingleField.isSelected());
+            requestPreviewUpdate();
+        });
         panel.add(useSingleField, gbConstraints);
         // useSingleField
 
+        // collectionAdders
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 7;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Collection adders"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        collectionAdders = new JCheckBox();
+        collectionAdders.setSelected(defaultStates.isCollectionAdders);
+        collectionAdders.addActionListener(e -> requestPreviewUpdate());
+        panel.add(collectionAdders, gbConstraints);
+        // collectionAdders
+
+        // primitiveCollections
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 8;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Primitive collections"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        primitiveCollections = new JCheckBox();
+        primitiveCollections.setSelected(defaultStates.isPrimitiveCollections);
+        primitiveCollections.addActionListener(e -> requestPreviewUpdate());
+        panel.add(primitiveCollections, gbConstraints);
+        // primitiveCollections
+
+        // copyMethod
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 9;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("'toBuilder'/'from' method"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        copyMethod = new JCheckBox();
+        copyMethod.setSelected(defaultStates.isCopyMethod);
+        copyMethod.addActionListener(e -> requestPreviewUpdate());
+        panel.add(copyMethod, gbConstraints);
+        // copyMethod
+
+        // witherMethods
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 10;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Wither methods in source class"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        witherMethods = new JCheckBox();
+        witherMethods.setSelected(defaultStates.isWitherMethods);
+        witherMethods.addActionListener(e -> requestPreviewUpdate());
+        panel.add(witherMethods, gbConstraints);
+        // witherMethods
+
+        // jsonReader
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 11;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Streaming JSON reader"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        jsonReader = new JCheckBox();
+        jsonReader.setSelected(defaultStates.isJsonReader);
+        jsonReader.addActionListener(e -> requestPreviewUpdate());
+        panel.add(jsonReader, gbConstraints);
+        // jsonReader
+
+        // binaryCodec
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 12;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Binary codec (write/read)"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        binaryCodec = new JCheckBox();
+        binaryCodec.setSelected(defaultStates.isBinaryCodec);
+        binaryCodec.addActionListener(e -> requestPreviewUpdate());
+        panel.add(binaryCodec, gbConstraints);
+        // binaryCodec
+
+        // flyweight
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 13;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Flyweight writing to ByteBuffer"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        flyweight = new JCheckBox();
+        flyweight.setSelected(defaultStates.isFlyweight);
+        flyweight.addActionListener(e -> requestPreviewUpdate());
+        panel.add(flyweight, gbConstraints);
+        // flyweight
+
+        // batchBuilder
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 14;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Batch builder"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        batchBuilder = new JCheckBox();
+        batchBuilder.setSelected(defaultStates.isBatchBuilder);
+        batchBuilder.addActionListener(e -> requestPreviewUpdate());
+        panel.add(batchBuilder, gbConstraints);
+        // batchBuilder
+
+        // memoizedBuild
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 15;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Memoized build (immutable targets)"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        memoizedBuild = new JCheckBox();
+        memoizedBuild.setSelected(defaultStates.isMemoizedBuild);
+        memoizedBuild.setEnabled(!useSingleField.isSelected());
+        memoizedBuild.setToolTipText("Only for builders passing every selected field to the constructor");
+        memoizedBuild.addActionListener(e -> requestPreviewUpdate());
+        panel.add(memoizedBuild, gbConstraints);
+        // memoizedBuild
+
+        // hierarchy
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 17;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Shared abstract builder for superclass fields"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        hierarchy = new JCheckBox();
+        hierarchy.setSelected(defaultStates.isHierarchy);
+        hierarchy.addActionListener(e -> requestPreviewUpdate());
+        panel.add(hierarchy, gbConstraints);
+        // hierarchy
+
+        // threadLocalPool
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 18;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Thread-local builder pool"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        threadLocalPool = new JCheckBox();
+        threadLocalPool.setSelected(defaultStates.isThreadLocalPool);
+        threadLocalPool.addActionListener(e -> requestPreviewUpdate());
+        panel.add(threadLocalPool, gbConstraints);
+        // threadLocalPool
+
+        // copyStrategy
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 16;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Defensive copies"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        copyStrategy = new JComboBox<>(DefensiveCopyStrategy.values());
+        copyStrategy.setSelectedItem(defaultStates.defaultCopyStrategy);
+        copyStrategy.addActionListener(e -> requestPreviewUpdate());
+        panel.add(copyStrategy, gbConstraints);
+        // copyStrategy
+
+        // preview
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 1;
+        gbConstraints.weighty = 1;
+        gbConstraints.gridy = 19;
+        gbConstraints.gridwidth = 2;
+        gbConstraints.fill = GridBagConstraints.BOTH;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        previewPanel = new BuilderPreviewPanel(project, sourceClass, builderPreviewRenderer, psiHelper, getDisposable());
+        panel.add(previewPanel, gbConstraints);
+        requestPreviewUpdate();
+        // preview
+
         return panel;
     }
 
+    private void requestPreviewUpdate() {
+        if (previewPanel != null) {
+            previewPanel.requestUpdate(new BuilderPreviewOptions(getClassName(), getMethodPrefix(), isInnerBuilder(), useSingleField(), hasButMethod(),
+                    getGeneratorOptions()));
+        }
+    }
+
     private void addInnerPanelForDestinationPackageField(JPanel panel, GridBagConstraints gbConstraints) {
         JPanel innerPanel = createInnerPanelForDestinationPackageField();
         panel.add(innerPanel, gbConstraints);
@@ -347,6 +659,71 @@ public class CreateBuilderDialog extends DialogWrapper {
         return useSingleField.isSelected();
     }
 
+    public boolean hasCollectionAdders() {
+        return collectionAdders.isSelected();
+    }
+
+    public boolean usePrimitiveCollections() {
+        return primitiveCollections.isSelected();
+    }
+
+    public boolean hasCopyMethod() {
+        return copyMethod.isSelected();
+    }
+
+    public boolean hasWitherMethods() {
+        return witherMethods.isSelected();
+    }
+
+    public boolean hasJsonReader() {
+        return jsonReader.isSelected();
+    }
+
+    public boolean hasBinaryCodec() {
+        return binaryCodec.isSelected();
+    }
+
+    public boolean hasFlyweight() {
+        return flyweight.isSelected();
+    }
+
+    public boolean hasBatchBuilder() {
+        return batchBuilder.isSelected();
+    }
+
+    public boolean hasMemoizedBuild() {
+        return memoizedBuild.isEnabled() && memoizedBuild.isSelected();
+    }
+
+    public boolean hasHierarchy() {
+        return hierarchy.isSelected();
+    }
+
+    public boolean hasThreadLocalPool() {
+        return threadLocalPool.isSelected();
+    }
+
+    public DefensiveCopyStrategy getCopyStrategy() {
+        return (DefensiveCopyStrategy) copyStrategy.getSelectedItem();
+    }
+
+    public GeneratorOptions getGeneratorOptions() {
+        return aGeneratorOptions()
+                .withCollectionAdders(hasCollectionAdders())
+                .withPrimitiveCollections(usePrimitiveCollections())
+                .withCopyMethod(hasCopyMethod())
+                .withWitherMethods(hasWitherMethods())
+                .withJsonReader(hasJsonReader())
+                .withBinaryCodec(hasBinaryCodec())
+                .withFlyweight(hasFlyweight())
+                .withBatchBuilder(hasBatchBuilder())
+                .withMemoizedBuild(hasMemoizedBuild())
+                .withHierarchy(hasHierarchy())
+                .withThreadLocalPool(hasThreadLocalPool())
+                .withCopyStrategy(getCopyStrategy())
+                .build();
+    }
+
     public PsiDirectory getTargetDirectory() {
         return targetDirectory;
     }
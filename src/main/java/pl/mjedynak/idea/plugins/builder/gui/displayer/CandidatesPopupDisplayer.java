@@ -0,0 +1,22 @@
+package pl.mjedynak.idea.plugins.builder.gui.displayer;
+
+import com.intellij.ide.util.DefaultPsiElementCellRenderer;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.psi.PsiClass;
+import com.intellij.util.Consumer;
+
+import java.util.List;
+
+public class CandidatesPopupDisplayer {
+
+    public void displayCandidates(Editor editor, List<PsiClass> rankedCandidates, String title, Consumer<PsiClass> callback) {
+        JBPopupFactory.getInstance().createPopupChooserBuilder(rankedCandidates)
+                .setTitle(title)
+                .setRenderer(new DefaultPsiElementCellRenderer())
+                .setItemChosenCallback(callback)
+                .setMovable(true)
+                .createPopup()
+                .showInBestPositionFor(editor);
+    }
+}
@@ -0,0 +1,79 @@
+package pl.mjedynak.idea.plugins.builder.gui.displayer;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.usageView.UsageInfo;
+import com.intellij.usages.Usage;
+import com.intellij.usages.UsageInfo2UsageAdapter;
+import com.intellij.usages.UsageTarget;
+import com.intellij.usages.UsageView;
+import com.intellij.usages.UsageViewManager;
+import com.intellij.usages.UsageViewPresentation;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderContextFactory;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StaleBuildersDisplayer {
+
+    static final String TITLE = "Stale Builders";
+    static final String NOTHING_FOUND_MESSAGE = "Every builder has all fields of its class.";
+    static final String REGENERATE_ALL_TEXT = "Regenerate All";
+
+    private GuiHelper guiHelper;
+    private BuilderContextFactory builderContextFactory;
+    private BuilderWriter builderWriter;
+
+    public StaleBuildersDisplayer(GuiHelper guiHelper, BuilderContextFactory builderContextFactory, BuilderWriter builderWriter) {
+        this.guiHelper = guiHelper;
+        this.builderContextFactory = builderContextFactory;
+        this.builderWriter = builderWriter;
+    }
+
+    public void display(Project project, List<StaleBuilder> staleBuilders) {
+        if (staleBuilders.isEmpty()) {
+            guiHelper.showInfoMessage(project, NOTHING_FOUND_MESSAGE, TITLE);
+            return;
+        }
+        Usage[] usages = staleBuilders.stream()
+                .map(staleBuilder -> new UsageInfo2UsageAdapter(new UsageInfo(nameOf(staleBuilder.getBuilder()))))
+                .toArray(Usage[]::new);
+        UsageView usageView = UsageViewManager.getInstance(project).showUsages(UsageTarget.EMPTY_ARRAY, usages, createPresentation());
+        usageView.addButtonToLowerPane(() -> {
+            regenerateAll(project, staleBuilders);
+            usageView.close();
+        }, REGENERATE_ALL_TEXT);
+    }
+
+    void regenerateAll(Project project, List<StaleBuilder> staleBuilders) {
+        Map<PsiClass, BuilderContext> contextsByExistingBuilder = new LinkedHashMap<>();
+        for (StaleBuilder staleBuilder : staleBuilders) {
+            BuilderContext context = staleBuilder.getBuilder().isValid() && staleBuilder.getTarget().isValid()
+                    ? builderContextFactory.createRegenerationContext(staleBuilder) : null;
+            if (context != null) {
+                contextsByExistingBuilder.put(staleBuilder.getBuilder(), context);
+            }
+        }
+        if (!contextsByExistingBuilder.isEmpty()) {
+            builderWriter.regenerateBuilders(project, contextsByExistingBuilder);
+        }
+    }
+
+    private PsiElement nameOf(PsiClass builder) {
+        return builder.getNameIdentifier() != null ? builder.getNameIdentifier() : builder;
+    }
+
+    private UsageViewPresentation createPresentation() {
+        UsageViewPresentation presentation = new UsageViewPresentation();
+        presentation.setTabText(TITLE);
+        presentation.setToolwindowTitle(TITLE);
+        presentation.setUsagesString("stale builders");
+        return presentation;
+    }
+}
@@ -1,13 +1,19 @@
 package pl.mjedynak.idea.plugins.builder.gui.helper;
 
 import com.intellij.codeInsight.CodeInsightUtil;
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.ex.IdeDocumentHistory;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.Alarm;
 
 import javax.swing.Icon;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class GuiHelper {
@@ -16,6 +22,23 @@ public class GuiHelper {
         Messages.showMessageDialog(project, message, title, icon);
     }
 
+    public void showInfoMessage(Project project, String message, String title) {
+        Messages.showInfoMessage(project, message, title);
+    }
+
+    public void showHintAfterDelay(Editor editor, String text, int delayMillis, Disposable parentDisposable) {
+        AtomicBoolean shown = new AtomicBoolean();
+        new Alarm(parentDisposable).addRequest(() -> {
+            HintManager.getInstance().showInformationHint(editor, text);
+            shown.set(true);
+        }, delayMillis);
+        Disposer.register(parentDisposable, () -> {
+            if (shown.get()) {
+                HintManager.getInstance().hideHints(HintManager.HIDE_BY_ANY_KEY, true, false);
+            }
+        });
+    }
+
     public void includeCurrentPlaceAsChangePlace(Project project) {
         IdeDocumentHistory.getInstance(project).includeCurrentPlaceAsChangePlace();
     }
@@ -0,0 +1,60 @@
+package pl.mjedynak.idea.plugins.builder.gui.preview;
+
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
+
+import java.util.List;
+
+/**
+ * Snapshot of the create builder dialog options shown in the preview, taken on the UI thread.
+ */
+public final class BuilderPreviewOptions {
+
+    private final String className;
+    private final String methodPrefix;
+    private final boolean innerBuilder;
+    private final boolean useSingleField;
+    private final boolean hasButMethod;
+    private final GeneratorOptions generatorOptions;
+
+    public BuilderPreviewOptions(String className, String methodPrefix, boolean innerBuilder, boolean useSingleField, boolean hasButMethod,
+                                 GeneratorOptions generatorOptions) {
+        this.className = className;
+        this.methodPrefix = methodPrefix;
+        this.innerBuilder = innerBuilder;
+        this.useSingleField = useSingleField;
+        this.hasButMethod = hasButMethod;
+        this.generatorOptions = generatorOptions;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodPrefix() {
+        return methodPrefix;
+    }
+
+    public boolean isInnerBuilder() {
+        return innerBuilder;
+    }
+
+    public boolean useSingleField() {
+        return useSingleField;
+    }
+
+    public boolean hasButMethod() {
+        return hasButMethod;
+    }
+
+    public GeneratorOptions getGeneratorOptions() {
+        return generatorOptions;
+    }
+
+    /**
+     * Options that change which fields are selected for the builder, together with the generator options the selection
+     * is rendered with.
+     */
+    public List<Object> fieldSelectionKey() {
+        return List.of(innerBuilder, useSingleField, hasButMethod, generatorOptions);
+    }
+}
@@ -0,0 +1,78 @@
+package pl.mjedynak.idea.plugins.builder.gui.preview;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.ui.EditorTextField;
+import com.intellij.ui.IdeBorderFactory;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+
+import javax.swing.JPanel;
+import java.awt.BorderLayout;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read only preview of the builder in the create builder dialog. Option changes are merged until they have been quiet
+ * for {@link #DEBOUNCE_MILLIS}, then the builder is rendered in a non-blocking read action and the viewer switches to
+ * the document of the resulting non-physical file. The field selection is kept per combination of the options it
+ * depends on and the generator options, so editing the class name or the method prefix only renders text again.
+ */
+public class BuilderPreviewPanel extends JPanel {
+
+    static final int DEBOUNCE_MILLIS = 300;
+    private static final String TITLE = "Preview";
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 300;
+
+    private final Project project;
+    private final PsiClass sourceClass;
+    private final BuilderPreviewRenderer builderPreviewRenderer;
+    private final PsiHelper psiHelper;
+    private final Disposable parentDisposable;
+    private final MergingUpdateQueue queue;
+    private final EditorTextField previewField;
+    private final Map<List<Object>, PsiFieldsForBuilder> fieldsBySelection = new ConcurrentHashMap<>();
+
+    public BuilderPreviewPanel(Project project, PsiClass sourceClass, BuilderPreviewRenderer builderPreviewRenderer, PsiHelper psiHelper,
+                               Disposable parentDisposable) {
+        super(new BorderLayout());
+        this.project = project;
+        this.sourceClass = sourceClass;
+        this.builderPreviewRenderer = builderPreviewRenderer;
+        this.psiHelper = psiHelper;
+        this.parentDisposable = parentDisposable;
+        previewField = new EditorTextField(EditorFactory.getInstance().createDocument(""), project, JavaFileType.INSTANCE, true, false);
+        previewField.addSettingsProvider(editor -> {
+            editor.setVerticalScrollbarVisible(true);
+            editor.setHorizontalScrollbarVisible(true);
+        });
+        previewField.setPreferredSize(JBUI.size(WIDTH, HEIGHT));
+        setBorder(IdeBorderFactory.createTitledBorder(TITLE));
+        add(previewField, BorderLayout.CENTER);
+        queue = new MergingUpdateQueue("Builder preview", DEBOUNCE_MILLIS, true, this, parentDisposable);
+        queue.setRestartTimerOnAdd(true);
+    }
+
+    public void requestUpdate(BuilderPreviewOptions options) {
+        queue.queue(Update.create(this, () -> psiHelper.readInBackground(() -> createPreviewDocument(options), previewField::setDocument, parentDisposable)));
+    }
+
+    private Document createPreviewDocument(BuilderPreviewOptions options) {
+        PsiFieldsForBuilder psiFieldsForBuilder = fieldsBySelection.computeIfAbsent(options.fieldSelectionKey(),
+                key -> builderPreviewRenderer.selectFields(sourceClass, options));
+        String text = builderPreviewRenderer.renderText(sourceClass, psiFieldsForBuilder, options);
+        PsiFile previewFile = builderPreviewRenderer.createPreviewFile(sourceClass, options, text);
+        return PsiDocumentManager.getInstance(project).getDocument(previewFile);
+    }
+}
@@ -0,0 +1,86 @@
+package pl.mjedynak.idea.plugins.builder.gui.preview;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderAssembler;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
+
+import java.util.List;
+
+/**
+ * Renders the builder described by the options of the create builder dialog as text, assembled the same way as when it
+ * is generated but from PSI elements that are not placed in the project, and wraps it in a non-physical file with the
+ * references shortened like in the written builder. Nothing is written to the project, so the preview is neither seen
+ * by PSI listeners nor recorded by the undo manager.
+ */
+public class BuilderPreviewRenderer {
+
+    private static final String JAVA_EXTENSION = ".java";
+
+    private PsiHelper psiHelper;
+    private PsiFieldSelector psiFieldSelector;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderPsiClassBuilder builderPsiClassBuilder = new BuilderPsiClassBuilder();
+    private BuilderAssembler builderAssembler = new BuilderAssembler();
+
+    public BuilderPreviewRenderer(PsiHelper psiHelper, PsiFieldSelector psiFieldSelector, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory) {
+        this.psiHelper = psiHelper;
+        this.psiFieldSelector = psiFieldSelector;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+    }
+
+    /**
+     * Selects the fields the builder would receive. Only the inner, single field and 'but' options change the selection,
+     * so callers can keep the result while the other options are edited.
+     */
+    @SuppressWarnings("rawtypes")
+    public PsiFieldsForBuilder selectFields(PsiClass sourceClass, BuilderPreviewOptions options) {
+        List<PsiElementClassMember> members = psiFieldSelector.selectFieldsToIncludeInBuilder(
+                sourceClass, options.isInnerBuilder(), options.useSingleField(), options.hasButMethod());
+        return psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, sourceClass);
+    }
+
+    /**
+     * Synchronized, as the builder keeps the state of one assembly and a restarted preview may still be rendering. The
+     * wither methods and the toBuilder() method of an inner builder are added to the source class, not to the builder,
+     * so they are left out instead of changing the class open in the editor.
+     */
+    public synchronized String renderText(PsiClass sourceClass, PsiFieldsForBuilder psiFieldsForBuilder, BuilderPreviewOptions options) {
+        BuilderContext context = new BuilderContext(
+                sourceClass.getProject(), psiFieldsForBuilder, null, options.getClassName(), sourceClass, options.getMethodPrefix(),
+                options.isInnerBuilder(), options.hasButMethod(), options.useSingleField(), builderMembersOnly(options));
+        BuilderPsiClassBuilder newBuilder = options.isInnerBuilder()
+                ? builderPsiClassBuilder.anInnerBuilder(context)
+                : builderPsiClassBuilder.aDetachedBuilder(context);
+        String builderText = builderAssembler.assemble(newBuilder, context).getText();
+        if (options.isInnerBuilder()) {
+            return "public class " + sourceClass.getName() + " {\n\n" + builderText + "\n}\n";
+        }
+        return builderText;
+    }
+
+    private static GeneratorOptions builderMembersOnly(BuilderPreviewOptions options) {
+        GeneratorOptions generatorOptions = options.getGeneratorOptions();
+        return generatorOptions.toBuilder()
+                .withWitherMethods(false)
+                .withCopyMethod(generatorOptions.hasCopyMethod() && !options.isInnerBuilder())
+                .build();
+    }
+
+    public PsiFile createPreviewFile(PsiClass sourceClass, BuilderPreviewOptions options, String text) {
+        String fileName = options.isInnerBuilder() ? sourceClass.getName() : options.getClassName();
+        Project project = sourceClass.getProject();
+        PsiFile previewFile = psiHelper.createLightJavaFile(project, fileName + JAVA_EXTENSION, text);
+        psiHelper.getJavaCodeStyleManager(project).shortenClassReferences(previewFile);
+        psiHelper.getCodeStyleManager(project).reformat(previewFile);
+        return previewFile;
+    }
+}
@@ -0,0 +1,115 @@
+package pl.mjedynak.idea.plugins.builder.gutter;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProviderDescriptor;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiIdentifier;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderCandidateRanker;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import javax.swing.Icon;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gutter icons navigating between a class and its builder. Builders are looked up in the slow marker pass only,
+ * and the lookups for a file are cached until the file or the Java structure of the project changes.
+ */
+public class BuilderLineMarkerProvider extends LineMarkerProviderDescriptor {
+
+    static final String NAME = "Builder";
+    static final String GO_TO_BUILDER_TOOLTIP = "Go to builder";
+    static final String GO_TO_BUILT_CLASS_TOOLTIP = "Go to built class";
+    private static final Icon BUILDER_ICON = AllIcons.Gutter.ImplementedMethod;
+    private static final Icon BUILT_CLASS_ICON = AllIcons.Gutter.ImplementingMethod;
+
+    private BuilderVerifier builderVerifier = new BuilderVerifier();
+    private BuilderFinder builderFinder = new BuilderFinder(new ClassFinder(new PsiHelper()), new BuilderCandidateRanker(new PsiHelper()));
+
+    @NotNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Icon getIcon() {
+        return BUILDER_ICON;
+    }
+
+    @Override
+    public LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
+        return null;
+    }
+
+    @Override
+    public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+        for (PsiElement element : elements) {
+            if (element instanceof PsiIdentifier && element.getParent() instanceof PsiClass) {
+                PsiClass psiClass = (PsiClass) element.getParent();
+                if (element.equals(psiClass.getNameIdentifier())) {
+                    ProgressManager.checkCanceled();
+                    PsiClass counterpart = getCounterparts(element.getContainingFile()).get(psiClass);
+                    if (counterpart != null && counterpart.isValid()) {
+                        result.add(createLineMarker(element, psiClass, counterpart));
+                    }
+                }
+            }
+        }
+    }
+
+    private Map<PsiClass, PsiClass> getCounterparts(PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(
+                findCounterparts(PsiTreeUtil.findChildrenOfType(file, PsiClass.class)),
+                file, PsiModificationTracker.getInstance(file.getProject()).getJavaStructureModificationTracker()));
+    }
+
+    Map<PsiClass, PsiClass> findCounterparts(Collection<PsiClass> psiClasses) {
+        Map<PsiClass, PsiClass> counterparts = new HashMap<>();
+        for (PsiClass psiClass : psiClasses) {
+            if (psiClass.getName() != null && !(psiClass instanceof PsiTypeParameter) && !(psiClass instanceof PsiAnonymousClass)) {
+                PsiClass counterpart = findCounterpart(psiClass);
+                if (counterpart != null) {
+                    counterparts.put(psiClass, counterpart);
+                }
+            }
+        }
+        return counterparts;
+    }
+
+    private PsiClass findCounterpart(PsiClass psiClass) {
+        if (!builderVerifier.isBuilder(psiClass)) {
+            return builderFinder.findBuilderForClass(psiClass);
+        }
+        PsiClass outerClass = psiClass.getContainingClass();
+        if (outerClass == null) {
+            return builderFinder.findClassForBuilder(psiClass);
+        }
+        return outerClass.getName() != null && !builderVerifier.isBuilder(outerClass) ? outerClass : null;
+    }
+
+    private LineMarkerInfo<?> createLineMarker(PsiElement nameIdentifier, PsiClass psiClass, PsiClass counterpart) {
+        boolean isBuilder = builderVerifier.isBuilder(psiClass);
+        return NavigationGutterIconBuilder.create(isBuilder ? BUILT_CLASS_ICON : BUILDER_ICON)
+                .setTarget(counterpart)
+                .setTooltipText(isBuilder ? GO_TO_BUILT_CLASS_TOOLTIP : GO_TO_BUILDER_TOOLTIP)
+                .createLineMarkerInfo(nameIdentifier);
+    }
+}
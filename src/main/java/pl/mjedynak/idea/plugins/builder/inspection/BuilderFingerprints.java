@@ -0,0 +1,107 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Cached field sets of builders and their target classes. The fingerprint of a target is recomputed after a change
+ * to Java PSI, but the field selection is only repeated when the fingerprint differs from the one it was made for.
+ * Both take inherited members into account, so they depend on the Java tracker rather than on the file of the class.
+ */
+public class BuilderFingerprints {
+
+    private static final Key<FieldSelection> INNER_BUILDER_SELECTION = Key.create("BuilderGenerator.innerBuilderSelection");
+    private static final Key<FieldSelection> BUILDER_SELECTION = Key.create("BuilderGenerator.builderSelection");
+    private static final String SET_PREFIX = "set";
+
+    private PsiFieldSelector psiFieldSelector = new PsiFieldSelector(new PsiElementClassMemberFactory(), new PsiFieldVerifier());
+    private PsiHelper psiHelper = new PsiHelper();
+
+    public FieldSetFingerprint targetFingerprint(PsiClass target) {
+        return CachedValuesManager.getCachedValue(target, () -> CachedValueProvider.Result.create(
+                FieldSetFingerprint.of(targetFields(target), setMethods(target), List.of(target.getConstructors())), javaModificationTracker(target)));
+    }
+
+    public Set<String> builderFieldNames(PsiClass builder) {
+        return CachedValuesManager.getCachedValue(builder, () ->
+                CachedValueProvider.Result.create(instanceFieldNames(builder), javaModificationTracker(builder)));
+    }
+
+    private static ModificationTracker javaModificationTracker(PsiClass psiClass) {
+        return PsiModificationTracker.getInstance(psiClass.getProject()).forLanguage(JavaLanguage.INSTANCE);
+    }
+
+    public Set<String> expectedFieldNames(PsiClass target, boolean innerBuilder) {
+        return expectedFieldNames(target, targetFingerprint(target), innerBuilder);
+    }
+
+    Set<String> expectedFieldNames(PsiClass target, FieldSetFingerprint fingerprint, boolean innerBuilder) {
+        Key<FieldSelection> key = innerBuilder ? INNER_BUILDER_SELECTION : BUILDER_SELECTION;
+        FieldSelection selection = target.getUserData(key);
+        if (selection == null || !selection.fingerprint.equals(fingerprint)) {
+            selection = new FieldSelection(fingerprint, selectFieldNames(target, innerBuilder));
+            target.putUserData(key, selection);
+        }
+        return selection.fieldNames;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Set<String> selectFieldNames(PsiClass target, boolean innerBuilder) {
+        List<PsiElementClassMember> members = psiFieldSelector.selectFieldsToIncludeInBuilder(target, innerBuilder, false, false);
+        return members.stream()
+                .map(member -> ((PsiField) member.getPsiElement()).getName())
+                .collect(toSet());
+    }
+
+    private List<PsiField> targetFields(PsiClass target) {
+        if (target.isRecord()) {
+            return psiHelper.getRecordFields(target);
+        }
+        return stream(target.getAllFields())
+                .filter(psiField -> !"serialVersionUID".equals(psiField.getName()))
+                .collect(toList());
+    }
+
+    private static List<PsiMethod> setMethods(PsiClass target) {
+        return stream(target.getAllMethods())
+                .filter(method -> method.getName().startsWith(SET_PREFIX))
+                .collect(toList());
+    }
+
+    private static Set<String> instanceFieldNames(PsiClass builder) {
+        return stream(builder.getAllFields())
+                .filter(psiField -> !psiField.hasModifierProperty(PsiModifier.STATIC))
+                .map(PsiField::getName)
+                .collect(toSet());
+    }
+
+    private static final class FieldSelection {
+        private final FieldSetFingerprint fingerprint;
+        private final Set<String> fieldNames;
+
+        private FieldSelection(FieldSetFingerprint fingerprint, Set<String> fieldNames) {
+            this.fingerprint = fingerprint;
+            this.fieldNames = fieldNames;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiIdentifier;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.action.RegenerateBuilderQuickFix;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderCandidateRanker;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+public class BuilderOutOfDateInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    static final String MESSAGE = "Builder is missing fields of %s: %s";
+
+    private StaleBuilderDetector staleBuilderDetector = new StaleBuilderDetector(
+            new BuilderVerifier(), new BuilderFinder(new ClassFinder(new PsiHelper()), new BuilderCandidateRanker(new PsiHelper())), new BuilderFingerprints());
+
+    @Override
+    public ProblemDescriptor[] checkClass(@NotNull PsiClass aClass, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        PsiIdentifier nameIdentifier = aClass.getNameIdentifier();
+        if (nameIdentifier == null) {
+            return null;
+        }
+        StaleBuilder staleBuilder = staleBuilderDetector.detect(aClass);
+        if (staleBuilder == null) {
+            return null;
+        }
+        String description = String.format(MESSAGE, staleBuilder.getTarget().getName(), String.join(", ", staleBuilder.getMissingFieldNames()));
+        LocalQuickFix[] fixes = {new RegenerateBuilderQuickFix()};
+        return new ProblemDescriptor[]{manager.createProblemDescriptor(nameIdentifier, description, isOnTheFly, fixes, ProblemHighlightType.GENERIC_ERROR_OR_WARNING)};
+    }
+}
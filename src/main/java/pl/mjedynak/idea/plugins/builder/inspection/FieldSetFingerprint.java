@@ -0,0 +1,67 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Names and canonical types of the fields of a class, in declaration order, with the signatures of the set methods and
+ * constructors that decide which of them a builder receives. Two fingerprints are equal when none of these changed,
+ * so the result of a field selection can be reused.
+ */
+public final class FieldSetFingerprint {
+
+    private final List<String> fields;
+    private final List<String> setMethods;
+    private final List<String> constructors;
+
+    private FieldSetFingerprint(List<String> fields, List<String> setMethods, List<String> constructors) {
+        this.fields = fields;
+        this.setMethods = setMethods;
+        this.constructors = constructors;
+    }
+
+    public static FieldSetFingerprint of(List<PsiField> psiFields, List<PsiMethod> setMethods, List<PsiMethod> constructors) {
+        return new FieldSetFingerprint(
+                psiFields.stream().map(psiField -> psiField.getType().getCanonicalText() + " " + psiField.getName()).collect(toList()),
+                setMethods.stream().map(FieldSetFingerprint::signature).collect(toList()),
+                constructors.stream().map(FieldSetFingerprint::signature).collect(toList()));
+    }
+
+    private static String signature(PsiMethod method) {
+        String parameters = stream(method.getParameterList().getParameters())
+                .map(parameter -> parameter.getType().getCanonicalText() + " " + parameter.getName())
+                .collect(joining(", "));
+        String visibility = method.hasModifierProperty(PsiModifier.PRIVATE) ? "private " : "";
+        return visibility + method.getName() + "(" + parameters + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FieldSetFingerprint that = (FieldSetFingerprint) o;
+        return fields.equals(that.fields) && setMethods.equals(that.setMethods) && constructors.equals(that.constructors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields, setMethods, constructors);
+    }
+
+    @Override
+    public String toString() {
+        return fields + " " + setMethods + " " + constructors;
+    }
+}
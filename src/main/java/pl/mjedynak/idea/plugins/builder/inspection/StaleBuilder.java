@@ -0,0 +1,36 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.psi.PsiClass;
+
+import java.util.List;
+
+public class StaleBuilder {
+
+    private final PsiClass builder;
+    private final PsiClass target;
+    private final boolean innerBuilder;
+    private final List<String> missingFieldNames;
+
+    public StaleBuilder(PsiClass builder, PsiClass target, boolean innerBuilder, List<String> missingFieldNames) {
+        this.builder = builder;
+        this.target = target;
+        this.innerBuilder = innerBuilder;
+        this.missingFieldNames = missingFieldNames;
+    }
+
+    public PsiClass getBuilder() {
+        return builder;
+    }
+
+    public PsiClass getTarget() {
+        return target;
+    }
+
+    public boolean isInnerBuilder() {
+        return innerBuilder;
+    }
+
+    public List<String> getMissingFieldNames() {
+        return missingFieldNames;
+    }
+}
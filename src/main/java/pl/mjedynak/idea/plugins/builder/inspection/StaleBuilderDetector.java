@@ -0,0 +1,64 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+import static pl.mjedynak.builder.core.BuilderRenderer.MEMOIZED_FIELD_NAME;
+
+public class StaleBuilderDetector {
+
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+    private BuilderFingerprints builderFingerprints;
+
+    public StaleBuilderDetector(BuilderVerifier builderVerifier, BuilderFinder builderFinder, BuilderFingerprints builderFingerprints) {
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+        this.builderFingerprints = builderFingerprints;
+    }
+
+    public StaleBuilder detect(PsiClass psiClass) {
+        if (psiClass.getName() == null || !builderVerifier.isBuilder(psiClass)) {
+            return null;
+        }
+        PsiClass outerClass = psiClass.getContainingClass();
+        if (outerClass != null && (outerClass.getName() == null || builderVerifier.isBuilder(outerClass))) {
+            return null;
+        }
+        boolean innerBuilder = outerClass != null;
+        PsiClass target = innerBuilder ? outerClass : builderFinder.findClassForBuilder(psiClass);
+        if (target == null || holdsTargetInstance(psiClass, target)) {
+            return null;
+        }
+        List<String> missingFieldNames = findMissingFieldNames(psiClass, target, innerBuilder);
+        if (missingFieldNames.isEmpty()) {
+            return null;
+        }
+        return new StaleBuilder(psiClass, target, innerBuilder, missingFieldNames);
+    }
+
+    private List<String> findMissingFieldNames(PsiClass builder, PsiClass target, boolean innerBuilder) {
+        Set<String> builderFieldNames = builderFingerprints.builderFieldNames(builder);
+        return builderFingerprints.expectedFieldNames(target, innerBuilder).stream()
+                .filter(fieldName -> !builderFieldNames.contains(fieldName))
+                .sorted()
+                .collect(toList());
+    }
+
+    private boolean holdsTargetInstance(PsiClass builder, PsiClass target) {
+        String targetName = target.getQualifiedName();
+        return targetName != null && stream(builder.getFields())
+                .filter(psiField -> !psiField.hasModifierProperty(PsiModifier.STATIC))
+                .filter(psiField -> !MEMOIZED_FIELD_NAME.equals(psiField.getName()))
+                .map(PsiField::getType)
+                .anyMatch(type -> targetName.equals(type.getCanonicalText()));
+    }
+}
@@ -0,0 +1,72 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the stale builders of a project. Candidates are looked up by name in the short names index, so classes
+ * that are not builders are never loaded, and each candidate is compared with its class in its own read action
+ * on the shared pool.
+ */
+public class StaleBuilderScanner {
+
+    static final String COLLECTING_TEXT = "Collecting builders";
+    static final String COMPARING_TEXT = "Comparing builders with their classes";
+
+    private PsiHelper psiHelper;
+    private BuilderVerifier builderVerifier;
+    private StaleBuilderDetector staleBuilderDetector;
+
+    public StaleBuilderScanner(PsiHelper psiHelper, BuilderVerifier builderVerifier, StaleBuilderDetector staleBuilderDetector) {
+        this.psiHelper = psiHelper;
+        this.builderVerifier = builderVerifier;
+        this.staleBuilderDetector = staleBuilderDetector;
+    }
+
+    public List<StaleBuilder> scan(Project project, ProgressIndicator indicator) {
+        Application application = psiHelper.getApplication();
+        indicator.setText(COLLECTING_TEXT);
+        List<PsiClass> candidates = application.runReadAction((Computable<List<PsiClass>>) () -> findCandidates(project, indicator));
+        indicator.setText(COMPARING_TEXT);
+        indicator.setIndeterminate(false);
+        Queue<StaleBuilder> staleBuilders = new ConcurrentLinkedQueue<>();
+        AtomicInteger comparedCount = new AtomicInteger();
+        psiHelper.getJobLauncher().invokeConcurrentlyUnderProgress(candidates, indicator, candidate -> {
+            StaleBuilder staleBuilder = application.runReadAction((Computable<StaleBuilder>) () ->
+                    candidate.isValid() ? staleBuilderDetector.detect(candidate) : null);
+            if (staleBuilder != null) {
+                staleBuilders.add(staleBuilder);
+            }
+            indicator.setFraction((double) comparedCount.incrementAndGet() / candidates.size());
+            return true;
+        });
+        return new ArrayList<>(staleBuilders);
+    }
+
+    private List<PsiClass> findCandidates(Project project, ProgressIndicator indicator) {
+        PsiShortNamesCache psiShortNamesCache = psiHelper.getPsiShortNamesCache(project);
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        List<PsiClass> candidates = new ArrayList<>();
+        for (String className : psiShortNamesCache.getAllClassNames()) {
+            if (builderVerifier.isBuilderName(className)) {
+                indicator.checkCanceled();
+                Collections.addAll(candidates, psiShortNamesCache.getClassesByName(className, projectScope));
+            }
+        }
+        return candidates;
+    }
+}
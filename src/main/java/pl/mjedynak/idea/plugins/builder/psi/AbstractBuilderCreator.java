@@ -0,0 +1,158 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.CommonClassNames;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiTypeParameterList;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.builder.core.Names;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Creates the abstract, self-typed builder shared by the builders of all subclasses of a base class. It holds the
+ * inherited fields and their set methods, so subclass builders only add their own fields.
+ */
+public class AbstractBuilderCreator {
+
+    static final String SELF_METHOD_NAME = "self";
+    private static final String ABSTRACT_PREFIX = "Abstract";
+    private static final String BUILDER_SUFFIX = "Builder";
+    private static final String JAVA_EXTENSION = ".java";
+
+    private PsiHelper psiHelper = new PsiHelper();
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+    private PsiElementFactory elementFactory;
+
+    public AbstractBuilderCreator(PsiElementFactory elementFactory) {
+        this.elementFactory = elementFactory;
+    }
+
+    public boolean hasBuilderableSuperClass(PsiClass srcClass) {
+        PsiClass superClass = srcClass.getSuperClass();
+        return superClass != null && !CommonClassNames.JAVA_LANG_OBJECT.equals(superClass.getQualifiedName()) && !srcClass.isRecord();
+    }
+
+    public String abstractBuilderName(PsiClass superClass) {
+        return ABSTRACT_PREFIX + superClass.getName() + BUILDER_SUFFIX;
+    }
+
+    /**
+     * Returns the abstract builder already present in the directory, so that all subclass builders share one, or
+     * creates it with the given inherited fields. Without a directory, as for a preview, the abstract builder is created
+     * outside of the project.
+     *
+     * @param fieldsFilledByAdders collection fields the builder adds elements to, whose set methods hand the
+     *                             ownership of the collection over, see {@link CollectionMethodCreator#createOwnedField(PsiField)}
+     * @throws IncorrectOperationException when the existing abstract builder lacks one of the inherited fields or its
+     *                                     set method with the given prefix
+     */
+    public PsiClass findOrCreateAbstractBuilder(PsiDirectory directory, PsiClass superClass, Iterable<PsiField> inheritedFields, String methodPrefix,
+                                                DefensiveCopyStrategy copyStrategy, Collection<PsiField> fieldsFilledByAdders) {
+        String abstractBuilderName = abstractBuilderName(superClass);
+        PsiClass existingBuilder = findExistingAbstractBuilder(directory, superClass);
+        if (existingBuilder != null) {
+            verifyReusable(existingBuilder, inheritedFields, methodPrefix, fieldsFilledByAdders);
+            return existingBuilder;
+        }
+        PsiClass abstractBuilder = directory == null
+                ? elementFactory.createClass(abstractBuilderName)
+                : psiHelper.getJavaDirectoryService().createClass(directory, abstractBuilderName);
+        abstractBuilder.getModifierList().setModifierProperty(PsiModifier.ABSTRACT, true);
+        PsiTypeParameterList typeParameterList = abstractBuilder.getTypeParameterList();
+        typeParameterList.add(elementFactory.createTypeParameterFromText("T extends " + superClass.getQualifiedName(), abstractBuilder));
+        typeParameterList.add(elementFactory.createTypeParameterFromText("B extends " + abstractBuilderName + "<T, B>", abstractBuilder));
+        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
+        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
+        for (PsiField field : inheritedFields) {
+            String typeText = field.getType().getCanonicalText();
+            String fieldNameWithoutPrefix = Names.withoutPrefix(field.getName(), fieldNamePrefix);
+            String parameterName = parameterNamePrefix + fieldNameWithoutPrefix;
+            String value = copyStrategy.copiesOnSet() ? copyStrategy.copyOf(typeText, parameterName) : parameterName;
+            String ownership = "";
+            abstractBuilder.add(elementFactory.createFieldFromText("protected " + typeText + " " + field.getName() + ";", abstractBuilder));
+            if (fieldsFilledByAdders.contains(field)) {
+                String ownedFieldName = CollectionMethodCreator.ownedFieldName(field.getName());
+                abstractBuilder.add(elementFactory.createFieldFromText("protected boolean " + ownedFieldName + ";", abstractBuilder));
+                ownership = "this." + ownedFieldName + " = " + (copyStrategy.copiesOnSet() ? "this." + field.getName() + " != null" : "false") + "; ";
+            }
+            abstractBuilder.add(elementFactory.createMethodFromText("public B " + Names.methodName(methodPrefix, fieldNameWithoutPrefix)
+                    + "(" + typeText + " " + parameterName + ") { this." + field.getName() + " = " + value + "; " + ownership + "return "
+                    + SELF_METHOD_NAME + "(); }", abstractBuilder));
+        }
+        abstractBuilder.add(elementFactory.createMethodFromText("protected abstract B " + SELF_METHOD_NAME + "();", abstractBuilder));
+        abstractBuilder.add(elementFactory.createMethodFromText("public abstract T build();", abstractBuilder));
+        return abstractBuilder;
+    }
+
+    /**
+     * Runs the checks {@link #findOrCreateAbstractBuilder} runs on the abstract builder already present in the
+     * directory, without creating anything.
+     *
+     * @throws IncorrectOperationException when the existing abstract builder cannot be reused
+     */
+    public void verifyReusable(PsiDirectory directory, PsiClass superClass, Iterable<PsiField> inheritedFields, String methodPrefix,
+                               Collection<PsiField> fieldsFilledByAdders) {
+        PsiClass existingBuilder = findExistingAbstractBuilder(directory, superClass);
+        if (existingBuilder != null) {
+            verifyReusable(existingBuilder, inheritedFields, methodPrefix, fieldsFilledByAdders);
+        }
+    }
+
+    private PsiClass findExistingAbstractBuilder(PsiDirectory directory, PsiClass superClass) {
+        PsiFile existingFile = directory == null ? null : directory.findFile(abstractBuilderName(superClass) + JAVA_EXTENSION);
+        if (existingFile instanceof PsiJavaFile && ((PsiJavaFile) existingFile).getClasses().length > 0) {
+            return ((PsiJavaFile) existingFile).getClasses()[0];
+        }
+        return null;
+    }
+
+    private void verifyReusable(PsiClass abstractBuilder, Iterable<PsiField> inheritedFields, String methodPrefix,
+                                Collection<PsiField> fieldsFilledByAdders) {
+        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
+        for (PsiField field : inheritedFields) {
+            String setMethodName = Names.methodName(methodPrefix, Names.withoutPrefix(field.getName(), fieldNamePrefix));
+            if (abstractBuilder.findFieldByName(field.getName(), false) == null || abstractBuilder.findMethodsByName(setMethodName, false).length == 0) {
+                throw new IncorrectOperationException(abstractBuilder.getName() + " has no " + setMethodName + " for the inherited field "
+                        + field.getName() + ", delete it to have it generated again");
+            }
+            String ownedFieldName = CollectionMethodCreator.ownedFieldName(field.getName());
+            if (fieldsFilledByAdders.contains(field) && abstractBuilder.findFieldByName(ownedFieldName, false) == null) {
+                throw new IncorrectOperationException(abstractBuilder.getName() + " has no " + ownedFieldName + " for the adders of the inherited field "
+                        + field.getName() + ", delete it to have it generated again");
+            }
+        }
+    }
+
+    /**
+     * Returns the set methods of the abstract builder, which return the subclass builder through {@link #SELF_METHOD_NAME}.
+     */
+    public List<PsiMethod> setMethods(PsiClass abstractBuilder) {
+        List<PsiMethod> setMethods = new ArrayList<PsiMethod>();
+        for (PsiMethod method : abstractBuilder.getMethods()) {
+            if (!method.hasModifierProperty(PsiModifier.ABSTRACT) && method.getParameterList().getParametersCount() == 1) {
+                setMethods.add(method);
+            }
+        }
+        return setMethods;
+    }
+
+    public PsiJavaCodeReferenceElement extendsReference(PsiClass superClass, String srcClassName, String builderClassName, PsiClass builderClass) {
+        return elementFactory.createReferenceFromText(abstractBuilderName(superClass) + "<" + srcClassName + ", " + builderClassName + ">", builderClass);
+    }
+
+    public PsiMethod selfMethod(String builderClassName, PsiClass builderClass) {
+        return elementFactory.createMethodFromText("@Override protected " + builderClassName + " " + SELF_METHOD_NAME + "() { return this; }", builderClass);
+    }
+}
@@ -1,130 +1,42 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import org.jetbrains.annotations.NotNull;
-import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import com.intellij.psi.PsiParameter;
+import pl.mjedynak.builder.core.ConstructorSelector;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.TreeSet;
 
+/**
+ * Chooses the constructor of the source class with the generator core's {@link ConstructorSelector}, so the plugin and
+ * the annotation processor build the same classes through the same constructor.
+ */
 public class BestConstructorSelector {
 
-    private PsiFieldVerifier psiFieldVerifier;
-
-    private List<ConstructorWithExtraData> constructorsWithEqualParameterCount;
-    private TreeSet<ConstructorWithExtraData> constructorsWithHigherParameterCount;
-    private List<ConstructorWithExtraData> constructorsWithLowerParameterCount;
-
-    public BestConstructorSelector(PsiFieldVerifier psiFieldVerifier) {
-        this.psiFieldVerifier = psiFieldVerifier;
-    }
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
 
     public PsiMethod getBestConstructor(Collection<PsiField> psiFieldsToFindInConstructor, PsiClass psiClass) {
-        int fieldsToFindCount = psiFieldsToFindInConstructor.size();
-        createConstructorLists(psiFieldsToFindInConstructor, psiClass);
-
-        computeNumberOfMatchingFields(constructorsWithEqualParameterCount, psiFieldsToFindInConstructor);
-        PsiMethod bestConstructor = findConstructorWithAllFieldsToFind(constructorsWithEqualParameterCount, fieldsToFindCount);
-        if (bestConstructor != null) {
-            return bestConstructor;
-        }
-
-        computeNumberOfMatchingFields(constructorsWithHigherParameterCount, psiFieldsToFindInConstructor);
-        bestConstructor = findConstructorWithAllFieldsToFind(constructorsWithHigherParameterCount, fieldsToFindCount);
-        if (bestConstructor != null) {
-            return bestConstructor;
-        }
-
-        computeNumberOfMatchingFields(constructorsWithLowerParameterCount, psiFieldsToFindInConstructor);
-        return findConstructorWithMaximumOfFieldsToFind();
-    }
-
-    private void createConstructorLists(Collection<PsiField> psiFieldsToFindInConstructor, PsiClass psiClass) {
-        constructorsWithEqualParameterCount = Lists.newArrayList();
-        constructorsWithHigherParameterCount = Sets.newTreeSet();
-        constructorsWithLowerParameterCount = Lists.newArrayList();
         PsiMethod[] constructors = psiClass.getConstructors();
+        List<ConstructorModel> constructorModels = new ArrayList<ConstructorModel>(constructors.length);
         for (PsiMethod constructor : constructors) {
-            int parameterCount = constructor.getParameterList().getParametersCount();
-            if (parameterCount > psiFieldsToFindInConstructor.size()) {
-                constructorsWithHigherParameterCount.add(new ConstructorWithExtraData(constructor));
-            } else if (parameterCount == psiFieldsToFindInConstructor.size()) {
-                constructorsWithEqualParameterCount.add(new ConstructorWithExtraData(constructor));
-            } else if (parameterCount >= 0) {
-                constructorsWithLowerParameterCount.add(new ConstructorWithExtraData(constructor));
-            }
-        }
-    }
-
-    private void computeNumberOfMatchingFields(Iterable<ConstructorWithExtraData> constuctorsWithExtraData, Iterable<PsiField> psiFieldsToFindInConstructor) {
-        for (ConstructorWithExtraData constructorWithExtraData : constuctorsWithExtraData) {
-            int matchingFieldsCount = 0;
-            for (PsiField psiField : psiFieldsToFindInConstructor) {
-                if (psiFieldVerifier.checkConstructor(psiField, constructorWithExtraData.getConstructor())) {
-                    matchingFieldsCount++;
-                }
-            }
-            constructorWithExtraData.setMatchingFieldsCount(matchingFieldsCount);
-        }
-    }
-
-    private PsiMethod findConstructorWithAllFieldsToFind(Iterable<ConstructorWithExtraData> constructorsWithExtraData, int fieldsToFindCount) {
-        for (ConstructorWithExtraData constructorWithExtraData : constructorsWithExtraData) {
-            if (constructorWithExtraData.getMatchingFieldsCount() == fieldsToFindCount) {
-                return constructorWithExtraData.getConstructor();
+            List<FieldModel> parameters = new ArrayList<FieldModel>();
+            for (PsiParameter psiParameter : constructor.getParameterList().getParameters()) {
+                parameters.add(new FieldModel(psiParameter.getName(), psiParameter.getType().getCanonicalText()));
             }
+            constructorModels.add(new ConstructorModel(parameters));
         }
-        return null;
-    }
-
-    private PsiMethod findConstructorWithMaximumOfFieldsToFind() {
-        Iterable<ConstructorWithExtraData> allConstructors = Iterables.concat(constructorsWithEqualParameterCount, constructorsWithHigherParameterCount, constructorsWithLowerParameterCount);
-        int matchingFieldCount = -1;
-        int parameterCount = 0;
-        PsiMethod bestConstructor = null;
-        for (ConstructorWithExtraData constructor : allConstructors) {
-            if (constructor.getMatchingFieldsCount() > matchingFieldCount || constructor.getMatchingFieldsCount() == matchingFieldCount && constructor.getParametersCount() < parameterCount) {
-                bestConstructor = constructor.getConstructor();
-                matchingFieldCount = constructor.getMatchingFieldsCount();
-                parameterCount = constructor.getParametersCount();
-            }
-        }
-        return bestConstructor;
-    }
-
-    private class ConstructorWithExtraData implements Comparable<ConstructorWithExtraData> {
-        private PsiMethod constructor;
-        private Integer matchingFieldsCount;
-
-        ConstructorWithExtraData(PsiMethod constructor) {
-            this.constructor = constructor;
-        }
-
-        @Override
-        public int compareTo(@NotNull ConstructorWithExtraData constructorToCompare) {
-            return this.getParametersCount().compareTo(constructorToCompare.getParametersCount());
-        }
-
-        PsiMethod getConstructor() {
-            return constructor;
-        }
-
-        Integer getMatchingFieldsCount() {
-            return matchingFieldsCount;
-        }
-
-        void setMatchingFieldsCount(Integer matchingFieldsCount) {
-            this.matchingFieldsCount = matchingFieldsCount;
-        }
-
-        Integer getParametersCount() {
-            return constructor == null ? null : constructor.getParameterList().getParametersCount();
+        List<FieldModel> fieldsToFind = new ArrayList<FieldModel>(psiFieldsToFindInConstructor.size());
+        for (PsiField psiField : psiFieldsToFindInConstructor) {
+            fieldsToFind.add(new FieldModel(psiField.getName(), psiField.getType().getCanonicalText()));
         }
+        ConstructorSelector constructorSelector = new ConstructorSelector(codeStyleSettings.getFieldNamePrefix(), codeStyleSettings.getParameterNamePrefix());
+        ConstructorModel bestConstructor = constructorSelector.getBestConstructor(fieldsToFind, constructorModels);
+        return bestConstructor == null ? null : constructors[constructorModels.indexOf(bestConstructor)];
     }
 }
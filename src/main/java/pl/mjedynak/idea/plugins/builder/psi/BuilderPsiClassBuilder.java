@@ -1,34 +1,52 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
+import com.google.common.collect.Iterables;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaDirectoryService;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiStatement;
 import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.util.IncorrectOperationException;
 import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.builder.core.BatchBuilderRenderer;
+import pl.mjedynak.builder.core.BinaryCodecRenderer;
+import pl.mjedynak.builder.core.BuilderRenderer;
+import pl.mjedynak.builder.core.DefaultValues;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.builder.core.FlyweightRenderer;
+import pl.mjedynak.builder.core.JsonReaderRenderer;
+import pl.mjedynak.builder.core.Names;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderModelFactory;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
-import static com.intellij.openapi.util.text.StringUtil.isVowel;
-
+/**
+ * Assembles the builder from members rendered with fully qualified types. References are left unshortened here;
+ * the writer shortens the finished builder in a single pass once it is placed in its file.
+ */
 public class BuilderPsiClassBuilder {
 
     private static final String PRIVATE_STRING = "private";
-    private static final String SPACE = " ";
-    private static final String A_PREFIX = " a";
-    private static final String AN_PREFIX = " an";
-    private static final String SEMICOLON = ",";
     static final String STATIC_MODIFIER = "static";
     static final String FINAL_MODIFIER = "final";
 
@@ -36,9 +54,21 @@ public class BuilderPsiClassBuilder {
     private PsiFieldsModifier psiFieldsModifier = new PsiFieldsModifier();
     private PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
     private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+    private BuilderModelFactory builderModelFactory = new BuilderModelFactory();
+    private JsonReaderRenderer jsonReaderRenderer = new JsonReaderRenderer();
+    private BinaryCodecRenderer binaryCodecRenderer = new BinaryCodecRenderer();
+    private FlyweightRenderer flyweightRenderer = new FlyweightRenderer();
+    private BatchBuilderRenderer batchBuilderRenderer = new BatchBuilderRenderer();
     private ButMethodCreator butMethodCreator;
     private MethodCreator methodCreator;
+    private CollectionMethodCreator collectionMethodCreator;
+    private CopyMethodCreator copyMethodCreator;
+    private WitherMethodCreator witherMethodCreator;
+    private AbstractBuilderCreator abstractBuilderCreator;
+    private BuilderRenderer builderRenderer;
 
+    private BuilderContext context = null;
+    private Project project = null;
     private PsiClass srcClass = null;
     private String builderClassName = null;
 
@@ -54,6 +84,16 @@ public class BuilderPsiClassBuilder {
 
     private boolean useSingleField = false;
     private boolean isInline = false;
+    private boolean memoizeBuild = false;
+    private boolean useThreadLocalPool = false;
+    private DefensiveCopyStrategy copyStrategy = null;
+    private boolean hasCollectionAdders = false;
+    private boolean usePrimitiveCollections = false;
+    private Set<PsiField> primitiveBackedFields = null;
+    private Set<PsiField> fieldsPassedAsArrays = null;
+    private Set<PsiField> inheritedPsiFields = null;
+    private List<PsiMethod> butChainMethods = null;
+    private List<String> conflictingMethodNames = null;
 
     public BuilderPsiClassBuilder aBuilder(BuilderContext context) {
         initializeFields(context);
@@ -64,17 +104,61 @@ public class BuilderPsiClassBuilder {
         return this;
     }
 
+    /**
+     * Starts an external builder that is not placed in any directory, so it can be rendered without changing the project.
+     */
+    public BuilderPsiClassBuilder aDetachedBuilder(BuilderContext context) {
+        initializeFields(context);
+        builderClass = elementFactory.createClass(builderClassName);
+        PsiModifierList modifierList = builderClass.getModifierList();
+        modifierList.setModifierProperty(FINAL_MODIFIER, true);
+        return this;
+    }
+
     public BuilderPsiClassBuilder anInnerBuilder(BuilderContext context) {
         initializeFields(context);
         builderClass = elementFactory.createClass(builderClassName);
+        inheritedPsiFields.clear();
         PsiModifierList modifierList = builderClass.getModifierList();
         modifierList.setModifierProperty(FINAL_MODIFIER, true);
         modifierList.setModifierProperty(STATIC_MODIFIER, true);
         return this;
     }
 
+    /**
+     * Runs the checks through which the members requested by the context reject it, without creating anything, so the
+     * writer can run them before it deletes the builder being regenerated.
+     *
+     * @throws IncorrectOperationException when one of the requested members cannot be generated
+     */
+    public void verify(BuilderContext context) {
+        initializeFields(context);
+        if (context.hasCopyMethod() && !useSingleField && !context.isInner()) {
+            copyMethodCreator.verifyReadable(Iterables.concat(psiFieldsForSetters, psiFieldsForConstructor), srcClass);
+        }
+        if (context.hasWitherMethods()) {
+            witherMethodCreator.verifyConstructor(bestConstructor, srcClass);
+        }
+        if (context.hasMemoizedBuild() && (useSingleField || !isInline)) {
+            throw new IncorrectOperationException(srcClassName
+                    + " cannot have a memoized build, because not every selected field is passed to its constructor");
+        }
+        if (context.hasBatchBuilder()) {
+            renderBatchBuilderClass();
+        }
+        if (context.hasBinaryCodec()) {
+            renderBinaryCodecMembers();
+        }
+        if (context.hasHierarchy() && !context.isInner() && !inheritedPsiFields.isEmpty()) {
+            abstractBuilderCreator.verifyReusable(context.getTargetDirectory(), srcClass.getSuperClass(), inheritedPsiFields,
+                    context.getMethodPrefix(), fieldsFilledByAdders(inheritedPsiFields));
+        }
+    }
+
     private void initializeFields(BuilderContext context) {
-        JavaPsiFacade javaPsiFacade = psiHelper.getJavaPsiFacade(context.getProject());
+        this.context = context;
+        project = context.getProject();
+        JavaPsiFacade javaPsiFacade = psiHelper.getJavaPsiFacade(project);
         elementFactory = javaPsiFacade.getElementFactory();
         srcClass = context.getPsiClassFromEditor();
         builderClassName = context.getClassName();
@@ -85,20 +169,41 @@ public class BuilderPsiClassBuilder {
         allSelectedPsiFields = context.getPsiFieldsForBuilder().getAllSelectedFields();
         useSingleField = context.useSingleField();
         bestConstructor = context.getPsiFieldsForBuilder().getBestConstructor();
-        methodCreator = new MethodCreator(elementFactory, builderClassName);
+        hasCollectionAdders = context.hasCollectionAdders();
+        usePrimitiveCollections = context.usePrimitiveCollections();
+        primitiveBackedFields = new LinkedHashSet<PsiField>();
+        fieldsPassedAsArrays = new LinkedHashSet<PsiField>();
+        copyStrategy = context.getCopyStrategy();
+        methodCreator = new MethodCreator(elementFactory, builderClassName, copyStrategy);
         butMethodCreator = new ButMethodCreator(elementFactory);
-        isInline = allSelectedPsiFields.size() == psiFieldsForConstructor.size();
+        collectionMethodCreator = new CollectionMethodCreator(elementFactory, builderClassName, usePrimitiveCollections);
+        copyMethodCreator = new CopyMethodCreator(elementFactory);
+        witherMethodCreator = new WitherMethodCreator(elementFactory);
+        abstractBuilderCreator = new AbstractBuilderCreator(elementFactory);
+        builderRenderer = new BuilderRenderer(builderClassName, new BuilderOptions(context.getMethodPrefix(),
+                codeStyleSettings.getFieldNamePrefix(), codeStyleSettings.getParameterNamePrefix(), useSingleField, context.hasButMethod()));
+        isInline = BuilderRenderer.isInlineBuild(allSelectedPsiFields, psiFieldsForConstructor);
+        useThreadLocalPool = context.hasThreadLocalPool() && !useSingleField;
+        inheritedPsiFields = new LinkedHashSet<PsiField>();
+        butChainMethods = new ArrayList<PsiMethod>();
+        conflictingMethodNames = new ArrayList<String>();
+        if (context.hasHierarchy() && !useSingleField && abstractBuilderCreator.hasBuilderableSuperClass(srcClass)) {
+            for (PsiField psiField : Iterables.concat(psiFieldsForSetters, psiFieldsForConstructor)) {
+                if (psiField.getContainingClass() != srcClass) {
+                    inheritedPsiFields.add(psiField);
+                }
+            }
+        }
     }
 
     public BuilderPsiClassBuilder withFields() {
         if (useSingleField) {
-            String fieldText = "private " + srcClassName + " " + srcClassFieldName + ";";
-            PsiField singleField = elementFactory.createFieldFromText(fieldText, srcClass);
+            PsiField singleField = elementFactory.createFieldFromText(builderRenderer.renderSingleField(srcClassName), srcClass);
             builderClass.add(singleField);
         } else if (isInnerBuilder(builderClass)) {
             psiFieldsModifier.modifyFieldsForInnerClass(allSelectedPsiFields, builderClass);
         } else {
-            psiFieldsModifier.modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
+            psiFieldsModifier.modifyFields(withoutInheritedFields(psiFieldsForSetters), withoutInheritedFields(psiFieldsForConstructor), builderClass);
         }
         return this;
     }
@@ -106,7 +211,7 @@ public class BuilderPsiClassBuilder {
     public BuilderPsiClassBuilder withPrivateConstructor() {
         PsiMethod constructor;
         if (useSingleField) {
-            constructor = elementFactory.createMethodFromText(builderClassName + "(){ " + srcClassFieldName + " = new " + srcClassName + "(); }", srcClass);
+            constructor = elementFactory.createMethodFromText(builderRenderer.renderSingleFieldConstructor(srcClassName), srcClass);
         } else {
             constructor = elementFactory.createConstructor();
         }
@@ -116,41 +221,268 @@ public class BuilderPsiClassBuilder {
     }
 
     public BuilderPsiClassBuilder withInitializingMethod() {
-        String prefix = isVowel(srcClassName.toLowerCase(Locale.ENGLISH).charAt(0)) ? AN_PREFIX : A_PREFIX;
-        PsiMethod staticMethod = elementFactory.createMethodFromText(
-                "public static " + builderClassName + prefix + srcClassName + "() { return new " + builderClassName + "(); }", srcClass);
+        String methodText = useThreadLocalPool
+                ? builderRenderer.renderPooledInitializingMethod(srcClassName)
+                : builderRenderer.renderInitializingMethod(srcClassName);
+        PsiMethod staticMethod = elementFactory.createMethodFromText(methodText, srcClass);
+        butChainMethods.add(staticMethod);
         builderClass.add(staticMethod);
         return this;
     }
 
     public BuilderPsiClassBuilder withSetMethods(String methodPrefix) {
-        if (useSingleField || isInnerBuilder(builderClass)) {
-            for (PsiField psiFieldForAssignment : allSelectedPsiFields) {
-                createAndAddMethod(psiFieldForAssignment, methodPrefix);
-            }
-        } else {
-            for (PsiField psiFieldForSetter : psiFieldsForSetters) {
-                createAndAddMethod(psiFieldForSetter, methodPrefix);
+        for (PsiField psiField : getFieldsWithSetMethods()) {
+            if (!inheritedPsiFields.contains(psiField)) {
+                createAndAddMethod(psiField, methodPrefix);
             }
-            for (PsiField psiFieldForConstructor : psiFieldsForConstructor) {
-                createAndAddMethod(psiFieldForConstructor, methodPrefix);
+        }
+        return this;
+    }
+
+    private List<PsiField> withoutInheritedFields(List<PsiField> psiFields) {
+        if (inheritedPsiFields.isEmpty()) {
+            return psiFields;
+        }
+        List<PsiField> ownFields = new ArrayList<PsiField>(psiFields);
+        ownFields.removeAll(inheritedPsiFields);
+        return ownFields;
+    }
+
+    public BuilderPsiClassBuilder withCollectionMethods(String methodPrefix) {
+        if (!useSingleField) {
+            for (PsiField psiField : getFieldsWithSetMethods()) {
+                if (collectionMethodCreator.isBackedByPrimitiveArray(psiField)) {
+                    primitiveBackedFields.add(psiField);
+                    for (PsiField field : collectionMethodCreator.createFields(psiField)) {
+                        addAfterLastField(field);
+                    }
+                } else if (isFilledByAdders(psiField) && !inheritedPsiFields.contains(psiField)) {
+                    addAfterLastField(collectionMethodCreator.createOwnedField(psiField));
+                }
+                for (PsiMethod method : collectionMethodCreator.createMethods(psiField, methodPrefix)) {
+                    builderClass.add(method);
+                }
             }
         }
         return this;
     }
 
+    private PsiElement addAfterLastField(PsiField field) {
+        PsiField[] fields = builderClass.getFields();
+        if (fields.length == 0) {
+            return builderClass.add(field);
+        }
+        return builderClass.addAfter(field, fields[fields.length - 1]);
+    }
+
+    private Iterable<PsiField> getFieldsWithSetMethods() {
+        if (useSingleField || isInnerBuilder(builderClass)) {
+            return allSelectedPsiFields;
+        }
+        return Iterables.concat(psiFieldsForSetters, psiFieldsForConstructor);
+    }
+
     private boolean isInnerBuilder(PsiClass aClass) {
         return aClass.hasModifierProperty("static");
     }
 
+    /**
+     * Adds but() chaining the initializing method and every set method, the ones inherited from the abstract builder
+     * included, so it has to follow {@link #withHierarchy()}.
+     */
     public BuilderPsiClassBuilder withButMethod() {
-        PsiMethod method = butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, useSingleField);
+        PsiMethod method = butMethodCreator.butMethod(builderClassName, butChainMethods, srcClass, srcClassFieldName, useSingleField,
+                hasCollectionAdders && usePrimitiveCollections, useThreadLocalPool);
+        releaseCollectionsFilledByAdders(method);
         builderClass.add(method);
         return this;
     }
 
+    public BuilderPsiClassBuilder withCopyMethod() {
+        if (useSingleField) {
+            return this;
+        }
+        if (isInnerBuilder(builderClass)) {
+            PsiMethod existingMethod = findMethod(CopyMethodCreator.TO_BUILDER_METHOD_NAME, 0);
+            if (existingMethod == null || copyMethodCreator.isCreatedToBuilderMethod(existingMethod, builderClassName)) {
+                deleteIfPresent(existingMethod);
+                srcClass.add(copyMethodCreator.toBuilderMethod(builderClassName, allSelectedPsiFields, srcClass));
+            } else {
+                conflictingMethodNames.add(CopyMethodCreator.TO_BUILDER_METHOD_NAME);
+            }
+        } else {
+            builderClass.add(copyMethodCreator.fromMethod(builderClassName, getFieldsWithSetMethods(), srcClass, srcClassFieldName));
+        }
+        return this;
+    }
+
+    public BuilderPsiClassBuilder withWitherMethods() {
+        for (PsiMethod method : witherMethodCreator.createMethods(allSelectedPsiFields, bestConstructor, srcClass)) {
+            PsiMethod existingMethod = findMethod(method.getName(), 1);
+            if (existingMethod == null || witherMethodCreator.isCreatedMethod(existingMethod, srcClass)) {
+                deleteIfPresent(existingMethod);
+                srcClass.add(method);
+            } else {
+                conflictingMethodNames.add(method.getName());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return names of the methods {@link #withCopyMethod()} and {@link #withWitherMethods()} left out, because the
+     * source class already has methods written by hand under those names
+     */
+    public List<String> getConflictingMethodNames() {
+        return conflictingMethodNames;
+    }
+
+    private PsiMethod findMethod(String name, int parametersCount) {
+        for (PsiMethod method : srcClass.findMethodsByName(name, false)) {
+            if (method.getParameterList().getParametersCount() == parametersCount) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static void deleteIfPresent(PsiMethod method) {
+        if (method != null) {
+            method.delete();
+        }
+    }
+
+    public BuilderPsiClassBuilder withJsonReader() {
+        String methodText = jsonReaderRenderer.renderReadMethod(builderModelFactory.createBuilderModel(context));
+        PsiMethod readMethod = elementFactory.createMethodFromText(methodText, srcClass);
+        builderClass.add(readMethod);
+        return this;
+    }
+
+    /**
+     * @throws IncorrectOperationException when an external builder cannot read an encodable field from the source class
+     */
+    public BuilderPsiClassBuilder withBinaryCodec() {
+        for (String memberText : renderBinaryCodecMembers()) {
+            builderClass.add(elementFactory.createMethodFromText(memberText, srcClass));
+        }
+        return this;
+    }
+
+    private List<String> renderBinaryCodecMembers() {
+        BuilderModel builderModel = builderModelFactory.createBuilderModel(context);
+        Map<String, String> accessorNames = new LinkedHashMap<String, String>();
+        if (!context.isInner()) {
+            Iterable<PsiField> encodedPsiFields = useSingleField ? allSelectedPsiFields : Iterables.concat(psiFieldsForSetters, psiFieldsForConstructor);
+            for (PsiField psiField : encodedPsiFields) {
+                String accessorName = psiFieldVerifier.findAccessorName(psiField, srcClass);
+                if (accessorName != null) {
+                    accessorNames.put(psiField.getName(), accessorName);
+                }
+            }
+        }
+        try {
+            return binaryCodecRenderer.renderMembers(builderModel, binaryCodecRenderer.getEncodableFields(builderModel), accessorNames);
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectOperationException(e.getMessage());
+        }
+    }
+
+    public BuilderPsiClassBuilder withFlyweight() {
+        BuilderModel builderModel = builderModelFactory.createBuilderModel(context);
+        for (String classText : flyweightRenderer.renderClasses(builderModel, flyweightRenderer.getLayoutFields(builderModel))) {
+            builderClass.add(elementFactory.createClassFromText(classText, srcClass).getInnerClasses()[0]);
+        }
+        return this;
+    }
+
+    /**
+     * Caches the built instance until the next set method call. Only immutable targets built entirely through the
+     * constructor qualify, otherwise callers could observe changes made to a shared instance, so this does nothing for
+     * other builders; {@link #verify} rejects them.
+     */
+    public BuilderPsiClassBuilder withMemoizedBuild() {
+        memoizeBuild = isInline && !useSingleField;
+        return this;
+    }
+
+    /**
+     * Makes the builder extend the abstract builder of the source superclass, which holds the inherited fields left
+     * out by {@link #withFields()} and {@link #withSetMethods(String)}.
+     */
+    public BuilderPsiClassBuilder withHierarchy() {
+        if (inheritedPsiFields.isEmpty()) {
+            return this;
+        }
+        PsiClass superClass = srcClass.getSuperClass();
+        PsiClass abstractBuilder = abstractBuilderCreator.findOrCreateAbstractBuilder(context.getTargetDirectory(), superClass, inheritedPsiFields,
+                context.getMethodPrefix(), copyStrategy, fieldsFilledByAdders(inheritedPsiFields));
+        psiHelper.getJavaCodeStyleManager(project).shortenClassReferences(abstractBuilder);
+        butChainMethods.addAll(abstractBuilderCreator.setMethods(abstractBuilder));
+        builderClass.getExtendsList().add(abstractBuilderCreator.extendsReference(superClass, srcClassName, builderClassName, builderClass));
+        builderClass.add(abstractBuilderCreator.selfMethod(builderClassName, builderClass));
+        return this;
+    }
+
+    /**
+     * Adds the per-thread builder used by the pooled initializing method, the reset clearing every builder field,
+     * inherited ones included, and the fresh() escape hatch for builders nested on one thread.
+     */
+    public BuilderPsiClassBuilder withThreadLocalPool() {
+        if (!useThreadLocalPool) {
+            return this;
+        }
+        Map<String, String> fieldTypes = new LinkedHashMap<String, String>();
+        for (PsiField field : builderClass.getAllFields()) {
+            if (!field.hasModifierProperty(STATIC_MODIFIER)) {
+                fieldTypes.put(field.getName(), field.getType().getCanonicalText());
+            }
+        }
+        addAfterLastField(elementFactory.createFieldFromText(builderRenderer.renderPoolField(), srcClass));
+        builderClass.add(elementFactory.createMethodFromText(builderRenderer.renderFreshMethod(), srcClass));
+        builderClass.add(elementFactory.createMethodFromText(builderRenderer.renderResetMethod(fieldTypes), srcClass));
+        return this;
+    }
+
+    /**
+     * @throws IncorrectOperationException when a selected field refers to a type variable of its class
+     */
+    public BuilderPsiClassBuilder withBatchBuilder() {
+        PsiClass batchBuilderClass = elementFactory.createClassFromText(renderBatchBuilderClass(), srcClass).getInnerClasses()[0];
+        builderClass.add(batchBuilderClass);
+        return this;
+    }
+
+    private String renderBatchBuilderClass() {
+        try {
+            return batchBuilderRenderer.renderClass(builderModelFactory.createBuilderModel(context), typeVariablesOf(allSelectedPsiFields));
+        } catch (IllegalArgumentException e) {
+            throw new IncorrectOperationException(e.getMessage());
+        }
+    }
+
+    private static Set<String> typeVariablesOf(List<PsiField> psiFields) {
+        Set<String> typeVariables = new LinkedHashSet<>();
+        for (PsiField psiField : psiFields) {
+            for (PsiClass owner = psiField.getContainingClass(); owner != null; owner = owner.getContainingClass()) {
+                for (PsiTypeParameter typeParameter : owner.getTypeParameters()) {
+                    typeVariables.add(typeParameter.getName());
+                }
+            }
+        }
+        return typeVariables;
+    }
+
     private void createAndAddMethod(PsiField psiField, String methodPrefix) {
-        builderClass.add(methodCreator.createMethod(psiField, methodPrefix, srcClassFieldName, useSingleField));
+        PsiMethod method = methodCreator.createMethod(psiField, methodPrefix, srcClassFieldName, useSingleField);
+        if (isFilledByAdders(psiField)) {
+            PsiCodeBlock body = method.getBody();
+            PsiStatement[] statements = body.getStatements();
+            String owned = copyStrategy.copiesOnSet() ? "this." + psiField.getName() + " != null" : "false";
+            body.addBefore(collectionMethodCreator.createOwnedStatement(psiField, owned), statements[statements.length - 1]);
+        }
+        butChainMethods.add(method);
+        builderClass.add(method);
     }
 
     public PsiClass build() {
@@ -164,113 +496,168 @@ public class BuilderPsiClassBuilder {
     }
 
     private PsiClass buildUseSingleField() {
-        String buildMethodText = "public " + srcClassName + " build() { "
-                + "return " + srcClassFieldName + ";"
-                + " }";
-        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText, srcClass);
+        PsiMethod buildMethod = elementFactory.createMethodFromText(builderRenderer.renderSingleFieldBuildMethod(srcClassName), srcClass);
         builderClass.add(buildMethod);
         return builderClass;
     }
 
     private PsiClass buildIsInline() {
-        StringBuilder buildMethodText = new StringBuilder();
-        buildMethodText.append("public ").append(srcClassName).append(" build() { ");
-        buildMethodText.append("return ");
-        appendConstructor(buildMethodText);
-        buildMethodText.append(" }");
-        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText.toString(), srcClass);
+        String buildMethodText;
+        if (memoizeBuild) {
+            invalidateMemoizedInstanceInSetMethods();
+            addAfterLastField(elementFactory.createFieldFromText(builderRenderer.renderMemoizedField(srcClassName), srcClass));
+            buildMethodText = builderRenderer.renderMemoizedInlineBuildMethod(srcClassName, createConstructorArguments());
+        } else {
+            buildMethodText = builderRenderer.renderInlineBuildMethod(srcClassName, createConstructorArguments());
+        }
+        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText, srcClass);
+        if (!copyStrategy.copiesOnBuild()) {
+            releaseCollectionsFilledByAdders(buildMethod);
+        }
         builderClass.add(buildMethod);
+        addToArrayMethods();
         return builderClass;
     }
 
     private PsiClass buildDefault() {
-        StringBuilder buildMethodText = new StringBuilder();
-        buildMethodText.append("public ").append(srcClassName).append(" build() { ");
-        buildMethodText.append(srcClassName).append(SPACE).append(srcClassFieldName).append(" = ");
-        appendConstructor(buildMethodText);
-        appendSetMethodsOrAssignments(buildMethodText);
-        buildMethodText.append("return ").append(srcClassFieldName).append(";");
-        buildMethodText.append(" }");
-        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText.toString(), srcClass);
+        List<String> constructorArguments = createConstructorArguments();
+        Map<String, String> assignments = new LinkedHashMap<String, String>();
+        if (isInnerBuilder(builderClass)) {
+            assignments = createAssignments(BuilderRenderer.fieldsSetViaAssignment(allSelectedPsiFields, psiFieldsForSetters, psiFieldsForConstructor));
+        }
+        String buildMethodText = builderRenderer.renderBuildMethod(srcClassName, constructorArguments, createSetterValues(psiFieldsForSetters), assignments);
+        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText, srcClass);
+        if (!copyStrategy.copiesOnBuild()) {
+            releaseCollectionsFilledByAdders(buildMethod);
+        }
         builderClass.add(buildMethod);
+        addToArrayMethods();
         return builderClass;
     }
 
-    private void appendConstructor(StringBuilder buildMethodText) {
-        String constructorParameters = createConstructorParameters();
-        buildMethodText.append("new ").append(srcClassName).append("(").append(constructorParameters).append(");");
+    /**
+     * Clears the cached instance in every instance method returning the builder. That includes self(), through which
+     * the set methods inherited from the abstract builder return, so those invalidate it as well.
+     */
+    private void invalidateMemoizedInstanceInSetMethods() {
+        for (PsiMethod method : builderClass.getMethods()) {
+            PsiType returnType = method.getReturnType();
+            PsiCodeBlock body = method.getBody();
+            if (returnType != null && body != null && !method.hasModifierProperty(STATIC_MODIFIER)
+                    && builderClassName.equals(returnType.getPresentableText())) {
+                body.addAfter(elementFactory.createStatementFromText(builderRenderer.renderMemoizedInvalidation(), method), body.getLBrace());
+            }
+        }
     }
 
-    private void appendSetMethodsOrAssignments(StringBuilder buildMethodText) {
-        appendSetMethods(buildMethodText, psiFieldsForSetters);
-        if (isInnerBuilder(builderClass)) {
-            Set<PsiField> fieldsSetViaAssignment = new HashSet<PsiField>(allSelectedPsiFields);
-            fieldsSetViaAssignment.removeAll(psiFieldsForSetters);
-            fieldsSetViaAssignment.removeAll(psiFieldsForConstructor);
-            appendAssignments(buildMethodText, fieldsSetViaAssignment);
+    /**
+     * Hands the collections filled by adders over to the code the method passes them to, so the next adder call copies
+     * them instead of changing a collection the builder no longer owns alone.
+     */
+    private void releaseCollectionsFilledByAdders(PsiMethod method) {
+        PsiCodeBlock body = method.getBody();
+        for (PsiField psiField : getFieldsWithSetMethods()) {
+            if (isFilledByAdders(psiField)) {
+                body.addAfter(collectionMethodCreator.createOwnedStatement(psiField, "false"), body.getLBrace());
+            }
         }
     }
 
-    private void appendSetMethods(StringBuilder buildMethodText, Collection<PsiField> fieldsToBeSetViaSetter) {
+    private void addToArrayMethods() {
+        for (PsiField psiField : fieldsPassedAsArrays) {
+            builderClass.add(collectionMethodCreator.createToArrayMethod(psiField));
+        }
+    }
+
+    private Map<String, String> createSetterValues(Collection<PsiField> fieldsToBeSetViaSetter) {
+        Map<String, String> setterValues = new LinkedHashMap<String, String>();
         for (PsiField psiFieldsForSetter : fieldsToBeSetViaSetter) {
-            String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-            String fieldName = psiFieldsForSetter.getName();
-            String fieldNameWithoutPrefix = fieldName.replaceFirst(fieldNamePrefix, "");
-            String fieldNameUppercase = StringUtils.capitalize(fieldNameWithoutPrefix);
-            buildMethodText.append(srcClassFieldName).append(".set").append(fieldNameUppercase).append("(").append(fieldName).append(");");
+            if (!fieldsPassedAsArrays.contains(psiFieldsForSetter)) {
+                setterValues.put(psiFieldsForSetter.getName(), valueOf(psiFieldsForSetter));
+            }
         }
+        return setterValues;
     }
 
-    private void appendAssignments(StringBuilder buildMethodText, Collection<PsiField> fieldsSetViaAssignment) {
+    private Map<String, String> createAssignments(Collection<PsiField> fieldsSetViaAssignment) {
+        Map<String, String> assignments = new LinkedHashMap<String, String>();
         for (PsiField field : fieldsSetViaAssignment) {
-            buildMethodText.append(srcClassFieldName).append(".")
-                    .append(field.getName()).append("=").append("this.")
-                    .append(field.getName()).append(";");
+            if (!fieldsPassedAsArrays.contains(field)) {
+                assignments.put(field.getName(), primitiveBackedFields.contains(field) ? valueOf(field) : copyOnBuild(field, "this." + field.getName()));
+            }
         }
+        return assignments;
     }
 
-    private String createConstructorParameters() {
+    private String valueOf(PsiField psiField) {
+        if (primitiveBackedFields.contains(psiField)) {
+            return collectionMethodCreator.collectMethodName(psiField) + "()";
+        }
+        return copyOnBuild(psiField, psiField.getName());
+    }
+
+    private String copyOnBuild(PsiField psiField, String value) {
+        if (!copyStrategy.copiesOnBuild()) {
+            return value;
+        }
+        return copyStrategy.copyOf(psiField.getType().getCanonicalText(), value);
+    }
+
+    /**
+     * Collections the adders add to are owned by the builder only from the first adder call after a set method or
+     * build() handed them over, see {@link CollectionMethodCreator#createOwnedField(PsiField)}.
+     */
+    private boolean isFilledByAdders(PsiField psiField) {
+        return hasCollectionAdders && !useSingleField && CollectionType.of(psiField.getType()) != null
+                && !collectionMethodCreator.isBackedByPrimitiveArray(psiField);
+    }
+
+    private Set<PsiField> fieldsFilledByAdders(Collection<PsiField> psiFields) {
+        Set<PsiField> fieldsFilledByAdders = new LinkedHashSet<PsiField>();
+        for (PsiField psiField : psiFields) {
+            if (isFilledByAdders(psiField)) {
+                fieldsFilledByAdders.add(psiField);
+            }
+        }
+        return fieldsFilledByAdders;
+    }
+
+    private List<String> createConstructorArguments() {
+        List<String> arguments = new ArrayList<String>();
         if (bestConstructor == null) {
-            return "";
+            return arguments;
         }
-        StringBuilder sb = new StringBuilder();
         for (PsiParameter psiParameter : bestConstructor.getParameterList().getParameters()) {
             boolean parameterHasMatchingField = false;
             for (PsiField psiField : psiFieldsForConstructor) {
                 if (psiFieldVerifier.areNameAndTypeEqual(psiField, psiParameter)) {
-                    sb.append(psiField.getName()).append(SEMICOLON);
+                    arguments.add(valueOf(psiField));
                     parameterHasMatchingField = true;
                     break;
                 }
             }
             if (!parameterHasMatchingField) {
-                sb.append(getDefaultValue(psiParameter.getType())).append(SEMICOLON);
+                PsiField fieldPassedAsArray = findFieldPassedAsArray(psiParameter);
+                if (fieldPassedAsArray != null) {
+                    fieldsPassedAsArrays.add(fieldPassedAsArray);
+                    arguments.add(collectionMethodCreator.toArrayMethodName(fieldPassedAsArray) + "()");
+                } else {
+                    arguments.add(DefaultValues.of(psiParameter.getType().getCanonicalText()));
+                }
             }
         }
-        removeLastSemicolon(sb);
-        return sb.toString();
+        return arguments;
     }
 
-    private String getDefaultValue(PsiType type) {
-        if (type.equals(PsiType.BOOLEAN)) {
-            return "false";
-        } else if (type.equals(PsiType.BYTE) || type.equals(PsiType.SHORT) || type.equals(PsiType.INT)) {
-            return "0";
-        } else if (type.equals(PsiType.LONG)) {
-            return "0L";
-        } else if (type.equals(PsiType.FLOAT)) {
-            return "0.0f";
-        } else if (type.equals(PsiType.DOUBLE)) {
-            return "0.0d";
-        } else if (type.equals(PsiType.CHAR)) {
-            return "'\\u0000'";
-        }
-        return "null";
-    }
-
-    private void removeLastSemicolon(StringBuilder sb) {
-        if (sb.toString().endsWith(SEMICOLON)) {
-            sb.deleteCharAt(sb.length() - 1);
+    private PsiField findFieldPassedAsArray(PsiParameter psiParameter) {
+        for (PsiField psiField : primitiveBackedFields) {
+            if (CollectionType.of(psiField.getType()) != CollectionType.MAP
+                    && Names.withoutPrefix(psiField.getName(), codeStyleSettings.getFieldNamePrefix())
+                            .equals(Names.withoutPrefix(psiParameter.getName(), codeStyleSettings.getParameterNamePrefix()))
+                    && PrimitiveElementType.of(psiField.getType()).isArrayType(psiParameter.getType())) {
+                return psiField;
+            }
         }
+        return null;
     }
 }
@@ -3,48 +3,63 @@ package pl.mjedynak.idea.plugins.builder.psi;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
 import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.builder.core.BuilderRenderer;
+import pl.mjedynak.builder.core.model.BuilderOptions;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ButMethodCreator {
 
     private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+    private MethodNameCreator methodNameCreator = new MethodNameCreator();
     private PsiElementFactory elementFactory;
 
     public ButMethodCreator(PsiElementFactory elementFactory) {
         this.elementFactory = elementFactory;
     }
 
-    public PsiMethod butMethod(String builderClassName, PsiClass builderClass, PsiClass srcClass, String srcClassFieldName, boolean useSingleField) {
-        PsiMethod[] methods = builderClass.getMethods();
-        StringBuilder text = new StringBuilder("public " + builderClassName + " but() { return ");
+    /**
+     * @param methods            the initializing method followed by the set methods to chain, inherited ones included,
+     *                           which hand the collections filled by adders over to the new builder
+     * @param useThreadLocalPool starts from fresh() instead of the initializing method, which would hand out the builder
+     *                           but() is called on, reset
+     */
+    public PsiMethod butMethod(String builderClassName, Iterable<PsiMethod> methods, PsiClass srcClass, String srcClassFieldName, boolean useSingleField,
+                               boolean usePrimitiveCollections, boolean useThreadLocalPool) {
+        BuilderRenderer builderRenderer = new BuilderRenderer(builderClassName, new BuilderOptions(null, codeStyleSettings.getFieldNamePrefix(),
+                codeStyleSettings.getParameterNamePrefix(), useSingleField, true));
+        List<String> calls = new ArrayList<String>();
         for (PsiMethod method : methods) {
             PsiParameterList parameterList = method.getParameterList();
             if (methodIsNotConstructor(builderClassName, method)) {
-                appendMethod(text, method, parameterList, srcClassFieldName, useSingleField);
+                calls.add(useThreadLocalPool && isInitializingMethod(parameterList)
+                        ? builderRenderer.renderFreshCall()
+                        : builderRenderer.renderButCall(method.getName(), argumentOf(parameterList, srcClassFieldName, useSingleField, usePrimitiveCollections)));
             }
         }
-        deleteLastDot(text);
-        text.append("; }");
-        return elementFactory.createMethodFromText(text.toString(), srcClass);
+        return elementFactory.createMethodFromText(builderRenderer.renderButMethod(calls), srcClass);
     }
 
-    private void appendMethod(StringBuilder text, PsiMethod method, PsiParameterList parameterList, String srcClassFieldName, boolean useSingleField) {
+    private String argumentOf(PsiParameterList parameterList, String srcClassFieldName, boolean useSingleField, boolean usePrimitiveCollections) {
         if (isInitializingMethod(parameterList)) {
-            text.append(method.getName()).append("().");
+            return null;
         } else {
-            String parameterName = parameterList.getParameters()[0].getName();
+            PsiParameter parameter = parameterList.getParameters()[0];
+            String parameterName = parameter.getName();
             String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
             String parameterNameWithoutPrefix = parameterName.replaceFirst(parameterNamePrefix, "");
             String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-            text.append(method.getName()).append("(");
             if (useSingleField) {
-                text.append(srcClassFieldName).append(".get").append(StringUtils.capitalize(parameterNameWithoutPrefix)).append("()");
-            } else {
-                text.append(fieldNamePrefix).append(parameterNameWithoutPrefix);
+                return srcClassFieldName + ".get" + StringUtils.capitalize(parameterNameWithoutPrefix) + "()";
+            } else if (usePrimitiveCollections && PrimitiveElementType.of(parameter.getType()) != null) {
+                return methodNameCreator.createMethodName(CollectionMethodCreator.COLLECT_PREFIX, parameterNameWithoutPrefix) + "()";
             }
-            text.append(").");
+            return fieldNamePrefix + parameterNameWithoutPrefix;
         }
     }
 
@@ -52,10 +67,6 @@ public class ButMethodCreator {
         return parameterList.getParametersCount() <= 0;
     }
 
-    private void deleteLastDot(StringBuilder text) {
-        text.deleteCharAt(text.length() - 1);
-    }
-
     private boolean methodIsNotConstructor(String builderClassName, PsiMethod method) {
         return !method.getName().equals(builderClassName);
     }
@@ -0,0 +1,233 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+public class CollectionMethodCreator {
+
+    static final String COLLECT_PREFIX = "collect";
+    public static final String CAPACITY_SUFFIX = "Capacity";
+    public static final String VALUES_SUFFIX = "Values";
+    public static final String OWNED_SUFFIX = "Owned";
+    private static final String SIZE_SUFFIX = "Size";
+    private static final String KEYS_SUFFIX = "Keys";
+    private static final String PLURAL_SUFFIX = "s";
+    private static final String IES_SUFFIX = "ies";
+    private static final int INITIAL_ARRAY_LENGTH = 10;
+
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+    private MethodNameCreator methodNameCreator = new MethodNameCreator();
+    private PsiElementFactory elementFactory;
+    private String builderClassName;
+    private boolean usePrimitiveCollections;
+
+    public CollectionMethodCreator(PsiElementFactory elementFactory, String builderClassName, boolean usePrimitiveCollections) {
+        this.elementFactory = elementFactory;
+        this.builderClassName = builderClassName;
+        this.usePrimitiveCollections = usePrimitiveCollections;
+    }
+
+    public boolean isBackedByPrimitiveArray(PsiField psiField) {
+        return usePrimitiveCollections && PrimitiveElementType.of(psiField.getType()) != null;
+    }
+
+    public List<PsiField> createFields(PsiField psiField) {
+        if (!isBackedByPrimitiveArray(psiField)) {
+            return Collections.emptyList();
+        }
+        PrimitiveElementType elementType = PrimitiveElementType.of(psiField.getType());
+        String fieldName = psiField.getName();
+        PsiField valuesField = elementFactory.createFieldFromText(
+                "private " + elementType.getArrayTypeName() + " " + fieldName + VALUES_SUFFIX + ";", psiField);
+        PsiField sizeField = elementFactory.createFieldFromText("private int " + fieldName + SIZE_SUFFIX + ";", psiField);
+        if (CollectionType.of(psiField.getType()) == CollectionType.MAP) {
+            PsiType keyType = ((PsiClassType) psiField.getType()).getParameters()[0];
+            PsiField keysField = elementFactory.createFieldFromText(
+                    "private java.util.ArrayList<" + keyType.getCanonicalText() + "> " + fieldName + KEYS_SUFFIX + ";", psiField);
+            return asList(valuesField, sizeField, keysField);
+        }
+        return asList(valuesField, sizeField);
+    }
+
+    /**
+     * The flag telling whether the collection the adders add to is the builder's own. A set method or build() hands
+     * the collection over, and the next adder copies it before adding, so each collection is copied at most once.
+     */
+    public PsiField createOwnedField(PsiField psiField) {
+        return elementFactory.createFieldFromText("private boolean " + ownedFieldName(psiField.getName()) + ";", psiField);
+    }
+
+    /**
+     * @param owned whether the builder owns the collection after the statement, e.g. because it has just copied it
+     */
+    public PsiStatement createOwnedStatement(PsiField psiField, String owned) {
+        return elementFactory.createStatementFromText("this." + ownedFieldName(psiField.getName()) + " = " + owned + ";", psiField);
+    }
+
+    public static String ownedFieldName(String fieldName) {
+        return fieldName + OWNED_SUFFIX;
+    }
+
+    public List<PsiMethod> createMethods(PsiField psiField, String methodPrefix) {
+        CollectionType collectionType = CollectionType.of(psiField.getType());
+        if (collectionType == null) {
+            return Collections.emptyList();
+        }
+        PsiType[] typeParameters = ((PsiClassType) psiField.getType()).getParameters();
+        String fieldName = psiField.getName();
+        String fieldNameWithoutPrefix = fieldName.replaceFirst(codeStyleSettings.getFieldNamePrefix(), "");
+        if (isBackedByPrimitiveArray(psiField)) {
+            PrimitiveElementType elementType = PrimitiveElementType.of(psiField.getType());
+            return asList(
+                    createPrimitiveAdderMethod(psiField, collectionType, elementType, typeParameters, fieldNameWithoutPrefix),
+                    createPrimitiveCapacityMethod(psiField, collectionType, elementType, methodPrefix, fieldNameWithoutPrefix),
+                    createCollectMethod(psiField, collectionType, fieldNameWithoutPrefix));
+        }
+        return asList(
+                createAdderMethod(psiField, collectionType, typeParameters, fieldNameWithoutPrefix),
+                createCapacityMethod(psiField, collectionType, methodPrefix, fieldNameWithoutPrefix));
+    }
+
+    /**
+     * The array holds the elements of a set once each, as the set collected from the same elements would.
+     */
+    public PsiMethod createToArrayMethod(PsiField psiField) {
+        PrimitiveElementType elementType = PrimitiveElementType.of(psiField.getType());
+        String fieldName = psiField.getName();
+        String fieldNameWithoutPrefix = fieldName.replaceFirst(codeStyleSettings.getFieldNamePrefix(), "");
+        String valuesName = "this." + fieldName + VALUES_SUFFIX;
+        String sizeName = "this." + fieldName + SIZE_SUFFIX;
+        String arrayType = elementType.getArrayTypeName();
+        String methodText = "private " + arrayType + " " + toArrayMethodName(fieldNameWithoutPrefix) + "() { "
+                + "if (this." + fieldName + " == null && " + valuesName + " == null) { return null; } "
+                + "int collectionSize = this." + fieldName + " == null ? 0 : this." + fieldName + ".size(); "
+                + arrayType + " result = new " + elementType.getPrimitiveName() + "[collectionSize + " + sizeName + "]; "
+                + "int i = 0; "
+                + "if (this." + fieldName + " != null) { for (" + elementType.getPrimitiveName() + " element : this." + fieldName + ") { result[i++] = element; } } "
+                + "if (" + valuesName + " != null) { System.arraycopy(" + valuesName + ", 0, result, i, " + sizeName + "); } "
+                + (CollectionType.of(psiField.getType()) == CollectionType.SET ? "return java.util.Arrays.stream(result).distinct().toArray(); }" : "return result; }");
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    public String collectMethodName(PsiField psiField) {
+        return methodNameCreator.createMethodName(COLLECT_PREFIX, psiField.getName().replaceFirst(codeStyleSettings.getFieldNamePrefix(), ""));
+    }
+
+    public String toArrayMethodName(PsiField psiField) {
+        return toArrayMethodName(psiField.getName().replaceFirst(codeStyleSettings.getFieldNamePrefix(), ""));
+    }
+
+    private String toArrayMethodName(String fieldNameWithoutPrefix) {
+        return methodNameCreator.createMethodName("to", fieldNameWithoutPrefix + "Array");
+    }
+
+    private PsiMethod createAdderMethod(PsiField psiField, CollectionType collectionType, PsiType[] typeParameters,
+                                        String fieldNameWithoutPrefix) {
+        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
+        String elementName = singularize(fieldNameWithoutPrefix);
+        String methodName = methodNameCreator.createMethodName(collectionType.getAdderPrefix(), elementName);
+        String parameters;
+        String arguments;
+        if (collectionType == CollectionType.MAP) {
+            String keyName = parameterNamePrefix + "key";
+            String valueName = parameterNamePrefix + "value";
+            parameters = typeParameters[0].getCanonicalText() + " " + keyName + ", " + typeParameters[1].getCanonicalText() + " " + valueName;
+            arguments = keyName + ", " + valueName;
+        } else {
+            arguments = parameterNamePrefix + elementName;
+            parameters = typeParameters[0].getCanonicalText() + " " + arguments;
+        }
+        String fieldName = "this." + psiField.getName();
+        String ownedName = "this." + ownedFieldName(psiField.getName());
+        String methodText = "public " + builderClassName + " " + methodName + "(" + parameters + ") { "
+                + "if (!" + ownedName + ") { " + fieldName + " = " + fieldName + " == null ? " + collectionType.newInstance()
+                + " : " + collectionType.copyOf(fieldName) + "; " + ownedName + " = true; } "
+                + fieldName + "." + collectionType.getAdderPrefix() + "(" + arguments + "); return this; }";
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    private PsiMethod createCapacityMethod(PsiField psiField, CollectionType collectionType, String methodPrefix,
+                                           String fieldNameWithoutPrefix) {
+        String methodName = methodNameCreator.createMethodName(methodPrefix, fieldNameWithoutPrefix + CAPACITY_SUFFIX);
+        String parameterName = codeStyleSettings.getParameterNamePrefix() + fieldNameWithoutPrefix + CAPACITY_SUFFIX;
+        String fieldName = "this." + psiField.getName();
+        String methodText = "public " + builderClassName + " " + methodName + "(int " + parameterName + ") { "
+                + "if (" + fieldName + " == null) { " + fieldName + " = " + collectionType.newInstance(parameterName) + "; "
+                + "this." + ownedFieldName(psiField.getName()) + " = true; } return this; }";
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    private PsiMethod createPrimitiveAdderMethod(PsiField psiField, CollectionType collectionType, PrimitiveElementType elementType,
+                                                 PsiType[] typeParameters, String fieldNameWithoutPrefix) {
+        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
+        String elementName = singularize(fieldNameWithoutPrefix);
+        String methodName = methodNameCreator.createMethodName(collectionType.getAdderPrefix(), elementName);
+        String fieldName = psiField.getName();
+        String valuesName = "this." + fieldName + VALUES_SUFFIX;
+        String sizeName = "this." + fieldName + SIZE_SUFFIX;
+        String keysName = "this." + fieldName + KEYS_SUFFIX;
+        boolean isMap = collectionType == CollectionType.MAP;
+        String valueName = parameterNamePrefix + (isMap ? "value" : elementName);
+        String keyName = parameterNamePrefix + "key";
+        String parameters = elementType.getPrimitiveName() + " " + valueName;
+        if (isMap) {
+            parameters = typeParameters[0].getCanonicalText() + " " + keyName + ", " + parameters;
+        }
+        String methodText = "public " + builderClassName + " " + methodName + "(" + parameters + ") { "
+                + "if (" + valuesName + " == null) { " + valuesName + " = new " + elementType.getPrimitiveName() + "[" + INITIAL_ARRAY_LENGTH + "]; "
+                + (isMap ? keysName + " = new java.util.ArrayList<>(); " : "")
+                + "} else if (" + sizeName + " == " + valuesName + ".length) { "
+                + valuesName + " = java.util.Arrays.copyOf(" + valuesName + ", " + sizeName + " * 2 + 1); } "
+                + (isMap ? keysName + ".add(" + keyName + "); " : "")
+                + valuesName + "[" + sizeName + "++] = " + valueName + "; return this; }";
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    private PsiMethod createPrimitiveCapacityMethod(PsiField psiField, CollectionType collectionType, PrimitiveElementType elementType,
+                                                    String methodPrefix, String fieldNameWithoutPrefix) {
+        String methodName = methodNameCreator.createMethodName(methodPrefix, fieldNameWithoutPrefix + CAPACITY_SUFFIX);
+        String parameterName = codeStyleSettings.getParameterNamePrefix() + fieldNameWithoutPrefix + CAPACITY_SUFFIX;
+        String fieldName = psiField.getName();
+        String valuesName = "this." + fieldName + VALUES_SUFFIX;
+        String methodText = "public " + builderClassName + " " + methodName + "(int " + parameterName + ") { "
+                + "if (" + valuesName + " == null) { " + valuesName + " = new " + elementType.getPrimitiveName() + "[" + parameterName + "]; "
+                + (collectionType == CollectionType.MAP ? "this." + fieldName + KEYS_SUFFIX + " = new java.util.ArrayList<>(" + parameterName + "); " : "")
+                + "} return this; }";
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    private PsiMethod createCollectMethod(PsiField psiField, CollectionType collectionType, String fieldNameWithoutPrefix) {
+        String fieldName = psiField.getName();
+        String fieldType = psiField.getType().getCanonicalText();
+        String valuesName = "this." + fieldName + VALUES_SUFFIX;
+        String sizeName = "this." + fieldName + SIZE_SUFFIX;
+        String element = collectionType == CollectionType.MAP
+                ? "this." + fieldName + KEYS_SUFFIX + ".get(i), " + valuesName + "[i]"
+                : valuesName + "[i]";
+        String methodText = "private " + fieldType + " " + methodNameCreator.createMethodName(COLLECT_PREFIX, fieldNameWithoutPrefix) + "() { "
+                + "if (" + valuesName + " == null) { return this." + fieldName + " == null ? null : " + collectionType.copyOf("this." + fieldName) + "; } "
+                + fieldType + " result = this." + fieldName + " == null ? " + collectionType.newInstance(sizeName) + " : " + collectionType.copyOf("this." + fieldName) + "; "
+                + "for (int i = 0; i < " + sizeName + "; i++) { result." + collectionType.getAdderPrefix() + "(" + element + "); } "
+                + "return result; }";
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    private String singularize(String name) {
+        if (name.endsWith(IES_SUFFIX) && name.length() > IES_SUFFIX.length()) {
+            return name.substring(0, name.length() - IES_SUFFIX.length()) + "y";
+        } else if (name.endsWith(PLURAL_SUFFIX) && !name.endsWith(PLURAL_SUFFIX + PLURAL_SUFFIX) && name.length() > PLURAL_SUFFIX.length()) {
+            return name.substring(0, name.length() - PLURAL_SUFFIX.length());
+        }
+        return name;
+    }
+}
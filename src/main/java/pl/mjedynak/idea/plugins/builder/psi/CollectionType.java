@@ -0,0 +1,81 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.google.common.collect.ImmutableMap;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWildcardType;
+
+import java.util.Map;
+
+public enum CollectionType {
+
+    LIST("java.util.ArrayList", "add"),
+    SET("java.util.HashSet", "add"),
+    MAP("java.util.HashMap", "put");
+
+    private static final Map<String, CollectionType> TYPES_BY_NAME = ImmutableMap.<String, CollectionType>builder()
+            .put("java.util.Collection", LIST)
+            .put("java.util.List", LIST)
+            .put("java.util.ArrayList", LIST)
+            .put("java.util.Set", SET)
+            .put("java.util.HashSet", SET)
+            .put("java.util.Map", MAP)
+            .put("java.util.HashMap", MAP)
+            .build();
+
+    private final String implementationClassName;
+    private final String adderPrefix;
+
+    CollectionType(String implementationClassName, String adderPrefix) {
+        this.implementationClassName = implementationClassName;
+        this.adderPrefix = adderPrefix;
+    }
+
+    public static CollectionType of(PsiType type) {
+        if (!(type instanceof PsiClassType)) {
+            return null;
+        }
+        PsiClassType classType = (PsiClassType) type;
+        CollectionType collectionType = TYPES_BY_NAME.get(classType.rawType().getCanonicalText());
+        if (collectionType == null || !hasConcreteTypeParameters(classType, collectionType)) {
+            return null;
+        }
+        return collectionType;
+    }
+
+    private static boolean hasConcreteTypeParameters(PsiClassType classType, CollectionType collectionType) {
+        PsiType[] parameters = classType.getParameters();
+        if (parameters.length != collectionType.getTypeParametersCount()) {
+            return false;
+        }
+        for (PsiType parameter : parameters) {
+            if (parameter instanceof PsiWildcardType) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getTypeParametersCount() {
+        return this == MAP ? 2 : 1;
+    }
+
+    public String getAdderPrefix() {
+        return adderPrefix;
+    }
+
+    public String newInstance() {
+        return "new " + implementationClassName + "<>()";
+    }
+
+    public String newInstance(String expectedSize) {
+        if (this == LIST) {
+            return "new " + implementationClassName + "<>(" + expectedSize + ")";
+        }
+        return "new " + implementationClassName + "<>((int) (" + expectedSize + " / 0.75f) + 1)";
+    }
+
+    public String copyOf(String source) {
+        return "new " + implementationClassName + "<>(" + source + ")";
+    }
+}
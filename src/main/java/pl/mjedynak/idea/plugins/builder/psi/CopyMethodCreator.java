@@ -0,0 +1,93 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.IncorrectOperationException;
+import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Creates toBuilder() of inner builders and from() of separate ones. Both pass the values of the object to the builder
+ * as they are: collections are copied by the first adder call, so adding to the builder never changes the object it
+ * was copied from.
+ */
+public class CopyMethodCreator {
+
+    static final String TO_BUILDER_METHOD_NAME = "toBuilder";
+    public static final String FROM_METHOD_NAME = "from";
+
+    private PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
+    private PsiElementFactory elementFactory;
+
+    public CopyMethodCreator(PsiElementFactory elementFactory) {
+        this.elementFactory = elementFactory;
+    }
+
+    public PsiMethod toBuilderMethod(String builderClassName, Iterable<PsiField> fields, PsiClass srcClass) {
+        String builderName = StringUtils.uncapitalize(builderClassName);
+        StringBuilder text = new StringBuilder("public " + builderClassName + " " + TO_BUILDER_METHOD_NAME + "() { ");
+        text.append(builderClassName).append(" ").append(builderName).append(" = new ").append(builderClassName).append("(); ");
+        for (PsiField field : fields) {
+            text.append(builderName).append(".").append(field.getName()).append(" = this.").append(field.getName()).append("; ");
+        }
+        text.append("return ").append(builderName).append("; }");
+        return elementFactory.createMethodFromText(text.toString(), srcClass);
+    }
+
+    /**
+     * Tells toBuilder() created here for the given builder, which only copies fields into a new builder, from a method
+     * written by hand under the same name.
+     */
+    public boolean isCreatedToBuilderMethod(PsiMethod method, String builderClassName) {
+        PsiCodeBlock body = method.getBody();
+        if (method.getParameterList().getParametersCount() != 0 || body == null) {
+            return false;
+        }
+        String builderType = Pattern.quote(builderClassName);
+        String builderName = Pattern.quote(StringUtils.uncapitalize(builderClassName));
+        return Pattern.matches("\\{" + builderType + builderName + "=new" + builderType + "\\(\\);(" + builderName + "\\.\\w+=[^;]*;)*return" + builderName + ";}",
+                body.getText().replaceAll("\\s", ""));
+    }
+
+    /**
+     * Reads the fields through their getters, or through the component accessors of a record, see
+     * {@link PsiFieldVerifier#findAccessorName(PsiField, PsiClass)}.
+     *
+     * @throws IncorrectOperationException when one of the fields cannot be read
+     */
+    public PsiMethod fromMethod(String builderClassName, Iterable<PsiField> fields, PsiClass srcClass, String srcClassFieldName) {
+        verifyReadable(fields, srcClass);
+        String builderName = StringUtils.uncapitalize(builderClassName);
+        StringBuilder text = new StringBuilder("public static " + builderClassName + " " + FROM_METHOD_NAME + "(" + srcClass.getName() + " " + srcClassFieldName + ") { ");
+        text.append(builderClassName).append(" ").append(builderName).append(" = new ").append(builderClassName).append("(); ");
+        for (PsiField field : fields) {
+            text.append(builderName).append(".").append(field.getName()).append(" = ")
+                    .append(srcClassFieldName).append(".").append(psiFieldVerifier.findAccessorName(field, srcClass)).append("(); ");
+        }
+        text.append("return ").append(builderName).append("; }");
+        return elementFactory.createMethodFromText(text.toString(), srcClass);
+    }
+
+    /**
+     * @throws IncorrectOperationException when from() could not read one of the fields
+     */
+    public void verifyReadable(Iterable<PsiField> fields, PsiClass srcClass) {
+        List<String> unreadableFieldNames = new ArrayList<String>();
+        for (PsiField field : fields) {
+            if (psiFieldVerifier.findAccessorName(field, srcClass) == null) {
+                unreadableFieldNames.add(field.getName());
+            }
+        }
+        if (!unreadableFieldNames.isEmpty()) {
+            throw new IncorrectOperationException(srcClass.getName() + " has no getter for " + String.join(", ", unreadableFieldNames) + ", which "
+                    + FROM_METHOD_NAME + "() would leave out of the copy");
+        }
+    }
+}
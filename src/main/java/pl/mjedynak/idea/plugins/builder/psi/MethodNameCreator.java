@@ -1,16 +1,10 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
-import static org.apache.commons.lang.StringUtils.capitalize;
-import static org.apache.commons.lang.StringUtils.isEmpty;
+import pl.mjedynak.builder.core.Names;
 
 public class MethodNameCreator {
 
     public String createMethodName(String methodPrefix, String fieldName) {
-        if (isEmpty(methodPrefix)) {
-            return fieldName;
-        } else {
-            String fieldNameUppercase = capitalize(fieldName);
-            return methodPrefix + fieldNameUppercase;
-        }
+        return Names.methodName(methodPrefix, fieldName);
     }
 }
@@ -0,0 +1,45 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiType;
+
+public enum PrimitiveElementType {
+
+    INT("java.lang.Integer", "int"),
+    LONG("java.lang.Long", "long"),
+    DOUBLE("java.lang.Double", "double");
+
+    private final String boxedClassName;
+    private final String primitiveName;
+
+    PrimitiveElementType(String boxedClassName, String primitiveName) {
+        this.boxedClassName = boxedClassName;
+        this.primitiveName = primitiveName;
+    }
+
+    public static PrimitiveElementType of(PsiType type) {
+        if (CollectionType.of(type) == null) {
+            return null;
+        }
+        PsiType[] parameters = ((PsiClassType) type).getParameters();
+        String elementClassName = parameters[parameters.length - 1].getCanonicalText();
+        for (PrimitiveElementType primitiveElementType : values()) {
+            if (primitiveElementType.boxedClassName.equals(elementClassName)) {
+                return primitiveElementType;
+            }
+        }
+        return null;
+    }
+
+    public String getPrimitiveName() {
+        return primitiveName;
+    }
+
+    public String getArrayTypeName() {
+        return primitiveName + "[]";
+    }
+
+    public boolean isArrayType(PsiType type) {
+        return getArrayTypeName().equals(type.getCanonicalText());
+    }
+}
@@ -16,6 +16,7 @@ public class PsiFieldSelector {
 
     private PsiElementClassMemberFactory psiElementClassMemberFactory;
     private PsiFieldVerifier psiFieldVerifier;
+    private PsiHelper psiHelper = new PsiHelper();
 
     public PsiFieldSelector(PsiElementClassMemberFactory psiElementClassMemberFactory, PsiFieldVerifier psiFieldVerifier) {
         this.psiElementClassMemberFactory = psiElementClassMemberFactory;
@@ -23,6 +24,9 @@ public class PsiFieldSelector {
     }
 
     public List<PsiElementClassMember> selectFieldsToIncludeInBuilder(final PsiClass psiClass, final boolean innerBuilder, final boolean useSingleField, final boolean hasButMethod) {
+        if (psiClass.isRecord() && !useSingleField) {
+            return selectRecordComponents(psiClass);
+        }
         List<PsiElementClassMember> result = new ArrayList<>();
 
         List<PsiField> psiFields = stream(psiClass.getAllFields()).filter(psiField -> !"serialVersionUID".equals(psiField.getName())).collect(toList());
@@ -34,6 +38,14 @@ public class PsiFieldSelector {
         return result;
     }
 
+    private List<PsiElementClassMember> selectRecordComponents(PsiClass recordClass) {
+        List<PsiElementClassMember> result = new ArrayList<>();
+        for (PsiField psiField : psiHelper.getRecordFields(recordClass)) {
+            result.add(psiElementClassMemberFactory.createPsiElementClassMember(psiField));
+        }
+        return result;
+    }
+
     private boolean isAppropriate(PsiClass psiClass, PsiField psiField, boolean innerBuilder, boolean useSingleField, boolean hasButMethod) {
         if(useSingleField && hasButMethod) {
             return psiFieldVerifier.isSetInSetterMethod(psiField, psiClass) && psiFieldVerifier.hasGetterMethod(psiField, psiClass);
@@ -1,26 +1,49 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.ide.util.PackageUtil;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.pom.Navigatable;
 import com.intellij.psi.JavaDirectoryService;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiClassOwner;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiPackage;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.util.JavaPsiRecordUtil;
 import com.intellij.psi.util.PsiUtilBase;
 import com.intellij.refactoring.util.RefactoringMessageUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static com.intellij.ide.util.EditSourceUtil.getDescriptor;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
 
 public class PsiHelper {
 
@@ -78,6 +101,14 @@ public class PsiHelper {
         return JavaPsiFacade.getInstance(project);
     }
 
+    public JavaCodeStyleManager getJavaCodeStyleManager(Project project) {
+        return JavaCodeStyleManager.getInstance(project);
+    }
+
+    public CodeStyleManager getCodeStyleManager(Project project) {
+        return CodeStyleManager.getInstance(project);
+    }
+
     public CommandProcessor getCommandProcessor() {
         return CommandProcessor.getInstance();
     }
@@ -86,7 +117,46 @@ public class PsiHelper {
         return ApplicationManager.getApplication();
     }
 
+    public JobLauncher getJobLauncher() {
+        return JobLauncher.getInstance();
+    }
+
+    public <T> void readInBackground(Callable<T> computation, Consumer<T> uiThreadAction, Disposable expiration) {
+        ReadAction.nonBlocking(computation)
+                .expireWith(expiration)
+                .finishOnUiThread(ModalityState.defaultModalityState(), uiThreadAction)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * Creates a non-physical Java file, which is neither reported to PSI listeners nor recorded by the undo manager.
+     */
+    public PsiFile createLightJavaFile(Project project, String fileName, String text) {
+        return PsiFileFactory.getInstance(project).createFileFromText(fileName, JavaFileType.INSTANCE, text);
+    }
+
+    public List<PsiField> getRecordFields(PsiClass recordClass) {
+        return stream(recordClass.getRecordComponents())
+                .map(JavaPsiRecordUtil::getFieldForComponent)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    public PsiMethod findCanonicalConstructor(PsiClass recordClass) {
+        return JavaPsiRecordUtil.findCanonicalConstructor(recordClass);
+    }
+
     public Module findModuleForPsiClass(PsiClass psiClass, Project project) {
         return ModuleUtil.findModuleForFile(psiClass.getContainingFile().getVirtualFile(), project);
     }
+
+    public Module findModuleForPsiElement(PsiElement psiElement) {
+        return ModuleUtilCore.findModuleForPsiElement(psiElement);
+    }
+
+    public boolean isInTestSourceContent(PsiElement psiElement) {
+        PsiFile psiFile = psiElement.getContainingFile();
+        VirtualFile virtualFile = psiFile != null ? psiFile.getVirtualFile() : null;
+        return virtualFile != null && ProjectFileIndex.getInstance(psiElement.getProject()).isInTestSourceContent(virtualFile);
+    }
 }
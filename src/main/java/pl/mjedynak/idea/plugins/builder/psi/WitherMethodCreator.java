@@ -0,0 +1,105 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.util.IncorrectOperationException;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class WitherMethodCreator {
+
+    static final String WITH_PREFIX = "with";
+    private static final String SEPARATOR = ", ";
+
+    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
+    private MethodNameCreator methodNameCreator = new MethodNameCreator();
+    private PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
+    private PsiElementFactory elementFactory;
+
+    public WitherMethodCreator(PsiElementFactory elementFactory) {
+        this.elementFactory = elementFactory;
+    }
+
+    /**
+     * @throws IncorrectOperationException when the constructor does not take fields of the source class only
+     */
+    public List<PsiMethod> createMethods(Iterable<PsiField> fieldsToChange, PsiMethod constructor, PsiClass srcClass) {
+        List<PsiField> fieldsForArguments = findFieldsForArguments(constructor, srcClass);
+        List<PsiMethod> result = new ArrayList<>();
+        for (PsiField fieldToChange : fieldsToChange) {
+            if (fieldsForArguments.contains(fieldToChange)) {
+                result.add(createMethod(fieldToChange, fieldsForArguments, srcClass));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @throws IncorrectOperationException when the withers could not call the constructor, see {@link #createMethods}
+     */
+    public void verifyConstructor(PsiMethod constructor, PsiClass srcClass) {
+        findFieldsForArguments(constructor, srcClass);
+    }
+
+    /**
+     * Tells the withers created here, returning a new instance of the source class and nothing else, from methods
+     * written by hand under the same name.
+     */
+    public boolean isCreatedMethod(PsiMethod method, PsiClass srcClass) {
+        PsiCodeBlock body = method.getBody();
+        return method.getParameterList().getParametersCount() == 1 && body != null
+                && Pattern.matches("\\{returnnew" + Pattern.quote(srcClass.getName()) + "\\([^;]*\\);}", body.getText().replaceAll("\\s", ""));
+    }
+
+    public String createMethodName(PsiField psiField) {
+        return methodNameCreator.createMethodName(WITH_PREFIX, psiField.getName().replaceFirst(codeStyleSettings.getFieldNamePrefix(), ""));
+    }
+
+    private PsiMethod createMethod(PsiField fieldToChange, List<PsiField> fieldsForArguments, PsiClass srcClass) {
+        String fieldNameWithoutPrefix = fieldToChange.getName().replaceFirst(codeStyleSettings.getFieldNamePrefix(), "");
+        String parameterName = codeStyleSettings.getParameterNamePrefix() + fieldNameWithoutPrefix;
+        StringBuilder arguments = new StringBuilder();
+        for (PsiField field : fieldsForArguments) {
+            arguments.append(field.equals(fieldToChange) ? parameterName : "this." + field.getName()).append(SEPARATOR);
+        }
+        arguments.setLength(arguments.length() - SEPARATOR.length());
+        String methodText = "public " + srcClass.getName() + " " + createMethodName(fieldToChange) + "("
+                + fieldToChange.getType().getCanonicalText() + " " + parameterName + ") { "
+                + "return new " + srcClass.getName() + "(" + arguments + "); }";
+        return elementFactory.createMethodFromText(methodText, srcClass);
+    }
+
+    private List<PsiField> findFieldsForArguments(PsiMethod constructor, PsiClass srcClass) {
+        if (constructor == null || constructor.getParameterList().getParametersCount() == 0) {
+            throw new IncorrectOperationException(srcClass.getName() + " has no constructor taking its fields, which the wither methods would call");
+        }
+        List<PsiField> fieldsForArguments = new ArrayList<>();
+        for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+            PsiField matchingField = findMatchingField(parameter, srcClass);
+            if (matchingField == null) {
+                throw new IncorrectOperationException(srcClass.getName() + " has no field for constructor parameter " + parameter.getName()
+                        + ", which the wither methods would have to pass on");
+            }
+            fieldsForArguments.add(matchingField);
+        }
+        return fieldsForArguments;
+    }
+
+    private PsiField findMatchingField(PsiParameter parameter, PsiClass srcClass) {
+        for (PsiField field : srcClass.getFields()) {
+            if (!field.hasModifierProperty(PsiModifier.STATIC) && psiFieldVerifier.areNameAndTypeEqual(field, parameter)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
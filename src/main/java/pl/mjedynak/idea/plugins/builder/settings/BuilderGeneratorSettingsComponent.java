@@ -1,11 +1,13 @@
 package pl.mjedynak.idea.plugins.builder.settings;
 
 
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.util.ui.FormBuilder;
 import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
 
 import javax.swing.*;
 
@@ -16,6 +18,19 @@ public class BuilderGeneratorSettingsComponent {
         private final JBCheckBox innerBuilderCheckBox = new JBCheckBox("Inner builder");
         private final JBCheckBox butMethodCheckBox = new JBCheckBox("'but' method'");
         private final JBCheckBox useSinglePrefixCheckBox = new JBCheckBox("Use single prefix");
+        private final JBCheckBox collectionAddersCheckBox = new JBCheckBox("Collection adders");
+        private final JBCheckBox primitiveCollectionsCheckBox = new JBCheckBox("Primitive collections");
+        private final JBCheckBox copyMethodCheckBox = new JBCheckBox("'toBuilder'/'from' method");
+        private final JBCheckBox witherMethodsCheckBox = new JBCheckBox("Wither methods in source class");
+        private final JBCheckBox jsonReaderCheckBox = new JBCheckBox("Streaming JSON reader");
+        private final JBCheckBox binaryCodecCheckBox = new JBCheckBox("Binary codec (write/read)");
+        private final JBCheckBox flyweightCheckBox = new JBCheckBox("Flyweight writing to ByteBuffer");
+        private final JBCheckBox batchBuilderCheckBox = new JBCheckBox("Batch builder");
+        private final JBCheckBox memoizedBuildCheckBox = new JBCheckBox("Memoized build (immutable targets)");
+        private final JBCheckBox hierarchyCheckBox = new JBCheckBox("Shared abstract builder for superclass fields");
+        private final JBCheckBox threadLocalPoolCheckBox = new JBCheckBox("Thread-local builder pool");
+        private final ComboBox<DefensiveCopyStrategy> copyStrategyComboBox = new ComboBox<>(DefensiveCopyStrategy.values());
+        private final JBCheckBox autoSyncBuildersCheckBox = new JBCheckBox("Regenerate stale builders automatically after edits (replaces manual changes)");
 
         public BuilderGeneratorSettingsComponent() {
             myMainPanel = FormBuilder.createFormBuilder()
@@ -23,6 +38,19 @@ public class BuilderGeneratorSettingsComponent {
                     .addComponent(innerBuilderCheckBox, 1)
                     .addComponent(butMethodCheckBox, 1)
                     .addComponent(useSinglePrefixCheckBox, 1)
+                    .addComponent(collectionAddersCheckBox, 1)
+                    .addComponent(primitiveCollectionsCheckBox, 1)
+                    .addComponent(copyMethodCheckBox, 1)
+                    .addComponent(witherMethodsCheckBox, 1)
+                    .addComponent(jsonReaderCheckBox, 1)
+                    .addComponent(binaryCodecCheckBox, 1)
+                    .addComponent(flyweightCheckBox, 1)
+                    .addComponent(batchBuilderCheckBox, 1)
+                    .addComponent(memoizedBuildCheckBox, 1)
+                    .addComponent(hierarchyCheckBox, 1)
+                    .addComponent(threadLocalPoolCheckBox, 1)
+                    .addLabeledComponent(new JBLabel("Defensive copies: "), copyStrategyComboBox, 1, false)
+                    .addComponent(autoSyncBuildersCheckBox, 1)
                     .addComponentFillVertically(new JPanel(), 0)
                     .getPanel();
         }
@@ -67,4 +95,108 @@ public class BuilderGeneratorSettingsComponent {
         public void setUseSinglePrefix(boolean isUseSinglePrefix) {
             useSinglePrefixCheckBox.setSelected(isUseSinglePrefix);
         }
+
+        public boolean isCollectionAdders() {
+            return collectionAddersCheckBox.isSelected();
+        }
+
+        public void setCollectionAdders(boolean isCollectionAdders) {
+            collectionAddersCheckBox.setSelected(isCollectionAdders);
+        }
+
+        public boolean isPrimitiveCollections() {
+            return primitiveCollectionsCheckBox.isSelected();
+        }
+
+        public void setPrimitiveCollections(boolean isPrimitiveCollections) {
+            primitiveCollectionsCheckBox.setSelected(isPrimitiveCollections);
+        }
+
+        public boolean isCopyMethod() {
+            return copyMethodCheckBox.isSelected();
+        }
+
+        public void setCopyMethod(boolean isCopyMethod) {
+            copyMethodCheckBox.setSelected(isCopyMethod);
+        }
+
+        public boolean isWitherMethods() {
+            return witherMethodsCheckBox.isSelected();
+        }
+
+        public void setWitherMethods(boolean isWitherMethods) {
+            witherMethodsCheckBox.setSelected(isWitherMethods);
+        }
+
+        public boolean isJsonReader() {
+            return jsonReaderCheckBox.isSelected();
+        }
+
+        public void setJsonReader(boolean isJsonReader) {
+            jsonReaderCheckBox.setSelected(isJsonReader);
+        }
+
+        public boolean isBinaryCodec() {
+            return binaryCodecCheckBox.isSelected();
+        }
+
+        public void setBinaryCodec(boolean isBinaryCodec) {
+            binaryCodecCheckBox.setSelected(isBinaryCodec);
+        }
+
+        public boolean isFlyweight() {
+            return flyweightCheckBox.isSelected();
+        }
+
+        public void setFlyweight(boolean isFlyweight) {
+            flyweightCheckBox.setSelected(isFlyweight);
+        }
+
+        public boolean isBatchBuilder() {
+            return batchBuilderCheckBox.isSelected();
+        }
+
+        public void setBatchBuilder(boolean isBatchBuilder) {
+            batchBuilderCheckBox.setSelected(isBatchBuilder);
+        }
+
+        public boolean isMemoizedBuild() {
+            return memoizedBuildCheckBox.isSelected();
+        }
+
+        public void setMemoizedBuild(boolean isMemoizedBuild) {
+            memoizedBuildCheckBox.setSelected(isMemoizedBuild);
+        }
+
+        public boolean isHierarchy() {
+            return hierarchyCheckBox.isSelected();
+        }
+
+        public void setHierarchy(boolean isHierarchy) {
+            hierarchyCheckBox.setSelected(isHierarchy);
+        }
+
+        public boolean isThreadLocalPool() {
+            return threadLocalPoolCheckBox.isSelected();
+        }
+
+        public void setThreadLocalPool(boolean isThreadLocalPool) {
+            threadLocalPoolCheckBox.setSelected(isThreadLocalPool);
+        }
+
+        public DefensiveCopyStrategy getCopyStrategy() {
+            return (DefensiveCopyStrategy) copyStrategyComboBox.getSelectedItem();
+        }
+
+        public void setCopyStrategy(DefensiveCopyStrategy copyStrategy) {
+            copyStrategyComboBox.setSelectedItem(copyStrategy);
+        }
+
+        public boolean isAutoSyncBuilders() {
+            return autoSyncBuildersCheckBox.isSelected();
+        }
+
+        public void setAutoSyncBuilders(boolean isAutoSyncBuilders) {
+            autoSyncBuildersCheckBox.setSelected(isAutoSyncBuilders);
+        }
     }
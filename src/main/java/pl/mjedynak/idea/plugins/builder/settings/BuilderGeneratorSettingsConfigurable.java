@@ -38,6 +38,19 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         modified |= mySettingsComponent.isInnerBuilder() != settings.isInnerBuilder;
         modified |= mySettingsComponent.isButMethod() != settings.isButMethod;
         modified |= mySettingsComponent.isUseSinglePrefix() != settings.isUseSinglePrefix;
+        modified |= mySettingsComponent.isCollectionAdders() != settings.isCollectionAdders;
+        modified |= mySettingsComponent.isPrimitiveCollections() != settings.isPrimitiveCollections;
+        modified |= mySettingsComponent.isCopyMethod() != settings.isCopyMethod;
+        modified |= mySettingsComponent.isWitherMethods() != settings.isWitherMethods;
+        modified |= mySettingsComponent.isJsonReader() != settings.isJsonReader;
+        modified |= mySettingsComponent.isBinaryCodec() != settings.isBinaryCodec;
+        modified |= mySettingsComponent.isFlyweight() != settings.isFlyweight;
+        modified |= mySettingsComponent.isBatchBuilder() != settings.isBatchBuilder;
+        modified |= mySettingsComponent.isMemoizedBuild() != settings.isMemoizedBuild;
+        modified |= mySettingsComponent.isHierarchy() != settings.isHierarchy;
+        modified |= mySettingsComponent.isThreadLocalPool() != settings.isThreadLocalPool;
+        modified |= mySettingsComponent.getCopyStrategy() != settings.defaultCopyStrategy;
+        modified |= mySettingsComponent.isAutoSyncBuilders() != settings.isAutoSyncBuilders;
         return modified;
     }
 
@@ -48,6 +61,19 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         settings.isInnerBuilder = mySettingsComponent.isInnerBuilder();
         settings.isButMethod = mySettingsComponent.isButMethod();
         settings.isUseSinglePrefix = mySettingsComponent.isUseSinglePrefix();
+        settings.isCollectionAdders = mySettingsComponent.isCollectionAdders();
+        settings.isPrimitiveCollections = mySettingsComponent.isPrimitiveCollections();
+        settings.isCopyMethod = mySettingsComponent.isCopyMethod();
+        settings.isWitherMethods = mySettingsComponent.isWitherMethods();
+        settings.isJsonReader = mySettingsComponent.isJsonReader();
+        settings.isBinaryCodec = mySettingsComponent.isBinaryCodec();
+        settings.isFlyweight = mySettingsComponent.isFlyweight();
+        settings.isBatchBuilder = mySettingsComponent.isBatchBuilder();
+        settings.isMemoizedBuild = mySettingsComponent.isMemoizedBuild();
+        settings.isHierarchy = mySettingsComponent.isHierarchy();
+        settings.isThreadLocalPool = mySettingsComponent.isThreadLocalPool();
+        settings.defaultCopyStrategy = mySettingsComponent.getCopyStrategy();
+        settings.isAutoSyncBuilders = mySettingsComponent.isAutoSyncBuilders();
     }
 
     @Override
@@ -57,6 +83,19 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         mySettingsComponent.setInnerBuilder(settings.isInnerBuilder);
         mySettingsComponent.setButMethod(settings.isButMethod);
         mySettingsComponent.setUseSinglePrefix(settings.isUseSinglePrefix);
+        mySettingsComponent.setCollectionAdders(settings.isCollectionAdders);
+        mySettingsComponent.setPrimitiveCollections(settings.isPrimitiveCollections);
+        mySettingsComponent.setCopyMethod(settings.isCopyMethod);
+        mySettingsComponent.setWitherMethods(settings.isWitherMethods);
+        mySettingsComponent.setJsonReader(settings.isJsonReader);
+        mySettingsComponent.setBinaryCodec(settings.isBinaryCodec);
+        mySettingsComponent.setFlyweight(settings.isFlyweight);
+        mySettingsComponent.setBatchBuilder(settings.isBatchBuilder);
+        mySettingsComponent.setMemoizedBuild(settings.isMemoizedBuild);
+        mySettingsComponent.setHierarchy(settings.isHierarchy);
+        mySettingsComponent.setThreadLocalPool(settings.isThreadLocalPool);
+        mySettingsComponent.setCopyStrategy(settings.defaultCopyStrategy);
+        mySettingsComponent.setAutoSyncBuilders(settings.isAutoSyncBuilders);
     }
 
     @Override
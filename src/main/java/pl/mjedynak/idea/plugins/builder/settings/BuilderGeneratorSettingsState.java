@@ -7,6 +7,7 @@ import com.intellij.openapi.components.Storage;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
 
 /**
  * Supports storing the application settings in a persistent way.
@@ -23,6 +24,19 @@ public class BuilderGeneratorSettingsState implements PersistentStateComponent<B
     public boolean isInnerBuilder = false;
     public boolean isButMethod = false;
     public boolean isUseSinglePrefix = false;
+    public boolean isCollectionAdders = false;
+    public boolean isPrimitiveCollections = false;
+    public boolean isCopyMethod = false;
+    public boolean isWitherMethods = false;
+    public boolean isJsonReader = false;
+    public boolean isBinaryCodec = false;
+    public boolean isFlyweight = false;
+    public boolean isBatchBuilder = false;
+    public boolean isMemoizedBuild = false;
+    public boolean isHierarchy = false;
+    public boolean isThreadLocalPool = false;
+    public DefensiveCopyStrategy defaultCopyStrategy = DefensiveCopyStrategy.NONE;
+    public boolean isAutoSyncBuilders = false;
 
     public BuilderGeneratorSettingsState() {}
 
@@ -0,0 +1,161 @@
+package pl.mjedynak.idea.plugins.builder.sync;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.action.AbstractBuilderAction;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderContextFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderDetector;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regenerates the builders of edited classes when the "regenerate stale builders automatically" option is on.
+ * PSI events only record the changed file; the check runs once edits have been quiet for {@link #DEBOUNCE_MILLIS},
+ * in a non-blocking read action, and all stale builders found are rewritten in a single command with the options they
+ * already have. Only builders made of the members that follow the field set are synced this way.
+ */
+public class BuilderAutoSync extends PsiTreeChangeAdapter implements Disposable {
+
+    static final int DEBOUNCE_MILLIS = 1000;
+
+    private final Project project;
+    private final Set<PsiFile> changedFiles = ConcurrentHashMap.newKeySet();
+    private MergingUpdateQueue queue;
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+    private StaleBuilderDetector staleBuilderDetector;
+    private BuilderContextFactory builderContextFactory;
+    private BuilderWriter builderWriter;
+
+    public BuilderAutoSync(Project project) {
+        this.project = project;
+        this.queue = new MergingUpdateQueue("Builder auto sync", DEBOUNCE_MILLIS, true, null, this, null, Alarm.ThreadToUse.POOLED_THREAD);
+        this.queue.setRestartTimerOnAdd(true);
+        this.builderVerifier = AbstractBuilderAction.getComponentInstance(BuilderVerifier.class);
+        this.builderFinder = AbstractBuilderAction.getComponentInstance(BuilderFinder.class);
+        this.staleBuilderDetector = AbstractBuilderAction.getComponentInstance(StaleBuilderDetector.class);
+        this.builderContextFactory = AbstractBuilderAction.getComponentInstance(BuilderContextFactory.class);
+        this.builderWriter = AbstractBuilderAction.getComponentInstance(BuilderWriter.class);
+    }
+
+    BuilderAutoSync(Project project, MergingUpdateQueue queue, BuilderVerifier builderVerifier, BuilderFinder builderFinder,
+                    StaleBuilderDetector staleBuilderDetector, BuilderContextFactory builderContextFactory, BuilderWriter builderWriter) {
+        this.project = project;
+        this.queue = queue;
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+        this.staleBuilderDetector = staleBuilderDetector;
+        this.builderContextFactory = builderContextFactory;
+        this.builderWriter = builderWriter;
+    }
+
+    public static BuilderAutoSync getInstance(Project project) {
+        return project.getService(BuilderAutoSync.class);
+    }
+
+    public void start() {
+        PsiManager.getInstance(project).addPsiTreeChangeListener(this, this);
+    }
+
+    @Override
+    public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event.getFile());
+    }
+
+    @Override
+    public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event.getFile());
+    }
+
+    @Override
+    public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event.getFile());
+    }
+
+    @Override
+    public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event.getFile());
+    }
+
+    @Override
+    public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        fileChanged(event.getFile());
+    }
+
+    void fileChanged(PsiFile file) {
+        if (BuilderGeneratorSettingsState.getInstance().isAutoSyncBuilders && file instanceof PsiJavaFile && file.isPhysical()) {
+            changedFiles.add(file);
+            queue.queue(Update.create(this, this::syncChangedFiles));
+        }
+    }
+
+    private void syncChangedFiles() {
+        List<PsiFile> files = new ArrayList<>(changedFiles);
+        changedFiles.removeAll(files);
+        ReadAction.nonBlocking(() -> prepareRegeneration(files))
+                .inSmartMode(project)
+                .expireWith(this)
+                .finishOnUiThread(ModalityState.NON_MODAL, this::regenerate)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    Map<PsiClass, BuilderContext> prepareRegeneration(List<PsiFile> files) {
+        Map<PsiClass, BuilderContext> contextsByExistingBuilder = new LinkedHashMap<>();
+        for (PsiFile file : files) {
+            if (file.isValid()) {
+                for (PsiClass psiClass : ((PsiJavaFile) file).getClasses()) {
+                    addStaleBuilder(psiClass, contextsByExistingBuilder);
+                }
+            }
+        }
+        return contextsByExistingBuilder;
+    }
+
+    private void addStaleBuilder(PsiClass psiClass, Map<PsiClass, BuilderContext> contextsByExistingBuilder) {
+        if (psiClass.getName() == null || builderVerifier.isBuilder(psiClass)) {
+            return;
+        }
+        PsiClass builder = builderFinder.findBuilderForClass(psiClass);
+        StaleBuilder staleBuilder = builder != null ? staleBuilderDetector.detect(builder) : null;
+        BuilderContext context = staleBuilder != null && psiClass.equals(staleBuilder.getTarget())
+                ? builderContextFactory.createSyncContext(staleBuilder) : null;
+        if (context != null) {
+            contextsByExistingBuilder.put(builder, context);
+        }
+    }
+
+    void regenerate(Map<PsiClass, BuilderContext> contextsByExistingBuilder) {
+        if (!contextsByExistingBuilder.isEmpty()) {
+            builderWriter.regenerateBuilders(project, contextsByExistingBuilder);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        changedFiles.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package pl.mjedynak.idea.plugins.builder.sync;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+public class BuilderAutoSyncStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        BuilderAutoSync.getInstance(project).start();
+    }
+}
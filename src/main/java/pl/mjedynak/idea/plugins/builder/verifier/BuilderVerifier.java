@@ -1,12 +1,67 @@
 package pl.mjedynak.idea.plugins.builder.verifier;
 
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.PsiTypeParameterListOwner;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 
+import static java.util.Arrays.stream;
+
+/**
+ * A class is a builder when its name ends with the builder suffix and it is shaped like one: a parameterless
+ * build() returning a class and at least one fluent one-argument method returning the builder itself
+ * (or its self type parameter). The structural check
+ * is cached per class until the next change of Java structure; the name check alone serves index prefiltering.
+ */
 public class BuilderVerifier {
 
     private static final String SUFFIX = "Builder";
+    private static final String BUILD_METHOD_NAME = "build";
 
     public boolean isBuilder(PsiClass psiClass) {
-        return psiClass.getName().endsWith(SUFFIX);
+        String name = psiClass.getName();
+        return name != null && isBuilderName(name) && CachedValuesManager.getCachedValue(psiClass, () -> CachedValueProvider.Result.create(
+                hasBuilderStructure(psiClass), PsiModificationTracker.getInstance(psiClass.getProject()).getJavaStructureModificationTracker()));
+    }
+
+    public boolean isBuilderName(String className) {
+        return className.endsWith(SUFFIX);
+    }
+
+    boolean hasBuilderStructure(PsiClass psiClass) {
+        return hasBuildMethod(psiClass) && hasFluentMethod(psiClass);
+    }
+
+    private boolean hasBuildMethod(PsiClass psiClass) {
+        return stream(psiClass.findMethodsByName(BUILD_METHOD_NAME, true))
+                .filter(method -> method.getParameterList().getParametersCount() == 0)
+                .map(method -> resolveClass(method.getReturnType()))
+                .anyMatch(builtClass -> builtClass != null && !builtClass.equals(psiClass));
+    }
+
+    private boolean hasFluentMethod(PsiClass psiClass) {
+        return stream(psiClass.getAllMethods())
+                .filter(method -> !method.isConstructor() && !method.hasModifierProperty(PsiModifier.STATIC))
+                .filter(method -> method.getParameterList().getParametersCount() == 1)
+                .anyMatch(method -> returnsSelf(method, psiClass));
+    }
+
+    private boolean returnsSelf(PsiMethod method, PsiClass psiClass) {
+        PsiClass returnedClass = resolveClass(method.getReturnType());
+        if (returnedClass instanceof PsiTypeParameter) {
+            PsiTypeParameterListOwner owner = ((PsiTypeParameter) returnedClass).getOwner();
+            return owner instanceof PsiClass && (owner.equals(psiClass) || psiClass.isInheritor((PsiClass) owner, true));
+        }
+        return psiClass.equals(returnedClass);
+    }
+
+    private PsiClass resolveClass(PsiType type) {
+        return type instanceof PsiClassType ? ((PsiClassType) type).resolve() : null;
     }
 }
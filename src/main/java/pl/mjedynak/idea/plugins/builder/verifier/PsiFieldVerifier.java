@@ -7,6 +7,7 @@ import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
 import org.apache.commons.lang.WordUtils;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 
@@ -16,6 +17,7 @@ public class PsiFieldVerifier {
 
     static final String SET_PREFIX = "set";
     static final String GET_PREFIX = "get";
+    static final String IS_PREFIX = "is";
 
     private final CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
 
@@ -68,6 +70,25 @@ public class PsiFieldVerifier {
         return methodIsNotPrivateAndHasProperPrefixAndProperName(psiField, psiClass, GET_PREFIX);
     }
 
+    /**
+     * Returns the name of the method through which code outside the class reads the field: the component accessor of
+     * a record, the getter, or the is-getter of a boolean field.
+     *
+     * @return the name of the method or null when the field cannot be read
+     */
+    public String findAccessorName(PsiField psiField, PsiClass psiClass) {
+        if (psiClass.isRecord()) {
+            return psiField.getName();
+        }
+        if (hasGetterMethod(psiField, psiClass)) {
+            return accessorMethodName(psiField, GET_PREFIX);
+        }
+        if (PsiType.BOOLEAN.equals(psiField.getType()) && methodIsNotPrivateAndHasProperPrefixAndProperName(psiField, psiClass, IS_PREFIX)) {
+            return accessorMethodName(psiField, IS_PREFIX);
+        }
+        return null;
+    }
+
     private boolean methodIsNotPrivateAndHasProperPrefixAndProperName(PsiField psiField, PsiClass psiClass, String prefix) {
         boolean result = false;
         for (PsiMethod method : psiClass.getAllMethods()) {
@@ -85,9 +106,13 @@ public class PsiFieldVerifier {
     }
 
     private boolean methodHaProperPrefixAndProperName(PsiField psiField, PsiMethod method, String prefix) {
+        return method.getName().equals(accessorMethodName(psiField, prefix));
+    }
+
+    private String accessorMethodName(PsiField psiField, String prefix) {
         String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
         String fieldNameWithoutPrefix = psiField.getName().replace(fieldNamePrefix, EMPTY);
-        return method.getName().equals(prefix + WordUtils.capitalize(fieldNameWithoutPrefix));
+        return prefix + WordUtils.capitalize(fieldNameWithoutPrefix);
     }
 
     private boolean modifierListHasNoPrivateModifier(PsiModifierList modifierList) {
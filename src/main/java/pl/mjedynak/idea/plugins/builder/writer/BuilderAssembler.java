@@ -0,0 +1,97 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.psi.PsiClass;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+
+/**
+ * Adds the members requested by the context to a started builder, in the order they depend on each other, and builds
+ * it. Both generation and the preview of the create builder dialog go through it, so the preview shows what is written.
+ */
+public class BuilderAssembler {
+
+    public PsiClass assemble(BuilderPsiClassBuilder newBuilder, BuilderContext context) {
+        BuilderPsiClassBuilder builder = newBuilder
+                .withFields()
+                .withPrivateConstructor()
+                .withInitializingMethod()
+                .withSetMethods(context.getMethodPrefix());
+        addCollectionMethodsIfNecessary(builder, context);
+        addCopyMethodIfNecessary(builder, context);
+        addWitherMethodsIfNecessary(builder, context);
+        addJsonReaderIfNecessary(builder, context);
+        addBinaryCodecIfNecessary(builder, context);
+        addFlyweightIfNecessary(builder, context);
+        addBatchBuilderIfNecessary(builder, context);
+        addMemoizedBuildIfNecessary(builder, context);
+        addHierarchyIfNecessary(builder, context);
+        addButMethodIfNecessary(builder, context);
+        addThreadLocalPoolIfNecessary(builder, context);
+        return builder.build();
+    }
+
+    private void addButMethodIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasButMethod()) {
+            builder.withButMethod();
+        }
+    }
+
+    private void addCollectionMethodsIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasCollectionAdders()) {
+            builder.withCollectionMethods(context.getMethodPrefix());
+        }
+    }
+
+    private void addCopyMethodIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasCopyMethod()) {
+            builder.withCopyMethod();
+        }
+    }
+
+    private void addWitherMethodsIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasWitherMethods()) {
+            builder.withWitherMethods();
+        }
+    }
+
+    private void addJsonReaderIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasJsonReader()) {
+            builder.withJsonReader();
+        }
+    }
+
+    private void addBinaryCodecIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasBinaryCodec()) {
+            builder.withBinaryCodec();
+        }
+    }
+
+    private void addFlyweightIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasFlyweight()) {
+            builder.withFlyweight();
+        }
+    }
+
+    private void addBatchBuilderIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasBatchBuilder()) {
+            builder.withBatchBuilder();
+        }
+    }
+
+    private void addMemoizedBuildIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasMemoizedBuild()) {
+            builder.withMemoizedBuild();
+        }
+    }
+
+    private void addHierarchyIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasHierarchy()) {
+            builder.withHierarchy();
+        }
+    }
+
+    private void addThreadLocalPoolIfNecessary(BuilderPsiClassBuilder builder, BuilderContext context) {
+        if (context.hasThreadLocalPool()) {
+            builder.withThreadLocalPool();
+        }
+    }
+}
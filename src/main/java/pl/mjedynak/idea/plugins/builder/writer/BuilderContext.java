@@ -4,6 +4,7 @@ import com.google.common.base.Objects;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
 
 public class BuilderContext {
@@ -17,10 +18,18 @@ public class BuilderContext {
     private final boolean isInner;
     private final boolean hasButMethod;
     private final boolean useSingleField;
+    private final GeneratorOptions options;
 
     public BuilderContext(Project project, PsiFieldsForBuilder psiFieldsForBuilder,
                           PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor,
                           String methodPrefix, boolean isInner, boolean hasButMethod, boolean useSingleField) {
+        this(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix, isInner, hasButMethod, useSingleField,
+                GeneratorOptions.NONE);
+    }
+
+    public BuilderContext(Project project, PsiFieldsForBuilder psiFieldsForBuilder,
+                          PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor,
+                          String methodPrefix, boolean isInner, boolean hasButMethod, boolean useSingleField, GeneratorOptions options) {
         this.project = project;
         this.psiFieldsForBuilder = psiFieldsForBuilder;
         this.targetDirectory = targetDirectory;
@@ -30,6 +39,7 @@ public class BuilderContext {
         this.isInner = isInner;
         this.hasButMethod = hasButMethod;
         this.useSingleField = useSingleField;
+        this.options = options;
     }
 
     public Project getProject() {
@@ -56,11 +66,11 @@ public class BuilderContext {
         return methodPrefix;
     }
 
-    boolean isInner() {
+    public boolean isInner() {
         return isInner;
     }
 
-    boolean hasButMethod() {
+    public boolean hasButMethod() {
         return hasButMethod;
     }
 
@@ -68,9 +78,62 @@ public class BuilderContext {
         return useSingleField;
     }
 
+    public boolean hasCollectionAdders() {
+        return options.hasCollectionAdders();
+    }
+
+    public boolean usePrimitiveCollections() {
+        return options.usePrimitiveCollections();
+    }
+
+    public boolean hasCopyMethod() {
+        return options.hasCopyMethod();
+    }
+
+    public boolean hasWitherMethods() {
+        return options.hasWitherMethods();
+    }
+
+    public boolean hasJsonReader() {
+        return options.hasJsonReader();
+    }
+
+    public boolean hasBinaryCodec() {
+        return options.hasBinaryCodec();
+    }
+
+    public boolean hasFlyweight() {
+        return options.hasFlyweight();
+    }
+
+    public boolean hasBatchBuilder() {
+        return options.hasBatchBuilder();
+    }
+
+    public boolean hasMemoizedBuild() {
+        return options.hasMemoizedBuild();
+    }
+
+    public boolean hasHierarchy() {
+        return options.hasHierarchy();
+    }
+
+    public boolean hasThreadLocalPool() {
+        return options.hasThreadLocalPool();
+    }
+
+    public DefensiveCopyStrategy getCopyStrategy() {
+        return options.getCopyStrategy();
+    }
+
+    public GeneratorOptions getOptions() {
+        return options;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix);
+        return Objects.hashCode(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix, isInner, hasButMethod,
+                useSingleField, options);
     }
 
     @Override
@@ -87,6 +150,10 @@ public class BuilderContext {
                 && Objects.equal(this.targetDirectory, other.targetDirectory)
                 && Objects.equal(this.className, other.className)
                 && Objects.equal(this.psiClassFromEditor, other.psiClassFromEditor)
-                && Objects.equal(this.methodPrefix, other.methodPrefix);
+                && Objects.equal(this.methodPrefix, other.methodPrefix)
+                && this.isInner == other.isInner
+                && this.hasButMethod == other.hasButMethod
+                && this.useSingleField == other.useSingleField
+                && Objects.equal(this.options, other.options);
     }
 }
@@ -1,13 +1,17 @@
 package pl.mjedynak.idea.plugins.builder.writer;
 
 import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.Map;
+
 public class BuilderWriter {
 
     static final String CREATE_BUILDER_STRING = "Create Builder";
+    static final String REGENERATE_BUILDERS_STRING = "Regenerate Builders";
     private BuilderPsiClassBuilder builderPsiClassBuilder;
     private PsiHelper psiHelper;
 
@@ -20,4 +24,9 @@ public class BuilderWriter {
         CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
         commandProcessor.executeCommand(context.getProject(), new BuilderWriterRunnable(builderPsiClassBuilder, context, existingBuilder), CREATE_BUILDER_STRING, this);
     }
+
+    public void regenerateBuilders(Project project, Map<PsiClass, BuilderContext> contextsByExistingBuilder) {
+        CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
+        commandProcessor.executeCommand(project, new BuildersRegenerationRunnable(builderPsiClassBuilder, contextsByExistingBuilder), REGENERATE_BUILDERS_STRING, this);
+    }
 }
@@ -10,18 +10,29 @@ import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.List;
+
 class BuilderWriterComputable implements Computable<PsiElement> {
 
+    static final String CONFLICTING_METHODS_TITLE = "Methods left as they are";
+
     private GuiHelper guiHelper = new GuiHelper();
     private PsiHelper psiHelper = new PsiHelper();
+    private BuilderAssembler builderAssembler = new BuilderAssembler();
     private BuilderPsiClassBuilder builderPsiClassBuilder;
     private BuilderContext context;
     private PsiClass existingBuilder;
+    private boolean navigateToBuilder;
 
     BuilderWriterComputable(BuilderPsiClassBuilder builderPsiClassBuilder, BuilderContext context, PsiClass existingBuilder) {
+        this(builderPsiClassBuilder, context, existingBuilder, true);
+    }
+
+    BuilderWriterComputable(BuilderPsiClassBuilder builderPsiClassBuilder, BuilderContext context, PsiClass existingBuilder, boolean navigateToBuilder) {
         this.builderPsiClassBuilder = builderPsiClassBuilder;
         this.context = context;
         this.existingBuilder = existingBuilder;
+        this.navigateToBuilder = navigateToBuilder;
     }
 
     @Override
@@ -33,56 +44,61 @@ class BuilderWriterComputable implements Computable<PsiElement> {
         try {
             guiHelper.includeCurrentPlaceAsChangePlace(context.getProject());
             PsiClass targetClass;
+            builderPsiClassBuilder.verify(context);
             if (existingBuilder != null) {
                 existingBuilder.delete();
             }
             if (context.isInner()) {
-                targetClass = getInnerBuilderPsiClass();
-                context.getPsiClassFromEditor().add(targetClass);
+                targetClass = (PsiClass) context.getPsiClassFromEditor().add(getInnerBuilderPsiClass());
+                shortenClassReferences(targetClass);
             } else {
                 targetClass = getBuilderPsiClass();
-                navigateToClassAndPositionCursor(context.getProject(), targetClass);
+                shortenClassReferences(targetClass);
+                if (navigateToBuilder) {
+                    navigateToClassAndPositionCursor(context.getProject(), targetClass);
+                }
             }
             return targetClass;
         } catch (IncorrectOperationException e) {
-            showErrorMessage(context.getProject(), context.getClassName());
+            showErrorMessage(context.getProject(), context.getClassName(), e.getMessage());
             e.printStackTrace();
             return null;
         }
     }
 
     private PsiClass getInnerBuilderPsiClass() {
-        BuilderPsiClassBuilder builder = builderPsiClassBuilder.anInnerBuilder(context)
-                .withFields()
-                .withPrivateConstructor()
-                .withInitializingMethod()
-                .withSetMethods(context.getMethodPrefix());
-        addButMethodIfNecessary(builder);
-        return builder.build();
+        return assemble(builderPsiClassBuilder.anInnerBuilder(context));
     }
 
     private PsiClass getBuilderPsiClass() {
-        BuilderPsiClassBuilder builder = builderPsiClassBuilder.aBuilder(context)
-                .withFields()
-                .withPrivateConstructor()
-                .withInitializingMethod()
-                .withSetMethods(context.getMethodPrefix());
-        addButMethodIfNecessary(builder);
-        return builder.build();
+        return assemble(builderPsiClassBuilder.aBuilder(context));
     }
 
-    private void addButMethodIfNecessary(BuilderPsiClassBuilder builder) {
-        if (context.hasButMethod()) {
-            builder.withButMethod();
+    private PsiClass assemble(BuilderPsiClassBuilder newBuilder) {
+        PsiClass builderClass = builderAssembler.assemble(newBuilder, context);
+        reportConflictingMethods(newBuilder.getConflictingMethodNames());
+        return builderClass;
+    }
+
+    private void reportConflictingMethods(List<String> conflictingMethodNames) {
+        if (conflictingMethodNames.isEmpty()) {
+            return;
         }
+        String message = context.getPsiClassFromEditor().getName() + " already has " + String.join(", ", conflictingMethodNames)
+                + " written by hand, so they were not generated";
+        psiHelper.getApplication().invokeLater(() -> guiHelper.showInfoMessage(context.getProject(), message, CONFLICTING_METHODS_TITLE));
+    }
+
+    private void shortenClassReferences(PsiClass targetClass) {
+        psiHelper.getJavaCodeStyleManager(context.getProject()).shortenClassReferences(targetClass);
     }
 
     private void navigateToClassAndPositionCursor(Project project, PsiClass targetClass) {
         guiHelper.positionCursor(project, targetClass.getContainingFile(), targetClass.getLBrace());
     }
 
-    private void showErrorMessage(Project project, String className) {
+    private void showErrorMessage(Project project, String className, String reason) {
         Application application = psiHelper.getApplication();
-        application.invokeLater(new BuilderWriterErrorRunnable(project, className));
+        application.invokeLater(new BuilderWriterErrorRunnable(project, className, reason));
     }
 }
\ No newline at end of file
@@ -11,16 +11,21 @@ public class BuilderWriterErrorRunnable implements Runnable {
 
     private Project project;
     private String className;
+    private String reason;
 
-    public BuilderWriterErrorRunnable(Project project, String className) {
+    /**
+     * @param reason shown below the message, may be null
+     */
+    public BuilderWriterErrorRunnable(Project project, String className, String reason) {
         this.project = project;
         this.className = className;
+        this.reason = reason;
     }
 
     @Override
     public void run() {
          Messages.showErrorDialog(project,
-                 CodeInsightBundle.message(INTENTION_ERROR_CANNOT_CREATE_CLASS_MESSAGE, className),
+                 CodeInsightBundle.message(INTENTION_ERROR_CANNOT_CREATE_CLASS_MESSAGE, className) + (reason == null ? "" : "\n" + reason),
                  CodeInsightBundle.message(INTENTION_ERROR_CANNOT_CREATE_CLASS_TITLE));
     }
 }
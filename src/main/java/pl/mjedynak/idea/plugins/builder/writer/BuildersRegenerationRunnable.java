@@ -0,0 +1,30 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.psi.PsiClass;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+
+import java.util.Map;
+
+public class BuildersRegenerationRunnable implements Runnable {
+
+    private PsiHelper psiHelper = new PsiHelper();
+    private BuilderPsiClassBuilder builderPsiClassBuilder;
+    private Map<PsiClass, BuilderContext> contextsByExistingBuilder;
+
+    public BuildersRegenerationRunnable(BuilderPsiClassBuilder builderPsiClassBuilder, Map<PsiClass, BuilderContext> contextsByExistingBuilder) {
+        this.builderPsiClassBuilder = builderPsiClassBuilder;
+        this.contextsByExistingBuilder = contextsByExistingBuilder;
+    }
+
+    @Override
+    public void run() {
+        Application application = psiHelper.getApplication();
+        application.runWriteAction(() -> contextsByExistingBuilder.forEach((existingBuilder, context) -> {
+            if (existingBuilder.isValid()) {
+                new BuilderWriterComputable(builderPsiClassBuilder, context, existingBuilder, false).compute();
+            }
+        }));
+    }
+}
@@ -0,0 +1,222 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.google.common.base.Objects;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+
+/**
+ * Optional members of a generated builder, on top of the set methods and the build method every builder has.
+ */
+public final class GeneratorOptions {
+
+    public static final GeneratorOptions NONE = aGeneratorOptions().build();
+
+    private final boolean hasCollectionAdders;
+    private final boolean usePrimitiveCollections;
+    private final boolean hasCopyMethod;
+    private final boolean hasWitherMethods;
+    private final boolean hasJsonReader;
+    private final boolean hasBinaryCodec;
+    private final boolean hasFlyweight;
+    private final boolean hasBatchBuilder;
+    private final boolean hasMemoizedBuild;
+    private final boolean hasHierarchy;
+    private final boolean hasThreadLocalPool;
+    private final DefensiveCopyStrategy copyStrategy;
+
+    private GeneratorOptions(Builder builder) {
+        hasCollectionAdders = builder.hasCollectionAdders;
+        usePrimitiveCollections = builder.usePrimitiveCollections;
+        hasCopyMethod = builder.hasCopyMethod;
+        hasWitherMethods = builder.hasWitherMethods;
+        hasJsonReader = builder.hasJsonReader;
+        hasBinaryCodec = builder.hasBinaryCodec;
+        hasFlyweight = builder.hasFlyweight;
+        hasBatchBuilder = builder.hasBatchBuilder;
+        hasMemoizedBuild = builder.hasMemoizedBuild;
+        hasHierarchy = builder.hasHierarchy;
+        hasThreadLocalPool = builder.hasThreadLocalPool;
+        copyStrategy = builder.copyStrategy;
+    }
+
+    public static Builder aGeneratorOptions() {
+        return new Builder();
+    }
+
+    /**
+     * @return builder starting from these options, for a copy differing in some of them
+     */
+    public Builder toBuilder() {
+        return aGeneratorOptions()
+                .withCollectionAdders(hasCollectionAdders)
+                .withPrimitiveCollections(usePrimitiveCollections)
+                .withCopyMethod(hasCopyMethod)
+                .withWitherMethods(hasWitherMethods)
+                .withJsonReader(hasJsonReader)
+                .withBinaryCodec(hasBinaryCodec)
+                .withFlyweight(hasFlyweight)
+                .withBatchBuilder(hasBatchBuilder)
+                .withMemoizedBuild(hasMemoizedBuild)
+                .withHierarchy(hasHierarchy)
+                .withThreadLocalPool(hasThreadLocalPool)
+                .withCopyStrategy(copyStrategy);
+    }
+
+    public boolean hasCollectionAdders() {
+        return hasCollectionAdders;
+    }
+
+    public boolean usePrimitiveCollections() {
+        return usePrimitiveCollections;
+    }
+
+    public boolean hasCopyMethod() {
+        return hasCopyMethod;
+    }
+
+    public boolean hasWitherMethods() {
+        return hasWitherMethods;
+    }
+
+    public boolean hasJsonReader() {
+        return hasJsonReader;
+    }
+
+    public boolean hasBinaryCodec() {
+        return hasBinaryCodec;
+    }
+
+    public boolean hasFlyweight() {
+        return hasFlyweight;
+    }
+
+    public boolean hasBatchBuilder() {
+        return hasBatchBuilder;
+    }
+
+    public boolean hasMemoizedBuild() {
+        return hasMemoizedBuild;
+    }
+
+    public boolean hasHierarchy() {
+        return hasHierarchy;
+    }
+
+    public boolean hasThreadLocalPool() {
+        return hasThreadLocalPool;
+    }
+
+    public DefensiveCopyStrategy getCopyStrategy() {
+        return copyStrategy;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(hasCollectionAdders, usePrimitiveCollections, hasCopyMethod, hasWitherMethods, hasJsonReader, hasBinaryCodec,
+                hasFlyweight, hasBatchBuilder, hasMemoizedBuild, hasHierarchy, hasThreadLocalPool, copyStrategy);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        GeneratorOptions other = (GeneratorOptions) obj;
+        return hasCollectionAdders == other.hasCollectionAdders
+                && usePrimitiveCollections == other.usePrimitiveCollections
+                && hasCopyMethod == other.hasCopyMethod
+                && hasWitherMethods == other.hasWitherMethods
+                && hasJsonReader == other.hasJsonReader
+                && hasBinaryCodec == other.hasBinaryCodec
+                && hasFlyweight == other.hasFlyweight
+                && hasBatchBuilder == other.hasBatchBuilder
+                && hasMemoizedBuild == other.hasMemoizedBuild
+                && hasHierarchy == other.hasHierarchy
+                && hasThreadLocalPool == other.hasThreadLocalPool
+                && copyStrategy == other.copyStrategy;
+    }
+
+    public static final class Builder {
+        private boolean hasCollectionAdders;
+        private boolean usePrimitiveCollections;
+        private boolean hasCopyMethod;
+        private boolean hasWitherMethods;
+        private boolean hasJsonReader;
+        private boolean hasBinaryCodec;
+        private boolean hasFlyweight;
+        private boolean hasBatchBuilder;
+        private boolean hasMemoizedBuild;
+        private boolean hasHierarchy;
+        private boolean hasThreadLocalPool;
+        private DefensiveCopyStrategy copyStrategy = DefensiveCopyStrategy.NONE;
+
+        private Builder() {
+        }
+
+        public Builder withCollectionAdders(boolean hasCollectionAdders) {
+            this.hasCollectionAdders = hasCollectionAdders;
+            return this;
+        }
+
+        public Builder withPrimitiveCollections(boolean usePrimitiveCollections) {
+            this.usePrimitiveCollections = usePrimitiveCollections;
+            return this;
+        }
+
+        public Builder withCopyMethod(boolean hasCopyMethod) {
+            this.hasCopyMethod = hasCopyMethod;
+            return this;
+        }
+
+        public Builder withWitherMethods(boolean hasWitherMethods) {
+            this.hasWitherMethods = hasWitherMethods;
+            return this;
+        }
+
+        public Builder withJsonReader(boolean hasJsonReader) {
+            this.hasJsonReader = hasJsonReader;
+            return this;
+        }
+
+        public Builder withBinaryCodec(boolean hasBinaryCodec) {
+            this.hasBinaryCodec = hasBinaryCodec;
+            return this;
+        }
+
+        public Builder withFlyweight(boolean hasFlyweight) {
+            this.hasFlyweight = hasFlyweight;
+            return this;
+        }
+
+        public Builder withBatchBuilder(boolean hasBatchBuilder) {
+            this.hasBatchBuilder = hasBatchBuilder;
+            return this;
+        }
+
+        public Builder withMemoizedBuild(boolean hasMemoizedBuild) {
+            this.hasMemoizedBuild = hasMemoizedBuild;
+            return this;
+        }
+
+        public Builder withHierarchy(boolean hasHierarchy) {
+            this.hasHierarchy = hasHierarchy;
+            return this;
+        }
+
+        public Builder withThreadLocalPool(boolean hasThreadLocalPool) {
+            this.hasThreadLocalPool = hasThreadLocalPool;
+            return this;
+        }
+
+        public Builder withCopyStrategy(DefensiveCopyStrategy copyStrategy) {
+            this.copyStrategy = copyStrategy;
+            return this;
+        }
+
+        public GeneratorOptions build() {
+            return new GeneratorOptions(this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.CaretModel;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.event.CaretEvent;
+import com.intellij.openapi.editor.event.CaretListener;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EditorLookupTest {
+
+    private static final String HINT = "Looking...";
+
+    private EditorLookup editorLookup;
+
+    @Mock private PsiHelper psiHelper;
+    @Mock private GuiHelper guiHelper;
+    @Mock(strictness = LENIENT) private Editor editor;
+    @Mock private CaretModel caretModel;
+    @Mock private Document document;
+    @Mock private Project project;
+    @Mock private Callable<String> lookup;
+    @Mock private Consumer<String> uiThreadAction;
+
+    @BeforeEach
+    public void setUp() {
+        editorLookup = new EditorLookup(psiHelper, guiHelper);
+        given(editor.getCaretModel()).willReturn(caretModel);
+        given(editor.getDocument()).willReturn(document);
+        given(editor.getProject()).willReturn(project);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRunLookupInBackgroundAndShowHintAfterDelay() {
+        // when
+        editorLookup.lookUp(editor, HINT, lookup, uiThreadAction);
+
+        // then
+        ArgumentCaptor<Disposable> expiration = ArgumentCaptor.forClass(Disposable.class);
+        verify(psiHelper).readInBackground(eq(lookup), any(Consumer.class), expiration.capture());
+        verify(guiHelper).showHintAfterDelay(editor, HINT, EditorLookup.HINT_DELAY_MILLIS, expiration.getValue());
+        assertThat(Disposer.isDisposed(expiration.getValue())).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPassResultToUiThreadActionAndReleaseLookup() {
+        // given
+        editorLookup.lookUp(editor, HINT, lookup, uiThreadAction);
+        ArgumentCaptor<Consumer<String>> onFinished = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Disposable> expiration = ArgumentCaptor.forClass(Disposable.class);
+        verify(psiHelper).readInBackground(eq(lookup), onFinished.capture(), expiration.capture());
+
+        // when
+        onFinished.getValue().accept("result");
+
+        // then
+        verify(uiThreadAction).accept("result");
+        assertThat(Disposer.isDisposed(expiration.getValue())).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExpireLookupWhenCaretMoves() {
+        // given
+        editorLookup.lookUp(editor, HINT, lookup, uiThreadAction);
+        ArgumentCaptor<CaretListener> caretListener = ArgumentCaptor.forClass(CaretListener.class);
+        verify(caretModel).addCaretListener(caretListener.capture(), any(Disposable.class));
+        ArgumentCaptor<Disposable> expiration = ArgumentCaptor.forClass(Disposable.class);
+        verify(psiHelper).readInBackground(eq(lookup), any(Consumer.class), expiration.capture());
+
+        // when
+        caretListener.getValue().caretPositionChanged(mock(CaretEvent.class));
+
+        // then
+        assertThat(Disposer.isDisposed(expiration.getValue())).isTrue();
+        verifyNoInteractions(uiThreadAction);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExpireLookupWhenProjectIsDisposed() {
+        // given
+        editorLookup.lookUp(editor, HINT, lookup, uiThreadAction);
+        ArgumentCaptor<Disposable> expiration = ArgumentCaptor.forClass(Disposable.class);
+        verify(psiHelper).readInBackground(eq(lookup), any(Consumer.class), expiration.capture());
+
+        // when
+        Disposer.dispose(project);
+
+        // then
+        assertThat(Disposer.isDisposed(expiration.getValue())).isTrue();
+        verifyNoInteractions(uiThreadAction);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExpireLookupWhenUserTypes() {
+        // given
+        editorLookup.lookUp(editor, HINT, lookup, uiThreadAction);
+        ArgumentCaptor<DocumentListener> documentListener = ArgumentCaptor.forClass(DocumentListener.class);
+        verify(document).addDocumentListener(documentListener.capture(), any(Disposable.class));
+        ArgumentCaptor<Disposable> expiration = ArgumentCaptor.forClass(Disposable.class);
+        verify(psiHelper).readInBackground(eq(lookup), any(Consumer.class), expiration.capture());
+
+        // when
+        documentListener.getValue().documentChanged(mock(DocumentEvent.class));
+
+        // then
+        assertThat(Disposer.isDisposed(expiration.getValue())).isTrue();
+        verifyNoInteractions(uiThreadAction);
+    }
+}
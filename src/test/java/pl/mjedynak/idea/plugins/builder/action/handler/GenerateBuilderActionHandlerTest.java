@@ -21,10 +21,14 @@ import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 import javax.swing.JList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -39,6 +43,7 @@ public class GenerateBuilderActionHandlerTest {
     @Mock private GenerateBuilderPopupListFactory popupListFactory;
     @Mock private GenerateBuilderPopupDisplayer popupDisplayer;
     @Mock private DisplayChoosers displayChoosers;
+    @Mock private EditorLookup editorLookup;
     @Mock private PsiClass psiClass;
     @Mock private PsiClass builderClass;
     @Mock private Editor editor;
@@ -48,8 +53,14 @@ public class GenerateBuilderActionHandlerTest {
     @Mock private JList list;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     public void setUp() {
         given(dataContext.getData(CommonDataKeys.PROJECT.getName())).willReturn(project);
+        lenient().doAnswer(invocation -> {
+            Object classesToGo = invocation.getArgument(2, Callable.class).call();
+            invocation.getArgument(3, Consumer.class).accept(classesToGo);
+            return null;
+        }).when(editorLookup).lookUp(eq(editor), eq(AbstractBuilderActionHandler.LOOKUP_HINT), any(Callable.class), any(Consumer.class));
     }
 
     @Test
@@ -57,7 +68,7 @@ public class GenerateBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
         given(builderVerifier.isBuilder(psiClass)).willReturn(false);
-        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of(builderClass));
         given(popupListFactory.getPopupList()).willReturn(list);
 
         // when
@@ -104,7 +115,7 @@ public class GenerateBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
         given(builderVerifier.isBuilder(psiClass)).willReturn(false);
-        given(builderFinder.findBuilderForClass(psiClass)).willReturn(null);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of());
 
         // when
         builderActionHandler.execute(editor, dataContext);
@@ -119,7 +130,7 @@ public class GenerateBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(builderClass);
         given(builderVerifier.isBuilder(builderClass)).willReturn(true);
-        given(builderFinder.findClassForBuilder(builderClass)).willReturn(psiClass);
+        given(builderFinder.findClassCandidatesForBuilder(builderClass)).willReturn(List.of(psiClass));
 
         // when
         builderActionHandler.execute(editor, dataContext);
@@ -133,7 +144,7 @@ public class GenerateBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(builderClass);
         given(builderVerifier.isBuilder(builderClass)).willReturn(true);
-        given(builderFinder.findClassForBuilder(builderClass)).willReturn(null);
+        given(builderFinder.findClassCandidatesForBuilder(builderClass)).willReturn(List.of());
 
         // when
         builderActionHandler.execute(editor, dataContext);
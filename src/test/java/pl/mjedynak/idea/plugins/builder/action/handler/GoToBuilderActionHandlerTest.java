@@ -14,17 +14,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.CandidatesPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 import javax.swing.JList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,8 +43,11 @@ public class GoToBuilderActionHandlerTest {
     @Mock private GoToBuilderPopupListFactory popupListFactory;
     @Mock private GoToBuilderPopupDisplayer popupDisplayer;
     @Mock private DisplayChoosers displayChoosers;
+    @Mock private EditorLookup editorLookup;
+    @Mock private CandidatesPopupDisplayer candidatesPopupDisplayer;
     @Mock private PsiClass psiClass;
     @Mock private PsiClass builderClass;
+    @Mock private PsiClass otherBuilderClass;
     @Mock private Editor editor;
     @Mock private Project project;
     @Mock private DataContext dataContext;
@@ -46,8 +55,14 @@ public class GoToBuilderActionHandlerTest {
     @Mock private JList list;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     public void setUp() {
         given(dataContext.getData(CommonDataKeys.PROJECT.getName())).willReturn(project);
+        lenient().doAnswer(invocation -> {
+            Object classesToGo = invocation.getArgument(2, Callable.class).call();
+            invocation.getArgument(3, Consumer.class).accept(classesToGo);
+            return null;
+        }).when(editorLookup).lookUp(eq(editor), eq(AbstractBuilderActionHandler.LOOKUP_HINT), any(Callable.class), any(Consumer.class));
     }
 
     @Test
@@ -55,7 +70,7 @@ public class GoToBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
         given(builderVerifier.isBuilder(psiClass)).willReturn(false);
-        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of(builderClass));
 
         // when
         builderActionHandler.execute(editor, dataContext);
@@ -69,7 +84,7 @@ public class GoToBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(builderClass);
         given(builderVerifier.isBuilder(builderClass)).willReturn(true);
-        given(builderFinder.findClassForBuilder(builderClass)).willReturn(psiClass);
+        given(builderFinder.findClassCandidatesForBuilder(builderClass)).willReturn(List.of(psiClass));
 
         // when
         builderActionHandler.execute(editor, dataContext);
@@ -78,12 +93,48 @@ public class GoToBuilderActionHandlerTest {
         verify(psiHelper).navigateToClass(psiClass);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDisplayRankedCandidatesWhenTiedBuildersFound() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderVerifier.isBuilder(psiClass)).willReturn(false);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of(builderClass, otherBuilderClass));
+
+        // when
+        builderActionHandler.execute(editor, dataContext);
+
+        // then
+        ArgumentCaptor<com.intellij.util.Consumer<PsiClass>> callbackCaptor = ArgumentCaptor.forClass(com.intellij.util.Consumer.class);
+        verify(candidatesPopupDisplayer).displayCandidates(eq(editor), eq(List.of(builderClass, otherBuilderClass)),
+                eq(GoToBuilderActionHandler.CHOOSE_BUILDER_TITLE), callbackCaptor.capture());
+        verify(psiHelper, never()).navigateToClass(any(PsiClass.class));
+        callbackCaptor.getValue().consume(otherBuilderClass);
+        verify(psiHelper).navigateToClass(otherBuilderClass);
+    }
+
+    @Test
+    void shouldNavigateToBuilderLeadingOtherCandidatesByMargin() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderVerifier.isBuilder(psiClass)).willReturn(false);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of(builderClass, otherBuilderClass));
+        given(builderFinder.isBuilderCandidateClearlyFirst(psiClass, List.of(builderClass, otherBuilderClass))).willReturn(true);
+
+        // when
+        builderActionHandler.execute(editor, dataContext);
+
+        // then
+        verify(psiHelper).navigateToClass(builderClass);
+        verifyNoInteractions(candidatesPopupDisplayer);
+    }
+
     @Test
     void shouldDisplayPopupWhenBuilderNotFoundAndInvokedInsideNotBuilderClass() {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
         given(builderVerifier.isBuilder(psiClass)).willReturn(false);
-        given(builderFinder.findBuilderForClass(psiClass)).willReturn(null);
+        given(builderFinder.findBuilderCandidatesForClass(psiClass)).willReturn(List.of());
         given(popupListFactory.getPopupList()).willReturn(list);
 
         // when
@@ -108,7 +159,7 @@ public class GoToBuilderActionHandlerTest {
         // given
         given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(builderClass);
         given(builderVerifier.isBuilder(builderClass)).willReturn(true);
-        given(builderFinder.findClassForBuilder(builderClass)).willReturn(null);
+        given(builderFinder.findClassCandidatesForBuilder(builderClass)).willReturn(List.of());
 
         // when
         builderActionHandler.execute(editor, dataContext);
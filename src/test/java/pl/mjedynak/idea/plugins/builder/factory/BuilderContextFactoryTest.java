@@ -0,0 +1,280 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderContextFactoryTest {
+
+    @InjectMocks private BuilderContextFactory builderContextFactory;
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock(strictness = LENIENT) private PsiClass builder;
+    @Mock(strictness = LENIENT) private PsiClass target;
+    @Mock(strictness = LENIENT) private PsiFile builderFile;
+    @Mock(strictness = LENIENT) private PsiDirectory builderDirectory;
+    @Mock private Project project;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock(strictness = LENIENT) private PsiField nameField;
+    @Mock(strictness = LENIENT) private PsiField tagsField;
+    @Mock(strictness = LENIENT) private PsiType stringType;
+    @Mock(strictness = LENIENT) private PsiType listType;
+    @SuppressWarnings("rawtypes")
+    @Mock(strictness = LENIENT) private PsiElementClassMember nameMember;
+    @SuppressWarnings("rawtypes")
+    @Mock(strictness = LENIENT) private PsiElementClassMember tagsMember;
+
+    @BeforeEach
+    public void setUp() {
+        given(builder.getFields()).willReturn(new PsiField[0]);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[0]);
+        given(builder.findMethodsByName(anyString(), anyBoolean())).willReturn(new PsiMethod[0]);
+        given(builder.getExtendsListTypes()).willReturn(new PsiClassType[0]);
+        given(builder.getContainingFile()).willReturn(builderFile);
+        given(builderFile.getContainingDirectory()).willReturn(builderDirectory);
+        given(builder.getName()).willReturn("Builder");
+        given(target.getProject()).willReturn(project);
+        given(target.getName()).willReturn("Person");
+        given(target.getQualifiedName()).willReturn("com.example.Person");
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+        given(listType.getCanonicalText()).willReturn("java.util.List<java.lang.String>");
+        given(nameField.getName()).willReturn("name");
+        given(nameField.getType()).willReturn(stringType);
+        given(tagsField.getName()).willReturn("tags");
+        given(tagsField.getType()).willReturn(listType);
+        given(nameMember.getPsiElement()).willReturn(nameField);
+        given(tagsMember.getPsiElement()).willReturn(tagsField);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldCreateContextKeepingBuilderNameDirectoryAndOptionsWithAllSelectableFields() {
+        // given
+        List<PsiElementClassMember> members = List.of(nameMember, tagsMember);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, true, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, target)).willReturn(psiFieldsForBuilder);
+        given(builder.findFieldByName("name", true)).willReturn(nameField);
+        given(builder.findFieldByName("lastBuilt", false)).willReturn(mock(PsiField.class));
+        PsiMethod setMethod = method("setName", "", stringType);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{setMethod});
+        given(builder.findMethodsByName("but", false)).willReturn(new PsiMethod[]{method("but", "")});
+        given(builder.findMethodsByName("readJson", false)).willReturn(new PsiMethod[]{method("readJson", "", stringType)});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, true, List.of("tags")));
+
+        // then
+        assertThat(result.getProject()).isEqualTo(project);
+        assertThat(result.getPsiFieldsForBuilder()).isEqualTo(psiFieldsForBuilder);
+        assertThat(result.getTargetDirectory()).isEqualTo(builderDirectory);
+        assertThat(result.getClassName()).isEqualTo("Builder");
+        assertThat(result.getPsiClassFromEditor()).isEqualTo(target);
+        assertThat(result.isInner()).isTrue();
+        assertThat(result.useSingleField()).isFalse();
+        assertThat(result.getMethodPrefix()).isEqualTo("set");
+        assertThat(result.hasButMethod()).isTrue();
+        assertThat(result.hasMemoizedBuild()).isTrue();
+        assertThat(result.hasJsonReader()).isTrue();
+        assertThat(result.hasWitherMethods()).isFalse();
+        assertThat(result.hasCopyMethod()).isFalse();
+        assertThat(result.hasBinaryCodec()).isFalse();
+        assertThat(result.hasFlyweight()).isFalse();
+        assertThat(result.hasThreadLocalPool()).isFalse();
+        assertThat(result.getCopyStrategy()).isEqualTo(DefensiveCopyStrategy.NONE);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldKeepEmptyMethodPrefixAndCopyStrategyReadFromBuildMethod() {
+        // given
+        List<PsiElementClassMember> members = List.of(tagsMember);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, target)).willReturn(psiFieldsForBuilder);
+        given(builder.findFieldByName("tags", true)).willReturn(tagsField);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{method("tags", "", listType)});
+        given(builder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{
+                method("build", "public Person build() { Person person = new Person();\n"
+                        + "person.setTags(tags == null ? null : java.util.List.copyOf(tags)); return person; }")});
+        given(builder.findMethodsByName("from", false)).willReturn(new PsiMethod[]{method("from", "", stringType)});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, false, List.of("name")));
+
+        // then
+        assertThat(result.getMethodPrefix()).isEmpty();
+        assertThat(result.hasButMethod()).isFalse();
+        assertThat(result.hasCopyMethod()).isTrue();
+        assertThat(result.getCopyStrategy()).isEqualTo(DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD);
+    }
+
+    @Test
+    void shouldReadCopyOnSetStrategyFromSetMethods() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(List.of(tagsMember));
+        given(builder.findFieldByName("tags", true)).willReturn(tagsField);
+        PsiMethod setMethod = method("withTags", "public Builder withTags(java.util.List<java.lang.String> value) {\n"
+                + "this.tags = value == null ? null : new java.util.ArrayList<>(value); return this; }", listType);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{setMethod});
+        given(builder.findMethodsByName("withTags", true)).willReturn(new PsiMethod[]{setMethod});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, false, List.of("name")));
+
+        // then
+        assertThat(result.getMethodPrefix()).isEqualTo("with");
+        assertThat(result.getCopyStrategy()).isEqualTo(DefensiveCopyStrategy.COPY_ON_SET);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldReadCopyOnBuildStrategyFromAssignmentsOfInnerBuilder() {
+        // given
+        List<PsiElementClassMember> members = List.of(tagsMember);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, true, false, false)).willReturn(members);
+        given(builder.findFieldByName("tags", true)).willReturn(tagsField);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{method("withTags", "", listType)});
+        given(builder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{
+                method("build", "public Person build() { Person person = new Person();\n"
+                        + "person.tags = this.tags == null ? null : new java.util.ArrayList<>(this.tags); return person; }")});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, true, List.of("name")));
+
+        // then
+        assertThat(result.getCopyStrategy()).isEqualTo(DefensiveCopyStrategy.COPY_ON_BUILD);
+    }
+
+    @Test
+    void shouldReadCopyStrategyFromCollectionsFilledByAdders() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(List.of(tagsMember));
+        given(builder.findFieldByName("tags", true)).willReturn(tagsField);
+        PsiMethod setMethod = method("withTags", "public Builder withTags(java.util.List<java.lang.String> value) {\n"
+                + "this.tags = value; this.tagsOwned = false; return this; }", listType);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{setMethod});
+        given(builder.findMethodsByName("withTagsCapacity", false)).willReturn(new PsiMethod[]{method("withTagsCapacity", "", PsiType.INT)});
+        given(builder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{
+                method("build", "public Person build() { Person person = new Person();\n"
+                        + "person.setTags(tags == null ? null : new java.util.ArrayList<>(tags)); return person; }")});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, false, List.of("name")));
+
+        // then
+        assertThat(result.hasCollectionAdders()).isTrue();
+        assertThat(result.getCopyStrategy()).isEqualTo(DefensiveCopyStrategy.COPY_ON_BUILD);
+    }
+
+    @Test
+    void shouldCreateSyncContextForBuilderWithMembersFollowingFieldsOnly() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(List.of(nameMember));
+        given(builder.findFieldByName("name", true)).willReturn(nameField);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{method("withName", "", stringType)});
+        given(builder.findMethodsByName("but", false)).willReturn(new PsiMethod[]{method("but", "")});
+
+        // when
+        BuilderContext result = builderContextFactory.createSyncContext(new StaleBuilder(builder, target, false, List.of("age")));
+
+        // then
+        assertThat(result.getMethodPrefix()).isEqualTo("with");
+        assertThat(result.hasButMethod()).isTrue();
+    }
+
+    @Test
+    void shouldNotCreateSyncContextForBuilderWithOtherGeneratedMembers() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(List.of(nameMember));
+        given(builder.findFieldByName("name", true)).willReturn(nameField);
+        given(builder.findFieldByName("POOL", false)).willReturn(mock(PsiField.class));
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{method("withName", "", stringType)});
+
+        // when
+        BuilderContext result = builderContextFactory.createSyncContext(new StaleBuilder(builder, target, false, List.of("age")));
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldRefuseBuilderWithoutSetMethodForFieldsItHas() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(List.of(nameMember));
+        given(builder.findFieldByName("name", true)).willReturn(nameField);
+        given(builder.getAllMethods()).willReturn(new PsiMethod[]{method("rename", "", stringType)});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, false, List.of("age")));
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(psiFieldsForBuilderFactory);
+    }
+
+    @Test
+    void shouldRefuseBuilderHoldingSourceClassInstance() {
+        // given
+        PsiField personField = mock(PsiField.class, withSettings().strictness(Strictness.LENIENT));
+        PsiType personType = mock(PsiType.class, withSettings().strictness(Strictness.LENIENT));
+        given(personType.getCanonicalText()).willReturn("com.example.Person");
+        given(personField.getType()).willReturn(personType);
+        given(personField.getName()).willReturn("person");
+        given(builder.getFields()).willReturn(new PsiField[]{personField});
+
+        // when
+        BuilderContext result = builderContextFactory.createRegenerationContext(new StaleBuilder(builder, target, false, List.of("age")));
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(psiFieldSelector, psiFieldsForBuilderFactory);
+    }
+
+    private static PsiMethod method(String name, String text, PsiType... parameterTypes) {
+        PsiMethod method = mock(PsiMethod.class, withSettings().strictness(Strictness.LENIENT));
+        PsiParameterList parameterList = mock(PsiParameterList.class, withSettings().strictness(Strictness.LENIENT));
+        PsiParameter[] parameters = new PsiParameter[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameters[i] = mock(PsiParameter.class, withSettings().strictness(Strictness.LENIENT));
+            given(parameters[i].getType()).willReturn(parameterTypes[i]);
+            given(parameters[i].getName()).willReturn("value");
+        }
+        given(method.getName()).willReturn(name);
+        given(method.getText()).willReturn(text);
+        given(method.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(parameterTypes.length);
+        given(parameterList.getParameters()).willReturn(parameters);
+        return method;
+    }
+}
@@ -0,0 +1,99 @@
+package pl.mjedynak.idea.plugins.builder.factory;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.FieldModel;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderModelFactoryTest {
+
+    @InjectMocks private BuilderModelFactory builderModelFactory;
+    @Mock private PsiHelper psiHelper;
+    @Mock private Project project;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private PsiPackage psiPackage;
+    @Mock private PsiClass srcClass;
+    @Mock private PsiField nameField;
+    @Mock private PsiField ageField;
+    @Mock private PsiType stringType;
+    @Mock private PsiMethod constructor;
+    @Mock private PsiParameterList parameterList;
+    @Mock private PsiParameter nameParameter;
+
+    @BeforeEach
+    public void setUp() {
+        given(psiHelper.getPackage(targetDirectory)).willReturn(psiPackage);
+        given(psiPackage.getQualifiedName()).willReturn("com.example");
+        given(srcClass.getName()).willReturn("Person");
+        given(nameField.getName()).willReturn("name");
+        given(nameField.getType()).willReturn(stringType);
+        given(ageField.getName()).willReturn("age");
+        given(ageField.getType()).willReturn(PsiType.INT);
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+    }
+
+    @Test
+    void shouldTranslateSelectedFieldsAndConstructor() {
+        // given
+        given(constructor.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(nameParameter.getName()).willReturn("name");
+        given(nameParameter.getType()).willReturn(stringType);
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(List.of(ageField), List.of(nameField), List.of(nameField, ageField), constructor);
+        BuilderContext context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, "PersonBuilder", srcClass, "with", true, true, false);
+
+        // when
+        BuilderModel result = builderModelFactory.createBuilderModel(context);
+
+        // then
+        FieldModel name = new FieldModel("name", "java.lang.String");
+        FieldModel age = new FieldModel("age", "int");
+        assertThat(result.getPackageName()).isEqualTo("com.example");
+        assertThat(result.getSourceClassName()).isEqualTo("Person");
+        assertThat(result.getBuilderClassName()).isEqualTo("PersonBuilder");
+        assertThat(result.getFieldsForSetters()).containsExactly(age);
+        assertThat(result.getFieldsForConstructor()).containsExactly(name);
+        assertThat(result.getAllSelectedFields()).containsExactly(name, age);
+        assertThat(result.getConstructor().getParameters()).containsExactly(name);
+        assertThat(result.getOptions().getMethodPrefix()).isEqualTo("with");
+        assertThat(result.getOptions().hasButMethod()).isTrue();
+        assertThat(result.isInner()).isTrue();
+    }
+
+    @Test
+    void shouldTranslateMissingConstructorToNull() {
+        // given
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(List.of(nameField, ageField), List.of(), List.of(nameField, ageField), null);
+        BuilderContext context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, "PersonBuilder", srcClass, "with", false, false, true);
+
+        // when
+        BuilderModel result = builderModelFactory.createBuilderModel(context);
+
+        // then
+        assertThat(result.getConstructor()).isNull();
+        assertThat(result.getOptions().useSingleField()).isTrue();
+        assertThat(result.isInner()).isFalse();
+    }
+}
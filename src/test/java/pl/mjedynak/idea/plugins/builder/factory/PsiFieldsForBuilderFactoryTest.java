@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
@@ -23,6 +24,8 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class PsiFieldsForBuilderFactoryTest {
@@ -53,6 +56,7 @@ public class PsiFieldsForBuilderFactoryTest {
     @Mock private PsiField psiFieldNowhere;
     @Mock private BestConstructorSelector bestConstructorSelector;
     @Mock private PsiMethod bestConstructor;
+    @Mock private PsiHelper psiHelper;
 
     @Captor private ArgumentCaptor<List<PsiField>> argumentCaptor;
 
@@ -65,6 +69,26 @@ public class PsiFieldsForBuilderFactoryTest {
         given(psiField.getName()).willReturn(PSI_FIELD_NAME);
     }
 
+    @Test
+    void shouldUseAllSelectedRecordComponentsWithCanonicalConstructorWithoutCheckingSetters() {
+        // given
+        setField(factory, "psiHelper", psiHelper);
+        psiElementClassMembers = Lists.newArrayList(psiElementClassMember);
+        given(psiElementClassMember.getPsiElement()).willReturn(psiField);
+        given(psiClass.isRecord()).willReturn(true);
+        given(psiHelper.findCanonicalConstructor(psiClass)).willReturn(bestConstructor);
+
+        // when
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+
+        // then
+        assertThat(result.getFieldsForSetters()).isEmpty();
+        assertThat(result.getFieldsForConstructor()).containsOnly(psiField);
+        assertThat(result.getAllSelectedFields()).containsOnly(psiField);
+        assertThat(result.getBestConstructor()).isEqualTo(bestConstructor);
+        verifyNoInteractions(psiFieldVerifier, bestConstructorSelector);
+    }
+
     @Test
     void shouldCreateObjectWithPsiFieldsForSetters() {
         // given
@@ -17,7 +17,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
-import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.Collection;
 
@@ -59,12 +58,11 @@ public class BestConstructorSelectorTest {
     @Mock(strictness = LENIENT) private PsiParameter psiParameter3;
     @Mock(strictness = LENIENT) private PsiParameter psiParameter4;
 
-    private final PsiFieldVerifier verifier = new PsiFieldVerifier();
-    private final BestConstructorSelector finder = new BestConstructorSelector(verifier);
+    private final BestConstructorSelector finder = new BestConstructorSelector();
 
     @BeforeEach
     public void initMock() {
-        setField(verifier, "codeStyleSettings", settings);
+        setField(finder, "codeStyleSettings", settings);
         given(settings.getParameterNamePrefix()).willReturn(EMPTY);
         given(settings.getFieldNamePrefix()).willReturn(EMPTY);
 
@@ -0,0 +1,145 @@
+package pl.mjedynak.idea.plugins.builder.finder;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderCandidateRankerTest {
+
+    private static final String QUALIFIED_NAME = "com.example.SomeClass";
+
+    @InjectMocks private BuilderCandidateRanker builderCandidateRanker;
+    @Mock(strictness = LENIENT) private PsiHelper psiHelper;
+    @Mock(strictness = LENIENT) private PsiClass sourceClass;
+    @Mock(strictness = LENIENT) private PsiClass firstBuilder;
+    @Mock(strictness = LENIENT) private PsiClass secondBuilder;
+    @Mock(strictness = LENIENT) private PsiMethod buildMethod;
+    @Mock(strictness = LENIENT) private PsiType returnType;
+    @Mock private Module module;
+    @Mock private Module otherModule;
+
+    @BeforeEach
+    public void setUp() {
+        given(sourceClass.getQualifiedName()).willReturn(QUALIFIED_NAME);
+        given(firstBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[0]);
+        given(secondBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[0]);
+        given(buildMethod.getReturnType()).willReturn(returnType);
+        given(returnType.getCanonicalText()).willReturn(QUALIFIED_NAME);
+    }
+
+    @Test
+    void shouldRankBuilderThatBuildsSourceClassFirst() {
+        // given
+        given(secondBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{buildMethod});
+
+        // when
+        List<PsiClass> result = builderCandidateRanker.rankBuilders(sourceClass, List.of(firstBuilder, secondBuilder));
+
+        // then
+        assertThat(result).containsExactly(secondBuilder, firstBuilder);
+    }
+
+    @Test
+    void shouldRankBuilderFromSameModuleFirst() {
+        // given
+        given(psiHelper.findModuleForPsiElement(sourceClass)).willReturn(module);
+        given(psiHelper.findModuleForPsiElement(firstBuilder)).willReturn(otherModule);
+        given(psiHelper.findModuleForPsiElement(secondBuilder)).willReturn(module);
+
+        // when
+        List<PsiClass> result = builderCandidateRanker.rankBuilders(sourceClass, List.of(firstBuilder, secondBuilder));
+
+        // then
+        assertThat(result).containsExactly(secondBuilder, firstBuilder);
+    }
+
+    @Test
+    void shouldPreferSameModuleOverSameSourceRootKind() {
+        // given
+        given(psiHelper.findModuleForPsiElement(sourceClass)).willReturn(module);
+        given(psiHelper.findModuleForPsiElement(secondBuilder)).willReturn(module);
+        given(psiHelper.isInTestSourceContent(secondBuilder)).willReturn(true);
+
+        // when
+        int sameModuleScore = builderCandidateRanker.score(secondBuilder, sourceClass);
+        int sameRootKindScore = builderCandidateRanker.score(firstBuilder, sourceClass);
+
+        // then
+        assertThat(sameModuleScore).isEqualTo(BuilderCandidateRanker.SAME_MODULE_SCORE);
+        assertThat(sameRootKindScore).isEqualTo(BuilderCandidateRanker.SAME_SOURCE_ROOT_KIND_SCORE);
+    }
+
+    @Test
+    void shouldKeepIndexOrderOfEquallyRankedCandidates() {
+        // when
+        List<PsiClass> result = builderCandidateRanker.rankBuilders(sourceClass, List.of(firstBuilder, secondBuilder));
+
+        // then
+        assertThat(result).containsExactly(firstBuilder, secondBuilder);
+    }
+
+    @Test
+    void shouldTellBuilderLeadingByMarginIsClearlyFirst() {
+        // given
+        given(secondBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{buildMethod});
+
+        // when
+        boolean result = builderCandidateRanker.isBuilderClearlyFirst(sourceClass, List.of(secondBuilder, firstBuilder));
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldNotTellTiedBuilderIsClearlyFirst() {
+        // when
+        boolean result = builderCandidateRanker.isBuilderClearlyFirst(sourceClass, List.of(firstBuilder, secondBuilder));
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldTellSourceClassLeadingByMarginIsClearlyFirst() {
+        // given
+        PsiClass otherSourceClass = mock(PsiClass.class);
+        given(otherSourceClass.getQualifiedName()).willReturn("com.other.SomeClass");
+        given(firstBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{buildMethod});
+
+        // when
+        boolean result = builderCandidateRanker.isSourceClassClearlyFirst(firstBuilder, List.of(sourceClass, otherSourceClass));
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldRankSourceClassBuiltByBuilderFirst() {
+        // given
+        PsiClass otherSourceClass = mock(PsiClass.class);
+        given(otherSourceClass.getQualifiedName()).willReturn("com.other.SomeClass");
+        given(firstBuilder.findMethodsByName("build", false)).willReturn(new PsiMethod[]{buildMethod});
+
+        // when
+        List<PsiClass> result = builderCandidateRanker.rankSourceClasses(firstBuilder, List.of(otherSourceClass, sourceClass));
+
+        // then
+        assertThat(result).containsExactly(sourceClass, otherSourceClass);
+    }
+}
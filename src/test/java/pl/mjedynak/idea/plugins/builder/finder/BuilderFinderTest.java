@@ -9,7 +9,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
@@ -23,6 +27,7 @@ public class BuilderFinderTest {
 
     @InjectMocks private BuilderFinder builderFinder;
     @Mock(strictness = LENIENT) private ClassFinder classFinder;
+    @Mock(strictness = LENIENT) private BuilderCandidateRanker builderCandidateRanker;
     @Mock(strictness = LENIENT) private PsiClass psiClass;
     @Mock(strictness = LENIENT) private PsiClass builderClass;
     @Mock private Project project;
@@ -38,6 +43,9 @@ public class BuilderFinderTest {
 
         given(builderClass.getName()).willReturn(BUILDER_NAME);
         given(builderClass.getProject()).willReturn(project);
+
+        given(builderCandidateRanker.rankBuilders(any(PsiClass.class), any())).willAnswer(invocation -> invocation.getArgument(1));
+        given(builderCandidateRanker.rankSourceClasses(any(PsiClass.class), any())).willAnswer(invocation -> invocation.getArgument(1));
     }
 
     @Test
@@ -79,7 +87,7 @@ public class BuilderFinderTest {
     @Test
     void shouldNotFindBuilderForClassWhenClassFounderReturnsNull() {
         // given
-        given(classFinder.findClass(CLASS_NAME, project)).willReturn(null);
+        given(classFinder.findClasses(BUILDER_NAME, project)).willReturn(Collections.emptyList());
 
         // when
         PsiClass result = builderFinder.findBuilderForClass(psiClass);
@@ -95,7 +103,7 @@ public class BuilderFinderTest {
         PsiClass builderClass = mock(PsiClass.class);
         given(builderClass.getName()).willReturn(BUILDER_NAME);
 
-        given(classFinder.findClass(BUILDER_NAME, project)).willReturn(builderClass);
+        given(classFinder.findClasses(BUILDER_NAME, project)).willReturn(List.of(builderClass));
 
         // when
         PsiClass result = builderFinder.findBuilderForClass(psiClass);
@@ -135,6 +143,37 @@ public class BuilderFinderTest {
         assertThat(result).isNull();
     }
 
+    @Test
+    void shouldPreferInnerBuilderDeclaredDirectlyInClass() {
+        // given
+        PsiClass inheritedBuilder = mock(PsiClass.class);
+        PsiClass ownBuilder = mock(PsiClass.class);
+        given(inheritedBuilder.getName()).willReturn(BuilderFinder.SEARCH_PATTERN);
+        given(ownBuilder.getName()).willReturn(BuilderFinder.SEARCH_PATTERN);
+        given(ownBuilder.getContainingClass()).willReturn(psiClass);
+        given(psiClass.getAllInnerClasses()).willReturn(new PsiClass[]{inheritedBuilder, ownBuilder});
+
+        // when
+        PsiClass result = builderFinder.findBuilderForClass(psiClass);
+
+        // then
+        assertThat(result).isEqualTo(ownBuilder);
+    }
+
+    @Test
+    void shouldReturnRankedBuilderCandidates() {
+        // given
+        PsiClass otherBuilderClass = mock(PsiClass.class);
+        given(classFinder.findClasses(BUILDER_NAME, project)).willReturn(List.of(otherBuilderClass, builderClass));
+        given(builderCandidateRanker.rankBuilders(psiClass, List.of(otherBuilderClass, builderClass))).willReturn(List.of(builderClass, otherBuilderClass));
+
+        // when
+        List<PsiClass> result = builderFinder.findBuilderCandidatesForClass(psiClass);
+
+        // then
+        assertThat(result).containsExactly(builderClass, otherBuilderClass);
+    }
+
     @Test
     void shouldNotFindClassForEnum() {
         // given
@@ -174,20 +213,20 @@ public class BuilderFinderTest {
     @Test
     void shouldNotFindClassForBuilderWhenClassFounderReturnsNull() {
         // given
-        given(classFinder.findClass(BUILDER_NAME, project)).willReturn(null);
+        given(classFinder.findClasses(CLASS_NAME, project)).willReturn(Collections.emptyList());
 
         // when
         PsiClass result = builderFinder.findClassForBuilder(builderClass);
 
         // then
         assertThat(result).isNull();
-        verify(classFinder).findClass(CLASS_NAME, project);
+        verify(classFinder).findClasses(CLASS_NAME, project);
     }
 
     @Test
     void shouldFindClassForBuilderWhenClassWithTheExactBuildersNameIsPresent() {
         // given
-        given(classFinder.findClass(CLASS_NAME, project)).willReturn(psiClass);
+        given(classFinder.findClasses(CLASS_NAME, project)).willReturn(List.of(psiClass));
 
         // when
         PsiClass result = builderFinder.findClassForBuilder(psiClass);
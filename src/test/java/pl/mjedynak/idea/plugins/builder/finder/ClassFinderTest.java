@@ -13,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -63,6 +65,20 @@ public class ClassFinderTest {
         verifyClassIsFound(CLASS_NAME, result);
     }
 
+    @Test
+    void shouldFindAllClassesMatchingSearchPattern() {
+        // given
+        PsiClass firstClass = mock(PsiClass.class);
+        PsiClass secondClass = mock(PsiClass.class);
+        given(psiShortNamesCache.getClassesByName(CLASS_NAME, globalSearchScope)).willReturn(new PsiClass[]{firstClass, secondClass});
+
+        // when
+        List<PsiClass> result = classFinder.findClasses(CLASS_NAME, project);
+
+        // then
+        assertThat(result).containsExactly(firstClass, secondClass);
+    }
+
     private void verifyClassIsFound(String name, PsiClass result) {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo(name);
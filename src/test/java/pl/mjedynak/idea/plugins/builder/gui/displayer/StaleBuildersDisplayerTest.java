@@ -0,0 +1,108 @@
+package pl.mjedynak.idea.plugins.builder.gui.displayer;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderContextFactory;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class StaleBuildersDisplayerTest {
+
+    private StaleBuildersDisplayer staleBuildersDisplayer;
+
+    @Mock private GuiHelper guiHelper;
+    @Mock private BuilderContextFactory builderContextFactory;
+    @Mock private BuilderWriter builderWriter;
+    @Mock private Project project;
+    @Mock private PsiClass builder;
+    @Mock private PsiClass deletedBuilder;
+    @Mock private PsiClass unreadableBuilder;
+    @Mock private PsiClass target;
+    @Mock private BuilderContext context;
+
+    @BeforeEach
+    public void setUp() {
+        staleBuildersDisplayer = new StaleBuildersDisplayer(guiHelper, builderContextFactory, builderWriter);
+    }
+
+    @Test
+    void shouldShowMessageWhenNoStaleBuilderWasFound() {
+        // when
+        staleBuildersDisplayer.display(project, Collections.emptyList());
+
+        // then
+        verify(guiHelper).showInfoMessage(project, StaleBuildersDisplayer.NOTHING_FOUND_MESSAGE, StaleBuildersDisplayer.TITLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRegenerateAllBuildersThatAreStillValidInOneBatch() {
+        // given
+        StaleBuilder staleBuilder = new StaleBuilder(builder, target, false, List.of("age"));
+        StaleBuilder deletedStaleBuilder = new StaleBuilder(deletedBuilder, target, false, List.of("age"));
+        given(builder.isValid()).willReturn(true);
+        given(target.isValid()).willReturn(true);
+        given(deletedBuilder.isValid()).willReturn(false);
+        given(builderContextFactory.createRegenerationContext(staleBuilder)).willReturn(context);
+
+        // when
+        staleBuildersDisplayer.regenerateAll(project, List.of(staleBuilder, deletedStaleBuilder));
+
+        // then
+        ArgumentCaptor<Map<PsiClass, BuilderContext>> contexts = ArgumentCaptor.forClass(Map.class);
+        verify(builderWriter).regenerateBuilders(eq(project), contexts.capture());
+        assertThat(contexts.getValue()).containsExactly(Map.entry(builder, context));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSkipBuildersWhoseOptionsCannotBeReadBack() {
+        // given
+        StaleBuilder staleBuilder = new StaleBuilder(builder, target, false, List.of("age"));
+        StaleBuilder unreadableStaleBuilder = new StaleBuilder(unreadableBuilder, target, false, List.of("age"));
+        given(builder.isValid()).willReturn(true);
+        given(unreadableBuilder.isValid()).willReturn(true);
+        given(target.isValid()).willReturn(true);
+        given(builderContextFactory.createRegenerationContext(staleBuilder)).willReturn(context);
+        given(builderContextFactory.createRegenerationContext(unreadableStaleBuilder)).willReturn(null);
+
+        // when
+        staleBuildersDisplayer.regenerateAll(project, List.of(staleBuilder, unreadableStaleBuilder));
+
+        // then
+        ArgumentCaptor<Map<PsiClass, BuilderContext>> contexts = ArgumentCaptor.forClass(Map.class);
+        verify(builderWriter).regenerateBuilders(eq(project), contexts.capture());
+        assertThat(contexts.getValue()).containsExactly(Map.entry(builder, context));
+    }
+
+    @Test
+    void shouldNotExecuteCommandWhenNoBuilderIsValidAnymore() {
+        // given
+        given(deletedBuilder.isValid()).willReturn(false);
+
+        // when
+        staleBuildersDisplayer.regenerateAll(project, List.of(new StaleBuilder(deletedBuilder, target, false, List.of("age"))));
+
+        // then
+        verifyNoInteractions(builderWriter, builderContextFactory);
+    }
+}
@@ -0,0 +1,183 @@
+package pl.mjedynak.idea.plugins.builder.gui.preview;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldsModifier;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.NONE;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
+
+/**
+ * Selects the fields of a synthetic JavaBean, renders its builder and wraps it in the preview file, and fails when that
+ * takes longer than the budget of the preview, measured after warming up.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BuilderPreviewBudgetTest {
+
+    private static final int FIELD_COUNT = 200;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final long TIME_BUDGET_MILLIS = 50;
+    private static final String BUILDER_CLASS_NAME = "PersonBuilder";
+    private static final String BUILDER_TEXT = "public final class PersonBuilder {}";
+
+    private BuilderPreviewRenderer builderPreviewRenderer;
+
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiFieldSelector psiFieldSelector;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiFieldVerifier psiFieldVerifier;
+    @Mock(stubOnly = true, strictness = LENIENT) private BestConstructorSelector bestConstructorSelector;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiHelper psiHelper;
+    @Mock(stubOnly = true, strictness = LENIENT) private JavaPsiFacade javaPsiFacade;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiElementFactory elementFactory;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass srcClass;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass builderClass;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiModifierList modifierList;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiMethod method;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiMethod defaultConstructor;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiType stringType;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiFile previewFile;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiParameterList parameterList;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass batchBuilderHolder;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass batchBuilderClass;
+    @Mock(stubOnly = true) private PsiFieldsModifier psiFieldsModifier;
+    @Mock(stubOnly = true) private JavaCodeStyleManager javaCodeStyleManager;
+    @Mock(stubOnly = true) private CodeStyleManager codeStyleManager;
+    @Mock private Project project;
+
+    @BeforeEach
+    @SuppressWarnings("rawtypes")
+    public void setUp() {
+        builderPreviewRenderer = new BuilderPreviewRenderer(psiHelper, psiFieldSelector,
+                new PsiFieldsForBuilderFactory(psiFieldVerifier, bestConstructorSelector));
+        BuilderPsiClassBuilder psiClassBuilder = new BuilderPsiClassBuilder();
+        setField(psiClassBuilder, "psiHelper", psiHelper);
+        setField(psiClassBuilder, "psiFieldsModifier", psiFieldsModifier);
+        setField(psiClassBuilder, "psiFieldVerifier", psiFieldVerifier);
+        setField(builderPreviewRenderer, "builderPsiClassBuilder", psiClassBuilder);
+        List<PsiElementClassMember> members = members(syntheticFields(FIELD_COUNT));
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false)).willReturn(members);
+        given(psiFieldVerifier.isSetInSetterMethod(any(PsiField.class), eq(srcClass))).willReturn(true);
+        given(psiFieldVerifier.findAccessorName(any(PsiField.class), eq(srcClass))).willReturn("getValue");
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(srcClass))).willReturn(defaultConstructor);
+        given(psiHelper.getJavaPsiFacade(project)).willReturn(javaPsiFacade);
+        given(psiHelper.createLightJavaFile(project, BUILDER_CLASS_NAME + ".java", BUILDER_TEXT)).willReturn(previewFile);
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        given(psiHelper.getCodeStyleManager(project)).willReturn(codeStyleManager);
+        given(javaPsiFacade.getElementFactory()).willReturn(elementFactory);
+        given(elementFactory.createClass(BUILDER_CLASS_NAME)).willReturn(builderClass);
+        given(elementFactory.createConstructor()).willReturn(method);
+        given(elementFactory.createMethodFromText(anyString(), any(PsiElement.class))).willReturn(method);
+        given(elementFactory.createClassFromText(anyString(), any(PsiElement.class))).willReturn(batchBuilderHolder);
+        given(batchBuilderHolder.getInnerClasses()).willReturn(new PsiClass[]{batchBuilderClass});
+        given(defaultConstructor.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[0]);
+        given(builderClass.getModifierList()).willReturn(modifierList);
+        given(builderClass.getText()).willReturn(BUILDER_TEXT);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(srcClass.getName()).willReturn("Person");
+        given(srcClass.getProject()).willReturn(project);
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+    }
+
+    @Test
+    void shouldSelectFieldsAndRenderPreviewWithinTimeBudget() {
+        // given
+        BuilderPreviewOptions options = new BuilderPreviewOptions(BUILDER_CLASS_NAME, "with", false, false, false, NONE);
+
+        // when
+        long elapsedMillis = previewMillis(options);
+
+        // then
+        assertThat(elapsedMillis).isLessThanOrEqualTo(TIME_BUDGET_MILLIS);
+    }
+
+    @Test
+    void shouldRenderPreviewWithGeneratorOptionsWithinTimeBudget() {
+        // given
+        GeneratorOptions generatorOptions = aGeneratorOptions()
+                .withJsonReader(true)
+                .withBinaryCodec(true)
+                .withBatchBuilder(true)
+                .withMemoizedBuild(true)
+                .build();
+        BuilderPreviewOptions options = new BuilderPreviewOptions(BUILDER_CLASS_NAME, "with", false, false, false, generatorOptions);
+
+        // when
+        long elapsedMillis = previewMillis(options);
+
+        // then
+        assertThat(elapsedMillis).isLessThanOrEqualTo(TIME_BUDGET_MILLIS);
+    }
+
+    private long previewMillis(BuilderPreviewOptions options) {
+        Runnable preview = () -> builderPreviewRenderer.createPreviewFile(srcClass, options,
+                builderPreviewRenderer.renderText(srcClass, builderPreviewRenderer.selectFields(srcClass, options), options));
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            preview.run();
+        }
+        long start = System.nanoTime();
+        preview.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private List<PsiField> syntheticFields(int count) {
+        List<PsiField> fields = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PsiField field = mock(PsiField.class, withSettings().stubOnly().strictness(Strictness.LENIENT));
+            given(field.getName()).willReturn("field" + i);
+            given(field.getType()).willReturn(stringType);
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<PsiElementClassMember> members(List<PsiField> fields) {
+        List<PsiElementClassMember> members = new ArrayList<>();
+        for (PsiField field : fields) {
+            PsiElementClassMember member = mock(PsiElementClassMember.class, withSettings().stubOnly().strictness(Strictness.LENIENT));
+            given(member.getPsiElement()).willReturn(field);
+            members.add(member);
+        }
+        return members;
+    }
+}
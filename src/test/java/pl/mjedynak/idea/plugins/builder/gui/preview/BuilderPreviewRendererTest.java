@@ -0,0 +1,154 @@
+package pl.mjedynak.idea.plugins.builder.gui.preview;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderAssembler;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.NONE;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderPreviewRendererTest {
+
+    private BuilderPreviewRenderer builderPreviewRenderer;
+
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock private BuilderPsiClassBuilder builderPsiClassBuilder;
+    @Mock private BuilderAssembler builderAssembler;
+    @Mock private PsiClass builderClass;
+    @Mock private JavaCodeStyleManager javaCodeStyleManager;
+    @Mock private CodeStyleManager codeStyleManager;
+    @Mock(strictness = LENIENT) private PsiClass sourceClass;
+    @Mock private Project project;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiFile previewFile;
+    @SuppressWarnings("rawtypes")
+    @Mock private PsiElementClassMember member;
+
+    @BeforeEach
+    public void setUp() {
+        builderPreviewRenderer = new BuilderPreviewRenderer(psiHelper, psiFieldSelector, psiFieldsForBuilderFactory);
+        setField(builderPreviewRenderer, "builderPsiClassBuilder", builderPsiClassBuilder);
+        setField(builderPreviewRenderer, "builderAssembler", builderAssembler);
+        given(sourceClass.getProject()).willReturn(project);
+        given(sourceClass.getName()).willReturn("Person");
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldSelectFieldsForOptionsChangingSelection() {
+        // given
+        List<PsiElementClassMember> members = List.of(member);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(sourceClass, true, false, true)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, sourceClass)).willReturn(psiFieldsForBuilder);
+
+        // when
+        PsiFieldsForBuilder result = builderPreviewRenderer.selectFields(sourceClass, new BuilderPreviewOptions("Builder", "with", true, false, true, NONE));
+
+        // then
+        assertThat(result).isEqualTo(psiFieldsForBuilder);
+    }
+
+    @Test
+    void shouldAssembleDetachedBuilderLikeGenerationDoes() {
+        // given
+        ArgumentCaptor<BuilderContext> context = ArgumentCaptor.forClass(BuilderContext.class);
+        given(builderPsiClassBuilder.aDetachedBuilder(context.capture())).willReturn(builderPsiClassBuilder);
+        given(builderAssembler.assemble(any(BuilderPsiClassBuilder.class), any(BuilderContext.class))).willReturn(builderClass);
+        given(builderClass.getText()).willReturn("public final class PersonBuilder {}");
+        GeneratorOptions generatorOptions = aGeneratorOptions().withCopyMethod(true).withJsonReader(true).withWitherMethods(true).build();
+
+        // when
+        String result = builderPreviewRenderer.renderText(sourceClass, psiFieldsForBuilder,
+                new BuilderPreviewOptions("PersonBuilder", "set", false, false, true, generatorOptions));
+
+        // then
+        assertThat(result).isEqualTo("public final class PersonBuilder {}");
+        verify(builderAssembler).assemble(builderPsiClassBuilder, context.getValue());
+        assertThat(context.getValue().getTargetDirectory()).isNull();
+        assertThat(context.getValue().getPsiFieldsForBuilder()).isEqualTo(psiFieldsForBuilder);
+        assertThat(context.getValue().getMethodPrefix()).isEqualTo("set");
+        assertThat(context.getValue().hasButMethod()).isTrue();
+        assertThat(context.getValue().hasCopyMethod()).isTrue();
+        assertThat(context.getValue().hasJsonReader()).isTrue();
+        assertThat(context.getValue().hasWitherMethods()).isFalse();
+    }
+
+    @Test
+    void shouldRenderInnerBuilderNestedInSourceClassWithoutChangingSourceClass() {
+        // given
+        ArgumentCaptor<BuilderContext> context = ArgumentCaptor.forClass(BuilderContext.class);
+        given(builderPsiClassBuilder.anInnerBuilder(context.capture())).willReturn(builderPsiClassBuilder);
+        given(builderAssembler.assemble(any(BuilderPsiClassBuilder.class), any(BuilderContext.class))).willReturn(builderClass);
+        given(builderClass.getText()).willReturn("public static final class Builder {}");
+
+        // when
+        String result = builderPreviewRenderer.renderText(sourceClass, psiFieldsForBuilder,
+                new BuilderPreviewOptions("Builder", "set", true, false, false, aGeneratorOptions().withCopyMethod(true).withBinaryCodec(true).build()));
+
+        // then
+        assertThat(result).isEqualTo("public class Person {\n\npublic static final class Builder {}\n}\n");
+        assertThat(context.getValue().hasCopyMethod()).isFalse();
+        assertThat(context.getValue().hasBinaryCodec()).isTrue();
+    }
+
+    @Test
+    void shouldCreatePreviewFileNamedAfterBuilderWithReferencesShortenedLikeWrittenBuilder() {
+        // given
+        given(psiHelper.createLightJavaFile(project, "PersonBuilder.java", "text")).willReturn(previewFile);
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        given(psiHelper.getCodeStyleManager(project)).willReturn(codeStyleManager);
+
+        // when
+        PsiFile result = builderPreviewRenderer.createPreviewFile(sourceClass, new BuilderPreviewOptions("PersonBuilder", "with", false, false, false, NONE), "text");
+
+        // then
+        assertThat(result).isEqualTo(previewFile);
+        InOrder inOrder = inOrder(javaCodeStyleManager, codeStyleManager);
+        inOrder.verify(javaCodeStyleManager).shortenClassReferences(previewFile);
+        inOrder.verify(codeStyleManager).reformat(previewFile);
+    }
+
+    @Test
+    void shouldCreatePreviewFileNamedAfterSourceClassForInnerBuilder() {
+        // given
+        given(psiHelper.createLightJavaFile(project, "Person.java", "text")).willReturn(previewFile);
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        given(psiHelper.getCodeStyleManager(project)).willReturn(codeStyleManager);
+
+        // when
+        PsiFile result = builderPreviewRenderer.createPreviewFile(sourceClass, new BuilderPreviewOptions("Builder", "with", true, false, false, NONE), "text");
+
+        // then
+        assertThat(result).isEqualTo(previewFile);
+    }
+}
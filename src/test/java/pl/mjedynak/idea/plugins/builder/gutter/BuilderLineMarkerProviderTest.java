@@ -0,0 +1,93 @@
+package pl.mjedynak.idea.plugins.builder.gutter;
+
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderLineMarkerProviderTest {
+
+    private BuilderLineMarkerProvider provider;
+
+    @Mock private BuilderFinder builderFinder;
+    @Mock private PsiClass person;
+    @Mock private PsiClass personBuilder;
+    @Mock private PsiClass innerBuilder;
+    @Mock private PsiClass address;
+    @Mock private PsiAnonymousClass anonymousClass;
+
+    @BeforeEach
+    public void setUp() {
+        provider = new BuilderLineMarkerProvider();
+        setField(provider, "builderFinder", builderFinder);
+    }
+
+    @Test
+    void shouldLinkClassWithItsBuilder() {
+        // given
+        given(person.getName()).willReturn("Person");
+        given(address.getName()).willReturn("Address");
+        given(builderFinder.findBuilderForClass(person)).willReturn(personBuilder);
+        given(builderFinder.findBuilderForClass(address)).willReturn(null);
+
+        // when
+        Map<PsiClass, PsiClass> result = provider.findCounterparts(List.of(person, address));
+
+        // then
+        assertThat(result).containsOnly(Map.entry(person, personBuilder));
+    }
+
+    @Test
+    void shouldLinkTopLevelBuilderWithBuiltClass() {
+        // given
+        given(personBuilder.getName()).willReturn("PersonBuilder");
+        given(builderFinder.findClassForBuilder(personBuilder)).willReturn(person);
+
+        // when
+        Map<PsiClass, PsiClass> result = provider.findCounterparts(List.of(personBuilder));
+
+        // then
+        assertThat(result).containsOnly(Map.entry(personBuilder, person));
+    }
+
+    @Test
+    void shouldLinkInnerBuilderWithOuterClassWithoutSearching() {
+        // given
+        given(innerBuilder.getName()).willReturn("Builder");
+        given(innerBuilder.getContainingClass()).willReturn(person);
+        given(person.getName()).willReturn("Person");
+
+        // when
+        Map<PsiClass, PsiClass> result = provider.findCounterparts(List.of(innerBuilder));
+
+        // then
+        assertThat(result).containsOnly(Map.entry(innerBuilder, person));
+        verifyNoInteractions(builderFinder);
+    }
+
+    @Test
+    void shouldSkipAnonymousClasses() {
+        // given
+        given(anonymousClass.getName()).willReturn("Anonymous");
+
+        // when
+        Map<PsiClass, PsiClass> result = provider.findCounterparts(List.of(anonymousClass));
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(builderFinder);
+    }
+}
@@ -0,0 +1,171 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderFingerprintsTest {
+
+    private BuilderFingerprints builderFingerprints;
+
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock private PsiClass target;
+    @Mock(strictness = LENIENT) private PsiField nameField;
+    @Mock(strictness = LENIENT) private PsiField ageField;
+    @Mock(strictness = LENIENT) private PsiType stringType;
+    @Mock(strictness = LENIENT) private PsiType intType;
+    @Mock private PsiElementClassMember nameMember;
+
+    @BeforeEach
+    public void setUp() {
+        builderFingerprints = new BuilderFingerprints();
+        setField(builderFingerprints, "psiFieldSelector", psiFieldSelector);
+        given(nameField.getName()).willReturn("name");
+        given(nameField.getType()).willReturn(stringType);
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+        given(ageField.getName()).willReturn("age");
+        given(ageField.getType()).willReturn(intType);
+        given(intType.getCanonicalText()).willReturn("int");
+    }
+
+    @Test
+    void shouldCreateEqualFingerprintsForSameFields() {
+        // when
+        FieldSetFingerprint first = FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of());
+        FieldSetFingerprint second = FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of());
+
+        // then
+        assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+        assertThat(first).isNotEqualTo(FieldSetFingerprint.of(List.of(nameField), List.of(), List.of()));
+    }
+
+    @Test
+    void shouldCreateDifferentFingerprintsWhenSetMethodBecomesPrivate() {
+        // given
+        PsiMethod setName = method("setName", nameField);
+        PsiMethod privateSetName = method("setName", nameField);
+        given(privateSetName.hasModifierProperty(PsiModifier.PRIVATE)).willReturn(true);
+
+        // when
+        FieldSetFingerprint withSetMethod = FieldSetFingerprint.of(List.of(nameField), List.of(setName), List.of());
+        FieldSetFingerprint withPrivateSetMethod = FieldSetFingerprint.of(List.of(nameField), List.of(privateSetName), List.of());
+
+        // then
+        assertThat(withSetMethod).isNotEqualTo(withPrivateSetMethod);
+        assertThat(withSetMethod).isNotEqualTo(FieldSetFingerprint.of(List.of(nameField), List.of(), List.of()));
+    }
+
+    @Test
+    void shouldCreateDifferentFingerprintsWhenConstructorParametersChange() {
+        // given
+        PsiMethod nameConstructor = method("Person", nameField);
+        PsiMethod nameAndAgeConstructor = method("Person", nameField, ageField);
+
+        // when
+        FieldSetFingerprint first = FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of(nameConstructor));
+        FieldSetFingerprint second = FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of(nameAndAgeConstructor));
+
+        // then
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first).isEqualTo(FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of(method("Person", nameField))));
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldSelectFieldsAndRememberSelectionWhenNoneIsCached() {
+        // given
+        FieldSetFingerprint fingerprint = FieldSetFingerprint.of(List.of(nameField), List.of(), List.of());
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(Collections.singletonList(nameMember));
+        given(nameMember.getPsiElement()).willReturn(nameField);
+        ArgumentCaptor<Object> selection = ArgumentCaptor.forClass(Object.class);
+
+        // when
+        Set<String> result = builderFingerprints.expectedFieldNames(target, fingerprint, false);
+
+        // then
+        assertThat(result).containsExactly("name");
+        verify(target).putUserData(any(Key.class), selection.capture());
+        assertThat(selection.getValue()).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldNotSelectFieldsAgainWhileFingerprintIsUnchanged() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(Collections.singletonList(nameMember));
+        given(nameMember.getPsiElement()).willReturn(nameField);
+        ArgumentCaptor<Object> selection = ArgumentCaptor.forClass(Object.class);
+        builderFingerprints.expectedFieldNames(target, FieldSetFingerprint.of(List.of(nameField), List.of(), List.of()), false);
+        verify(target).putUserData(any(Key.class), selection.capture());
+        given(target.getUserData(any(Key.class))).willReturn(selection.getValue());
+
+        // when
+        Set<String> result = builderFingerprints.expectedFieldNames(target, FieldSetFingerprint.of(List.of(nameField), List.of(), List.of()), false);
+
+        // then
+        assertThat(result).containsExactly("name");
+        verify(psiFieldSelector).selectFieldsToIncludeInBuilder(target, false, false, false);
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldSelectFieldsAgainWhenFingerprintChanged() {
+        // given
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(target, false, false, false)).willReturn(Collections.singletonList(nameMember));
+        given(nameMember.getPsiElement()).willReturn(nameField);
+        ArgumentCaptor<Object> selection = ArgumentCaptor.forClass(Object.class);
+        builderFingerprints.expectedFieldNames(target, FieldSetFingerprint.of(List.of(nameField), List.of(), List.of()), false);
+        verify(target).putUserData(any(Key.class), selection.capture());
+        given(target.getUserData(any(Key.class))).willReturn(selection.getValue());
+
+        // when
+        builderFingerprints.expectedFieldNames(target, FieldSetFingerprint.of(List.of(nameField, ageField), List.of(), List.of()), false);
+
+        // then
+        verify(psiFieldSelector, times(2)).selectFieldsToIncludeInBuilder(target, false, false, false);
+    }
+
+    private static PsiMethod method(String name, PsiField... parameterFields) {
+        PsiMethod method = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiParameter[] parameters = new PsiParameter[parameterFields.length];
+        for (int i = 0; i < parameterFields.length; i++) {
+            PsiType type = parameterFields[i].getType();
+            String parameterName = parameterFields[i].getName();
+            parameters[i] = mock(PsiParameter.class);
+            given(parameters[i].getType()).willReturn(type);
+            given(parameters[i].getName()).willReturn(parameterName);
+        }
+        given(method.getName()).willReturn(name);
+        given(method.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(parameters);
+        return method;
+    }
+}
@@ -0,0 +1,73 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiIdentifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.action.RegenerateBuilderQuickFix;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderOutOfDateInspectionTest {
+
+    private BuilderOutOfDateInspection inspection;
+
+    @Mock private StaleBuilderDetector staleBuilderDetector;
+    @Mock private InspectionManager manager;
+    @Mock private PsiClass builder;
+    @Mock private PsiClass target;
+    @Mock private PsiIdentifier nameIdentifier;
+    @Mock private ProblemDescriptor problemDescriptor;
+
+    @BeforeEach
+    public void setUp() {
+        inspection = new BuilderOutOfDateInspection();
+        setField(inspection, "staleBuilderDetector", staleBuilderDetector);
+        given(builder.getNameIdentifier()).willReturn(nameIdentifier);
+    }
+
+    @Test
+    void shouldNotReportBuilderThatIsUpToDate() {
+        // given
+        given(staleBuilderDetector.detect(builder)).willReturn(null);
+
+        // when
+        ProblemDescriptor[] result = inspection.checkClass(builder, manager, true);
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(manager);
+    }
+
+    @Test
+    void shouldReportMissingFieldsWithRegenerateQuickFix() {
+        // given
+        given(target.getName()).willReturn("Person");
+        given(staleBuilderDetector.detect(builder)).willReturn(new StaleBuilder(builder, target, false, List.of("age", "email")));
+        ArgumentCaptor<LocalQuickFix[]> fixes = ArgumentCaptor.forClass(LocalQuickFix[].class);
+        given(manager.createProblemDescriptor(eq(nameIdentifier), eq("Builder is missing fields of Person: age, email"), eq(true),
+                fixes.capture(), eq(ProblemHighlightType.GENERIC_ERROR_OR_WARNING))).willReturn(problemDescriptor);
+
+        // when
+        ProblemDescriptor[] result = inspection.checkClass(builder, manager, true);
+
+        // then
+        assertThat(result).containsExactly(problemDescriptor);
+        assertThat(fixes.getValue()).hasOnlyElementsOfType(RegenerateBuilderQuickFix.class).hasSize(1);
+    }
+}
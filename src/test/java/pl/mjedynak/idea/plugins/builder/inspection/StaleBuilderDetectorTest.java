@@ -0,0 +1,123 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class StaleBuilderDetectorTest {
+
+    private StaleBuilderDetector staleBuilderDetector;
+
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private BuilderFingerprints builderFingerprints;
+    @Mock(strictness = LENIENT) private PsiClass builder;
+    @Mock(strictness = LENIENT) private PsiClass target;
+
+    @BeforeEach
+    public void setUp() {
+        staleBuilderDetector = new StaleBuilderDetector(builderVerifier, builderFinder, builderFingerprints);
+        given(builder.getName()).willReturn("PersonBuilder");
+        given(builder.getFields()).willReturn(new PsiField[0]);
+        given(target.getName()).willReturn("Person");
+        given(target.getQualifiedName()).willReturn("com.example.Person");
+    }
+
+    @Test
+    void shouldNotCheckClassesThatAreNotBuilders() {
+        // given
+        given(builderVerifier.isBuilder(builder)).willReturn(false);
+
+        // when
+        StaleBuilder result = staleBuilderDetector.detect(builder);
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(builderFingerprints);
+    }
+
+    @Test
+    void shouldNotDetectBuilderHavingAllFieldsOfTarget() {
+        // given
+        given(builderVerifier.isBuilder(builder)).willReturn(true);
+        given(builderFinder.findClassForBuilder(builder)).willReturn(target);
+        given(builderFingerprints.builderFieldNames(builder)).willReturn(ImmutableSet.of("name", "age"));
+        given(builderFingerprints.expectedFieldNames(target, false)).willReturn(ImmutableSet.of("age", "name"));
+
+        // when
+        StaleBuilder result = staleBuilderDetector.detect(builder);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldDetectMissingFieldsInSortedOrder() {
+        // given
+        given(builderVerifier.isBuilder(builder)).willReturn(true);
+        given(builderFinder.findClassForBuilder(builder)).willReturn(target);
+        given(builderFingerprints.builderFieldNames(builder)).willReturn(ImmutableSet.of("name"));
+        given(builderFingerprints.expectedFieldNames(target, false)).willReturn(ImmutableSet.of("name", "email", "age"));
+
+        // when
+        StaleBuilder result = staleBuilderDetector.detect(builder);
+
+        // then
+        assertThat(result.getBuilder()).isEqualTo(builder);
+        assertThat(result.getTarget()).isEqualTo(target);
+        assertThat(result.isInnerBuilder()).isFalse();
+        assertThat(result.getMissingFieldNames()).containsExactly("age", "email");
+    }
+
+    @Test
+    void shouldCompareInnerBuilderWithOuterClass() {
+        // given
+        given(builder.getName()).willReturn("Builder");
+        given(builder.getContainingClass()).willReturn(target);
+        given(builderVerifier.isBuilder(builder)).willReturn(true);
+        given(builderVerifier.isBuilder(target)).willReturn(false);
+        given(builderFingerprints.builderFieldNames(builder)).willReturn(ImmutableSet.of("name"));
+        given(builderFingerprints.expectedFieldNames(target, true)).willReturn(ImmutableSet.of("name"));
+
+        // when
+        StaleBuilder result = staleBuilderDetector.detect(builder);
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(builderFinder);
+    }
+
+    @Test
+    void shouldNotDetectSingleFieldBuilder(@Mock PsiField sourceField, @Mock PsiType sourceType) {
+        // given
+        given(builderVerifier.isBuilder(builder)).willReturn(true);
+        given(builderFinder.findClassForBuilder(builder)).willReturn(target);
+        given(builder.getFields()).willReturn(new PsiField[]{sourceField});
+        given(sourceField.hasModifierProperty(PsiModifier.STATIC)).willReturn(false);
+        given(sourceField.getName()).willReturn("person");
+        given(sourceField.getType()).willReturn(sourceType);
+        given(sourceType.getCanonicalText()).willReturn("com.example.Person");
+
+        // when
+        StaleBuilder result = staleBuilderDetector.detect(builder);
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(builderFingerprints);
+    }
+}
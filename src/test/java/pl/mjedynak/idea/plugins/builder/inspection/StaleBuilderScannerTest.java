@@ -0,0 +1,100 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.util.Processor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class StaleBuilderScannerTest {
+
+    private StaleBuilderScanner staleBuilderScanner;
+
+    @Mock private PsiHelper psiHelper;
+    @Mock private StaleBuilderDetector staleBuilderDetector;
+    @Mock private Application application;
+    @Mock private JobLauncher jobLauncher;
+    @Mock private PsiShortNamesCache psiShortNamesCache;
+    @Mock private Project project;
+    @Mock private GlobalSearchScope globalSearchScope;
+    @Mock private ProgressIndicator indicator;
+    @Mock private PsiClass upToDateBuilder;
+    @Mock private PsiClass staleBuilderClass;
+    @Mock private PsiClass target;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        staleBuilderScanner = new StaleBuilderScanner(psiHelper, new BuilderVerifier(), staleBuilderDetector);
+        given(project.getUserData(ArgumentMatchers.any())).willReturn(globalSearchScope);
+        given(psiHelper.getApplication()).willReturn(application);
+        given(psiHelper.getJobLauncher()).willReturn(jobLauncher);
+        given(psiHelper.getPsiShortNamesCache(project)).willReturn(psiShortNamesCache);
+        given(application.runReadAction(any(Computable.class))).willAnswer(invocation -> ((Computable<?>) invocation.getArgument(0)).compute());
+        given(jobLauncher.invokeConcurrentlyUnderProgress(anyList(), eq(indicator), any())).willAnswer(invocation -> {
+            List<PsiClass> candidates = invocation.getArgument(0);
+            Processor<PsiClass> processor = invocation.getArgument(2);
+            candidates.forEach(processor::process);
+            return true;
+        });
+    }
+
+    @Test
+    void shouldCompareOnlyClassesWithBuilderNamesAndReturnStaleOnes() {
+        // given
+        given(psiShortNamesCache.getAllClassNames()).willReturn(new String[]{"Person", "PersonBuilder", "AddressBuilder"});
+        given(psiShortNamesCache.getClassesByName("PersonBuilder", globalSearchScope)).willReturn(new PsiClass[]{staleBuilderClass});
+        given(psiShortNamesCache.getClassesByName("AddressBuilder", globalSearchScope)).willReturn(new PsiClass[]{upToDateBuilder});
+        given(staleBuilderClass.isValid()).willReturn(true);
+        given(upToDateBuilder.isValid()).willReturn(true);
+        StaleBuilder staleBuilder = new StaleBuilder(staleBuilderClass, target, false, List.of("age"));
+        given(staleBuilderDetector.detect(staleBuilderClass)).willReturn(staleBuilder);
+        given(staleBuilderDetector.detect(upToDateBuilder)).willReturn(null);
+
+        // when
+        List<StaleBuilder> result = staleBuilderScanner.scan(project, indicator);
+
+        // then
+        assertThat(result).containsExactly(staleBuilder);
+        verify(psiShortNamesCache, never()).getClassesByName(eq("Person"), any());
+        verify(indicator).setFraction(1.0);
+    }
+
+    @Test
+    void shouldSkipBuildersInvalidatedBeforeComparison() {
+        // given
+        given(psiShortNamesCache.getAllClassNames()).willReturn(new String[]{"PersonBuilder"});
+        given(psiShortNamesCache.getClassesByName("PersonBuilder", globalSearchScope)).willReturn(new PsiClass[]{staleBuilderClass});
+        given(staleBuilderClass.isValid()).willReturn(false);
+
+        // when
+        List<StaleBuilder> result = staleBuilderScanner.scan(project, indicator);
+
+        // then
+        assertThat(result).isEmpty();
+        verify(staleBuilderDetector, never()).detect(staleBuilderClass);
+    }
+}
@@ -0,0 +1,304 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.PsiTypeParameterList;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class AbstractBuilderCreatorTest {
+
+    private AbstractBuilderCreator abstractBuilderCreator;
+    @Mock(strictness = LENIENT) private CodeStyleSettings codeStyleSettings;
+    @Mock private PsiHelper psiHelper;
+    @Mock private PsiElementFactory elementFactory;
+    @Mock private PsiDirectory directory;
+    @Mock private PsiClass srcClass;
+    @Mock(strictness = LENIENT) private PsiClass superClass;
+
+    @BeforeEach
+    public void setUp() {
+        abstractBuilderCreator = new AbstractBuilderCreator(elementFactory);
+        setField(abstractBuilderCreator, "codeStyleSettings", codeStyleSettings);
+        setField(abstractBuilderCreator, "psiHelper", psiHelper);
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn("");
+        given(codeStyleSettings.getParameterNamePrefix()).willReturn("");
+        given(superClass.getName()).willReturn("Entity");
+        given(superClass.getQualifiedName()).willReturn("com.example.Entity");
+    }
+
+    @Test
+    void shouldNotTreatObjectAsBuilderableSuperClass() {
+        // given
+        PsiClass objectClass = mock(PsiClass.class);
+        given(srcClass.getSuperClass()).willReturn(objectClass);
+        given(objectClass.getQualifiedName()).willReturn("java.lang.Object");
+
+        // when
+        boolean result = abstractBuilderCreator.hasBuilderableSuperClass(srcClass);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldReuseAbstractBuilderAlreadyCreatedForAnotherSubclass() {
+        // given
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingBuilder = mock(PsiClass.class);
+        given(directory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingBuilder});
+
+        PsiField idField = mock(PsiField.class);
+        given(idField.getName()).willReturn("id");
+        given(existingBuilder.findFieldByName("id", false)).willReturn(idField);
+        given(existingBuilder.findMethodsByName("withId", false)).willReturn(new PsiMethod[]{mock(PsiMethod.class)});
+
+        // when
+        PsiClass result = abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(idField), "with", DefensiveCopyStrategy.NONE, List.of());
+
+        // then
+        assertThat(result).isSameAs(existingBuilder);
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldRefuseToReuseAbstractBuilderWithoutSetMethodForPrefix() {
+        // given
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingBuilder = mock(PsiClass.class);
+        given(directory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingBuilder});
+        given(existingBuilder.getName()).willReturn("AbstractEntityBuilder");
+        PsiField idField = mock(PsiField.class);
+        given(idField.getName()).willReturn("id");
+        given(existingBuilder.findFieldByName("id", false)).willReturn(idField);
+        given(existingBuilder.findMethodsByName("setId", false)).willReturn(new PsiMethod[0]);
+
+        // when / then
+        assertThatThrownBy(() -> abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(idField), "set", DefensiveCopyStrategy.NONE, List.of()))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("AbstractEntityBuilder has no setId for the inherited field id");
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldRefuseToReuseAbstractBuilderWithoutInheritedField() {
+        // given
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingBuilder = mock(PsiClass.class);
+        given(directory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingBuilder});
+        given(existingBuilder.getName()).willReturn("AbstractEntityBuilder");
+        PsiField versionField = mock(PsiField.class);
+        given(versionField.getName()).willReturn("version");
+
+        // when / then
+        assertThatThrownBy(() -> abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(versionField), "with",
+                DefensiveCopyStrategy.NONE, List.of()))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("withVersion");
+    }
+
+    @Test
+    void shouldVerifyExistingAbstractBuilderWithoutCreatingOne() {
+        // given
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingBuilder = mock(PsiClass.class);
+        given(directory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingBuilder});
+        given(existingBuilder.getName()).willReturn("AbstractEntityBuilder");
+        PsiField versionField = mock(PsiField.class);
+        given(versionField.getName()).willReturn("version");
+
+        // when / then
+        assertThatThrownBy(() -> abstractBuilderCreator.verifyReusable(directory, superClass, List.of(versionField), "with", List.of()))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("withVersion");
+        verifyNoInteractions(psiHelper, elementFactory);
+    }
+
+    @Test
+    void shouldCreateAbstractBuilderOutsideProjectWithoutDirectory() {
+        // given
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        given(elementFactory.createClass("AbstractEntityBuilder")).willReturn(abstractBuilder);
+        given(abstractBuilder.getModifierList()).willReturn(mock(PsiModifierList.class));
+        given(abstractBuilder.getTypeParameterList()).willReturn(mock(PsiTypeParameterList.class));
+
+        // when
+        PsiClass result = abstractBuilderCreator.findOrCreateAbstractBuilder(null, superClass, List.of(), "with", DefensiveCopyStrategy.NONE, List.of());
+
+        // then
+        assertThat(result).isSameAs(abstractBuilder);
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldReturnNonAbstractOneArgumentMethodsAsSetMethods() {
+        // given
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        PsiMethod setMethod = mock(PsiMethod.class);
+        PsiMethod selfMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        given(abstractBuilder.getMethods()).willReturn(new PsiMethod[]{setMethod, selfMethod});
+        given(setMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(1);
+        given(selfMethod.hasModifierProperty(PsiModifier.ABSTRACT)).willReturn(true);
+
+        // when
+        List<PsiMethod> result = abstractBuilderCreator.setMethods(abstractBuilder);
+
+        // then
+        assertThat(result).containsExactly(setMethod);
+    }
+
+    @Test
+    void shouldCopyInheritedFieldsOnSetWhenStrategyCopiesOnSet() {
+        // given
+        JavaDirectoryService javaDirectoryService = mock(JavaDirectoryService.class);
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        given(javaDirectoryService.createClass(directory, "AbstractEntityBuilder")).willReturn(abstractBuilder);
+        given(abstractBuilder.getModifierList()).willReturn(mock(PsiModifierList.class));
+        given(abstractBuilder.getTypeParameterList()).willReturn(mock(PsiTypeParameterList.class));
+        PsiField tagsField = mock(PsiField.class);
+        PsiType tagsType = mock(PsiType.class);
+        given(tagsField.getName()).willReturn("tags");
+        given(tagsField.getType()).willReturn(tagsType);
+        given(tagsType.getCanonicalText()).willReturn("java.util.List<java.lang.String>");
+        PsiMethod setMethod = mock(PsiMethod.class);
+        String expectedText = "public B withTags(java.util.List<java.lang.String> tags) { this.tags = "
+                + DefensiveCopyStrategy.COPY_ON_SET.copyOf("java.util.List<java.lang.String>", "tags") + "; return self(); }";
+        given(elementFactory.createMethodFromText(expectedText, abstractBuilder)).willReturn(setMethod);
+
+        // when
+        abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(tagsField), "with", DefensiveCopyStrategy.COPY_ON_SET, List.of());
+
+        // then
+        verify(abstractBuilder).add(setMethod);
+    }
+
+    @Test
+    void shouldHandInheritedCollectionsFilledByAddersOverOnSet() {
+        // given
+        JavaDirectoryService javaDirectoryService = mock(JavaDirectoryService.class);
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        given(javaDirectoryService.createClass(directory, "AbstractEntityBuilder")).willReturn(abstractBuilder);
+        given(abstractBuilder.getModifierList()).willReturn(mock(PsiModifierList.class));
+        given(abstractBuilder.getTypeParameterList()).willReturn(mock(PsiTypeParameterList.class));
+        PsiField tagsField = mock(PsiField.class);
+        PsiType tagsType = mock(PsiType.class);
+        given(tagsField.getName()).willReturn("tags");
+        given(tagsField.getType()).willReturn(tagsType);
+        given(tagsType.getCanonicalText()).willReturn("java.util.List<java.lang.String>");
+        PsiField ownedField = mock(PsiField.class);
+        given(elementFactory.createFieldFromText("protected boolean tagsOwned;", abstractBuilder)).willReturn(ownedField);
+        PsiMethod setMethod = mock(PsiMethod.class);
+        String expectedText = "public B withTags(java.util.List<java.lang.String> tags) { this.tags = tags; this.tagsOwned = false; return self(); }";
+        given(elementFactory.createMethodFromText(expectedText, abstractBuilder)).willReturn(setMethod);
+
+        // when
+        abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(tagsField), "with", DefensiveCopyStrategy.NONE, List.of(tagsField));
+
+        // then
+        verify(abstractBuilder).add(ownedField);
+        verify(abstractBuilder).add(setMethod);
+    }
+
+    @Test
+    void shouldRefuseToReuseAbstractBuilderWithoutOwnedFlagOfCollectionFilledByAdders() {
+        // given
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingBuilder = mock(PsiClass.class);
+        given(directory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingBuilder});
+        given(existingBuilder.getName()).willReturn("AbstractEntityBuilder");
+        PsiField tagsField = mock(PsiField.class);
+        given(tagsField.getName()).willReturn("tags");
+        given(existingBuilder.findFieldByName("tags", false)).willReturn(tagsField);
+        given(existingBuilder.findMethodsByName("withTags", false)).willReturn(new PsiMethod[]{mock(PsiMethod.class)});
+
+        // when / then
+        assertThatThrownBy(() -> abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(tagsField), "with",
+                DefensiveCopyStrategy.NONE, List.of(tagsField)))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("AbstractEntityBuilder has no tagsOwned for the adders of the inherited field tags");
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldCreateSelfTypedAbstractBuilderWithInheritedFields() {
+        // given
+        JavaDirectoryService javaDirectoryService = mock(JavaDirectoryService.class);
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        PsiModifierList modifierList = mock(PsiModifierList.class);
+        PsiTypeParameterList typeParameterList = mock(PsiTypeParameterList.class);
+        PsiTypeParameter entityParameter = mock(PsiTypeParameter.class);
+        PsiTypeParameter builderParameter = mock(PsiTypeParameter.class);
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        given(javaDirectoryService.createClass(directory, "AbstractEntityBuilder")).willReturn(abstractBuilder);
+        given(abstractBuilder.getModifierList()).willReturn(modifierList);
+        given(abstractBuilder.getTypeParameterList()).willReturn(typeParameterList);
+        given(elementFactory.createTypeParameterFromText("T extends com.example.Entity", abstractBuilder)).willReturn(entityParameter);
+        given(elementFactory.createTypeParameterFromText("B extends AbstractEntityBuilder<T, B>", abstractBuilder)).willReturn(builderParameter);
+
+        PsiField idField = mock(PsiField.class);
+        PsiType idType = mock(PsiType.class);
+        given(idField.getName()).willReturn("id");
+        given(idField.getType()).willReturn(idType);
+        given(idType.getCanonicalText()).willReturn("long");
+        PsiField field = mock(PsiField.class);
+        PsiMethod setMethod = mock(PsiMethod.class);
+        PsiMethod selfMethod = mock(PsiMethod.class);
+        PsiMethod buildMethod = mock(PsiMethod.class);
+        given(elementFactory.createFieldFromText("protected long id;", abstractBuilder)).willReturn(field);
+        given(elementFactory.createMethodFromText("public B withId(long id) { this.id = id; return self(); }", abstractBuilder)).willReturn(setMethod);
+        given(elementFactory.createMethodFromText("protected abstract B self();", abstractBuilder)).willReturn(selfMethod);
+        given(elementFactory.createMethodFromText("public abstract T build();", abstractBuilder)).willReturn(buildMethod);
+
+        // when
+        PsiClass result = abstractBuilderCreator.findOrCreateAbstractBuilder(directory, superClass, List.of(idField), "with", DefensiveCopyStrategy.NONE, List.of());
+
+        // then
+        assertThat(result).isSameAs(abstractBuilder);
+        verify(modifierList).setModifierProperty(PsiModifier.ABSTRACT, true);
+        verify(typeParameterList).add(entityParameter);
+        verify(typeParameterList).add(builderParameter);
+        verify(abstractBuilder).add(field);
+        verify(abstractBuilder).add(setMethod);
+        verify(abstractBuilder).add(selfMethod);
+        verify(abstractBuilder).add(buildMethod);
+        verify(modifierList, never()).setModifierProperty(PsiModifier.FINAL, true);
+    }
+}
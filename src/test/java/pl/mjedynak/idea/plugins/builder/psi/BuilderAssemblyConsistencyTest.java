@@ -0,0 +1,202 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.builder.core.BuilderSourceRenderer;
+import pl.mjedynak.builder.core.ConstructorSelector;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.ConstructorModel;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderModelFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Builds the same selections of an external builder with the plugin, on PSI, and with the compilation unit renderer
+ * of the annotation processor, on the model the plugin hands to it, and expects the same constructor and the same
+ * build() from both.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BuilderAssemblyConsistencyTest {
+
+    private static final String BUILDER_CLASS_NAME = "PersonBuilder";
+
+    private final BuilderModelFactory builderModelFactory = new BuilderModelFactory();
+    private final BuilderSourceRenderer builderSourceRenderer = new BuilderSourceRenderer();
+    private final BestConstructorSelector bestConstructorSelector = new BestConstructorSelector();
+    private final ConstructorSelector constructorSelector = new ConstructorSelector("", "");
+    private final List<String> renderedMethods = new ArrayList<>();
+    private BuilderPsiClassBuilder psiClassBuilder;
+
+    @Mock(strictness = LENIENT) private PsiHelper psiHelper;
+    @Mock(strictness = LENIENT) private JavaDirectoryService javaDirectoryService;
+    @Mock(strictness = LENIENT) private JavaPsiFacade javaPsiFacade;
+    @Mock(strictness = LENIENT) private PsiElementFactory elementFactory;
+    @Mock(strictness = LENIENT) private PsiClass srcClass;
+    @Mock(strictness = LENIENT) private PsiClass builderClass;
+    @Mock(strictness = LENIENT) private PsiModifierList modifierList;
+    @Mock(strictness = LENIENT) private PsiMethod method;
+    @Mock private Project project;
+    @Mock private PsiDirectory targetDirectory;
+
+    @BeforeEach
+    public void setUp() {
+        psiClassBuilder = new BuilderPsiClassBuilder();
+        setField(psiClassBuilder, "psiHelper", psiHelper);
+        setField(builderModelFactory, "psiHelper", psiHelper);
+        given(psiHelper.getJavaPsiFacade(project)).willReturn(javaPsiFacade);
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        given(javaPsiFacade.getElementFactory()).willReturn(elementFactory);
+        given(javaDirectoryService.createClass(targetDirectory, BUILDER_CLASS_NAME)).willReturn(builderClass);
+        given(elementFactory.createClass(BUILDER_CLASS_NAME)).willReturn(builderClass);
+        given(builderClass.getModifierList()).willReturn(modifierList);
+        given(elementFactory.createMethodFromText(anyString(), any(PsiElement.class))).willAnswer(invocation -> {
+            renderedMethods.add(invocation.getArgument(0));
+            return method;
+        });
+        given(srcClass.getName()).willReturn("Person");
+    }
+
+    @Test
+    void shouldBuildThroughSameConstructorAndSetters() {
+        // given
+        PsiField name = field("name", PsiType.INT);
+        PsiField age = field("age", PsiType.LONG);
+        PsiMethod constructor = constructor(parameter("name", PsiType.INT), parameter("active", PsiType.BOOLEAN));
+
+        // when
+        String pluginBuildMethod = pluginBuildMethod(List.of(age), List.of(name), List.of(age, name), constructor);
+
+        // then
+        assertThat(pluginBuildMethod).isEqualTo(coreBuildMethod(List.of(age), List.of(name), List.of(age, name), constructor));
+    }
+
+    @Test
+    void shouldBuildInlineWhenConstructorTakesEverySelectedField() {
+        // given
+        PsiField name = field("name", PsiType.INT);
+        PsiField age = field("age", PsiType.LONG);
+        PsiMethod constructor = constructor(parameter("age", PsiType.LONG), parameter("name", PsiType.INT));
+
+        // when
+        String pluginBuildMethod = pluginBuildMethod(List.of(), List.of(name, age), List.of(name, age), constructor);
+
+        // then
+        assertThat(pluginBuildMethod).isEqualTo("public Person build() { return new Person(age,name); }");
+        assertThat(pluginBuildMethod).isEqualTo(coreBuildMethod(List.of(), List.of(name, age), List.of(name, age), constructor));
+    }
+
+    @Test
+    void shouldNotBuildInlineWhenSelectedFieldCannotBeSet() {
+        // given
+        PsiField name = field("name", PsiType.INT);
+        PsiField age = field("age", PsiType.LONG);
+        PsiMethod constructor = constructor(parameter("name", PsiType.INT));
+
+        // when
+        String pluginBuildMethod = pluginBuildMethod(List.of(), List.of(name), List.of(name, age), constructor);
+
+        // then
+        assertThat(pluginBuildMethod).isEqualTo(coreBuildMethod(List.of(), List.of(name), List.of(name, age), constructor));
+    }
+
+    @Test
+    void shouldSelectSameConstructor() {
+        // given
+        PsiField name = field("name", PsiType.INT);
+        PsiField age = field("age", PsiType.LONG);
+        PsiMethod byName = constructor(parameter("name", PsiType.INT), parameter("nick", PsiType.CHAR));
+        PsiMethod byAge = constructor(parameter("age", PsiType.LONG), parameter("score", PsiType.DOUBLE));
+        PsiMethod byBoth = constructor(parameter("age", PsiType.LONG), parameter("name", PsiType.INT), parameter("nick", PsiType.CHAR));
+        given(srcClass.getConstructors()).willReturn(new PsiMethod[]{byName, byAge, byBoth});
+        List<ConstructorModel> constructorModels = List.of(constructorModel(byName), constructorModel(byAge), constructorModel(byBoth));
+
+        // when
+        PsiMethod result = bestConstructorSelector.getBestConstructor(List.of(name, age), srcClass);
+
+        // then
+        assertThat(result).isEqualTo(byBoth);
+        assertThat(constructorSelector.getBestConstructor(model(List.of(), List.of(name, age), List.of(name, age), null).getAllSelectedFields(),
+                constructorModels)).isSameAs(constructorModels.get(2));
+    }
+
+    private String pluginBuildMethod(List<PsiField> fieldsForSetters, List<PsiField> fieldsForConstructor, List<PsiField> allSelectedFields,
+                                     PsiMethod constructor) {
+        BuilderContext context = context(fieldsForSetters, fieldsForConstructor, allSelectedFields, constructor);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        builder.build();
+        return renderedMethods.get(renderedMethods.size() - 1);
+    }
+
+    private String coreBuildMethod(List<PsiField> fieldsForSetters, List<PsiField> fieldsForConstructor, List<PsiField> allSelectedFields,
+                                   PsiMethod constructor) {
+        List<String> members = builderSourceRenderer.renderMembers(model(fieldsForSetters, fieldsForConstructor, allSelectedFields, constructor));
+        return members.get(members.size() - 1);
+    }
+
+    private BuilderModel model(List<PsiField> fieldsForSetters, List<PsiField> fieldsForConstructor, List<PsiField> allSelectedFields,
+                               PsiMethod constructor) {
+        return builderModelFactory.createBuilderModel(context(fieldsForSetters, fieldsForConstructor, allSelectedFields, constructor));
+    }
+
+    private BuilderContext context(List<PsiField> fieldsForSetters, List<PsiField> fieldsForConstructor, List<PsiField> allSelectedFields,
+                                   PsiMethod constructor) {
+        PsiFieldsForBuilder psiFieldsForBuilder = new PsiFieldsForBuilder(fieldsForSetters, fieldsForConstructor, allSelectedFields, constructor);
+        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, BUILDER_CLASS_NAME, srcClass, "with", false, false, false);
+    }
+
+    private ConstructorModel constructorModel(PsiMethod constructor) {
+        return model(List.of(), List.of(), List.of(), constructor).getConstructor();
+    }
+
+    private static PsiField field(String name, PsiType type) {
+        PsiField psiField = mock(PsiField.class, withSettings().strictness(Strictness.LENIENT));
+        given(psiField.getName()).willReturn(name);
+        given(psiField.getType()).willReturn(type);
+        return psiField;
+    }
+
+    private static PsiParameter parameter(String name, PsiType type) {
+        PsiParameter psiParameter = mock(PsiParameter.class, withSettings().strictness(Strictness.LENIENT));
+        given(psiParameter.getName()).willReturn(name);
+        given(psiParameter.getType()).willReturn(type);
+        return psiParameter;
+    }
+
+    private static PsiMethod constructor(PsiParameter... parameters) {
+        PsiMethod constructor = mock(PsiMethod.class, withSettings().strictness(Strictness.LENIENT));
+        PsiParameterList parameterList = mock(PsiParameterList.class, withSettings().strictness(Strictness.LENIENT));
+        given(constructor.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(parameters);
+        given(parameterList.getParametersCount()).willReturn(parameters.length);
+        return constructor;
+    }
+}
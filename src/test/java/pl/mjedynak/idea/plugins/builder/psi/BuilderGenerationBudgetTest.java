@@ -0,0 +1,219 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Runs field selection and builder generation on a synthetic JavaBean and fails when the work stops growing linearly
+ * with the number of fields, exceeds its allocation or time budget, or modifies the builder class more often than once
+ * per generated member. Allocations are counted for the calling thread only, after warming up, and the budgets leave
+ * room for the bookkeeping of the mocks.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BuilderGenerationBudgetTest {
+
+    private static final int FIELD_COUNT = 200;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final long FIELD_SELECTION_BYTES_PER_FIELD = 128 * 1024;
+    private static final long GENERATION_BYTES_PER_FIELD = 256 * 1024;
+    private static final double MAX_GROWTH_WHEN_FIELDS_DOUBLE = 2.5;
+    private static final long TIME_BUDGET_MILLIS = 250;
+    private static final int MEMBERS_OTHER_THAN_SET_METHODS = 3;
+    private static final String BUILDER_CLASS_NAME = "PersonBuilder";
+    private static final String METHOD_PREFIX = "with";
+
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderPsiClassBuilder psiClassBuilder;
+    private int builderClassModifications;
+
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiFieldVerifier psiFieldVerifier;
+    @Mock(stubOnly = true, strictness = LENIENT) private BestConstructorSelector bestConstructorSelector;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiHelper psiHelper;
+    @Mock(stubOnly = true, strictness = LENIENT) private JavaDirectoryService javaDirectoryService;
+    @Mock(stubOnly = true, strictness = LENIENT) private JavaPsiFacade javaPsiFacade;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiElementFactory elementFactory;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass srcClass;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiClass builderClass;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiModifierList modifierList;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiMethod method;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiMethod defaultConstructor;
+    @Mock(stubOnly = true, strictness = LENIENT) private PsiType stringType;
+    @Mock private PsiFieldsModifier psiFieldsModifier;
+    @Mock private Project project;
+    @Mock private PsiDirectory targetDirectory;
+
+    @BeforeEach
+    public void setUp() {
+        psiFieldsForBuilderFactory = new PsiFieldsForBuilderFactory(psiFieldVerifier, bestConstructorSelector);
+        psiClassBuilder = new BuilderPsiClassBuilder();
+        setField(psiClassBuilder, "psiHelper", psiHelper);
+        setField(psiClassBuilder, "psiFieldsModifier", psiFieldsModifier);
+        given(psiFieldVerifier.isSetInSetterMethod(any(PsiField.class), eq(srcClass))).willReturn(true);
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(srcClass))).willReturn(defaultConstructor);
+        given(psiHelper.getJavaPsiFacade(project)).willReturn(javaPsiFacade);
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        given(javaPsiFacade.getElementFactory()).willReturn(elementFactory);
+        given(javaDirectoryService.createClass(targetDirectory, BUILDER_CLASS_NAME)).willReturn(builderClass);
+        given(builderClass.getModifierList()).willReturn(modifierList);
+        given(builderClass.add(any(PsiElement.class))).willAnswer(invocation -> {
+            builderClassModifications++;
+            return invocation.getArgument(0);
+        });
+        given(elementFactory.createConstructor()).willReturn(method);
+        given(elementFactory.createMethodFromText(anyString(), any(PsiElement.class))).willReturn(method);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(srcClass.getName()).willReturn("Person");
+        given(stringType.getCanonicalText()).willReturn("java.lang.String");
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldSelectFieldsWithinAllocationBudgetGrowingLinearlyWithFields() {
+        // given
+        List<PsiElementClassMember> halfOfMembers = members(syntheticFields(FIELD_COUNT / 2));
+        List<PsiElementClassMember> allMembers = members(syntheticFields(FIELD_COUNT));
+
+        // when
+        long halfOfFieldsBytes = allocatedBytes(() -> psiFieldsForBuilderFactory.createPsiFieldsForBuilder(halfOfMembers, srcClass));
+        long allFieldsBytes = allocatedBytes(() -> psiFieldsForBuilderFactory.createPsiFieldsForBuilder(allMembers, srcClass));
+
+        // then
+        assertThat(allFieldsBytes).isLessThanOrEqualTo(FIELD_COUNT * FIELD_SELECTION_BYTES_PER_FIELD);
+        assertThat((double) allFieldsBytes).isLessThanOrEqualTo(halfOfFieldsBytes * MAX_GROWTH_WHEN_FIELDS_DOUBLE);
+    }
+
+    @Test
+    void shouldGenerateBuilderWithinAllocationBudgetGrowingLinearlyWithFields() {
+        // given
+        PsiFieldsForBuilder halfOfFields = fieldsForSetters(syntheticFields(FIELD_COUNT / 2));
+        PsiFieldsForBuilder allFields = fieldsForSetters(syntheticFields(FIELD_COUNT));
+
+        // when
+        long halfOfFieldsBytes = allocatedBytes(() -> generateBuilder(halfOfFields));
+        long allFieldsBytes = allocatedBytes(() -> generateBuilder(allFields));
+
+        // then
+        assertThat(allFieldsBytes).isLessThanOrEqualTo(FIELD_COUNT * GENERATION_BYTES_PER_FIELD);
+        assertThat((double) allFieldsBytes).isLessThanOrEqualTo(halfOfFieldsBytes * MAX_GROWTH_WHEN_FIELDS_DOUBLE);
+    }
+
+    @Test
+    void shouldModifyBuilderClassOncePerGeneratedMember() {
+        // given
+        List<PsiField> fields = syntheticFields(FIELD_COUNT);
+        PsiFieldsForBuilder psiFieldsForBuilder = fieldsForSetters(fields);
+        builderClassModifications = 0;
+
+        // when
+        PsiClass result = generateBuilder(psiFieldsForBuilder);
+
+        // then
+        assertThat(result).isSameAs(builderClass);
+        assertThat(builderClassModifications).isEqualTo(FIELD_COUNT + MEMBERS_OTHER_THAN_SET_METHODS);
+        verify(psiFieldsModifier).modifyFields(fields, List.of(), builderClass);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void shouldSelectFieldsAndGenerateBuilderWithinTimeBudget() {
+        // given
+        List<PsiElementClassMember> members = members(syntheticFields(FIELD_COUNT));
+        Runnable generation = () -> generateBuilder(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass));
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            generation.run();
+        }
+
+        // when
+        long start = System.nanoTime();
+        generation.run();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then
+        assertThat(elapsedMillis).isLessThanOrEqualTo(TIME_BUDGET_MILLIS);
+    }
+
+    private PsiClass generateBuilder(PsiFieldsForBuilder psiFieldsForBuilder) {
+        BuilderContext context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, BUILDER_CLASS_NAME, srcClass, METHOD_PREFIX, false,
+                false, false);
+        return psiClassBuilder.aBuilder(context)
+                .withFields()
+                .withPrivateConstructor()
+                .withInitializingMethod()
+                .withSetMethods(METHOD_PREFIX)
+                .build();
+    }
+
+    private static long allocatedBytes(Runnable work) {
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            work.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long start = threads.getThreadAllocatedBytes(thread);
+        work.run();
+        return threads.getThreadAllocatedBytes(thread) - start;
+    }
+
+    private List<PsiField> syntheticFields(int count) {
+        List<PsiField> fields = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PsiField field = mock(PsiField.class, withSettings().stubOnly().strictness(Strictness.LENIENT));
+            given(field.getName()).willReturn("field" + i);
+            given(field.getType()).willReturn(stringType);
+            fields.add(field);
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static List<PsiElementClassMember> members(List<PsiField> fields) {
+        List<PsiElementClassMember> members = new ArrayList<>();
+        for (PsiField field : fields) {
+            PsiElementClassMember member = mock(PsiElementClassMember.class, withSettings().stubOnly().strictness(Strictness.LENIENT));
+            given(member.getPsiElement()).willReturn(field);
+            members.add(member);
+        }
+        return members;
+    }
+
+    private static PsiFieldsForBuilder fieldsForSetters(List<PsiField> fields) {
+        return new PsiFieldsForBuilder(fields, List.of(), fields, null);
+    }
+}
@@ -5,16 +5,26 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.JavaDirectoryService;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiCodeBlock;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiJavaToken;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiStatement;
 import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.impl.source.PsiFieldImpl;
+import com.intellij.util.IncorrectOperationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,22 +35,36 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.builder.core.BatchBuilderRenderer;
+import pl.mjedynak.builder.core.BinaryCodecRenderer;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.builder.core.FlyweightRenderer;
+import pl.mjedynak.builder.core.JsonReaderRenderer;
+import pl.mjedynak.builder.core.model.BuilderModel;
+import pl.mjedynak.builder.core.model.BuilderOptions;
+import pl.mjedynak.builder.core.model.FieldModel;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderModelFactory;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.withSettings;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +76,16 @@ public class BuilderPsiClassBuilderTest {
     @Mock(strictness = Mock.Strictness.LENIENT) private PsiHelper psiHelper;
     @Mock private ButMethodCreator butMethodCreator;
     @Mock private MethodCreator methodCreator;
+    @Mock private CollectionMethodCreator collectionMethodCreator;
+    @Mock private CopyMethodCreator copyMethodCreator;
+    @Mock private WitherMethodCreator witherMethodCreator;
+    @Mock private BuilderModelFactory builderModelFactory;
+    @Mock private JsonReaderRenderer jsonReaderRenderer;
+    @Mock private BinaryCodecRenderer binaryCodecRenderer;
+    @Mock private FlyweightRenderer flyweightRenderer;
+    @Mock private BatchBuilderRenderer batchBuilderRenderer;
+    @Mock private AbstractBuilderCreator abstractBuilderCreator;
+    @Mock private JavaCodeStyleManager javaCodeStyleManager;
     @Mock private PsiFieldsModifier psiFieldsModifier;
     @Mock private Project project;
     @Mock private PsiDirectory targetDirectory;
@@ -67,9 +101,25 @@ public class BuilderPsiClassBuilderTest {
     @Mock(strictness = Mock.Strictness.LENIENT) private PsiFieldVerifier psiFieldVerifier;
 
     @Captor private ArgumentCaptor<String> stringCaptor;
+    @Captor private ArgumentCaptor<Iterable<PsiField>> fieldsCaptor;
 
     private BuilderContext createBuilderContext(boolean useSingleField) {
-        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix", false, false, useSingleField);
+        return createBuilderContext(useSingleField, false);
+    }
+
+    private BuilderContext createBuilderContext(boolean useSingleField, boolean hasCollectionAdders) {
+        return createBuilderContext(useSingleField, hasCollectionAdders, false);
+    }
+
+    private BuilderContext createBuilderContext(boolean useSingleField, boolean hasCollectionAdders, boolean usePrimitiveCollections) {
+        return createBuilderContext(useSingleField, hasCollectionAdders, usePrimitiveCollections, DefensiveCopyStrategy.NONE);
+    }
+
+    private BuilderContext createBuilderContext(boolean useSingleField, boolean hasCollectionAdders, boolean usePrimitiveCollections,
+                                                DefensiveCopyStrategy copyStrategy) {
+        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix", false, false, useSingleField,
+                aGeneratorOptions().withCollectionAdders(hasCollectionAdders).withPrimitiveCollections(usePrimitiveCollections).withCopyStrategy(copyStrategy)
+                        .build());
     }
 
     private void mockCodeStyleManager() {
@@ -116,6 +166,18 @@ public class BuilderPsiClassBuilderTest {
         verify(psiModifierList).setModifierProperty(PsiModifier.FINAL, true);
     }
 
+    @Test
+    void shouldCreateDetachedBuilderOutsideTargetDirectory() {
+        // when
+        BuilderPsiClassBuilder result = psiClassBuilder.aDetachedBuilder(context);
+
+        // then
+        assertFieldsAreSet(result);
+        verify(psiModifierList).setModifierProperty(PsiModifier.FINAL, true);
+        verify(psiModifierList, never()).setModifierProperty(PsiModifier.STATIC, true);
+        verifyNoInteractions(javaDirectoryService);
+    }
+
     @Test
     void shouldSetPassedFieldsAndCreateRequiredOnesForInnerBuilder() {
         // when
@@ -202,6 +264,58 @@ public class BuilderPsiClassBuilderTest {
         verify(builderClass).add(method);
     }
 
+    @Test
+    void shouldRejectCopyMethodBeforeCreatingBuilderWhenFieldHasNoGetter() {
+        // given
+        BuilderContext copyContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withCopyMethod(true).build());
+        PsiField ageField = mock(PsiField.class);
+        given(ageField.getName()).willReturn("age");
+        psiFieldsForSetters.add(ageField);
+        given(srcClass.getAllMethods()).willReturn(new PsiMethod[0]);
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(copyContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining(srcClassName + " has no getter for age");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldAddPooledInitializingMethodResetAndFreshMethodsWhenUsingThreadLocalPool() {
+        // given
+        BuilderContext poolContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withThreadLocalPool(true).build());
+        PsiField nameField = mock(PsiField.class);
+        PsiType nameType = mock(PsiType.class);
+        given(nameField.getName()).willReturn("name");
+        given(nameField.getType()).willReturn(nameType);
+        given(nameType.getCanonicalText()).willReturn("java.lang.String");
+        given(builderClass.getAllFields()).willReturn(new PsiField[]{nameField});
+        given(builderClass.getFields()).willReturn(new PsiField[]{nameField});
+        PsiMethod initializingMethod = mock(PsiMethod.class);
+        PsiField poolField = mock(PsiField.class);
+        PsiMethod freshMethod = mock(PsiMethod.class);
+        PsiMethod resetMethod = mock(PsiMethod.class);
+        given(elementFactory.createMethodFromText("public static " + builderClassName + " a" + srcClassName + "() { return POOL.get().reset(); }", srcClass))
+                .willReturn(initializingMethod);
+        given(elementFactory.createFieldFromText("private static final ThreadLocal<" + builderClassName + "> POOL = ThreadLocal.withInitial("
+                + builderClassName + "::new);", srcClass)).willReturn(poolField);
+        given(elementFactory.createMethodFromText("public static " + builderClassName + " fresh() { return new " + builderClassName + "(); }", srcClass))
+                .willReturn(freshMethod);
+        given(elementFactory.createMethodFromText("private " + builderClassName + " reset() { this.name = null; return this; }", srcClass))
+                .willReturn(resetMethod);
+
+        // when
+        psiClassBuilder.aBuilder(poolContext).withInitializingMethod().withThreadLocalPool();
+
+        // then
+        verify(builderClass).add(initializingMethod);
+        verify(builderClass).addAfter(poolField, nameField);
+        verify(builderClass).add(freshMethod);
+        verify(builderClass).add(resetMethod);
+    }
+
     @Test
     void shouldAddInitializingMethodStartingWithAnIfSourceClassNameStartsWithVowel() {
         // given
@@ -289,7 +403,7 @@ public class BuilderPsiClassBuilderTest {
     @Test
     void shouldAddButMethod() {
         // given
-        given(butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, false)).willReturn(psiMethod);
+        given(butMethodCreator.butMethod(builderClassName, List.of(), srcClass, srcClassFieldName, false, false, false)).willReturn(psiMethod);
         BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
         setField(builder, "butMethodCreator", butMethodCreator);
 
@@ -305,7 +419,25 @@ public class BuilderPsiClassBuilderTest {
     void shouldAddButMethodWhenUsingSingleField() {
         // given
         context = createBuilderContext(true);
-        given(butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, true)).willReturn(psiMethod);
+        given(butMethodCreator.butMethod(builderClassName, List.of(), srcClass, srcClassFieldName, true, false, false)).willReturn(psiMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "butMethodCreator", butMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withButMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(psiMethod);
+    }
+
+    @Test
+    void shouldAddButMethodCollectingPrimitiveCollectionsWhenUsingCollectionAdders() {
+        // given
+        context = createBuilderContext(false, true, true);
+        PsiMethod addedMethod = mock(PsiMethod.class);
+        given(butMethodCreator.butMethod(builderClassName, List.of(), srcClass, srcClassFieldName, false, true, false)).willReturn(psiMethod);
+        given(builderClass.add(psiMethod)).willReturn(addedMethod);
         BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
         setField(builder, "butMethodCreator", butMethodCreator);
 
@@ -317,6 +449,613 @@ public class BuilderPsiClassBuilderTest {
         verify(builderClass).add(psiMethod);
     }
 
+    @Test
+    void shouldAddCollectionMethodsForFieldsFromBothListsLeavingReferencesToWriter() {
+        // given
+        PsiField psiFieldForSetter = mock(PsiField.class);
+        psiFieldsForSetters.add(psiFieldForSetter);
+        PsiField psiFieldForConstructor = mock(PsiField.class);
+        psiFieldsForConstructor.add(psiFieldForConstructor);
+        String methodPrefix = "with";
+        PsiMethod adderMethod = mock(PsiMethod.class);
+        PsiMethod addedAdderMethod = mock(PsiMethod.class);
+        given(collectionMethodCreator.createMethods(psiFieldForSetter, methodPrefix)).willReturn(List.of(adderMethod));
+        given(collectionMethodCreator.createMethods(psiFieldForConstructor, methodPrefix)).willReturn(List.of());
+        given(builderClass.add(adderMethod)).willReturn(addedAdderMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCollectionMethods(methodPrefix);
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(adderMethod);
+        verify(psiHelper, never()).getJavaCodeStyleManager(project);
+    }
+
+    @Test
+    void shouldAddOwnedFlagForCollectionFilledByAdders() {
+        // given
+        context = createBuilderContext(false, true);
+        PsiField tagsField = mock(PsiField.class);
+        PsiClassType tagsType = mock(PsiClassType.class);
+        PsiClassType rawTagsType = mock(PsiClassType.class);
+        given(tagsField.getType()).willReturn(tagsType);
+        given(tagsType.rawType()).willReturn(rawTagsType);
+        given(rawTagsType.getCanonicalText()).willReturn("java.util.List");
+        given(tagsType.getParameters()).willReturn(new PsiType[]{mock(PsiClassType.class)});
+        psiFieldsForSetters.add(tagsField);
+        PsiField ownedField = mock(PsiField.class);
+        given(collectionMethodCreator.createOwnedField(tagsField)).willReturn(ownedField);
+        given(collectionMethodCreator.createMethods(tagsField, "with")).willReturn(List.of());
+        given(builderClass.getFields()).willReturn(new PsiField[0]);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        builder.withCollectionMethods("with");
+
+        // then
+        verify(builderClass).add(ownedField);
+    }
+
+    @Test
+    void shouldNotAddCollectionMethodsWhenUsingSingleField() {
+        // given
+        context = createBuilderContext(true);
+        allSelectedPsiFields.add(mock(PsiField.class));
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCollectionMethods("with");
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(collectionMethodCreator, never()).createMethods(eq(allSelectedPsiFields.get(0)), eq("with"));
+    }
+
+    @Test
+    void shouldAddToBuilderMethodToSourceClassReplacingExistingOneForInnerBuilder() {
+        // given
+        PsiField selectedField = mock(PsiField.class);
+        allSelectedPsiFields.add(selectedField);
+        PsiMethod existingMethod = mock(PsiMethod.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(existingMethod.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParametersCount()).willReturn(0);
+        given(srcClass.findMethodsByName("toBuilder", false)).willReturn(new PsiMethod[]{existingMethod});
+        given(copyMethodCreator.isCreatedToBuilderMethod(existingMethod, builderClassName)).willReturn(true);
+        given(copyMethodCreator.toBuilderMethod(builderClassName, allSelectedPsiFields, srcClass)).willReturn(psiMethod);
+        given(builderClass.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
+        BuilderPsiClassBuilder builder = psiClassBuilder.anInnerBuilder(context);
+        setField(builder, "copyMethodCreator", copyMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCopyMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(existingMethod).delete();
+        verify(srcClass).add(psiMethod);
+        assertThat(builder.getConflictingMethodNames()).isEmpty();
+    }
+
+    @Test
+    void shouldKeepToBuilderMethodWrittenByHandForInnerBuilder() {
+        // given
+        PsiMethod existingMethod = mock(PsiMethod.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(existingMethod.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParametersCount()).willReturn(0);
+        given(srcClass.findMethodsByName("toBuilder", false)).willReturn(new PsiMethod[]{existingMethod});
+        given(copyMethodCreator.isCreatedToBuilderMethod(existingMethod, builderClassName)).willReturn(false);
+        given(builderClass.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
+        BuilderPsiClassBuilder builder = psiClassBuilder.anInnerBuilder(context);
+        setField(builder, "copyMethodCreator", copyMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCopyMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(existingMethod, never()).delete();
+        verify(copyMethodCreator, never()).toBuilderMethod(builderClassName, allSelectedPsiFields, srcClass);
+        assertThat(builder.getConflictingMethodNames()).containsExactly("toBuilder");
+    }
+
+    @Test
+    void shouldAddFromMethodToBuilderForFieldsFromBothLists() {
+        // given
+        PsiField psiFieldForSetter = mock(PsiField.class);
+        psiFieldsForSetters.add(psiFieldForSetter);
+        PsiField psiFieldForConstructor = mock(PsiField.class);
+        psiFieldsForConstructor.add(psiFieldForConstructor);
+        given(copyMethodCreator.fromMethod(eq(builderClassName), fieldsCaptor.capture(), eq(srcClass), eq(srcClassFieldName))).willReturn(psiMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "copyMethodCreator", copyMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCopyMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        assertThat(fieldsCaptor.getValue()).containsExactly(psiFieldForSetter, psiFieldForConstructor);
+        verify(builderClass).add(psiMethod);
+    }
+
+    @Test
+    void shouldNotAddCopyMethodWhenUsingSingleField() {
+        // given
+        context = createBuilderContext(true);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "copyMethodCreator", copyMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withCopyMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verifyNoInteractions(copyMethodCreator);
+    }
+
+    @Test
+    void shouldAddJsonReaderRenderedFromBuilderModel() {
+        // given
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(), List.of(), List.of(), null,
+                new BuilderOptions("anyPrefix", "m_", "", false, false), false);
+        given(builderModelFactory.createBuilderModel(context)).willReturn(builderModel);
+        given(jsonReaderRenderer.renderReadMethod(builderModel)).willReturn("readJsonText");
+        given(elementFactory.createMethodFromText("readJsonText", srcClass)).willReturn(psiMethod);
+        given(builderClass.add(psiMethod)).willReturn(psiMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "builderModelFactory", builderModelFactory);
+        setField(builder, "jsonReaderRenderer", jsonReaderRenderer);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withJsonReader();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(psiMethod);
+    }
+
+    @Test
+    void shouldAddBinaryCodecReadingFieldsThroughTheirAccessors() {
+        // given
+        PsiField nameField = mock(PsiField.class);
+        given(nameField.getName()).willReturn("m_name");
+        PsiField activeField = mock(PsiField.class);
+        given(activeField.getName()).willReturn("m_active");
+        psiFieldsForSetters.add(nameField);
+        psiFieldsForConstructor.add(activeField);
+        given(psiFieldVerifier.findAccessorName(nameField, srcClass)).willReturn("getName");
+        given(psiFieldVerifier.findAccessorName(activeField, srcClass)).willReturn("isActive");
+        FieldModel nameFieldModel = new FieldModel("m_name", "java.lang.String");
+        FieldModel activeFieldModel = new FieldModel("m_active", "boolean");
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(nameFieldModel), List.of(activeFieldModel),
+                List.of(nameFieldModel, activeFieldModel), null, new BuilderOptions("anyPrefix", "m_", "", false, false), false);
+        given(builderModelFactory.createBuilderModel(context)).willReturn(builderModel);
+        given(binaryCodecRenderer.getEncodableFields(builderModel)).willReturn(List.of(nameFieldModel, activeFieldModel));
+        given(binaryCodecRenderer.renderMembers(builderModel, List.of(nameFieldModel, activeFieldModel),
+                Map.of("m_name", "getName", "m_active", "isActive"))).willReturn(List.of("writeText"));
+        given(elementFactory.createMethodFromText("writeText", srcClass)).willReturn(psiMethod);
+        given(builderClass.add(psiMethod)).willReturn(psiMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "builderModelFactory", builderModelFactory);
+        setField(builder, "binaryCodecRenderer", binaryCodecRenderer);
+        setField(builder, "psiFieldVerifier", psiFieldVerifier);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withBinaryCodec();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(psiMethod);
+    }
+
+    @Test
+    void shouldAddFlyweightAndViewClassesToBuilder() {
+        // given
+        FieldModel priceFieldModel = new FieldModel("price", "double");
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(priceFieldModel), List.of(),
+                List.of(priceFieldModel), null, new BuilderOptions("anyPrefix", "", "", false, false), false);
+        given(builderModelFactory.createBuilderModel(context)).willReturn(builderModel);
+        given(flyweightRenderer.getLayoutFields(builderModel)).willReturn(List.of(priceFieldModel));
+        given(flyweightRenderer.renderClasses(builderModel, List.of(priceFieldModel))).willReturn(List.of("flyweightText"));
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass flyweightClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText("flyweightText", srcClass)).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{flyweightClass});
+        given(builderClass.add(flyweightClass)).willReturn(flyweightClass);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "builderModelFactory", builderModelFactory);
+        setField(builder, "flyweightRenderer", flyweightRenderer);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withFlyweight();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(flyweightClass);
+    }
+
+    @Test
+    void shouldLeaveInheritedFieldsToSharedAbstractBuilder() {
+        // given
+        PsiClass superClass = mock(PsiClass.class);
+        PsiField ownField = mock(PsiField.class);
+        PsiField inheritedField = mock(PsiField.class);
+        given(srcClass.getSuperClass()).willReturn(superClass);
+        given(superClass.getQualifiedName()).willReturn("com.example.Entity");
+        given(ownField.getContainingClass()).willReturn(srcClass);
+        given(inheritedField.getContainingClass()).willReturn(superClass);
+        psiFieldsForSetters.add(ownField);
+        psiFieldsForSetters.add(inheritedField);
+        BuilderContext hierarchyContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withHierarchy(true).build());
+
+        PsiMethod ownSetMethod = mock(PsiMethod.class);
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        PsiReferenceList extendsList = mock(PsiReferenceList.class);
+        PsiJavaCodeReferenceElement extendsReference = mock(PsiJavaCodeReferenceElement.class);
+        PsiMethod selfMethod = mock(PsiMethod.class);
+        given(methodCreator.createMethod(ownField, "anyPrefix", srcClassFieldName, false)).willReturn(ownSetMethod);
+        given(abstractBuilderCreator.findOrCreateAbstractBuilder(targetDirectory, superClass, Set.of(inheritedField), "anyPrefix",
+                DefensiveCopyStrategy.NONE, Set.of())).willReturn(abstractBuilder);
+        given(abstractBuilderCreator.extendsReference(superClass, srcClassName, builderClassName, builderClass)).willReturn(extendsReference);
+        given(abstractBuilderCreator.selfMethod(builderClassName, builderClass)).willReturn(selfMethod);
+        given(builderClass.getExtendsList()).willReturn(extendsList);
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(hierarchyContext);
+        setField(builder, "methodCreator", methodCreator);
+        setField(builder, "abstractBuilderCreator", abstractBuilderCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withFields().withSetMethods("anyPrefix").withHierarchy();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(psiFieldsModifier).modifyFields(List.of(ownField), List.of(), builderClass);
+        verify(builderClass).add(ownSetMethod);
+        verify(methodCreator, never()).createMethod(inheritedField, "anyPrefix", srcClassFieldName, false);
+        verify(javaCodeStyleManager).shortenClassReferences(abstractBuilder);
+        verify(extendsList).add(extendsReference);
+        verify(builderClass).add(selfMethod);
+    }
+
+    @Test
+    void shouldVerifyExistingAbstractBuilderBeforeCreatingBuilder() {
+        // given
+        PsiClass superClass = mock(PsiClass.class);
+        PsiField inheritedField = mock(PsiField.class);
+        given(srcClass.getSuperClass()).willReturn(superClass);
+        given(superClass.getQualifiedName()).willReturn("com.example.Entity");
+        given(superClass.getName()).willReturn("Entity");
+        given(inheritedField.getContainingClass()).willReturn(superClass);
+        given(inheritedField.getName()).willReturn("version");
+        psiFieldsForSetters.add(inheritedField);
+        BuilderContext hierarchyContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withHierarchy(true).build());
+        PsiJavaFile existingFile = mock(PsiJavaFile.class);
+        PsiClass existingAbstractBuilder = mock(PsiClass.class);
+        given(targetDirectory.findFile("AbstractEntityBuilder.java")).willReturn(existingFile);
+        given(existingFile.getClasses()).willReturn(new PsiClass[]{existingAbstractBuilder});
+        given(existingAbstractBuilder.getName()).willReturn("AbstractEntityBuilder");
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(hierarchyContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("AbstractEntityBuilder has no anyPrefixVersion for the inherited field version");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldChainInitializingAndInheritedSetMethodsInButMethod() {
+        // given
+        PsiClass superClass = mock(PsiClass.class);
+        PsiField ownField = mock(PsiField.class);
+        PsiField inheritedField = mock(PsiField.class);
+        given(srcClass.getSuperClass()).willReturn(superClass);
+        given(superClass.getQualifiedName()).willReturn("com.example.Entity");
+        given(ownField.getContainingClass()).willReturn(srcClass);
+        given(inheritedField.getContainingClass()).willReturn(superClass);
+        psiFieldsForSetters.add(ownField);
+        psiFieldsForSetters.add(inheritedField);
+        BuilderContext hierarchyContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, true, false, aGeneratorOptions().withHierarchy(true).build());
+
+        PsiMethod initializingMethod = mock(PsiMethod.class);
+        PsiMethod ownSetMethod = mock(PsiMethod.class);
+        PsiMethod inheritedSetMethod = mock(PsiMethod.class);
+        PsiClass abstractBuilder = mock(PsiClass.class);
+        given(elementFactory.createMethodFromText("public static " + builderClassName + " aClassName() { return new " + builderClassName + "(); }",
+                srcClass)).willReturn(initializingMethod);
+        given(methodCreator.createMethod(ownField, "anyPrefix", srcClassFieldName, false)).willReturn(ownSetMethod);
+        given(abstractBuilderCreator.findOrCreateAbstractBuilder(targetDirectory, superClass, Set.of(inheritedField), "anyPrefix",
+                DefensiveCopyStrategy.NONE, Set.of())).willReturn(abstractBuilder);
+        given(abstractBuilderCreator.setMethods(abstractBuilder)).willReturn(List.of(inheritedSetMethod));
+        given(builderClass.getExtendsList()).willReturn(mock(PsiReferenceList.class));
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
+        given(butMethodCreator.butMethod(builderClassName, List.of(initializingMethod, ownSetMethod, inheritedSetMethod), srcClass, srcClassFieldName,
+                false, false, false)).willReturn(psiMethod);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(hierarchyContext);
+        setField(builder, "methodCreator", methodCreator);
+        setField(builder, "abstractBuilderCreator", abstractBuilderCreator);
+        setField(builder, "butMethodCreator", butMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withInitializingMethod().withSetMethods("anyPrefix").withHierarchy().withButMethod();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(psiMethod);
+    }
+
+    @Test
+    void shouldAddBatchBuilderClassToBuilder() {
+        // given
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(), List.of(), List.of(), null,
+                new BuilderOptions("anyPrefix", "", "", false, false), false);
+        given(builderModelFactory.createBuilderModel(context)).willReturn(builderModel);
+        given(batchBuilderRenderer.renderClass(builderModel, Set.of())).willReturn("batchBuilderText");
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass batchBuilderClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText("batchBuilderText", srcClass)).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{batchBuilderClass});
+        given(builderClass.add(batchBuilderClass)).willReturn(batchBuilderClass);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "builderModelFactory", builderModelFactory);
+        setField(builder, "batchBuilderRenderer", batchBuilderRenderer);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withBatchBuilder();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(builderClass).add(batchBuilderClass);
+    }
+
+    @Test
+    void shouldRejectBatchBuilderForFieldReferringToTypeVariable() {
+        // given
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(), List.of(), List.of(), null,
+                new BuilderOptions("anyPrefix", "", "", false, false), false);
+        PsiField valueField = mock(PsiField.class);
+        PsiTypeParameter typeParameter = mock(PsiTypeParameter.class);
+        given(valueField.getContainingClass()).willReturn(srcClass);
+        given(srcClass.getTypeParameters()).willReturn(new PsiTypeParameter[]{typeParameter});
+        given(typeParameter.getName()).willReturn("T");
+        allSelectedPsiFields.add(valueField);
+        given(builderModelFactory.createBuilderModel(context)).willReturn(builderModel);
+        given(batchBuilderRenderer.renderClass(builderModel, Set.of("T"))).willThrow(new IllegalArgumentException("refers to T"));
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "builderModelFactory", builderModelFactory);
+        setField(builder, "batchBuilderRenderer", batchBuilderRenderer);
+
+        // when / then
+        assertThatThrownBy(builder::withBatchBuilder)
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage("refers to T");
+    }
+
+    @Test
+    void shouldRejectBatchBuilderBeforeCreatingBuilderForFieldReferringToTypeVariable() {
+        // given
+        BuilderContext batchContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withBatchBuilder(true).build());
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(), List.of(), List.of(), null,
+                new BuilderOptions("anyPrefix", "", "", false, false), false);
+        PsiField valueField = mock(PsiField.class);
+        PsiTypeParameter typeParameter = mock(PsiTypeParameter.class);
+        given(valueField.getContainingClass()).willReturn(srcClass);
+        given(srcClass.getTypeParameters()).willReturn(new PsiTypeParameter[]{typeParameter});
+        given(typeParameter.getName()).willReturn("T");
+        allSelectedPsiFields.add(valueField);
+        given(builderModelFactory.createBuilderModel(batchContext)).willReturn(builderModel);
+        given(batchBuilderRenderer.renderClass(builderModel, Set.of("T"))).willThrow(new IllegalArgumentException("refers to T"));
+        setField(psiClassBuilder, "builderModelFactory", builderModelFactory);
+        setField(psiClassBuilder, "batchBuilderRenderer", batchBuilderRenderer);
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(batchContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage("refers to T");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldRejectBinaryCodecBeforeCreatingBuilderWhenFieldHasNoAccessor() {
+        // given
+        BuilderContext codecContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withBinaryCodec(true).build());
+        PsiField ageField = mock(PsiField.class);
+        psiFieldsForSetters.add(ageField);
+        FieldModel ageFieldModel = new FieldModel("m_age", "int");
+        BuilderModel builderModel = new BuilderModel("", srcClassName, builderClassName, List.of(ageFieldModel), List.of(),
+                List.of(ageFieldModel), null, new BuilderOptions("anyPrefix", "m_", "", false, false), false);
+        given(builderModelFactory.createBuilderModel(codecContext)).willReturn(builderModel);
+        given(binaryCodecRenderer.getEncodableFields(builderModel)).willReturn(List.of(ageFieldModel));
+        given(binaryCodecRenderer.renderMembers(builderModel, List.of(ageFieldModel), Map.of()))
+                .willThrow(new IllegalArgumentException("no accessor for m_age"));
+        setField(psiClassBuilder, "builderModelFactory", builderModelFactory);
+        setField(psiClassBuilder, "binaryCodecRenderer", binaryCodecRenderer);
+        setField(psiClassBuilder, "psiFieldVerifier", psiFieldVerifier);
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(codecContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage("no accessor for m_age");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldRejectWitherMethodsBeforeCreatingBuilderWhenConstructorTakesNoFields() {
+        // given
+        BuilderContext witherContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withWitherMethods(true).build());
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(witherContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage(srcClassName + " has no constructor taking its fields, which the wither methods would call");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldRejectMemoizedBuildBeforeCreatingBuilderWhenFieldIsSetAfterConstruction() {
+        // given
+        BuilderContext memoizedContext = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix",
+                false, false, false, aGeneratorOptions().withMemoizedBuild(true).build());
+        PsiField nameField = mock(PsiField.class);
+        allSelectedPsiFields.add(nameField);
+        psiFieldsForSetters.add(nameField);
+
+        // when / then
+        assertThatThrownBy(() -> psiClassBuilder.verify(memoizedContext))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage(srcClassName + " cannot have a memoized build, because not every selected field is passed to its constructor");
+        verify(javaDirectoryService, never()).createClass(targetDirectory, builderClassName);
+    }
+
+    @Test
+    void shouldAddWitherMethodsToSourceClassReplacingExistingOnes() {
+        // given
+        PsiMethod witherMethod = mock(PsiMethod.class);
+        given(witherMethod.getName()).willReturn("withAge");
+        PsiMethod existingMethod = mock(PsiMethod.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(existingMethod.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParametersCount()).willReturn(1);
+        given(srcClass.findMethodsByName("withAge", false)).willReturn(new PsiMethod[]{existingMethod});
+        given(witherMethodCreator.isCreatedMethod(existingMethod, srcClass)).willReturn(true);
+        given(witherMethodCreator.createMethods(allSelectedPsiFields, bestConstructor, srcClass)).willReturn(List.of(witherMethod));
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "witherMethodCreator", witherMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withWitherMethods();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(existingMethod).delete();
+        verify(srcClass).add(witherMethod);
+    }
+
+    @Test
+    void shouldKeepWitherMethodsWrittenByHand() {
+        // given
+        PsiMethod witherMethod = mock(PsiMethod.class);
+        given(witherMethod.getName()).willReturn("withAge");
+        PsiMethod existingMethod = mock(PsiMethod.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(existingMethod.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParametersCount()).willReturn(1);
+        given(srcClass.findMethodsByName("withAge", false)).willReturn(new PsiMethod[]{existingMethod});
+        given(witherMethodCreator.isCreatedMethod(existingMethod, srcClass)).willReturn(false);
+        given(witherMethodCreator.createMethods(allSelectedPsiFields, bestConstructor, srcClass)).willReturn(List.of(witherMethod));
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "witherMethodCreator", witherMethodCreator);
+
+        // when
+        BuilderPsiClassBuilder result = builder.withWitherMethods();
+
+        // then
+        assertThat(result).isSameAs(psiClassBuilder);
+        verify(existingMethod, never()).delete();
+        verify(srcClass, never()).add(witherMethod);
+        assertThat(builder.getConflictingMethodNames()).containsExactly("withAge");
+    }
+
+    @Test
+    void shouldAddArrayBackingFieldsAfterLastFieldAndCollectThemInBuildMethod() {
+        // given
+        context = createBuilderContext(false, true, true);
+        PsiField scoresField = mock(PsiField.class);
+        psiFieldsForSetters.add(scoresField);
+        allSelectedPsiFields.add(scoresField);
+        given(scoresField.getName()).willReturn("scores");
+        PsiField lastField = mock(PsiField.class);
+        PsiField valuesField = mock(PsiField.class);
+        PsiField addedValuesField = mock(PsiField.class);
+        given(builderClass.getFields()).willReturn(new PsiField[]{lastField});
+        given(builderClass.addAfter(valuesField, lastField)).willReturn(addedValuesField);
+        given(collectionMethodCreator.isBackedByPrimitiveArray(scoresField)).willReturn(true);
+        given(collectionMethodCreator.createFields(scoresField)).willReturn(List.of(valuesField));
+        given(collectionMethodCreator.createMethods(scoresField, "with")).willReturn(List.of());
+        given(collectionMethodCreator.collectMethodName(scoresField)).willReturn("collectScores");
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(EMPTY_PSI_PARAMETERS);
+        String expectedCode = "public " + srcClassName + " build() { "
+                + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "();"
+                + srcClassFieldName + ".setScores(collectScores());return " + srcClassFieldName + "; }";
+        PsiMethod method = mock(PsiMethod.class);
+        given(elementFactory.createMethodFromText(expectedCode, srcClass)).willReturn(method);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        PsiClass result = builder.withCollectionMethods("with").build();
+
+        // then
+        assertThat(result).isNotNull();
+        verify(builderClass).addAfter(valuesField, lastField);
+        verify(builderClass).add(method);
+    }
+
+    @Test
+    void shouldPassPrimitiveArrayToMatchingConstructorParameterInsteadOfSetter() {
+        // given
+        context = createBuilderContext(false, true, true);
+        PsiField scoresField = mock(PsiField.class);
+        psiFieldsForSetters.add(scoresField);
+        allSelectedPsiFields.add(scoresField);
+        given(scoresField.getName()).willReturn("m_scores");
+        PsiClassType listType = mock(PsiClassType.class);
+        PsiClassType rawListType = mock(PsiClassType.class);
+        PsiClassType integerType = mock(PsiClassType.class);
+        given(scoresField.getType()).willReturn(listType);
+        given(listType.rawType()).willReturn(rawListType);
+        given(rawListType.getCanonicalText()).willReturn("java.util.List");
+        given(listType.getParameters()).willReturn(new PsiType[]{integerType});
+        given(integerType.getCanonicalText()).willReturn("java.lang.Integer");
+        PsiParameter scoresParameter = mock(PsiParameter.class);
+        PsiType intArrayType = mock(PsiType.class);
+        given(scoresParameter.getName()).willReturn("scores");
+        given(scoresParameter.getType()).willReturn(intArrayType);
+        given(intArrayType.getCanonicalText()).willReturn("int[]");
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{scoresParameter});
+        given(collectionMethodCreator.isBackedByPrimitiveArray(scoresField)).willReturn(true);
+        given(collectionMethodCreator.createFields(scoresField)).willReturn(List.of());
+        given(collectionMethodCreator.createMethods(scoresField, "with")).willReturn(List.of());
+        given(collectionMethodCreator.toArrayMethodName(scoresField)).willReturn("toScoresArray");
+        PsiMethod toArrayMethod = mock(PsiMethod.class);
+        PsiMethod addedToArrayMethod = mock(PsiMethod.class);
+        given(collectionMethodCreator.createToArrayMethod(scoresField)).willReturn(toArrayMethod);
+        given(builderClass.add(toArrayMethod)).willReturn(addedToArrayMethod);
+        String expectedCode = "public " + srcClassName + " build() { "
+                + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "(toScoresArray());"
+                + "return " + srcClassFieldName + "; }";
+        PsiMethod method = mock(PsiMethod.class);
+        given(elementFactory.createMethodFromText(expectedCode, srcClass)).willReturn(method);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        PsiClass result = builder.withCollectionMethods("with").build();
+
+        // then
+        assertThat(result).isNotNull();
+        verify(builderClass).add(method);
+        verify(builderClass).add(toArrayMethod);
+    }
+
     @Test
     void shouldReturnBuilderObjectWithBuildMethodUsingSetterAndConstructor() {
         // given
@@ -404,6 +1143,126 @@ public class BuilderPsiClassBuilderTest {
         verify(builderClass).add(method);
     }
 
+    @Test
+    void shouldCopyCollectionsOnceInBuildMethodWhenStrategyCopiesOnBuild() {
+        // given
+        PsiField namesField = mock(PsiField.class);
+        PsiField tagsField = mock(PsiField.class);
+        PsiType namesType = mock(PsiType.class);
+        PsiType tagsType = mock(PsiType.class);
+        given(namesField.getName()).willReturn("names");
+        given(tagsField.getName()).willReturn("tags");
+        given(namesField.getType()).willReturn(namesType);
+        given(tagsField.getType()).willReturn(tagsType);
+        given(namesType.getCanonicalText()).willReturn("java.util.List<java.lang.String>");
+        given(tagsType.getCanonicalText()).willReturn("java.util.Set<java.lang.String>");
+        psiFieldsForConstructor.add(namesField);
+        psiFieldsForSetters.add(tagsField);
+
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        PsiParameter namesParameter = mock(PsiParameter.class);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{namesParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(namesField, namesParameter)).willReturn(true);
+
+        PsiMethod method = mock(PsiMethod.class);
+        String expectedCode = "public " + srcClassName + " build() { "
+                + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "(names == null ? null : java.util.List.copyOf(names));"
+                + srcClassFieldName + ".setTags(tags == null ? null : java.util.Set.copyOf(tags));return " + srcClassFieldName + "; }";
+        given(elementFactory.createMethodFromText(expectedCode, srcClass)).willReturn(method);
+        BuilderContext immutableCopyContext = createBuilderContext(false, false, false, DefensiveCopyStrategy.IMMUTABLE_COPY_ON_BUILD);
+
+        // when
+        PsiClass result = psiClassBuilder.aBuilder(immutableCopyContext).build();
+
+        // then
+        assertThat(result).isNotNull();
+        verify(builderClass).add(method);
+    }
+
+    @Test
+    void shouldHandCollectionsFilledByAddersOverInSetMethodsAndBuildMethodWithoutCopying() {
+        // given
+        context = createBuilderContext(false, true);
+        PsiField tagsField = mock(PsiField.class);
+        PsiClassType tagsType = mock(PsiClassType.class);
+        PsiClassType rawTagsType = mock(PsiClassType.class);
+        given(tagsField.getName()).willReturn("tags");
+        given(tagsField.getType()).willReturn(tagsType);
+        given(tagsType.rawType()).willReturn(rawTagsType);
+        given(rawTagsType.getCanonicalText()).willReturn("java.util.List");
+        given(tagsType.getParameters()).willReturn(new PsiType[]{mock(PsiClassType.class)});
+        psiFieldsForSetters.add(tagsField);
+        allSelectedPsiFields.add(tagsField);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(EMPTY_PSI_PARAMETERS);
+        PsiMethod setMethod = mock(PsiMethod.class);
+        PsiCodeBlock setMethodBody = mock(PsiCodeBlock.class);
+        PsiStatement assignment = mock(PsiStatement.class);
+        PsiStatement returnStatement = mock(PsiStatement.class);
+        given(methodCreator.createMethod(tagsField, "with", srcClassFieldName, false)).willReturn(setMethod);
+        given(setMethod.getBody()).willReturn(setMethodBody);
+        given(setMethodBody.getStatements()).willReturn(new PsiStatement[]{assignment, returnStatement});
+        PsiStatement releaseStatement = mock(PsiStatement.class);
+        given(collectionMethodCreator.createOwnedStatement(tagsField, "false")).willReturn(releaseStatement);
+        PsiMethod method = mock(PsiMethod.class);
+        PsiCodeBlock buildMethodBody = mock(PsiCodeBlock.class);
+        PsiJavaToken lBrace = mock(PsiJavaToken.class);
+        given(method.getBody()).willReturn(buildMethodBody);
+        given(buildMethodBody.getLBrace()).willReturn(lBrace);
+        String expectedCode = "public " + srcClassName + " build() { "
+                + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "();"
+                + srcClassFieldName + ".setTags(tags);return " + srcClassFieldName + "; }";
+        given(elementFactory.createMethodFromText(expectedCode, srcClass)).willReturn(method);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "methodCreator", methodCreator);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        PsiClass result = builder.withSetMethods("with").build();
+
+        // then
+        assertThat(result).isNotNull();
+        verify(setMethodBody).addBefore(releaseStatement, returnStatement);
+        verify(buildMethodBody).addAfter(releaseStatement, lBrace);
+        verify(builderClass).add(setMethod);
+        verify(builderClass).add(method);
+    }
+
+    @Test
+    void shouldKeepOwnershipOfCollectionsFilledByAddersCopiedInSetMethods() {
+        // given
+        context = createBuilderContext(false, true, false, DefensiveCopyStrategy.COPY_ON_SET);
+        PsiField tagsField = mock(PsiField.class);
+        PsiClassType tagsType = mock(PsiClassType.class);
+        PsiClassType rawTagsType = mock(PsiClassType.class);
+        given(tagsField.getName()).willReturn("tags");
+        given(tagsField.getType()).willReturn(tagsType);
+        given(tagsType.rawType()).willReturn(rawTagsType);
+        given(rawTagsType.getCanonicalText()).willReturn("java.util.List");
+        given(tagsType.getParameters()).willReturn(new PsiType[]{mock(PsiClassType.class)});
+        psiFieldsForSetters.add(tagsField);
+        PsiMethod setMethod = mock(PsiMethod.class);
+        PsiCodeBlock setMethodBody = mock(PsiCodeBlock.class);
+        PsiStatement returnStatement = mock(PsiStatement.class);
+        given(methodCreator.createMethod(tagsField, "with", srcClassFieldName, false)).willReturn(setMethod);
+        given(setMethod.getBody()).willReturn(setMethodBody);
+        given(setMethodBody.getStatements()).willReturn(new PsiStatement[]{mock(PsiStatement.class), returnStatement});
+        PsiStatement ownedStatement = mock(PsiStatement.class);
+        given(collectionMethodCreator.createOwnedStatement(tagsField, "this.tags != null")).willReturn(ownedStatement);
+        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        setField(builder, "methodCreator", methodCreator);
+        setField(builder, "collectionMethodCreator", collectionMethodCreator);
+
+        // when
+        builder.withSetMethods("with");
+
+        // then
+        verify(setMethodBody).addBefore(ownedStatement, returnStatement);
+        verify(builderClass).add(setMethod);
+    }
+
     @Test
     void setterShouldHavePriorityOverField() {
         // given
@@ -473,6 +1332,48 @@ public class BuilderPsiClassBuilderTest {
         verify(builderClass).add(method);
     }
 
+    @Test
+    void shouldMemoizeInlineBuildAndInvalidateItInSetMethods() {
+        // given
+        PsiField nameField = mock(PsiField.class);
+        given(nameField.getName()).willReturn("name");
+        allSelectedPsiFields.add(nameField);
+        psiFieldsForConstructor.add(nameField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+
+        PsiMethod setMethod = mock(PsiMethod.class);
+        PsiType builderType = mock(PsiType.class);
+        PsiCodeBlock setMethodBody = mock(PsiCodeBlock.class);
+        PsiJavaToken lBrace = mock(PsiJavaToken.class);
+        PsiStatement invalidation = mock(PsiStatement.class);
+        given(builderClass.getMethods()).willReturn(new PsiMethod[]{setMethod});
+        given(setMethod.getReturnType()).willReturn(builderType);
+        given(setMethod.getBody()).willReturn(setMethodBody);
+        given(builderType.getPresentableText()).willReturn(builderClassName);
+        given(setMethodBody.getLBrace()).willReturn(lBrace);
+        given(elementFactory.createStatementFromText("lastBuilt = null;", setMethod)).willReturn(invalidation);
+        PsiField memoizedField = mock(PsiField.class);
+        given(elementFactory.createFieldFromText("private " + srcClassName + " lastBuilt;", srcClass)).willReturn(memoizedField);
+        given(builderClass.getFields()).willReturn(new PsiField[0]);
+        PsiMethod method = mock(PsiMethod.class);
+        String expectedCode = "public " + srcClassName + " build() { if (lastBuilt == null) { lastBuilt = new " + srcClassName + "(name); } "
+                + "return lastBuilt; }";
+        given(elementFactory.createMethodFromText(expectedCode, srcClass)).willReturn(method);
+
+        // when
+        PsiClass result = psiClassBuilder.aBuilder(context).withMemoizedBuild().build();
+
+        // then
+        assertThat(result).isNotNull();
+        verify(setMethodBody).addAfter(invalidation, lBrace);
+        verify(builderClass).add(memoizedField);
+        verify(builderClass).add(method);
+    }
+
     @Test
     void shouldOutputInlineConstructor() {
         // given
@@ -3,10 +3,12 @@ package pl.mjedynak.idea.plugins.builder.psi;
 import java.util.List;
 
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +20,7 @@ import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,7 +29,6 @@ public class ButMethodCreatorTest {
     @InjectMocks private ButMethodCreator butMethodCreator;
     @Mock private PsiElementFactory psiElementFactory;
     @Mock private CodeStyleSettings settings;
-    @Mock private PsiClass builderClass;
     @Mock private PsiClass srcClass;
     @Mock private PsiMethod method1;
     @Mock private PsiMethod method2;
@@ -37,6 +39,7 @@ public class ButMethodCreatorTest {
     @Mock private PsiParameter parameter;
 
     private final String srcClassFieldName = "className";
+    private List<PsiMethod> builderMethods;
 
     @BeforeEach
     public void mockCodeStyleManager() {
@@ -46,7 +49,7 @@ public class ButMethodCreatorTest {
     }
 
     private void initOtherCommonMocks() {
-        given(builderClass.getMethods()).willReturn(asList(method1, method2, method3).toArray(PsiMethod[]::new));
+        builderMethods = asList(method1, method2, method3);
         given(method1.getName()).willReturn("Builder");
         given(method2.getName()).willReturn("aBuilder");
         given(method2.getParameterList()).willReturn(parameterList1);
@@ -65,7 +68,7 @@ public class ButMethodCreatorTest {
         given(psiElementFactory.createMethodFromText("public Builder but() { return aBuilder().withAge(m_age); }", srcClass)).willReturn(createdMethod);
 
         // when
-        PsiMethod result = butMethodCreator.butMethod("Builder", builderClass, srcClass, srcClassFieldName, false);
+        PsiMethod result = butMethodCreator.butMethod("Builder", builderMethods, srcClass, srcClassFieldName, false, false, false);
 
         // then
         assertThat(result).isEqualTo(createdMethod);
@@ -78,7 +81,41 @@ public class ButMethodCreatorTest {
         given(psiElementFactory.createMethodFromText("public Builder but() { return aBuilder().withAge(className.getAge()); }", srcClass)).willReturn(createdMethod);
 
         // when
-        PsiMethod result = butMethodCreator.butMethod("Builder", builderClass, srcClass, srcClassFieldName, true);
+        PsiMethod result = butMethodCreator.butMethod("Builder", builderMethods, srcClass, srcClassFieldName, true, false, false);
+
+        // then
+        assertThat(result).isEqualTo(createdMethod);
+    }
+
+    @Test
+    void shouldStartButMethodFromFreshBuilderWhenUsingThreadLocalPool() {
+        // given
+        initOtherCommonMocks();
+        given(psiElementFactory.createMethodFromText("public Builder but() { return fresh().withAge(m_age); }", srcClass)).willReturn(createdMethod);
+
+        // when
+        PsiMethod result = butMethodCreator.butMethod("Builder", builderMethods, srcClass, srcClassFieldName, false, false, true);
+
+        // then
+        assertThat(result).isEqualTo(createdMethod);
+    }
+
+    @Test
+    void shouldCreateButMethodCollectingPrimitiveCollections() {
+        // given
+        initOtherCommonMocks();
+        PsiClassType listType = mock(PsiClassType.class);
+        PsiClassType rawListType = mock(PsiClassType.class);
+        given(listType.rawType()).willReturn(rawListType);
+        given(rawListType.getCanonicalText()).willReturn("java.util.List");
+        PsiType elementType = mock(PsiClassType.class);
+        given(elementType.getCanonicalText()).willReturn("java.lang.Integer");
+        given(listType.getParameters()).willReturn(new PsiType[]{elementType});
+        given(parameter.getType()).willReturn(listType);
+        given(psiElementFactory.createMethodFromText("public Builder but() { return aBuilder().withAge(collectAge()); }", srcClass)).willReturn(createdMethod);
+
+        // when
+        PsiMethod result = butMethodCreator.butMethod("Builder", builderMethods, srcClass, srcClassFieldName, false, true, false);
 
         // then
         assertThat(result).isEqualTo(createdMethod);
@@ -0,0 +1,254 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import java.util.List;
+
+import static org.apache.commons.lang.StringUtils.EMPTY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class CollectionMethodCreatorTest {
+
+    private CollectionMethodCreator collectionMethodCreator;
+    @Mock(strictness = LENIENT) private CodeStyleSettings codeStyleSettings;
+    @Mock private PsiElementFactory elementFactory;
+    @Mock private PsiField psiField;
+    @Mock private PsiClassType type;
+    @Mock private PsiClassType rawType;
+    @Mock private PsiMethod adderMethod;
+    @Mock private PsiMethod capacityMethod;
+    @Mock private PsiMethod collectMethod;
+
+    @BeforeEach
+    public void setUp() {
+        collectionMethodCreator = new CollectionMethodCreator(elementFactory, "BuilderClassName", false);
+        setField(collectionMethodCreator, "codeStyleSettings", codeStyleSettings);
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn(EMPTY);
+        given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
+        given(psiField.getType()).willReturn(type);
+        given(type.rawType()).willReturn(rawType);
+    }
+
+    @Test
+    void shouldCreateAdderAndCapacityMethodsForList() {
+        // given
+        given(rawType.getCanonicalText()).willReturn("java.util.List");
+        PsiType elementType = typeWithCanonicalText("com.example.LineItem");
+        given(type.getParameters()).willReturn(new PsiType[]{elementType});
+        given(psiField.getName()).willReturn("lineItems");
+        given(elementFactory.createMethodFromText("public BuilderClassName addLineItem(com.example.LineItem lineItem) { "
+                + "if (!this.lineItemsOwned) { this.lineItems = this.lineItems == null ? new java.util.ArrayList<>() : new java.util.ArrayList<>(this.lineItems); this.lineItemsOwned = true; } "
+                + "this.lineItems.add(lineItem); return this; }", psiField)).willReturn(adderMethod);
+        given(elementFactory.createMethodFromText("public BuilderClassName withLineItemsCapacity(int lineItemsCapacity) { "
+                + "if (this.lineItems == null) { this.lineItems = new java.util.ArrayList<>(lineItemsCapacity); this.lineItemsOwned = true; } return this; }", psiField))
+                .willReturn(capacityMethod);
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, "with");
+
+        // then
+        assertThat(result).containsExactly(adderMethod, capacityMethod);
+    }
+
+    @Test
+    void shouldCreatePutAndCapacityMethodsForMap() {
+        // given
+        given(rawType.getCanonicalText()).willReturn("java.util.Map");
+        PsiType keyType = typeWithCanonicalText("java.lang.String");
+        PsiType valueType = typeWithCanonicalText("java.lang.Double");
+        given(type.getParameters()).willReturn(new PsiType[]{keyType, valueType});
+        given(psiField.getName()).willReturn("prices");
+        given(elementFactory.createMethodFromText("public BuilderClassName putPrice(java.lang.String key, java.lang.Double value) { "
+                + "if (!this.pricesOwned) { this.prices = this.prices == null ? new java.util.HashMap<>() : new java.util.HashMap<>(this.prices); this.pricesOwned = true; } "
+                + "this.prices.put(key, value); return this; }", psiField)).willReturn(adderMethod);
+        given(elementFactory.createMethodFromText("public BuilderClassName withPricesCapacity(int pricesCapacity) { "
+                + "if (this.prices == null) { this.prices = new java.util.HashMap<>((int) (pricesCapacity / 0.75f) + 1); this.pricesOwned = true; } "
+                + "return this; }", psiField))
+                .willReturn(capacityMethod);
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, "with");
+
+        // then
+        assertThat(result).containsExactly(adderMethod, capacityMethod);
+    }
+
+    @Test
+    void shouldSingularizeNamesEndingWithIes() {
+        // given
+        given(rawType.getCanonicalText()).willReturn("java.util.Set");
+        PsiType elementType = typeWithCanonicalText("java.lang.String");
+        given(type.getParameters()).willReturn(new PsiType[]{elementType});
+        given(psiField.getName()).willReturn("categories");
+        given(elementFactory.createMethodFromText("public BuilderClassName addCategory(java.lang.String category) { "
+                + "if (!this.categoriesOwned) { this.categories = this.categories == null ? new java.util.HashSet<>() : new java.util.HashSet<>(this.categories); this.categoriesOwned = true; } "
+                + "this.categories.add(category); return this; }", psiField)).willReturn(adderMethod);
+        given(elementFactory.createMethodFromText("public BuilderClassName categoriesCapacity(int categoriesCapacity) { "
+                + "if (this.categories == null) { this.categories = new java.util.HashSet<>((int) (categoriesCapacity / 0.75f) + 1); this.categoriesOwned = true; } "
+                + "return this; }", psiField))
+                .willReturn(capacityMethod);
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, EMPTY);
+
+        // then
+        assertThat(result).containsExactly(adderMethod, capacityMethod);
+    }
+
+    @Test
+    void shouldCreateArrayBackedMethodsForListOfIntegersWhenUsingPrimitiveCollections() {
+        // given
+        setField(collectionMethodCreator, "usePrimitiveCollections", true);
+        given(rawType.getCanonicalText()).willReturn("java.util.List");
+        PsiType elementType = typeWithCanonicalText("java.lang.Integer");
+        given(type.getParameters()).willReturn(new PsiType[]{elementType});
+        given(type.getCanonicalText()).willReturn("java.util.List<java.lang.Integer>");
+        given(psiField.getName()).willReturn("scores");
+        given(elementFactory.createMethodFromText("public BuilderClassName addScore(int score) { "
+                + "if (this.scoresValues == null) { this.scoresValues = new int[10]; } "
+                + "else if (this.scoresSize == this.scoresValues.length) { this.scoresValues = java.util.Arrays.copyOf(this.scoresValues, this.scoresSize * 2 + 1); } "
+                + "this.scoresValues[this.scoresSize++] = score; return this; }", psiField)).willReturn(adderMethod);
+        given(elementFactory.createMethodFromText("public BuilderClassName withScoresCapacity(int scoresCapacity) { "
+                + "if (this.scoresValues == null) { this.scoresValues = new int[scoresCapacity]; } return this; }", psiField))
+                .willReturn(capacityMethod);
+        given(elementFactory.createMethodFromText("private java.util.List<java.lang.Integer> collectScores() { "
+                + "if (this.scoresValues == null) { return this.scores == null ? null : new java.util.ArrayList<>(this.scores); } "
+                + "java.util.List<java.lang.Integer> result = this.scores == null ? new java.util.ArrayList<>(this.scoresSize) : new java.util.ArrayList<>(this.scores); "
+                + "for (int i = 0; i < this.scoresSize; i++) { result.add(this.scoresValues[i]); } return result; }", psiField))
+                .willReturn(collectMethod);
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, "with");
+
+        // then
+        assertThat(result).containsExactly(adderMethod, capacityMethod, collectMethod);
+    }
+
+    @Test
+    void shouldCreateArrayBackingFieldsForMapOfDoublesWhenUsingPrimitiveCollections() {
+        // given
+        setField(collectionMethodCreator, "usePrimitiveCollections", true);
+        given(rawType.getCanonicalText()).willReturn("java.util.Map");
+        PsiType keyType = typeWithCanonicalText("java.lang.String");
+        PsiType valueType = typeWithCanonicalText("java.lang.Double");
+        given(type.getParameters()).willReturn(new PsiType[]{keyType, valueType});
+        given(psiField.getName()).willReturn("prices");
+        PsiField valuesField = mock(PsiField.class);
+        PsiField sizeField = mock(PsiField.class);
+        PsiField keysField = mock(PsiField.class);
+        given(elementFactory.createFieldFromText("private double[] pricesValues;", psiField)).willReturn(valuesField);
+        given(elementFactory.createFieldFromText("private int pricesSize;", psiField)).willReturn(sizeField);
+        given(elementFactory.createFieldFromText("private java.util.ArrayList<java.lang.String> pricesKeys;", psiField)).willReturn(keysField);
+
+        // when
+        List<PsiField> result = collectionMethodCreator.createFields(psiField);
+
+        // then
+        assertThat(result).containsExactly(valuesField, sizeField, keysField);
+    }
+
+    @Test
+    void shouldNotCreateArrayBackingFieldsForFieldWhichIsNotCollection() {
+        // given
+        setField(collectionMethodCreator, "usePrimitiveCollections", true);
+        given(rawType.getCanonicalText()).willReturn("java.lang.String");
+
+        // when
+        List<PsiField> result = collectionMethodCreator.createFields(psiField);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldCreateMethodConvertingListToPrimitiveArray() {
+        // given
+        setField(collectionMethodCreator, "usePrimitiveCollections", true);
+        given(rawType.getCanonicalText()).willReturn("java.util.List");
+        PsiType elementType = typeWithCanonicalText("java.lang.Long");
+        given(type.getParameters()).willReturn(new PsiType[]{elementType});
+        given(psiField.getName()).willReturn("ids");
+        given(elementFactory.createMethodFromText("private long[] toIdsArray() { "
+                + "if (this.ids == null && this.idsValues == null) { return null; } "
+                + "int collectionSize = this.ids == null ? 0 : this.ids.size(); "
+                + "long[] result = new long[collectionSize + this.idsSize]; int i = 0; "
+                + "if (this.ids != null) { for (long element : this.ids) { result[i++] = element; } } "
+                + "if (this.idsValues != null) { System.arraycopy(this.idsValues, 0, result, i, this.idsSize); } "
+                + "return result; }", psiField)).willReturn(collectMethod);
+
+        // when
+        PsiMethod result = collectionMethodCreator.createToArrayMethod(psiField);
+
+        // then
+        assertThat(result).isEqualTo(collectMethod);
+    }
+
+    @Test
+    void shouldCreateMethodConvertingSetToPrimitiveArrayWithoutRepeatedAdds() {
+        // given
+        setField(collectionMethodCreator, "usePrimitiveCollections", true);
+        given(rawType.getCanonicalText()).willReturn("java.util.Set");
+        PsiType elementType = typeWithCanonicalText("java.lang.Integer");
+        given(type.getParameters()).willReturn(new PsiType[]{elementType});
+        given(psiField.getName()).willReturn("ids");
+        given(elementFactory.createMethodFromText("private int[] toIdsArray() { "
+                + "if (this.ids == null && this.idsValues == null) { return null; } "
+                + "int collectionSize = this.ids == null ? 0 : this.ids.size(); "
+                + "int[] result = new int[collectionSize + this.idsSize]; int i = 0; "
+                + "if (this.ids != null) { for (int element : this.ids) { result[i++] = element; } } "
+                + "if (this.idsValues != null) { System.arraycopy(this.idsValues, 0, result, i, this.idsSize); } "
+                + "return java.util.Arrays.stream(result).distinct().toArray(); }", psiField)).willReturn(collectMethod);
+
+        // when
+        PsiMethod result = collectionMethodCreator.createToArrayMethod(psiField);
+
+        // then
+        assertThat(result).isEqualTo(collectMethod);
+    }
+
+    @Test
+    void shouldNotCreateMethodsForRawCollection() {
+        // given
+        given(rawType.getCanonicalText()).willReturn("java.util.List");
+        given(type.getParameters()).willReturn(PsiType.EMPTY_ARRAY);
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, "with");
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldNotCreateMethodsForFieldWhichIsNotCollection() {
+        // given
+        given(rawType.getCanonicalText()).willReturn("java.lang.String");
+
+        // when
+        List<PsiMethod> result = collectionMethodCreator.createMethods(psiField, "with");
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    private PsiType typeWithCanonicalText(String text) {
+        PsiClassType elementType = mock(PsiClassType.class);
+        given(elementType.getCanonicalText()).willReturn(text);
+        return elementType;
+    }
+}
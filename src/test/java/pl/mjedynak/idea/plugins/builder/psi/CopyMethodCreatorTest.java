@@ -0,0 +1,145 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class CopyMethodCreatorTest {
+
+    private CopyMethodCreator copyMethodCreator;
+    @Mock private PsiFieldVerifier psiFieldVerifier;
+    @Mock private PsiElementFactory elementFactory;
+    @Mock private PsiClass srcClass;
+    @Mock(strictness = LENIENT) private PsiField nameField;
+    @Mock private PsiField ageField;
+    @Mock(strictness = LENIENT) private PsiField tagsField;
+    @Mock private PsiMethod createdMethod;
+
+    @BeforeEach
+    public void setUp() {
+        copyMethodCreator = new CopyMethodCreator(elementFactory);
+        setField(copyMethodCreator, "psiFieldVerifier", psiFieldVerifier);
+        given(nameField.getName()).willReturn("m_name");
+        given(tagsField.getName()).willReturn("m_tags");
+    }
+
+    @Test
+    void shouldCreateToBuilderMethodCopyingFieldsDirectly() {
+        // given
+        given(elementFactory.createMethodFromText("public Builder toBuilder() { Builder builder = new Builder(); "
+                + "builder.m_name = this.m_name; builder.m_tags = this.m_tags; return builder; }", srcClass)).willReturn(createdMethod);
+
+        // when
+        PsiMethod result = copyMethodCreator.toBuilderMethod("Builder", asList(nameField, tagsField), srcClass);
+
+        // then
+        assertThat(result).isEqualTo(createdMethod);
+    }
+
+    @Test
+    void shouldCreateFromMethodUsingGetters() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+        given(psiFieldVerifier.findAccessorName(nameField, srcClass)).willReturn("getName");
+        given(psiFieldVerifier.findAccessorName(tagsField, srcClass)).willReturn("getTags");
+        given(elementFactory.createMethodFromText("public static PersonBuilder from(Person person) { PersonBuilder personBuilder = new PersonBuilder(); "
+                + "personBuilder.m_name = person.getName(); personBuilder.m_tags = person.getTags(); "
+                + "return personBuilder; }", srcClass)).willReturn(createdMethod);
+
+        // when
+        PsiMethod result = copyMethodCreator.fromMethod("PersonBuilder", asList(nameField, tagsField), srcClass, "person");
+
+        // then
+        assertThat(result).isEqualTo(createdMethod);
+    }
+
+    @Test
+    void shouldCreateFromMethodUsingAccessorsOfRecordComponents() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+        given(ageField.getName()).willReturn("age");
+        given(psiFieldVerifier.findAccessorName(ageField, srcClass)).willReturn("age");
+        given(elementFactory.createMethodFromText("public static PersonBuilder from(Person person) { PersonBuilder personBuilder = new PersonBuilder(); "
+                + "personBuilder.age = person.age(); return personBuilder; }", srcClass)).willReturn(createdMethod);
+
+        // when
+        PsiMethod result = copyMethodCreator.fromMethod("PersonBuilder", asList(ageField), srcClass, "person");
+
+        // then
+        assertThat(result).isEqualTo(createdMethod);
+    }
+
+    @Test
+    void shouldRefuseFromMethodLeavingOutFieldsWithoutGetter() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+        given(ageField.getName()).willReturn("m_age");
+        given(psiFieldVerifier.findAccessorName(nameField, srcClass)).willReturn("getName");
+
+        // when / then
+        assertThatThrownBy(() -> copyMethodCreator.fromMethod("PersonBuilder", asList(nameField, ageField), srcClass, "person"))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessageContaining("Person has no getter for m_age");
+        verifyNoInteractions(elementFactory);
+    }
+
+    @Test
+    void shouldVerifyFieldsReadableWithoutCreatingMethod() {
+        // given
+        given(psiFieldVerifier.findAccessorName(nameField, srcClass)).willReturn("getName");
+        given(psiFieldVerifier.findAccessorName(tagsField, srcClass)).willReturn("getTags");
+
+        // when
+        copyMethodCreator.verifyReadable(asList(nameField, tagsField), srcClass);
+
+        // then
+        verifyNoInteractions(elementFactory);
+    }
+
+    @Test
+    void shouldTellCreatedToBuilderMethodFromOneWrittenByHand() {
+        // given
+        PsiMethod created = method(0, "{ Builder builder = new Builder(); builder.m_name = this.m_name;\n"
+                + "builder.m_tags = this.m_tags == null ? null : new ArrayList<>(this.m_tags); return builder; }");
+        PsiMethod writtenByHand = method(0, "{ Builder builder = new Builder(); builder.m_name = this.m_name; audit(); return builder; }");
+        PsiMethod ofOtherBuilder = method(0, "{ OtherBuilder otherBuilder = new OtherBuilder(); return otherBuilder; }");
+
+        // when / then
+        assertThat(copyMethodCreator.isCreatedToBuilderMethod(created, "Builder")).isTrue();
+        assertThat(copyMethodCreator.isCreatedToBuilderMethod(writtenByHand, "Builder")).isFalse();
+        assertThat(copyMethodCreator.isCreatedToBuilderMethod(ofOtherBuilder, "Builder")).isFalse();
+    }
+
+    private static PsiMethod method(int parametersCount, String bodyText) {
+        PsiMethod method = mock(PsiMethod.class, withSettings().strictness(Strictness.LENIENT));
+        PsiParameterList parameterList = mock(PsiParameterList.class, withSettings().strictness(Strictness.LENIENT));
+        PsiCodeBlock body = mock(PsiCodeBlock.class, withSettings().strictness(Strictness.LENIENT));
+        given(method.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(parametersCount);
+        given(method.getBody()).willReturn(body);
+        given(body.getText()).willReturn(bodyText);
+        return method;
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 
 import static org.apache.commons.lang.StringUtils.EMPTY;
@@ -20,7 +21,6 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 public class MethodCreatorTest {
 
     private MethodCreator methodCreator;
-    @Mock private MethodNameCreator methodNameCreator;
     @Mock private CodeStyleSettings codeStyleSettings;
     @Mock private PsiElementFactory elementFactory;
     @Mock private PsiField psiField;
@@ -33,23 +33,21 @@ public class MethodCreatorTest {
     public void mockCodeStyleManager() {
         methodCreator = new MethodCreator(elementFactory, "BuilderClassName");
         setField(methodCreator, "codeStyleSettings", codeStyleSettings);
-        setField(methodCreator, "methodNameCreator", methodNameCreator);
         given(codeStyleSettings.getFieldNamePrefix()).willReturn(EMPTY);
         given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
     }
 
     private void initOtherCommonMocks() {
         given(psiField.getName()).willReturn("name");
-        given(type.getPresentableText()).willReturn("String");
+        given(type.getCanonicalText()).willReturn("java.lang.String");
         given(psiField.getType()).willReturn(type);
-        given(methodNameCreator.createMethodName("with", "name")).willReturn("withName");
     }
 
     @Test
     void shouldCreateMethod() {
         // given
         initOtherCommonMocks();
-        given(elementFactory.createMethodFromText("public BuilderClassName withName(String name) { this.name = name; return this; }", psiField)).willReturn(method);
+        given(elementFactory.createMethodFromText("public BuilderClassName withName(java.lang.String name) { this.name = name; return this; }", psiField)).willReturn(method);
         String methodPrefix = "with";
 
         // when
@@ -59,12 +57,29 @@ public class MethodCreatorTest {
         assertThat(result).isEqualTo(method);
     }
 
+    @Test
+    void shouldCreateMethodCopyingCollectionWhenStrategyCopiesOnSet() {
+        // given
+        methodCreator = new MethodCreator(elementFactory, "BuilderClassName", DefensiveCopyStrategy.COPY_ON_SET);
+        setField(methodCreator, "codeStyleSettings", codeStyleSettings);
+        given(psiField.getName()).willReturn("names");
+        given(type.getCanonicalText()).willReturn("java.util.List<java.lang.String>");
+        given(psiField.getType()).willReturn(type);
+        given(elementFactory.createMethodFromText("public BuilderClassName withNames(java.util.List<java.lang.String> names) { "
+                + "this.names = names == null ? null : new java.util.ArrayList<>(names); return this; }", psiField)).willReturn(method);
+
+        // when
+        PsiMethod result = methodCreator.createMethod(psiField, "with", srcClassFieldName, false);
+
+        // then
+        assertThat(result).isEqualTo(method);
+    }
+
     @Test
     void shouldCreateMethodForSingleField() {
         // given
         initOtherCommonMocks();
-        given(methodNameCreator.createMethodName("set", "name")).willReturn("setName");
-        given(elementFactory.createMethodFromText("public BuilderClassName withName(String name) { className.setName(name); return this; }", psiField)).willReturn(method);
+        given(elementFactory.createMethodFromText("public BuilderClassName withName(java.lang.String name) { className.setName(name); return this; }", psiField)).willReturn(method);
         String methodPrefix = "with";
 
         // when
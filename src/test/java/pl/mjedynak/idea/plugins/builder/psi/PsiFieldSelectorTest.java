@@ -19,6 +19,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class PsiFieldSelectorTest {
@@ -26,7 +28,8 @@ public class PsiFieldSelectorTest {
     @InjectMocks private PsiFieldSelector psiFieldSelector;
     @Mock(strictness = LENIENT) private PsiElementClassMemberFactory psiElementClassMemberFactory;
     @Mock(strictness = LENIENT) private PsiFieldVerifier psiFieldVerifier;
-    @Mock private PsiClass psiClass;
+    @Mock(strictness = LENIENT) private PsiClass psiClass;
+    @Mock private PsiHelper psiHelper;
     @Mock private PsiField psiField;
 
     @BeforeEach
@@ -37,6 +40,21 @@ public class PsiFieldSelectorTest {
         given(psiElementClassMemberFactory.createPsiElementClassMember(any(PsiField.class))).willReturn(mock(PsiElementClassMember.class));
     }
 
+    @Test
+    void shouldSelectAllRecordComponentsWithoutCheckingSettersOrConstructors() {
+        // given
+        setField(psiFieldSelector, "psiHelper", psiHelper);
+        given(psiClass.isRecord()).willReturn(true);
+        given(psiHelper.getRecordFields(psiClass)).willReturn(List.of(psiField));
+
+        // when
+        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, false, false, false);
+
+        // then
+        assertThat(result).hasSize(1);
+        verifyNoInteractions(psiFieldVerifier);
+    }
+
     @Test
     void shouldSelectFieldIfVerifierAcceptsItAsSetInSetter() {
         doTest(false, true, false, false, false, false, 1);
@@ -0,0 +1,153 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import com.intellij.util.IncorrectOperationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.apache.commons.lang.StringUtils.EMPTY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.withSettings;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+@ExtendWith(MockitoExtension.class)
+public class WitherMethodCreatorTest {
+
+    private WitherMethodCreator witherMethodCreator;
+    @Mock(strictness = LENIENT) private CodeStyleSettings codeStyleSettings;
+    @Mock(strictness = LENIENT) private PsiFieldVerifier psiFieldVerifier;
+    @Mock private PsiElementFactory elementFactory;
+    @Mock(strictness = LENIENT) private PsiClass srcClass;
+    @Mock(strictness = LENIENT) private PsiMethod constructor;
+    @Mock(strictness = LENIENT) private PsiParameterList parameterList;
+    @Mock private PsiParameter nameParameter;
+    @Mock private PsiParameter ageParameter;
+    @Mock(strictness = LENIENT) private PsiField nameField;
+    @Mock(strictness = LENIENT) private PsiField ageField;
+    @Mock private PsiMethod createdMethod;
+
+    @BeforeEach
+    public void setUp() {
+        witherMethodCreator = new WitherMethodCreator(elementFactory);
+        setField(witherMethodCreator, "codeStyleSettings", codeStyleSettings);
+        setField(witherMethodCreator, "psiFieldVerifier", psiFieldVerifier);
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn("m_");
+        given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
+        given(nameField.getName()).willReturn("m_name");
+        given(ageField.getName()).willReturn("m_age");
+        given(constructor.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(2);
+        given(parameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter, ageParameter});
+        given(srcClass.getFields()).willReturn(new PsiField[]{nameField, ageField});
+    }
+
+    @Test
+    void shouldCreateWitherMethodsCallingConstructorWithRemainingFields() {
+        // given
+        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(ageField, ageParameter)).willReturn(true);
+        PsiType ageType = mock(PsiType.class);
+        given(ageType.getCanonicalText()).willReturn("int");
+        given(ageField.getType()).willReturn(ageType);
+        given(srcClass.getName()).willReturn("Person");
+        given(elementFactory.createMethodFromText("public Person withAge(int age) { return new Person(this.m_name, age); }", srcClass))
+                .willReturn(createdMethod);
+
+        // when
+        List<PsiMethod> result = witherMethodCreator.createMethods(asList(ageField), constructor, srcClass);
+
+        // then
+        assertThat(result).containsExactly(createdMethod);
+    }
+
+    @Test
+    void shouldWriteParameterTypeFullyQualified() {
+        // given
+        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(ageField, ageParameter)).willReturn(true);
+        PsiType nameType = mock(PsiType.class);
+        given(nameType.getCanonicalText()).willReturn("java.util.List<com.example.Name>");
+        given(nameField.getType()).willReturn(nameType);
+        given(srcClass.getName()).willReturn("Person");
+        given(elementFactory.createMethodFromText(
+                "public Person withName(java.util.List<com.example.Name> name) { return new Person(name, this.m_age); }", srcClass))
+                .willReturn(createdMethod);
+
+        // when
+        List<PsiMethod> result = witherMethodCreator.createMethods(asList(nameField), constructor, srcClass);
+
+        // then
+        assertThat(result).containsExactly(createdMethod);
+    }
+
+    @Test
+    void shouldRejectWitherMethodsWhenConstructorParameterHasNoMatchingField() {
+        // given
+        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+        given(ageParameter.getName()).willReturn("age");
+        given(srcClass.getName()).willReturn("Person");
+
+        // when / then
+        assertThatThrownBy(() -> witherMethodCreator.createMethods(asList(nameField, ageField), constructor, srcClass))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage("Person has no field for constructor parameter age, which the wither methods would have to pass on");
+        verifyNoInteractions(elementFactory);
+    }
+
+    @Test
+    void shouldRejectWitherMethodsWithoutConstructor() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+
+        // when / then
+        assertThatThrownBy(() -> witherMethodCreator.verifyConstructor(null, srcClass))
+                .isInstanceOf(IncorrectOperationException.class)
+                .hasMessage("Person has no constructor taking its fields, which the wither methods would call");
+    }
+
+    @Test
+    void shouldTellCreatedWitherMethodFromOneWrittenByHand() {
+        // given
+        given(srcClass.getName()).willReturn("Person");
+        PsiMethod created = method(1, "{\n    return new Person(this.m_name,\n            age);\n}");
+        PsiMethod writtenByHand = method(1, "{ validate(age); return new Person(this.m_name, age); }");
+        PsiMethod returningOtherType = method(1, "{ return new Employee(this.m_name, age); }");
+
+        // when / then
+        assertThat(witherMethodCreator.isCreatedMethod(created, srcClass)).isTrue();
+        assertThat(witherMethodCreator.isCreatedMethod(writtenByHand, srcClass)).isFalse();
+        assertThat(witherMethodCreator.isCreatedMethod(returningOtherType, srcClass)).isFalse();
+    }
+
+    private static PsiMethod method(int parametersCount, String bodyText) {
+        PsiMethod method = mock(PsiMethod.class, withSettings().strictness(Strictness.LENIENT));
+        PsiParameterList methodParameterList = mock(PsiParameterList.class, withSettings().strictness(Strictness.LENIENT));
+        PsiCodeBlock body = mock(PsiCodeBlock.class, withSettings().strictness(Strictness.LENIENT));
+        given(method.getParameterList()).willReturn(methodParameterList);
+        given(methodParameterList.getParametersCount()).willReturn(parametersCount);
+        given(method.getBody()).willReturn(body);
+        given(body.getText()).willReturn(bodyText);
+        return method;
+    }
+}
@@ -0,0 +1,140 @@
+package pl.mjedynak.idea.plugins.builder.sync;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.factory.BuilderContextFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilder;
+import pl.mjedynak.idea.plugins.builder.inspection.StaleBuilderDetector;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderAutoSyncTest {
+
+    private BuilderAutoSync builderAutoSync;
+
+    @Mock private Project project;
+    @Mock private MergingUpdateQueue queue;
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private StaleBuilderDetector staleBuilderDetector;
+    @Mock private BuilderContextFactory builderContextFactory;
+    @Mock private BuilderWriter builderWriter;
+    @Mock private PsiJavaFile file;
+    @Mock private PsiClass person;
+    @Mock private PsiClass personBuilder;
+    @Mock private PsiClass address;
+    @Mock private PsiClass addressBuilder;
+    @Mock private PsiClass otherBuilder;
+    @Mock private BuilderContext context;
+
+    @BeforeEach
+    public void setUp() {
+        builderAutoSync = new BuilderAutoSync(project, queue, builderVerifier, builderFinder, staleBuilderDetector, builderContextFactory, builderWriter);
+    }
+
+    @Test
+    void shouldNotQueueSyncWhileOptionIsDisabled() {
+        // when
+        builderAutoSync.fileChanged(file);
+
+        // then
+        verifyNoInteractions(queue, file);
+    }
+
+    @Test
+    void shouldPrepareContextsOnlyForStaleBuildersOfChangedClasses() {
+        // given
+        given(file.isValid()).willReturn(true);
+        given(file.getClasses()).willReturn(new PsiClass[]{person, address, otherBuilder});
+        given(person.getName()).willReturn("Person");
+        given(address.getName()).willReturn("Address");
+        given(otherBuilder.getName()).willReturn("OtherBuilder");
+        given(builderVerifier.isBuilder(person)).willReturn(false);
+        given(builderVerifier.isBuilder(address)).willReturn(false);
+        given(builderVerifier.isBuilder(otherBuilder)).willReturn(true);
+        given(builderFinder.findBuilderForClass(person)).willReturn(personBuilder);
+        given(builderFinder.findBuilderForClass(address)).willReturn(addressBuilder);
+        StaleBuilder staleBuilder = new StaleBuilder(personBuilder, person, false, List.of("age"));
+        given(staleBuilderDetector.detect(personBuilder)).willReturn(staleBuilder);
+        given(staleBuilderDetector.detect(addressBuilder)).willReturn(null);
+        given(builderContextFactory.createSyncContext(staleBuilder)).willReturn(context);
+
+        // when
+        Map<PsiClass, BuilderContext> result = builderAutoSync.prepareRegeneration(List.of(file));
+
+        // then
+        assertThat(result).containsExactly(Map.entry(personBuilder, context));
+    }
+
+    @Test
+    void shouldSkipStaleBuildersNotRegeneratedInBackground() {
+        // given
+        given(file.isValid()).willReturn(true);
+        given(file.getClasses()).willReturn(new PsiClass[]{person});
+        given(person.getName()).willReturn("Person");
+        given(builderVerifier.isBuilder(person)).willReturn(false);
+        given(builderFinder.findBuilderForClass(person)).willReturn(personBuilder);
+        StaleBuilder staleBuilder = new StaleBuilder(personBuilder, person, false, List.of("age"));
+        given(staleBuilderDetector.detect(personBuilder)).willReturn(staleBuilder);
+        given(builderContextFactory.createSyncContext(staleBuilder)).willReturn(null);
+
+        // when
+        Map<PsiClass, BuilderContext> result = builderAutoSync.prepareRegeneration(List.of(file));
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldSkipFilesDeletedBeforeSync() {
+        // given
+        given(file.isValid()).willReturn(false);
+
+        // when
+        Map<PsiClass, BuilderContext> result = builderAutoSync.prepareRegeneration(List.of(file));
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(builderFinder, staleBuilderDetector);
+    }
+
+    @Test
+    void shouldRegeneratePreparedBuildersInOneCommand() {
+        // given
+        Map<PsiClass, BuilderContext> contexts = Map.of(personBuilder, context);
+
+        // when
+        builderAutoSync.regenerate(contexts);
+
+        // then
+        verify(builderWriter).regenerateBuilders(project, contexts);
+    }
+
+    @Test
+    void shouldNotExecuteCommandWhenNoBuilderIsStale() {
+        // when
+        builderAutoSync.regenerate(Collections.emptyMap());
+
+        // then
+        verifyNoInteractions(builderWriter);
+    }
+}
@@ -1,6 +1,11 @@
 package pl.mjedynak.idea.plugins.builder.verifier;
 
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiTypeParameter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
 public class BuilderVerifierTest {
@@ -16,10 +23,25 @@ public class BuilderVerifierTest {
     private BuilderVerifier builderVerifier;
 
     @Mock private PsiClass psiClass;
+    @Mock(strictness = LENIENT) private PsiClass builtClass;
+    @Mock(strictness = LENIENT) private PsiMethod buildMethod;
+    @Mock(strictness = LENIENT) private PsiMethod fluentMethod;
+    @Mock(strictness = LENIENT) private PsiParameterList noParameters;
+    @Mock(strictness = LENIENT) private PsiParameterList oneParameter;
+    @Mock(strictness = LENIENT) private PsiClassType builtType;
+    @Mock(strictness = LENIENT) private PsiClassType selfType;
 
     @BeforeEach
     public void setUp() {
         builderVerifier = new BuilderVerifier();
+        given(noParameters.getParametersCount()).willReturn(0);
+        given(oneParameter.getParametersCount()).willReturn(1);
+        given(buildMethod.getParameterList()).willReturn(noParameters);
+        given(buildMethod.getReturnType()).willReturn(builtType);
+        given(builtType.resolve()).willReturn(builtClass);
+        given(fluentMethod.getParameterList()).willReturn(oneParameter);
+        given(fluentMethod.getReturnType()).willReturn(selfType);
+        given(fluentMethod.hasModifierProperty(PsiModifier.STATIC)).willReturn(false);
     }
 
     @Test
@@ -35,14 +57,80 @@ public class BuilderVerifierTest {
     }
 
     @Test
-    void shouldVerifyThatClassIsABuilderWhenItHasBuilderSuffix() {
+    void shouldVerifyThatNameIsABuilderNameWhenItHasBuilderSuffix() {
+        // when
+        boolean result = builderVerifier.isBuilderName("AnyNameThatEndsWithBuilder");
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldRecognizeBuilderStructureWhenClassHasBuildAndFluentMethods() {
         // given
-        given(psiClass.getName()).willReturn("AnyNameThatEndsWithBuilder");
+        given(psiClass.findMethodsByName("build", true)).willReturn(new PsiMethod[]{buildMethod});
+        given(psiClass.getAllMethods()).willReturn(new PsiMethod[]{buildMethod, fluentMethod});
+        given(selfType.resolve()).willReturn(psiClass);
 
         // when
-        boolean result = builderVerifier.isBuilder(psiClass);
+        boolean result = builderVerifier.hasBuilderStructure(psiClass);
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldRecognizeBuilderStructureWhenFluentMethodsReturnSelfTypeParameter() {
+        // given
+        PsiTypeParameter selfTypeParameter = mock(PsiTypeParameter.class);
+        given(selfTypeParameter.getOwner()).willReturn(psiClass);
+        given(psiClass.findMethodsByName("build", true)).willReturn(new PsiMethod[]{buildMethod});
+        given(psiClass.getAllMethods()).willReturn(new PsiMethod[]{fluentMethod});
+        given(selfType.resolve()).willReturn(selfTypeParameter);
+
+        // when
+        boolean result = builderVerifier.hasBuilderStructure(psiClass);
 
         // then
         assertThat(result).isTrue();
     }
+
+    @Test
+    void shouldNotRecognizeBuilderStructureWhenClassHasNoBuildMethod() {
+        // given
+        given(psiClass.findMethodsByName("build", true)).willReturn(new PsiMethod[0]);
+
+        // when
+        boolean result = builderVerifier.hasBuilderStructure(psiClass);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldNotRecognizeBuilderStructureWhenBuildDoesNotReturnClass() {
+        // given
+        given(buildMethod.getReturnType()).willReturn(null);
+        given(psiClass.findMethodsByName("build", true)).willReturn(new PsiMethod[]{buildMethod});
+
+        // when
+        boolean result = builderVerifier.hasBuilderStructure(psiClass);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldNotRecognizeBuilderStructureWhenClassHasNoFluentMethods() {
+        // given
+        given(psiClass.findMethodsByName("build", true)).willReturn(new PsiMethod[]{buildMethod});
+        given(psiClass.getAllMethods()).willReturn(new PsiMethod[]{buildMethod, fluentMethod});
+        given(selfType.resolve()).willReturn(builtClass);
+
+        // when
+        boolean result = builderVerifier.hasBuilderStructure(psiClass);
+
+        // then
+        assertThat(result).isFalse();
+    }
 }
@@ -206,6 +206,51 @@ public class PsiFieldVerifierTest {
         assertThat(result).isFalse();
     }
 
+    @Test
+    void shouldFindComponentAccessorOfRecord() {
+        // given
+        given(psiClass.isRecord()).willReturn(true);
+        given(psiField.getName()).willReturn("field");
+
+        // when
+        String result = psiFieldVerifier.findAccessorName(psiField, psiClass);
+
+        // then
+        assertThat(result).isEqualTo("field");
+    }
+
+    @Test
+    void shouldFindIsGetterOfBooleanField() {
+        // given
+        given(psiClass.getAllMethods()).willReturn(methods);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(psiField.getName()).willReturn("active");
+        given(psiField.getType()).willReturn(PsiType.BOOLEAN);
+        given(method.getName()).willReturn("isActive");
+
+        // when
+        String result = psiFieldVerifier.findAccessorName(psiField, psiClass);
+
+        // then
+        assertThat(result).isEqualTo("isActive");
+    }
+
+    @Test
+    void shouldFindNoAccessorForIsGetterOfFieldWhichIsNotBoolean() {
+        // given
+        given(psiClass.getAllMethods()).willReturn(methods);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(psiField.getName()).willReturn("active");
+        given(psiField.getType()).willReturn(PsiType.INT);
+        given(method.getName()).willReturn("isActive");
+
+        // when
+        String result = psiFieldVerifier.findAccessorName(psiField, psiClass);
+
+        // then
+        assertThat(result).isNull();
+    }
+
     private void prepareBehaviourForReturningParameter() {
         given(psiClass.getConstructors()).willReturn(constructors);
         given(constructor.getParameterList()).willReturn(parameterList);
@@ -0,0 +1,51 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.builder.core.DefensiveCopyStrategy;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static pl.mjedynak.idea.plugins.builder.writer.GeneratorOptions.aGeneratorOptions;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderContextTest {
+
+    @Mock private Project project;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private PsiClass srcClass;
+
+    @Test
+    void shouldCompareGeneratorOptionsByValue() {
+        // given
+        GeneratorOptions options = aGeneratorOptions().withCopyMethod(true).withCopyStrategy(DefensiveCopyStrategy.COPY_ON_SET).build();
+        GeneratorOptions sameOptions = aGeneratorOptions().withCopyMethod(true).withCopyStrategy(DefensiveCopyStrategy.COPY_ON_SET).build();
+
+        // then
+        assertThat(options).isEqualTo(sameOptions).hasSameHashCodeAs(sameOptions);
+        assertThat(options).isNotEqualTo(aGeneratorOptions().withCopyMethod(true).build());
+        assertThat(GeneratorOptions.NONE).isEqualTo(aGeneratorOptions().withCopyStrategy(DefensiveCopyStrategy.NONE).build());
+    }
+
+    @Test
+    void shouldNotBeEqualWhenOnlyOptionsDiffer() {
+        // given
+        BuilderContext context = context(false, GeneratorOptions.NONE);
+        BuilderContext withHierarchy = context(false, aGeneratorOptions().withHierarchy(true).build());
+
+        // then
+        assertThat(context).isEqualTo(context(false, GeneratorOptions.NONE)).hasSameHashCodeAs(context(false, GeneratorOptions.NONE));
+        assertThat(context).isNotEqualTo(withHierarchy);
+        assertThat(context).isNotEqualTo(context(true, GeneratorOptions.NONE));
+    }
+
+    private BuilderContext context(boolean useSingleField, GeneratorOptions options) {
+        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, "PersonBuilder", srcClass, "with", false, false, useSingleField, options);
+    }
+}
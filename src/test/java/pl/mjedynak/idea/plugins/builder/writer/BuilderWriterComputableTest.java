@@ -5,22 +5,31 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.util.IncorrectOperationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +49,7 @@ public class BuilderWriterComputableTest {
     @Mock private PsiElement psiElement;
     @Mock(strictness = LENIENT) private BuilderContext context;
     @Mock private PsiClass existingBuilder;
+    @Mock private JavaCodeStyleManager javaCodeStyleManager;
 
     @BeforeEach
     public void setUp() {
@@ -65,6 +75,7 @@ public class BuilderWriterComputableTest {
         verify(guiHelper).positionCursor(project, psiFile, psiElement);
         assertThat(result).isInstanceOf(PsiClass.class);
         assertThat((PsiClass) result).isEqualTo(builderClass);
+        verify(javaCodeStyleManager).shortenClassReferences(builderClass);
     }
 
     @Test
@@ -74,6 +85,8 @@ public class BuilderWriterComputableTest {
         given(context.getPsiClassFromEditor()).willReturn(srcClass);
         given(builderPsiClassBuilder.anInnerBuilder(context)).willReturn(builderPsiClassBuilder);
         mockBuilder();
+        PsiClass addedBuilderClass = mock(PsiClass.class);
+        given(srcClass.add(builderClass)).willReturn(addedBuilderClass);
 
         // when
         PsiElement result = builderWriterComputable.compute();
@@ -81,7 +94,198 @@ public class BuilderWriterComputableTest {
         // then
         verify(guiHelper).includeCurrentPlaceAsChangePlace(project);
         assertThat(result).isInstanceOf(PsiClass.class);
-        assertThat((PsiClass) result).isEqualTo(builderClass);
+        assertThat((PsiClass) result).isEqualTo(addedBuilderClass);
+        verify(javaCodeStyleManager).shortenClassReferences(addedBuilderClass);
+    }
+
+    @Test
+    void shouldAddRequestedMembersToInnerBuilderLikeToExternalOne() {
+        // given
+        given(context.isInner()).willReturn(true);
+        given(context.hasCopyMethod()).willReturn(true);
+        given(context.hasThreadLocalPool()).willReturn(true);
+        given(context.getPsiClassFromEditor()).willReturn(srcClass);
+        given(builderPsiClassBuilder.anInnerBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withCopyMethod()).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withThreadLocalPool()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+        given(srcClass.add(builderClass)).willReturn(builderClass);
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withCopyMethod();
+        verify(builderPsiClassBuilder).withThreadLocalPool();
+    }
+
+    @Test
+    void shouldAddCollectionMethodsWhenRequested() {
+        // given
+        given(context.hasCollectionAdders()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withCollectionMethods(METHOD_PREFIX)).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withCollectionMethods(METHOD_PREFIX);
+    }
+
+    @Test
+    void shouldAddCopyMethodWhenRequested() {
+        // given
+        given(context.hasCopyMethod()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withCopyMethod()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withCopyMethod();
+    }
+
+    @Test
+    void shouldAddWitherMethodsWhenRequested() {
+        // given
+        given(context.hasWitherMethods()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withWitherMethods()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withWitherMethods();
+    }
+
+    @Test
+    void shouldAddJsonReaderWhenRequested() {
+        // given
+        given(context.hasJsonReader()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withJsonReader()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withJsonReader();
+    }
+
+    @Test
+    void shouldAddBinaryCodecWhenRequested() {
+        // given
+        given(context.hasBinaryCodec()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withBinaryCodec()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withBinaryCodec();
+    }
+
+    @Test
+    void shouldAddFlyweightWhenRequested() {
+        // given
+        given(context.hasFlyweight()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withFlyweight()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withFlyweight();
+    }
+
+    @Test
+    void shouldAddBatchBuilderWhenRequested() {
+        // given
+        given(context.hasBatchBuilder()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withBatchBuilder()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withBatchBuilder();
+    }
+
+    @Test
+    void shouldAddMemoizedBuildWhenRequested() {
+        // given
+        given(context.hasMemoizedBuild()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withMemoizedBuild()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withMemoizedBuild();
+    }
+
+    @Test
+    void shouldAddHierarchyWhenRequested() {
+        // given
+        given(context.hasHierarchy()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withHierarchy()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withHierarchy();
+    }
+
+    @Test
+    void shouldAddButMethodAfterHierarchySoItChainsInheritedSetMethods() {
+        // given
+        given(context.hasHierarchy()).willReturn(true);
+        given(context.hasButMethod()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withHierarchy()).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withButMethod()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        InOrder inOrder = inOrder(builderPsiClassBuilder);
+        inOrder.verify(builderPsiClassBuilder).withHierarchy();
+        inOrder.verify(builderPsiClassBuilder).withButMethod();
+    }
+
+    @Test
+    void shouldAddThreadLocalPoolWhenRequested() {
+        // given
+        given(context.hasThreadLocalPool()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.withThreadLocalPool()).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(builderPsiClassBuilder).withThreadLocalPool();
     }
 
     @Test
@@ -98,6 +302,59 @@ public class BuilderWriterComputableTest {
         verify(application).invokeLater(isA(BuilderWriterErrorRunnable.class));
     }
 
+    @Test
+    void shouldReportMethodsLeftOutBecauseSourceClassHasThemWrittenByHand() {
+        // given
+        given(context.getPsiClassFromEditor()).willReturn(srcClass);
+        given(srcClass.getName()).willReturn("Person");
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        mockBuilder();
+        given(builderPsiClassBuilder.getConflictingMethodNames()).willReturn(List.of("withAge", "toBuilder"));
+        Application application = mock(Application.class);
+        given(psiHelper.getApplication()).willReturn(application);
+        ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(application).invokeLater(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+        verify(guiHelper).showInfoMessage(project, "Person already has withAge, toBuilder written by hand, so they were not generated",
+                BuilderWriterComputable.CONFLICTING_METHODS_TITLE);
+    }
+
+    @Test
+    void shouldKeepExistingBuilderWhenRequestIsRejected() {
+        // given
+        willThrow(new IncorrectOperationException("Person has no getter for age")).given(builderPsiClassBuilder).verify(context);
+        given(psiHelper.getApplication()).willReturn(mock(Application.class));
+
+        // when
+        PsiElement result = builderWriterComputable.compute();
+
+        // then
+        assertThat(result).isNull();
+        verify(existingBuilder, never()).delete();
+        verify(builderPsiClassBuilder, never()).aBuilder(context);
+    }
+
+    @Test
+    void shouldPassReasonOfFailureToBuilderWriterErrorRunnable() {
+        // given
+        given(builderPsiClassBuilder.aBuilder(context)).willThrow(new IncorrectOperationException("Person has no getter for age"));
+        Application application = mock(Application.class);
+        given(psiHelper.getApplication()).willReturn(application);
+        ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(application).invokeLater(runnableCaptor.capture());
+        assertThat(getField(runnableCaptor.getValue(), "reason")).isEqualTo("Person has no getter for age");
+    }
+
     private void mockBuilder() {
         given(builderPsiClassBuilder.withFields()).willReturn(builderPsiClassBuilder);
         given(builderPsiClassBuilder.withPrivateConstructor()).willReturn(builderPsiClassBuilder);
@@ -106,5 +363,6 @@ public class BuilderWriterComputableTest {
         given(builderPsiClassBuilder.build()).willReturn(builderClass);
         given(builderClass.getContainingFile()).willReturn(psiFile);
         given(builderClass.getLBrace()).willReturn(psiElement);
+        given(psiHelper.getJavaCodeStyleManager(project)).willReturn(javaCodeStyleManager);
     }
 }
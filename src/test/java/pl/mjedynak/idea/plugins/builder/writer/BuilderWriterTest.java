@@ -2,18 +2,20 @@ package pl.mjedynak.idea.plugins.builder.writer;
 
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiClass;
-import org.junit.jupiter.api.Test;
+import com.intellij.psi.PsiClass;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.eq;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -46,4 +48,21 @@ public class BuilderWriterTest {
         assertThat(getField(builderWriterRunnableArgumentCaptor.getValue(), "context")).isEqualTo(context);
         assertThat(getField(builderWriterRunnableArgumentCaptor.getValue(), "existingBuilder")).isEqualTo(existingBuilder);
     }
+
+    @Test
+    void shouldRegenerateBuildersInSingleCommand() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+        Map<PsiClass, BuilderContext> contextsByExistingBuilder = Map.of(existingBuilder, context);
+
+        // when
+        builderWriter.regenerateBuilders(project, contextsByExistingBuilder);
+
+        // then
+        ArgumentCaptor<BuildersRegenerationRunnable> runnableArgumentCaptor = ArgumentCaptor.forClass(BuildersRegenerationRunnable.class);
+        verify(commandProcessor).executeCommand(eq(project), runnableArgumentCaptor.capture(), eq(BuilderWriter.REGENERATE_BUILDERS_STRING), eq(builderWriter));
+        assertThat(getField(runnableArgumentCaptor.getValue(), "builderPsiClassBuilder")).isEqualTo(builderPsiClassBuilder);
+        assertThat(getField(runnableArgumentCaptor.getValue(), "contextsByExistingBuilder")).isEqualTo(contextsByExistingBuilder);
+    }
 }